@@ -6,6 +6,7 @@ package com.mycompany.theblackmountain;
 
 import com.mycompany.theblackmountain.parser.ParserOutput;
 import com.mycompany.theblackmountain.type.GameObjects;
+import com.mycompany.theblackmountain.type.ObjectList;
 import com.mycompany.theblackmountain.type.Command;
 import com.mycompany.theblackmountain.type.Room;
 import java.io.PrintStream;
@@ -22,7 +23,7 @@ public abstract class GameDescription {
 
     private final List<Command> commands = new ArrayList<>();
 
-    private final List<GameObjects> inventory = new ArrayList<>();
+    private final List<GameObjects> inventory = new ObjectList();
 
     public Room currentRoom;
 
@@ -5,6 +5,9 @@
 package com.mycompany.theblackmountain;
 
 import com.mycompany.theblackmountain.parser.ParserOutput;
+import com.mycompany.theblackmountain.type.CommandType;
+import java.util.EnumSet;
+import java.util.Set;
 
 /**
  *
@@ -20,4 +23,14 @@ public abstract class GameObserver {
      */
     public abstract String update(GameDescription description, ParserOutput parserOutput);
 
+    /**
+     * Tipi di comando gestiti dall'observer. Il gioco inoltra all'observer
+     * solo questi comandi; per default li riceve tutti.
+     *
+     * @return insieme dei tipi di comando gestiti
+     */
+    public Set<CommandType> getHandledCommands() {
+        return EnumSet.allOf(CommandType.class);
+    }
+
 }
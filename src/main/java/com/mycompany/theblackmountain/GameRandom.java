@@ -0,0 +1,89 @@
+package com.mycompany.theblackmountain;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Generatore casuale di una partita.
+ *
+ * Ogni partita ha il proprio generatore, creato da un seme noto: con lo
+ * stesso seme e gli stessi comandi combattimenti e danni si ripetono
+ * identici. Si basa su SplittableRandom, che non usa variabili atomiche, quindi
+ * va usato da un solo thread (quello della partita); split() crea un
+ * generatore indipendente per un altro thread o una simulazione.
+ *
+ * Il seme si può fissare con -Dtbm.seed=N; altrimenti viene scelto a caso e
+ * si legge con getSeed().
+ *
+ * @author vince
+ */
+public class GameRandom implements RandomGenerator {
+
+    private final long seed;
+    private final SplittableRandom random;
+
+    /**
+     * Crea un generatore con il seme di -Dtbm.seed o con un seme casuale.
+     */
+    public GameRandom() {
+        this(defaultSeed());
+    }
+
+    public GameRandom(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    private static long defaultSeed() {
+        String property = System.getProperty("tbm.seed");
+        if (property != null) {
+            try {
+                return Long.parseLong(property.trim());
+            } catch (NumberFormatException e) {
+                System.err.println("Seme non valido in tbm.seed: " + property);
+            }
+        }
+        return new SplittableRandom().nextLong();
+    }
+
+    /**
+     * @return seme da cui è stato creato il generatore
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Crea un generatore indipendente, derivato da questo in modo
+     * deterministico. Il seme del figlio è il prossimo valore di questo
+     * generatore, così new GameRandom(figlio.getSeed()) lo riproduce.
+     */
+    public GameRandom split() {
+        return new GameRandom(random.nextLong());
+    }
+
+    @Override
+    public long nextLong() {
+        return random.nextLong();
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    /**
+     * Numero casuale tra min e max (inclusi)
+     */
+    public int between(int min, int max) {
+        return random.nextInt(min, max + 1);
+    }
+
+    /**
+     * @param percent probabilità in percentuale (0-100)
+     * @return true con la probabilità indicata
+     */
+    public boolean chance(double percent) {
+        return random.nextDouble() * 100 < percent;
+    }
+}
@@ -6,6 +6,7 @@ package com.mycompany.theblackmountain;
 
 import com.mycompany.theblackmountain.type.GameObjects;
 import java.util.List;
+import java.util.random.RandomGenerator;
 
 /**
  * Classe di utilità per operazioni comuni nel gioco
@@ -146,20 +147,22 @@ public class GameUtils {
     
     /**
      * Genera un numero casuale tra min e max (inclusi)
+     * @param random generatore della partita
      * @param min valore minimo
      * @param max valore massimo
      * @return numero casuale
      */
-    public static int randomBetween(int min, int max) {
-        return min + (int)(Math.random() * (max - min + 1));
+    public static int randomBetween(RandomGenerator random, int min, int max) {
+        return random.nextInt(min, max + 1);
     }
     
     /**
      * Verifica se un attacco va a segno basato sulla precisione
+     * @param random generatore della partita
      * @param accuracy precisione (0-100)
      * @return true se l'attacco va a segno
      */
-    public static boolean isHit(int accuracy) {
-        return Math.random() * 100 < accuracy;
+    public static boolean isHit(RandomGenerator random, int accuracy) {
+        return random.nextDouble() * 100 < accuracy;
     }
 }
\ No newline at end of file
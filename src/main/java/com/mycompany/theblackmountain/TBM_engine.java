@@ -3,11 +3,13 @@
  */
 package com.mycompany.theblackmountain;
 
+import com.mycompany.theblackmountain.combat.CombatSimulator;
 import com.mycompany.theblackmountain.gui.MainMenu;
 import com.mycompany.theblackmountain.gui.SplashScreen;
 import com.mycompany.theblackmountain.impl.TBMGame;
 import com.mycompany.theblackmountain.parser.Parser;
 import com.mycompany.theblackmountain.parser.ParserOutput;
+import com.mycompany.theblackmountain.server.GameServer;
 import com.mycompany.theblackmountain.type.CommandType;
 
 import java.io.File;
@@ -82,6 +84,24 @@ public class TBM_engine {
      * @param args argomenti della riga di comando
      */
     public static void main(String[] args) {
+        // Modalità server headless: molte partite su socket locale
+        if (args.length > 0 && args[0].equals("--server")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : GameServer.DEFAULT_PORT;
+            try {
+                GameServer.run(port);
+            } catch (IOException e) {
+                System.err.println("Errore nell'avvio del server: " + e.getMessage());
+            }
+            return;
+        }
+
+        // Simulazione dei combattimenti per il bilanciamento, senza interfaccia
+        if (args.length > 0 && args[0].equals("--simula")) {
+            int fights = args.length > 1 ? Integer.parseInt(args[1]) : CombatSimulator.DEFAULT_FIGHTS;
+            CombatSimulator.run(fights);
+            return;
+        }
+
         // Verifica se l'utente vuole la modalità console
         if (args.length > 0 && args[0].equals("--console")) {
             // Modalità console per debug o preferenze utente
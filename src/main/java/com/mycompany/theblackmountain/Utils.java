@@ -8,6 +8,9 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -35,12 +38,37 @@ public class Utils {
         return set;
     }
 
+    /**
+     * Carica una lista di parole da una risorsa del classpath.
+     *
+     * @param resource percorso della risorsa (es. "/stopwords.txt")
+     * @return insieme delle parole in minuscolo, vuoto se la risorsa manca
+     * @throws IOException
+     */
+    public static Set<String> loadResourceListInSet(String resource) throws IOException {
+        Set<String> set = new HashSet<>();
+        InputStream in = Utils.class.getResourceAsStream(resource);
+        if (in == null) {
+            return set;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                set.add(line.trim().toLowerCase());
+            }
+        }
+        return set;
+    }
+
     /**
      *
      * @param string
      * @param stopwords
      * @return
+     * @deprecated il Parser usa {@link com.mycompany.theblackmountain.parser.Tokenizer},
+     * che non compila espressioni regolari né alloca liste a ogni comando
      */
+    @Deprecated
     public static List<String> parseString(String string, Set<String> stopwords) {
         List<String> tokens = new ArrayList<>();
         String[] split = string.toLowerCase().split("\\s+");
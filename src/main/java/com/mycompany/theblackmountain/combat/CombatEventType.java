@@ -0,0 +1,87 @@
+package com.mycompany.theblackmountain.combat;
+
+/**
+ * Tipi di evento prodotti da un turno di combattimento.
+ *
+ * Per ogni tipo è indicato il significato dei campi dell'evento in
+ * CombatTurn (personaggio, oggetto, quantità, valore).
+ *
+ * @author vince
+ */
+public enum CombatEventType {
+
+    /**
+     * Comando fuori dal combattimento
+     */
+    NOT_IN_COMBAT,
+    /**
+     * Nessun nemico da attaccare
+     */
+    NO_TARGET,
+    /**
+     * Comando non riconosciuto in combattimento
+     */
+    UNKNOWN_ACTION,
+    /**
+     * Arma richiesta non presente; quantità = ID dell'arma
+     */
+    MISSING_WEAPON,
+    /**
+     * Attacco del giocatore; personaggio = bersaglio, oggetto = arma (null a
+     * mani nude), quantità = danni, valore = flag di CombatTurn
+     */
+    PLAYER_ATTACK,
+    /**
+     * Bersaglio ancora vivo; personaggio = bersaglio, quantità = HP
+     */
+    ENEMY_HP,
+    /**
+     * Nemico sconfitto; personaggio = nemico
+     */
+    ENEMY_DEFEATED,
+    /**
+     * Il boss è stato sconfitto e ha lasciato la chiave
+     */
+    BOSS_DEFEATED,
+    /**
+     * Pozione usata; oggetto = pozione, quantità = HP recuperati, valore = HP
+     * attuali
+     */
+    HEAL,
+    /**
+     * L'oggetto usato non è una pozione di cura
+     */
+    NOT_A_POTION,
+    /**
+     * Nessuna pozione nell'inventario
+     */
+    NO_POTIONS,
+    /**
+     * Tutti i nemici sono stati sconfitti
+     */
+    VICTORY,
+    /**
+     * Inizio del turno dei nemici
+     */
+    ENEMY_TURN,
+    /**
+     * Attacco di un nemico; personaggio = nemico, quantità = danni
+     */
+    ENEMY_ATTACK,
+    /**
+     * Il giocatore è stato ucciso dall'ultimo attacco
+     */
+    PLAYER_DEFEATED,
+    /**
+     * Fine della partita
+     */
+    GAME_OVER,
+    /**
+     * Stato a fine turno; quantità = HP del giocatore
+     */
+    STATUS,
+    /**
+     * Stato di un nemico a fine turno; personaggio = nemico, quantità = HP
+     */
+    ENEMY_STATUS
+}
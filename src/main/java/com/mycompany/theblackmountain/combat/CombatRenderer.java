@@ -0,0 +1,112 @@
+package com.mycompany.theblackmountain.combat;
+
+import com.mycompany.theblackmountain.type.GameCharacter;
+import com.mycompany.theblackmountain.type.GameObjects;
+
+/**
+ * Trasforma gli eventi di un turno di combattimento nel testo mostrato al
+ * giocatore.
+ *
+ * @author vince
+ */
+public final class CombatRenderer {
+
+    private CombatRenderer() {
+    }
+
+    /**
+     * Accoda a out il testo degli eventi del turno.
+     *
+     * @param turn eventi del turno
+     * @param out destinazione del testo
+     */
+    public static void render(CombatTurn turn, StringBuilder out) {
+        for (int i = 0; i < turn.size(); i++) {
+            GameCharacter character = turn.character(i);
+            int amount = turn.amount(i);
+            switch (turn.type(i)) {
+                case NOT_IN_COMBAT ->
+                    out.append("Non sei in combattimento!");
+                case NO_TARGET ->
+                    out.append("Non ci sono nemici da attaccare!");
+                case UNKNOWN_ACTION ->
+                    out.append("Azione non riconosciuta in combattimento! Prova 'attacca' o 'usa [oggetto]'");
+                case MISSING_WEAPON ->
+                    out.append("Non hai ").append(weaponWithArticle(amount)).append(" nell'inventario!");
+                case PLAYER_ATTACK ->
+                    renderAttack(turn.object(i), character, amount, turn.value(i), out);
+                case ENEMY_HP ->
+                    out.append("\n️ ").append(character.getName()).append(" HP: ")
+                            .append(amount).append('/').append(character.getMaxHp());
+                case ENEMY_DEFEATED ->
+                    out.append("\n💀 ").append(character.getName()).append(" è stato sconfitto!");
+                case BOSS_DEFEATED ->
+                    out.append("\n\n🔥 Il Cane Demone crolla con un ultimo ululato terrificante!")
+                            .append("\n✨ Dal suo collo cade una chiave pesante e decorata!");
+                case HEAL -> {
+                    out.append("Hai usato ").append(turn.object(i).getName()).append('!');
+                    if (amount > 0) {
+                        out.append("\nRecuperati ").append(amount).append(" HP!");
+                        out.append("\nHP attuali: ").append(turn.value(i)).append('/').append(character.getMaxHp());
+                    } else {
+                        out.append("\nSei già al massimo della salute!");
+                    }
+                }
+                case NOT_A_POTION ->
+                    out.append("Questa non è una pozione di cura!");
+                case NO_POTIONS ->
+                    out.append("Non hai pozioni di cura nell'inventario!");
+                case VICTORY ->
+                    out.append("\n\nVittoria! Hai sconfitto tutti i nemici!");
+                case ENEMY_TURN ->
+                    out.append("\n\n--- Turno dei nemici ---");
+                case ENEMY_ATTACK ->
+                    out.append('\n').append(character.getName()).append(" ti attacca!")
+                            .append("\nSubisci ").append(amount).append(" danni!");
+                case PLAYER_DEFEATED ->
+                    out.append("\n💀 Sei stato sconfitto!");
+                case GAME_OVER ->
+                    out.append("\n\n💀 Sei stato sconfitto! Game Over!");
+                case STATUS ->
+                    out.append("\n\nStato attuale:")
+                            .append("\nI tuoi HP: ").append(amount).append('/').append(character.getMaxHp());
+                case ENEMY_STATUS ->
+                    out.append('\n').append(character.getName()).append(": ")
+                            .append(amount).append('/').append(character.getMaxHp()).append(" HP");
+            }
+        }
+    }
+
+    private static void renderAttack(GameObjects weapon, GameCharacter target, int damage, int flags,
+            StringBuilder out) {
+        out.append("⚔️ Attacchi ").append(target.getName()).append(' ');
+        if (weapon == null) {
+            out.append("a mani nude");
+        } else {
+            out.append("con ").append(weapon.getName());
+            if ((flags & CombatTurn.FLAG_CRITICAL) != 0) {
+                out.append(" (COLPO CRITICO!)");
+            } else if ((flags & CombatTurn.FLAG_POISONED) != 0) {
+                out.append(" (Veleno!)");
+            }
+        }
+        out.append('!');
+        out.append("\n💥 Inflitti ").append(damage).append(" danni!");
+        if ((flags & CombatTurn.FLAG_POISONED) != 0) {
+            out.append("\n☠️ Il veleno si diffonde nel nemico!");
+        }
+    }
+
+    private static String weaponWithArticle(int weaponId) {
+        return switch (weaponId) {
+            case 12 ->
+                "una spada";
+            case 7 ->
+                "un arco";
+            case 6 ->
+                "un bastone";
+            default ->
+                "quest'arma";
+        };
+    }
+}
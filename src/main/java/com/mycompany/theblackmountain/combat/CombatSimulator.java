@@ -0,0 +1,361 @@
+package com.mycompany.theblackmountain.combat;
+
+import com.mycompany.theblackmountain.GameDescription;
+import com.mycompany.theblackmountain.GameRandom;
+import com.mycompany.theblackmountain.factory.CharacterFactory;
+import com.mycompany.theblackmountain.factory.WeaponFactory;
+import com.mycompany.theblackmountain.parser.ParserOutput;
+import com.mycompany.theblackmountain.type.Command;
+import com.mycompany.theblackmountain.type.CommandType;
+import com.mycompany.theblackmountain.type.GameCharacter;
+import com.mycompany.theblackmountain.type.GameObjects;
+import com.mycompany.theblackmountain.type.Room;
+import com.mycompany.theblackmountain.type.Weapon;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Simulatore di combattimenti senza interfaccia, per il bilanciamento.
+ *
+ * Ogni turno passa per CombatSystem.resolveTurn, la stessa logica del gioco
+ * senza la resa del testo, su una partita fittizia (SimulatedGame) senza
+ * database: il giocatore di CharacterFactory affronta un nemico con un
+ * equipaggiamento di WeaponFactory, attaccando a ogni turno e bevendo una
+ * pozione quando gli HP scendono sotto la soglia.
+ *
+ * Gli scenari (nemico x equipaggiamento) vengono divisi in blocchi ed eseguiti
+ * in parallelo su un ForkJoinPool. Ogni blocco ha un generatore ottenuto con
+ * GameRandom.split() in un ordine fisso, quindi con lo stesso seme
+ * (-Dtbm.seed) i risultati sono identici indipendentemente dal numero di
+ * thread.
+ *
+ * Si avvia con "--simula [combattimenti per scenario]".
+ *
+ * @author vince
+ */
+public class CombatSimulator {
+
+    public static final int DEFAULT_FIGHTS = 100_000;
+
+    // Oltre questo numero di turni il combattimento è considerato uno stallo
+    private static final int MAX_TURNS = 200;
+
+    // Combattimenti sotto i quali un blocco non viene più diviso
+    private static final int CHUNK_FIGHTS = 2_000;
+
+    // Percentuale di HP sotto la quale il giocatore beve una pozione
+    private static final int HEAL_THRESHOLD_PERCENT = 35;
+
+    private static final int HP_BUCKETS = 10;
+
+    private static final int POTION_ID = 2;
+
+    /**
+     * Nemico da affrontare
+     */
+    public record EnemyType(String name, Supplier<GameCharacter> factory) {
+    }
+
+    /**
+     * Equipaggiamento del giocatore: arma (null per mani nude) e pozioni
+     */
+    public record Loadout(String name, Supplier<Weapon> weapon, int potions) {
+    }
+
+    private final ForkJoinPool pool;
+    private final GameRandom random;
+
+    public CombatSimulator(ForkJoinPool pool, GameRandom random) {
+        this.pool = pool;
+        this.random = random;
+    }
+
+    /**
+     * @return i nemici di CharacterFactory
+     */
+    public static List<EnemyType> defaultEnemies() {
+        List<EnemyType> enemies = new ArrayList<>();
+        enemies.add(new EnemyType("Topo Gigante", () -> CharacterFactory.createGiantRat(0)));
+        enemies.add(new EnemyType("Goblin", () -> CharacterFactory.createGoblin(0)));
+        enemies.add(new EnemyType("Goblin Gigante", () -> CharacterFactory.createGiantGoblin(0)));
+        enemies.add(new EnemyType("Cane Demone", CharacterFactory::createDemonDog));
+        return enemies;
+    }
+
+    /**
+     * @return le armi di WeaponFactory, senza pozioni e con due pozioni
+     */
+    public static List<Loadout> defaultLoadouts() {
+        List<Loadout> loadouts = new ArrayList<>();
+        for (int potions : new int[]{0, 2}) {
+            String suffix = potions > 0 ? " + " + potions + " pozioni" : "";
+            loadouts.add(new Loadout("mani nude" + suffix, null, potions));
+            loadouts.add(new Loadout("spada" + suffix, WeaponFactory::createSword, potions));
+            loadouts.add(new Loadout("spada avvelenata" + suffix,
+                    () -> WeaponFactory.createPoisonedWeapon(WeaponFactory.createSword(), 5), potions));
+            loadouts.add(new Loadout("arco magico" + suffix, WeaponFactory::createMagicBow, potions));
+        }
+        return loadouts;
+    }
+
+    /**
+     * Simula tutti gli scenari e stampa i risultati.
+     *
+     * @param fights combattimenti per scenario
+     * @param out destinazione del rapporto
+     */
+    public void run(List<EnemyType> enemies, List<Loadout> loadouts, int fights, PrintStream out) {
+        out.println("=== SIMULAZIONE COMBATTIMENTI ===");
+        out.println("Seme: " + random.getSeed() + " - " + fights + " combattimenti per scenario - "
+                + pool.getParallelism() + " thread");
+
+        long start = System.nanoTime();
+        long total = 0;
+        for (EnemyType enemy : enemies) {
+            out.println();
+            out.println(enemy.name() + ":");
+            for (Loadout loadout : loadouts) {
+                CombatStats stats = pool.invoke(new FightTask(enemy, loadout, fights, random.split()));
+                out.println(stats.format(loadout.name()));
+                total += stats.fights;
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        out.println();
+        out.printf("%d combattimenti in %.1f s (%.0f al minuto)%n", total, seconds, total / seconds * 60);
+    }
+
+    /**
+     * Avvia la simulazione con i nemici e gli equipaggiamenti predefiniti.
+     *
+     * @param fights combattimenti per scenario
+     */
+    public static void run(int fights) {
+        new CombatSimulator(ForkJoinPool.commonPool(), new GameRandom())
+                .run(defaultEnemies(), defaultLoadouts(), fights, System.out);
+    }
+
+    /**
+     * Blocco di combattimenti di uno scenario. Sopra CHUNK_FIGHTS si divide in
+     * due; il generatore della metà sinistra viene diviso prima del fork, così
+     * la sequenza dipende solo dalla struttura dei blocchi.
+     */
+    private static class FightTask extends RecursiveTask<CombatStats> {
+
+        private final EnemyType enemy;
+        private final Loadout loadout;
+        private final int fights;
+        private final GameRandom random;
+
+        FightTask(EnemyType enemy, Loadout loadout, int fights, GameRandom random) {
+            this.enemy = enemy;
+            this.loadout = loadout;
+            this.fights = fights;
+            this.random = random;
+        }
+
+        @Override
+        protected CombatStats compute() {
+            if (fights <= CHUNK_FIGHTS) {
+                return new Arena(enemy, loadout, random).fight(fights);
+            }
+            int half = fights / 2;
+            FightTask left = new FightTask(enemy, loadout, half, random.split());
+            FightTask right = new FightTask(enemy, loadout, fights - half, random);
+            left.fork();
+            CombatStats stats = right.compute();
+            stats.merge(left.join());
+            return stats;
+        }
+    }
+
+    /**
+     * Partita fittizia con una sola stanza, senza database né osservatori.
+     * CombatSystem la tratta come una GameDescription qualsiasi, quindi non
+     * aggiorna stato o salvataggi.
+     */
+    private static class SimulatedGame extends GameDescription {
+
+        SimulatedGame() {
+            setCurrentRoom(new Room(0, "Arena", "Stanza di simulazione"));
+        }
+
+        @Override
+        public void init() {
+        }
+
+        @Override
+        public void nextMove(ParserOutput p, PrintStream out) {
+        }
+    }
+
+    /**
+     * Esegue i combattimenti di un blocco riusando partita, giocatore, nemico e
+     * sistema di combattimento: tra un combattimento e l'altro vengono solo
+     * riportati allo stato iniziale.
+     */
+    private static class Arena {
+
+        private final SimulatedGame game = new SimulatedGame();
+        private final GameCharacter player = CharacterFactory.createPlayer();
+        private final GameCharacter enemy;
+        private final Weapon weapon;
+        private final int potions;
+        private final CombatSystem combat;
+
+        private final ParserOutput attack;
+        private final ParserOutput heal;
+        private final GameObjects potion = new GameObjects(POTION_ID, "pozione di cura", "");
+
+        Arena(EnemyType enemyType, Loadout loadout, GameRandom random) {
+            this.enemy = enemyType.factory().get();
+            this.weapon = loadout.weapon() != null ? loadout.weapon().get() : null;
+            this.potions = loadout.potions();
+            this.combat = new CombatSystem(game, random);
+            combat.setPlayer(player);
+
+            Command use = new Command(CommandType.USE, "usa");
+            attack = weapon != null
+                    ? new ParserOutput(use, null, weapon)
+                    : new ParserOutput(new Command(CommandType.ATTACK, "attacca"), null);
+            heal = new ParserOutput(use, null, potion);
+        }
+
+        CombatStats fight(int fights) {
+            CombatStats stats = new CombatStats();
+            int healBelow = player.getMaxHp() * HEAL_THRESHOLD_PERCENT / 100;
+
+            for (int i = 0; i < fights; i++) {
+                reset();
+                combat.startCombat();
+
+                int turns = 0;
+                int potionsUsed = 0;
+                while (combat.isInCombat() && turns < MAX_TURNS) {
+                    if (player.getCurrentHp() < healBelow && potionsUsed < potions) {
+                        combat.resolveTurn(heal);
+                        potionsUsed++;
+                    } else {
+                        combat.resolveTurn(attack);
+                    }
+                    turns++;
+                }
+                if (combat.isInCombat()) {
+                    combat.endCombat();
+                }
+
+                stats.record(player.isAlive() && !enemy.isAlive(), turns,
+                        player.getCurrentHp(), player.getMaxHp(), potionsUsed);
+            }
+            return stats;
+        }
+
+        private void reset() {
+            player.revive();
+            enemy.revive();
+            game.getCurrentRoom().getEnemies().clear();
+            game.getCurrentRoom().getEnemies().add(enemy);
+            List<GameObjects> inventory = game.getInventory();
+            inventory.clear();
+            if (weapon != null) {
+                inventory.add(weapon);
+            }
+            for (int i = 0; i < potions; i++) {
+                inventory.add(potion);
+            }
+        }
+    }
+
+    /**
+     * Risultati aggregati di uno scenario
+     */
+    static class CombatStats {
+
+        long fights;
+        long wins;
+        long stalls;
+        long potionsUsed;
+        long winTurns;
+        long winHp;
+
+        // Turni necessari per vincere, indice = turni
+        final long[] turnsToKill = new long[MAX_TURNS + 1];
+
+        // HP finali del giocatore nelle vittorie, a fasce del 10%
+        final long[] hpDistribution = new long[HP_BUCKETS + 1];
+
+        void record(boolean won, int turns, int hp, int maxHp, int potions) {
+            fights++;
+            potionsUsed += potions;
+            if (won) {
+                wins++;
+                winTurns += turns;
+                winHp += hp;
+                turnsToKill[turns]++;
+                hpDistribution[hp * HP_BUCKETS / maxHp]++;
+            } else if (hp > 0) {
+                stalls++;
+            }
+        }
+
+        void merge(CombatStats other) {
+            fights += other.fights;
+            wins += other.wins;
+            stalls += other.stalls;
+            potionsUsed += other.potionsUsed;
+            winTurns += other.winTurns;
+            winHp += other.winHp;
+            for (int i = 0; i < turnsToKill.length; i++) {
+                turnsToKill[i] += other.turnsToKill[i];
+            }
+            for (int i = 0; i < hpDistribution.length; i++) {
+                hpDistribution[i] += other.hpDistribution[i];
+            }
+        }
+
+        /**
+         * @param fraction percentile tra 0 e 1
+         * @return turni entro cui si chiude quella frazione delle vittorie
+         */
+        int turnsPercentile(double fraction) {
+            long target = (long) Math.ceil(wins * fraction);
+            long seen = 0;
+            for (int turns = 0; turns < turnsToKill.length; turns++) {
+                seen += turnsToKill[turns];
+                if (seen >= target && seen > 0) {
+                    return turns;
+                }
+            }
+            return 0;
+        }
+
+        String format(String label) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("  %-28s vittorie %6.2f%%", label, wins * 100.0 / fights));
+            if (stalls > 0) {
+                sb.append(String.format(" (stalli %.2f%%)", stalls * 100.0 / fights));
+            }
+            if (wins > 0) {
+                sb.append(String.format(" | turni media %.1f p50 %d p90 %d | HP finali media %.1f",
+                        (double) winTurns / wins, turnsPercentile(0.5), turnsPercentile(0.9),
+                        (double) winHp / wins));
+                sb.append(" | HP%: ");
+                for (int i = 0; i <= HP_BUCKETS; i++) {
+                    if (i > 0) {
+                        sb.append(' ');
+                    }
+                    sb.append(Math.round(hpDistribution[i] * 100.0 / wins));
+                }
+            }
+            if (potionsUsed > 0) {
+                sb.append(String.format(" | pozioni %.2f", (double) potionsUsed / fights));
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -5,6 +5,7 @@
 package com.mycompany.theblackmountain.combat;
 
 import com.mycompany.theblackmountain.GameDescription;
+import com.mycompany.theblackmountain.GameRandom;
 import com.mycompany.theblackmountain.GameUtils;
 import com.mycompany.theblackmountain.impl.TBMGame;
 import com.mycompany.theblackmountain.parser.ParserOutput;
@@ -14,7 +15,7 @@ import com.mycompany.theblackmountain.type.GameObjects;
 import com.mycompany.theblackmountain.type.Weapon;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import com.mycompany.theblackmountain.log.GameLog;
 
 /**
  * Sistema di combattimento del gioco
@@ -28,14 +29,30 @@ public class CombatSystem {
     private GameCharacter player;
     private List<GameCharacter> currentEnemies;
     private int currentTurn;
-    private Random random;
+    private final GameRandom random;
+
+    // Eventi e testo del turno, riusati tra un turno e l'altro
+    private final CombatTurn turn = new CombatTurn();
+    private final StringBuilder text = new StringBuilder(256);
+
+    // Chiave lasciata dal boss nel turno corrente, da salvare a fine turno
+    private GameObjects droppedKey;
 
     public CombatSystem(GameDescription gameDescription) {
+        this(gameDescription, gameDescription instanceof TBMGame
+                ? ((TBMGame) gameDescription).getRandom() : new GameRandom());
+    }
+
+    /**
+     * @param gameDescription stato del gioco
+     * @param random generatore della partita, usato per danni e critici
+     */
+    public CombatSystem(GameDescription gameDescription, GameRandom random) {
         this.gameDescription = gameDescription;
         this.inCombat = false;
         this.currentEnemies = new ArrayList<>();
         this.currentTurn = 0;
-        this.random = new Random();
+        this.random = random;
 
         // Ottieni il giocatore dalla GameDescription se possibile
         if (gameDescription instanceof TBMGame) {
@@ -77,7 +94,8 @@ public class CombatSystem {
         inCombat = true;
         currentTurn = 0;
 
-        StringBuilder msg = new StringBuilder();
+        StringBuilder msg = text;
+        msg.setLength(0);
         msg.append("\n️ === COMBATTIMENTO ===\n");
 
         if (currentEnemies.size() == 1) {
@@ -127,7 +145,7 @@ public class CombatSystem {
         }
 
         currentEnemies.clear();
-        System.out.println(" Combattimento terminato - nemici morti rimossi dalla stanza");
+        GameLog.debug(" Combattimento terminato - nemici morti rimossi dalla stanza");
     }
 
     /**
@@ -139,12 +157,12 @@ public class CombatSystem {
         }
 
         // Rimuovi immediatamente i nemici morti dalla lista corrente
-        currentEnemies.removeIf(enemy -> !enemy.isAlive());
+        removeDeadEnemies();
 
         // Se non ci sono più nemici vivi, termina il combattimento
         if (currentEnemies.isEmpty()) {
             endCombat();
-            System.out.println("Combattimento terminato - tutti i nemici sconfitti");
+            GameLog.debug("Combattimento terminato - tutti i nemici sconfitti");
             return true;
         }
 
@@ -152,261 +170,281 @@ public class CombatSystem {
     }
 
     /**
-     * Processa l'azione di un nemico - VERSIONE CORRETTA
+     * Risolve l'attacco di un nemico al giocatore
      *
      * @param enemy nemico che agisce
-     * @return risultato dell'azione
      */
-    private String processEnemyAction(GameCharacter enemy) {
+    private void resolveEnemyAttack(GameCharacter enemy) {
         // I nemici attaccano sempre il giocatore
         int damage = enemy.getAttack() + random.nextInt(3) - 1; // Variazione -1 a +1
         int actualDamage = Math.max(1, damage - player.getDefense());
 
-        int oldHp = player.getCurrentHp();
         int newHp = Math.max(0, player.getCurrentHp() - actualDamage);
         player.setCurrentHp(newHp);
+        turn.add(CombatEventType.ENEMY_ATTACK, enemy, actualDamage);
 
-        // *** CORREZIONE FONDAMENTALE: Aggiorna il flag isAlive ***
         if (newHp <= 0) {
-            player.setCurrentHp(0); // Assicurati che sia esattamente 0
-            // Il flag isAlive dovrebbe essere aggiornato automaticamente nel GameCharacter
-            // Ma forziamolo per sicurezza se il metodo esiste
-            System.out.println("🚨 DEBUG: Player HP = " + newHp + ", dovrebbe essere morto");
-        }
-
-        // Aggiorna database se disponibile
-        if (gameDescription instanceof TBMGame) {
-            TBMGame game = (TBMGame) gameDescription;
-            game.updateCharacterState(player);
-        }
-
-        StringBuilder result = new StringBuilder();
-        result.append("").append(enemy.getName()).append(" ti attacca!");
-        result.append("\nSubisci ").append(actualDamage).append(" danni!");
-
-        if (player.getCurrentHp() <= 0) {
-            result.append("\n💀 Sei stato sconfitto!");
-            System.out.println("🚨 DEBUG: Player sconfitto - HP: " + player.getCurrentHp() + ", isAlive: " + player.isAlive());
+            turn.add(CombatEventType.PLAYER_DEFEATED);
+            GameLog.debug(() -> "🚨 DEBUG: Player sconfitto - HP: " + player.getCurrentHp() + ", isAlive: " + player.isAlive());
         }
-
-        return result.toString();
     }
 
-// ============================================
-// CORREZIONI al metodo processCombatAction() in CombatSystem.java
-// ============================================
     /**
-     * Processa un'azione di combattimento - VERSIONE CORRETTA
+     * Processa un'azione di combattimento e restituisce il testo del turno
      *
      * @param parserOutput comando del giocatore
      * @return risultato dell'azione
      */
     public String processCombatAction(ParserOutput parserOutput) {
+        resolveTurn(parserOutput);
+        text.setLength(0);
+        CombatRenderer.render(turn, text);
+        return text.toString();
+    }
+
+    /**
+     * Risolve un turno di combattimento senza produrre testo: aggiorna gli HP
+     * e raccoglie gli eventi, poi salva lo stato una sola volta a fine turno.
+     *
+     * @param parserOutput comando del giocatore
+     * @return eventi del turno, validi fino alla chiamata successiva
+     */
+    public CombatTurn resolveTurn(ParserOutput parserOutput) {
+        turn.clear();
         if (!inCombat) {
-            return "Non sei in combattimento!";
+            turn.add(CombatEventType.NOT_IN_COMBAT);
+            return turn;
         }
 
-        StringBuilder result = new StringBuilder();
+        int playerHpBefore = player.getCurrentHp();
 
         // Azione del giocatore
-        String playerAction = processPlayerAction(parserOutput);
-        result.append(playerAction);
-
-        // Rimuovi nemici morti dalla lista corrente
-        currentEnemies.removeIf(enemy -> !enemy.isAlive());
+        resolvePlayerAction(parserOutput);
+        removeDeadEnemies();
 
-        // *** CONTROLLO IMMEDIATO FINE COMBATTIMENTO - VITTORIA ***
         if (currentEnemies.isEmpty()) {
+            turn.add(CombatEventType.VICTORY);
+            finishTurn(playerHpBefore);
             endCombat();
-            result.append("\n\nVittoria! Hai sconfitto tutti i nemici!");
-            return result.toString();
+            return turn;
         }
 
-        // *** CONTROLLO MORTE PLAYER PRIMA DEL TURNO NEMICI ***
         if (player.getCurrentHp() <= 0) {
+            turn.add(CombatEventType.GAME_OVER);
+            finishTurn(playerHpBefore);
             endCombat();
-            result.append("\n\n💀 Sei stato sconfitto! Game Over!");
-            System.out.println("🚨 DEBUG: Game Over dichiarato - Player HP: " + player.getCurrentHp());
-            return result.toString();
-        }
-
-        // Turno dei nemici solo se ci sono ancora nemici vivi E il player è vivo
-        if (inCombat && !currentEnemies.isEmpty() && player.getCurrentHp() > 0) {
-            result.append("\n\n--- Turno dei nemici ---");
-            for (GameCharacter enemy : currentEnemies) {
-                if (enemy.isAlive()) {
-                    String enemyAction = processEnemyAction(enemy);
-                    result.append("\n").append(enemyAction);
-
-                    // *** CONTROLLO MORTE PLAYER DOPO OGNI ATTACCO NEMICO ***
-                    if (player.getCurrentHp() <= 0) {
-                        endCombat();
-                        result.append("\n\n Sei stato sconfitto! Game Over!");
-                        System.out.println(" DEBUG: Game Over dopo attacco nemico - Player HP: " + player.getCurrentHp());
-                        return result.toString();
-                    }
-                }
-            }
+            return turn;
         }
 
-        // Mostra stato attuale solo se il combattimento continua
-        if (inCombat && !currentEnemies.isEmpty() && player.getCurrentHp() > 0) {
-            result.append("\n\nStato attuale:");
-            result.append("\nI tuoi HP: ").append(player.getCurrentHp()).append("/").append(player.getMaxHp());
-            for (GameCharacter enemy : currentEnemies) {
-                if (enemy.isAlive()) {
-                    result.append("\n").append(enemy.getName()).append(": ")
-                            .append(enemy.getCurrentHp()).append("/").append(enemy.getMaxHp()).append(" HP");
-                }
+        // Turno dei nemici
+        turn.add(CombatEventType.ENEMY_TURN);
+        for (int i = 0; i < currentEnemies.size(); i++) {
+            resolveEnemyAttack(currentEnemies.get(i));
+            if (player.getCurrentHp() <= 0) {
+                turn.add(CombatEventType.GAME_OVER);
+                GameLog.debug(() -> "Game Over dopo attacco nemico - Player HP: " + player.getCurrentHp());
+                finishTurn(playerHpBefore);
+                endCombat();
+                return turn;
             }
         }
 
+        // Stato a fine turno
+        turn.add(CombatEventType.STATUS, player, player.getCurrentHp());
+        for (int i = 0; i < currentEnemies.size(); i++) {
+            GameCharacter enemy = currentEnemies.get(i);
+            turn.add(CombatEventType.ENEMY_STATUS, enemy, enemy.getCurrentHp());
+        }
+
         currentTurn++;
-        return result.toString();
+        finishTurn(playerHpBefore);
+        return turn;
     }
 
     /**
-     * Processa l'azione del giocatore
-     *
-     * @param parserOutput comando del giocatore
-     * @return risultato dell'azione
+     * Salva lo stato modificato durante il turno: gli HP del giocatore e
+     * l'eventuale chiave lasciata dal boss
      */
-    private String processPlayerAction(ParserOutput parserOutput) {
-        String commandName = parserOutput.getCommand().getName().toLowerCase();
-
-        // Attacco normale
-        if (commandName.equals("attacca") || commandName.equals("attack")
-                || commandName.equals("attacco") || commandName.equals("colpisci")) {
-            return attackEnemy(null);
+    private void finishTurn(int playerHpBefore) {
+        if (!(gameDescription instanceof TBMGame)) {
+            droppedKey = null;
+            return;
         }
+        TBMGame game = (TBMGame) gameDescription;
+        if (player.getCurrentHp() != playerHpBefore) {
+            game.updateCharacterState(player);
+        }
+        if (droppedKey != null) {
+            game.placeObject(droppedKey, gameDescription.getCurrentRoom());
+            droppedKey = null;
+        }
+    }
 
-        // Uso di oggetti/armi
-        if (commandName.equals("usa") || commandName.startsWith("usa ")) {
-
-            // Controlla se ha specificato un oggetto dall'inventario
-            if (parserOutput.getInvObject() != null) {
-                GameObjects obj = parserOutput.getInvObject();
-
-                // Pozioni di cura
-                if (obj.getId() == 2 || obj.getId() == 5) {
-                    return useHealingPotion(obj);
+    /**
+     * Rimuove i nemici morti dalla lista corrente, in un solo passaggio
+     */
+    private void removeDeadEnemies() {
+        int alive = 0;
+        for (int i = 0; i < currentEnemies.size(); i++) {
+            GameCharacter enemy = currentEnemies.get(i);
+            if (enemy.isAlive()) {
+                if (alive != i) {
+                    currentEnemies.set(alive, enemy);
                 }
+                alive++;
+            }
+        }
+        for (int i = currentEnemies.size() - 1; i >= alive; i--) {
+            currentEnemies.remove(i);
+        }
+    }
 
-                // Armi
-                if (obj instanceof Weapon || obj.getId() == 12 || obj.getId() == 7 || obj.getId() == 6) {
-                    return attackEnemy(obj);
+    /**
+     * Risolve l'azione del giocatore
+     *
+     * @param parserOutput comando del giocatore
+     */
+    private void resolvePlayerAction(ParserOutput parserOutput) {
+        switch (parserOutput.getCommand().getType()) {
+            case ATTACK:
+                // Attacco normale
+                attackEnemy(null);
+                return;
+            case USE:
+                // Uso di oggetti/armi
+                if (resolveUse(parserOutput)) {
+                    return;
                 }
-            }
+                break;
+            default:
+                break;
+        }
+        turn.add(CombatEventType.UNKNOWN_ACTION);
+    }
 
-            // Parsing testuale per comandi come "usa cura", "usa spada"
-            if (commandName.contains("cura") || commandName.contains("pozione")) {
-                return useBestHealingPotion();
+    /**
+     * Risolve un comando "usa": prima l'oggetto dell'inventario riconosciuto
+     * dal parser, poi la parola che segue "usa" (ad esempio "usa cura").
+     *
+     * @return false se l'azione non è valida in combattimento
+     */
+    private boolean resolveUse(ParserOutput parserOutput) {
+        GameObjects obj = parserOutput.getInvObject();
+        if (obj != null) {
+            // Pozioni di cura
+            if (obj.getId() == 2 || obj.getId() == 5) {
+                useHealingPotion(obj);
+                return true;
             }
 
-            if (commandName.contains("spada")) {
-                GameObjects sword = GameUtils.getObjectFromInventory(gameDescription.getInventory(), 12);
-                if (sword != null) {
-                    return attackEnemy(sword);
-                } else {
-                    return "Non hai una spada nell'inventario!";
-                }
+            // Armi
+            if (obj instanceof Weapon || obj.getId() == 12 || obj.getId() == 7 || obj.getId() == 6) {
+                attackEnemy(obj);
+                return true;
             }
+        }
 
-            if (commandName.contains("arco")) {
-                GameObjects bow = GameUtils.getObjectFromInventory(gameDescription.getInventory(), 7);
-                if (bow != null) {
-                    return attackEnemy(bow);
-                } else {
-                    return "Non hai un arco nell'inventario!";
-                }
-            }
+        // Il parser mette la parola non riconosciuta nel nome: "usa <parola>", già in minuscolo
+        String commandName = parserOutput.getCommand().getName();
+        int space = commandName.indexOf(' ');
+        if (space < 0) {
+            return false;
+        }
+        String argument = commandName.substring(space + 1);
 
-            if (commandName.contains("bastone")) {
-                GameObjects staff = GameUtils.getObjectFromInventory(gameDescription.getInventory(), 6);
-                if (staff != null) {
-                    return attackEnemy(staff);
-                } else {
-                    return "Non hai un bastone nell'inventario!";
-                }
-            }
+        if (argument.contains("cura") || argument.contains("pozione")) {
+            useBestHealingPotion();
+            return true;
+        }
+
+        if (argument.contains("spada")) {
+            attackWithInventoryWeapon(12);
+            return true;
+        }
+
+        if (argument.contains("arco")) {
+            attackWithInventoryWeapon(7);
+            return true;
+        }
+
+        if (argument.contains("bastone")) {
+            attackWithInventoryWeapon(6);
+            return true;
         }
+        return false;
+    }
 
-        return "Azione non riconosciuta in combattimento! Prova 'attacca' o 'usa [oggetto]'";
+    private void attackWithInventoryWeapon(int weaponId) {
+        GameObjects weapon = GameUtils.getObjectFromInventory(gameDescription.getInventory(), weaponId);
+        if (weapon != null) {
+            attackEnemy(weapon);
+        } else {
+            turn.add(CombatEventType.MISSING_WEAPON, null, weaponId);
+        }
     }
 
     /**
-     * Attacca un nemico - VERSIONE AGGIORNATA PER CLASSE WEAPON
+     * Attacca il primo nemico vivo
      *
      * @param weapon arma da usare (null per attacco a mani nude)
-     * @return risultato dell'attacco
      */
-    private String attackEnemy(GameObjects weapon) {
+    private void attackEnemy(GameObjects weapon) {
         if (currentEnemies.isEmpty()) {
-            return "Non ci sono nemici da attaccare!";
+            turn.add(CombatEventType.NO_TARGET);
+            return;
         }
 
-        // Attacca il primo nemico vivo
         GameCharacter target = currentEnemies.get(0);
 
         int baseDamage = player.getAttack();
         int totalDamage = baseDamage;
-        String weaponInfo = "a mani nude";
-        boolean isCritical = false;
+        int flags = 0;
 
-        if (weapon != null) {
-            weaponInfo = "con " + weapon.getName();
-
-            // Se è un'arma della classe Weapon, usa i suoi metodi
-            if (weapon instanceof Weapon) {
-                Weapon weaponObj = (Weapon) weapon;
-
-                // Calcola il danno usando il metodo della classe Weapon
-                totalDamage = weaponObj.calculateDamage(baseDamage);
-
-                // Controlla se è un colpo critico
-                isCritical = weaponObj.isCriticalHit();
+        if (weapon instanceof Weapon) {
+            Weapon weaponObj = (Weapon) weapon;
 
-                if (isCritical) {
-                    totalDamage = baseDamage * weaponObj.getCriticalMultiplier() + weaponObj.getAttackBonus();
-                    if (weaponObj.isPoisoned()) {
-                        totalDamage += weaponObj.getPoisonDamage();
-                    }
-                    weaponInfo += " (COLPO CRITICO!)";
-                }
+            // Calcola il danno usando il metodo della classe Weapon
+            totalDamage = weaponObj.calculateDamage(baseDamage, random);
 
-                // Aggiunge informazioni sul veleno se presente
-                if (weaponObj.isPoisoned() && !isCritical) {
-                    weaponInfo += " (Veleno!)";
+            if (weaponObj.isCriticalHit(random)) {
+                totalDamage = baseDamage * weaponObj.getCriticalMultiplier() + weaponObj.getAttackBonus();
+                if (weaponObj.isPoisoned()) {
+                    totalDamage += weaponObj.getPoisonDamage();
                 }
+                flags |= CombatTurn.FLAG_CRITICAL;
+            }
+            if (weaponObj.isPoisoned()) {
+                flags |= CombatTurn.FLAG_POISONED;
+            }
 
-            } else {
-                // Fallback per oggetti che non sono della classe Weapon
-                int weaponDamage = 0;
-
-                switch (weapon.getId()) {
-                    case 12: // Spada
-                        weaponDamage = 8 + random.nextInt(4); // 8-11 danni
-                        isCritical = random.nextInt(100) < 10; // 10% critico
-                        break;
-                    case 7: // Arco magico
-                        weaponDamage = 12 + random.nextInt(6); // 12-17 danni
-                        isCritical = random.nextInt(100) < 15; // 15% critico
-                        break;
-                    case 6: // Bastone
-                        weaponDamage = 5 + random.nextInt(3); // 5-7 danni
-                        isCritical = random.nextInt(100) < 5; // 5% critico
-                        break;
-                    default:
-                        weaponDamage = 2 + random.nextInt(3); // 2-4 danni
-                        break;
-                }
+        } else if (weapon != null) {
+            // Fallback per oggetti che non sono della classe Weapon
+            int weaponDamage;
+            boolean isCritical = false;
+
+            switch (weapon.getId()) {
+                case 12: // Spada
+                    weaponDamage = 8 + random.nextInt(4); // 8-11 danni
+                    isCritical = random.nextInt(100) < 10; // 10% critico
+                    break;
+                case 7: // Arco magico
+                    weaponDamage = 12 + random.nextInt(6); // 12-17 danni
+                    isCritical = random.nextInt(100) < 15; // 15% critico
+                    break;
+                case 6: // Bastone
+                    weaponDamage = 5 + random.nextInt(3); // 5-7 danni
+                    isCritical = random.nextInt(100) < 5; // 5% critico
+                    break;
+                default:
+                    weaponDamage = 2 + random.nextInt(3); // 2-4 danni
+                    break;
+            }
 
-                totalDamage = baseDamage + weaponDamage + random.nextInt(3);
+            totalDamage = baseDamage + weaponDamage + random.nextInt(3);
 
-                if (isCritical) {
-                    totalDamage *= 2;
-                    weaponInfo += " (COLPO CRITICO!)";
-                }
+            if (isCritical) {
+                totalDamage *= 2;
+                flags |= CombatTurn.FLAG_CRITICAL;
             }
         } else {
             // Attacco a mani nude con piccola variazione
@@ -416,121 +454,80 @@ public class CombatSystem {
         // Applica danni considerando la difesa del nemico
         int actualDamage = Math.max(1, totalDamage - target.getDefense());
         target.setCurrentHp(Math.max(0, target.getCurrentHp() - actualDamage));
+        turn.add(CombatEventType.PLAYER_ATTACK, target, weapon, actualDamage, flags);
 
-        StringBuilder result = new StringBuilder();
-        result.append("⚔️ Attacchi ").append(target.getName()).append(" ").append(weaponInfo).append("!");
-        result.append("\n💥 Inflitti ").append(actualDamage).append(" danni!");
-
-        // Se l'arma è avvelenata, mostra informazioni aggiuntive
-        if (weapon instanceof Weapon) {
-            Weapon weaponObj = (Weapon) weapon;
-            if (weaponObj.isPoisoned()) {
-                result.append("\n☠️ Il veleno si diffonde nel nemico!");
-            }
+        if (target.getCurrentHp() > 0) {
+            turn.add(CombatEventType.ENEMY_HP, target, target.getCurrentHp());
+            return;
         }
 
-        if (target.getCurrentHp() <= 0) {
-            target.setCurrentHp(0);
-            result.append("\n💀 ").append(target.getName()).append(" è stato sconfitto!");
-
-            // NUOVO: Se il boss (Cane Demone) viene sconfitto, droppa la chiave
-            if (target.getId() == 7 && target.getName().equals("Cane Demone")) {
-                result.append("\n\n🔥 Il Cane Demone crolla con un ultimo ululato terrificante!");
-                result.append("\n✨ Dal suo collo cade una chiave pesante e decorata!");
+        turn.add(CombatEventType.ENEMY_DEFEATED, target, 0);
 
-                // Aggiungi la chiave alla stanza corrente
-                if (gameDescription.getCurrentRoom() != null && gameDescription.getCurrentRoom().getId() == 7) {
-                    GameObjects bossKey = new GameObjects(11, "chiave del collo del boss",
-                            "Una chiave pesante, con pendaglio di ferro annerito. Cade dal collo del demone canino.");
-                    bossKey.setPickupable(true);
-                    bossKey.setAlias(new String[]{"chiave boss", "chiave finale", "chiave demone"});
+        // Se il boss (Cane Demone) viene sconfitto, droppa la chiave
+        if (target.getId() == 7 && target.getName().equals("Cane Demone")) {
+            turn.add(CombatEventType.BOSS_DEFEATED);
 
-                    gameDescription.getCurrentRoom().getObjects().add(bossKey);
+            // Aggiungi la chiave alla stanza corrente, salvata a fine turno
+            if (gameDescription.getCurrentRoom() != null && gameDescription.getCurrentRoom().getId() == 7) {
+                GameObjects bossKey = new GameObjects(11, "chiave del collo del boss",
+                        "Una chiave pesante, con pendaglio di ferro annerito. Cade dal collo del demone canino.");
+                bossKey.setPickupable(true);
+                bossKey.setAlias(new String[]{"chiave boss", "chiave finale", "chiave demone"});
 
-                    // Salva nel database
-                    if (gameDescription instanceof TBMGame) {
-                        TBMGame game = (TBMGame) gameDescription;
-                        if (game.getGameLoader() != null) {
-                            game.getGameLoader().moveObjectToRoom(bossKey, gameDescription.getCurrentRoom());
-                        }
-                    }
+                gameDescription.getCurrentRoom().getObjects().add(bossKey);
+                droppedKey = bossKey;
 
-                    System.out.println("DEBUG: Chiave del boss droppata");
-                }
+                GameLog.debug("Chiave del boss droppata");
             }
-        } else {
-            result.append("\n️ ").append(target.getName()).append(" HP: ")
-                    .append(target.getCurrentHp()).append("/").append(target.getMaxHp());
         }
-
-        return result.toString();
     }
 
     /**
      * Usa la migliore pozione di cura disponibile
-     *
-     * @return risultato della cura
      */
-    private String useBestHealingPotion() {
+    private void useBestHealingPotion() {
         // Prima cerca pozione cura totale
         GameObjects totalPotion = GameUtils.getObjectFromInventory(gameDescription.getInventory(), 5);
         if (totalPotion != null) {
-            return useHealingPotion(totalPotion);
+            useHealingPotion(totalPotion);
+            return;
         }
 
         // Poi cerca pozione normale
         GameObjects normalPotion = GameUtils.getObjectFromInventory(gameDescription.getInventory(), 2);
         if (normalPotion != null) {
-            return useHealingPotion(normalPotion);
+            useHealingPotion(normalPotion);
+            return;
         }
 
-        return "Non hai pozioni di cura nell'inventario!";
+        turn.add(CombatEventType.NO_POTIONS);
     }
 
     /**
      * Usa una pozione di cura
      *
      * @param potion pozione da usare
-     * @return risultato della cura
      */
-    private String useHealingPotion(GameObjects potion) {
-        int healAmount;
-        String potionName = potion.getName();
+    private void useHealingPotion(GameObjects potion) {
+        int oldHp = player.getCurrentHp();
 
         if (potion.getId() == 2) { // Pozione normale
-            healAmount = 30;
+            player.setCurrentHp(Math.min(player.getMaxHp(), oldHp + 30));
         } else if (potion.getId() == 5) { // Pozione totale
-            healAmount = player.getMaxHp() - player.getCurrentHp();
             player.setCurrentHp(player.getMaxHp());
         } else {
-            return "Questa non è una pozione di cura!";
-        }
-
-        if (potion.getId() == 2) {
-            int oldHp = player.getCurrentHp();
-            player.setCurrentHp(Math.min(player.getMaxHp(), player.getCurrentHp() + healAmount));
-            healAmount = player.getCurrentHp() - oldHp;
+            turn.add(CombatEventType.NOT_A_POTION);
+            return;
         }
 
-        // Rimuovi la pozione dall'inventario
-        gameDescription.getInventory().remove(potion);
-
-        // Aggiorna database se disponibile
+        // Rimuovi la pozione dall'inventario (e, nel gioco vero, da database e autosave)
         if (gameDescription instanceof TBMGame) {
-            TBMGame game = (TBMGame) gameDescription;
-            game.updateCharacterState(player);
-        }
-
-        StringBuilder result = new StringBuilder();
-        result.append("Hai usato ").append(potionName).append("!");
-        if (healAmount > 0) {
-            result.append("\nRecuperati ").append(healAmount).append(" HP!");
-            result.append("\nHP attuali: ").append(player.getCurrentHp()).append("/").append(player.getMaxHp());
+            ((TBMGame) gameDescription).destroyObject(potion);
         } else {
-            result.append("\nSei già al massimo della salute!");
+            gameDescription.getInventory().remove(potion);
         }
 
-        return result.toString();
+        turn.add(CombatEventType.HEAL, player, potion, player.getCurrentHp() - oldHp, player.getCurrentHp());
     }
 
     /**
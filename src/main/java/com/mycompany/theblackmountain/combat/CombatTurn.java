@@ -0,0 +1,101 @@
+package com.mycompany.theblackmountain.combat;
+
+import com.mycompany.theblackmountain.type.GameCharacter;
+import com.mycompany.theblackmountain.type.GameObjects;
+import java.util.Arrays;
+
+/**
+ * Eventi di un turno di combattimento.
+ *
+ * Gli eventi sono memorizzati in array paralleli (tipo, personaggio, oggetto,
+ * quantità, valore) che CombatSystem riusa a ogni turno, quindi risolvere un
+ * turno non crea oggetti. Il contenuto resta valido fino al turno successivo.
+ *
+ * @author vince
+ */
+public final class CombatTurn {
+
+    /**
+     * Flag di PLAYER_ATTACK: colpo critico
+     */
+    public static final int FLAG_CRITICAL = 1;
+
+    /**
+     * Flag di PLAYER_ATTACK: arma avvelenata
+     */
+    public static final int FLAG_POISONED = 2;
+
+    private CombatEventType[] types = new CombatEventType[16];
+    private GameCharacter[] characters = new GameCharacter[16];
+    private GameObjects[] objects = new GameObjects[16];
+    private int[] amounts = new int[16];
+    private int[] values = new int[16];
+    private int size;
+
+    void clear() {
+        Arrays.fill(characters, 0, size, null);
+        Arrays.fill(objects, 0, size, null);
+        size = 0;
+    }
+
+    void add(CombatEventType type) {
+        add(type, null, null, 0, 0);
+    }
+
+    void add(CombatEventType type, GameCharacter character, int amount) {
+        add(type, character, null, amount, 0);
+    }
+
+    void add(CombatEventType type, GameCharacter character, GameObjects object, int amount, int value) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            characters = Arrays.copyOf(characters, capacity);
+            objects = Arrays.copyOf(objects, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        types[size] = type;
+        characters[size] = character;
+        objects[size] = object;
+        amounts[size] = amount;
+        values[size] = value;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public CombatEventType type(int index) {
+        return types[index];
+    }
+
+    public GameCharacter character(int index) {
+        return characters[index];
+    }
+
+    public GameObjects object(int index) {
+        return objects[index];
+    }
+
+    public int amount(int index) {
+        return amounts[index];
+    }
+
+    public int value(int index) {
+        return values[index];
+    }
+
+    /**
+     * @return true se il turno contiene un evento del tipo indicato
+     */
+    public boolean contains(CombatEventType type) {
+        for (int i = 0; i < size; i++) {
+            if (types[i] == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
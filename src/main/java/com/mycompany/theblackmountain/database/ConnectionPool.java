@@ -0,0 +1,330 @@
+/*
+ * Package database
+ */
+package com.mycompany.theblackmountain.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool di connessioni JDBC limitato e riutilizzabile.
+ *
+ * Le connessioni vengono restituite al pool alla chiamata di close(), validate
+ * prima del riuso se sono rimaste inattive a lungo e chiuse dal thread di
+ * manutenzione quando superano il tempo massimo di inattività.
+ */
+public class ConnectionPool {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long validationIntervalMillis;
+
+    private final Deque<PooledEntry> idle = new ArrayDeque<>();
+    private final Semaphore permits;
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed = false;
+
+    // Metriche
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong invalidated = new AtomicLong();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong borrowNanosTotal = new AtomicLong();
+    private final AtomicLong borrowNanosMax = new AtomicLong();
+
+    /**
+     * Costruttore.
+     *
+     * @param url URL JDBC
+     * @param user utente
+     * @param password password
+     * @param maxSize numero massimo di connessioni aperte contemporaneamente
+     * @param borrowTimeoutMillis attesa massima per ottenere una connessione
+     * @param idleTimeoutMillis inattività dopo la quale una connessione viene chiusa
+     */
+    public ConnectionPool(String url, String user, String password, int maxSize,
+            long borrowTimeoutMillis, long idleTimeoutMillis) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validationIntervalMillis = Math.max(1000, idleTimeoutMillis / 4);
+        this.permits = new Semaphore(maxSize, true);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "TBM-ConnectionPool-Evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ottiene una connessione dal pool. Chiudere la connessione la restituisce
+     * al pool.
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Pool di connessioni chiuso");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timeout nell'attesa di una connessione dal pool (max " + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrotto nell'attesa di una connessione", e);
+        }
+
+        try {
+            Connection physical = takeValidIdle();
+            if (physical == null) {
+                physical = DriverManager.getConnection(url, user, password);
+                created.incrementAndGet();
+            }
+            active.incrementAndGet();
+            recordBorrow(System.nanoTime() - start);
+            return wrap(physical);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Preleva una connessione inattiva, validandola se è rimasta ferma oltre
+     * l'intervallo di validazione.
+     */
+    private Connection takeValidIdle() {
+        while (true) {
+            PooledEntry entry;
+            synchronized (idle) {
+                entry = idle.pollFirst();
+            }
+            if (entry == null) {
+                return null;
+            }
+
+            long idleFor = System.currentTimeMillis() - entry.lastUsed;
+            if (idleFor < validationIntervalMillis || isValid(entry.connection)) {
+                return entry.connection;
+            }
+
+            invalidated.incrementAndGet();
+            closeQuietly(entry.connection);
+        }
+    }
+
+    private boolean isValid(Connection conn) {
+        try {
+            return !conn.isClosed() && conn.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void recordBorrow(long nanos) {
+        borrowCount.incrementAndGet();
+        borrowNanosTotal.addAndGet(nanos);
+        borrowNanosMax.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Restituisce una connessione al pool ripristinandone lo stato.
+     */
+    private void release(Connection physical) {
+        active.decrementAndGet();
+        try {
+            boolean reusable = !closed && !physical.isClosed();
+            if (reusable) {
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                physical.clearWarnings();
+                synchronized (idle) {
+                    idle.offerFirst(new PooledEntry(physical, System.currentTimeMillis()));
+                }
+            } else {
+                closeQuietly(physical);
+            }
+        } catch (SQLException e) {
+            invalidated.incrementAndGet();
+            closeQuietly(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Chiude le connessioni inattive da troppo tempo.
+     */
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        synchronized (idle) {
+            Iterator<PooledEntry> it = idle.iterator();
+            while (it.hasNext()) {
+                PooledEntry entry = it.next();
+                if (now - entry.lastUsed > idleTimeoutMillis) {
+                    it.remove();
+                    evicted.incrementAndGet();
+                    closeQuietly(entry.connection);
+                }
+            }
+        }
+    }
+
+    /**
+     * Chiude il pool e tutte le connessioni inattive. Le connessioni ancora in
+     * uso vengono chiuse al momento della restituzione.
+     */
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        synchronized (idle) {
+            for (PooledEntry entry : idle) {
+                closeQuietly(entry.connection);
+            }
+            idle.clear();
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            // connessione già non valida
+        }
+    }
+
+    /**
+     * Avvolge la connessione fisica in un proxy che intercetta close().
+     */
+    private Connection wrap(Connection physical) {
+        InvocationHandler handler = new InvocationHandler() {
+            private boolean released = false;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!released) {
+                            released = true;
+                            release(physical);
+                        }
+                        return null;
+                    case "isClosed":
+                        return released || physical.isClosed();
+                    case "unwrap":
+                        if (args != null && args[0] == Connection.class) {
+                            return physical;
+                        }
+                        break;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "PooledConnection[" + physical + "]";
+                    default:
+                        break;
+                }
+
+                if (released) {
+                    throw new SQLException("Connessione già restituita al pool");
+                }
+
+                try {
+                    return method.invoke(physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        };
+
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+    }
+
+    // Metriche
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    public int getIdleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    /**
+     * @return latenza media di acquisizione in microsecondi
+     */
+    public double getAverageBorrowMicros() {
+        long count = borrowCount.get();
+        return count == 0 ? 0.0 : borrowNanosTotal.get() / 1000.0 / count;
+    }
+
+    /**
+     * @return latenza massima di acquisizione in microsecondi
+     */
+    public double getMaxBorrowMicros() {
+        return borrowNanosMax.get() / 1000.0;
+    }
+
+    /**
+     * Ottiene le statistiche del pool per debug.
+     */
+    public String getPoolInfo() {
+        return String.format(
+                "Pool: attive=%d, inattive=%d, max=%d, create=%d, rimosse=%d, invalidate=%d, "
+                + "prestiti=%d, latenza media=%.1fus, latenza max=%.1fus",
+                getActiveCount(), getIdleCount(), maxSize, created.get(), evicted.get(),
+                invalidated.get(), getBorrowCount(), getAverageBorrowMicros(), getMaxBorrowMicros());
+    }
+
+    private static final class PooledEntry {
+
+        private final Connection connection;
+        private final long lastUsed;
+
+        private PooledEntry(Connection connection, long lastUsed) {
+            this.connection = connection;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
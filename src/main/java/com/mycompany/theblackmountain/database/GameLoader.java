@@ -4,13 +4,16 @@
 package com.mycompany.theblackmountain.database;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import com.mycompany.theblackmountain.type.Room;
@@ -28,12 +31,36 @@ import java.util.List;
  */
 public class GameLoader {
 
-    private static final String DB_URL = "jdbc:h2:./data/theblackmountain;DB_CLOSE_DELAY=-1;AUTO_SERVER=TRUE";
-    private static final String DB_USER = "sa";
-    private static final String DB_PASSWORD = "";
+    /**
+     * Intervallo predefinito tra due scritture in background delle modifiche.
+     */
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 250;
+
+    private static final String MERGE_ROOM_OBJECT_SQL
+            = "MERGE INTO ROOM_OBJECTS (ROOM_ID, OBJECT_ID) KEY(ROOM_ID, OBJECT_ID) VALUES (?, ?)";
+
+    // Casse e stanze in cui devono trovarsi: {ROOM_ID, OBJECT_ID}
+    private static final int[][] CHEST_ROOMS = {
+        {0, 100}, // Stanza 0 (Ingresso), Cassa 100
+        {3, 101}, // Stanza 3 (Dormitorio), Cassa 101
+        {4, 102}, // Stanza 4 (Sala Guardie), Cassa 102
+        {6, 103} // Stanza 6 (Torture), Cassa 103
+    };
+
+    // Oggetti che devono sempre essere presenti nelle stanze: {ROOM_ID, OBJECT_ID}
+    private static final int[][] FIXED_ROOM_OBJECTS = {
+        {1, 4} // Stanza 1 (Topo), Oggetto 4 (stringhe ragnatela)
+    };
 
     private TBMGame game;
+    private final TBMDatabase database;
     private Map<Integer, Room> roomMap;
+    private final WriteBehindQueue writeQueue;
+
+    // Durata in millisecondi di ogni fase dell'ultimo caricamento
+    private final Map<LoadPhase, Long> phaseTimings = new EnumMap<>(LoadPhase.class);
+    private LoadListener loadListener;
+    private int playerRoomId = -1;
 
     /**
      * Costruttore.
@@ -41,47 +68,149 @@ public class GameLoader {
      * @param game istanza del gioco da inizializzare.
      */
     public GameLoader(TBMGame game) {
+        this(game, DEFAULT_FLUSH_INTERVAL_MS);
+    }
+
+    /**
+     * Costruttore con intervallo di scrittura configurabile.
+     *
+     * @param game istanza del gioco da inizializzare.
+     * @param flushIntervalMillis intervallo tra due scritture in background
+     */
+    public GameLoader(TBMGame game, long flushIntervalMillis) {
         this.game = game;
+        this.database = game.getDatabase() != null ? game.getDatabase() : TBMDatabase.getInstance();
         this.roomMap = new HashMap<>();
+        this.writeQueue = new WriteBehindQueue(database, flushIntervalMillis);
     }
 
     /**
-     * Metodo principale per caricare tutti i dati di gioco.
+     * Metodo principale per caricare tutti i dati di gioco. Ogni fase esegue un
+     * numero fisso di query, indipendente dal numero di stanze e oggetti.
      */
     public void loadGame() throws SQLException {
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
+        phaseTimings.clear();
+
+        try (Connection conn = getConnection()) {
             System.out.println("Caricamento dati dal database...");
+            long start = System.nanoTime();
 
             // Carica tutte le stanze
             loadRooms(conn);
+            start = endPhase(LoadPhase.ROOMS, start);
 
             // Imposta le connessioni tra stanze
             loadRoomConnections(conn);
+            start = endPhase(LoadPhase.CONNECTIONS, start);
 
-            // Reset delle casse prima di caricare
-            resetAllChests();
-
-            // Carica gli oggetti nelle stanze
+            // Reset delle casse e caricamento degli oggetti nelle stanze
+            resetAllChests(conn);
             loadRoomObjects(conn);
+            start = endPhase(LoadPhase.OBJECTS, start);
 
             // Carica i personaggi
             loadCharacters(conn);
+            start = endPhase(LoadPhase.CHARACTERS, start);
 
-            // Carica l'inventario del giocatore
+            // Carica l'inventario del giocatore e lo posiziona nella sua stanza.
+            // Gli stati degli oggetti sono già stati letti insieme agli oggetti.
             loadPlayerInventory(conn);
+            setPlayerCurrentRoom();
+            endPhase(LoadPhase.INVENTORY, start);
+
+            System.out.println("Tutti i dati caricati con successo! Tempi per fase: " + phaseTimings);
+        }
+    }
 
-            // Imposta la stanza corrente del giocatore
-            setPlayerCurrentRoom(conn);
+    /**
+     * Registra la durata di una fase e avvisa il listener.
+     *
+     * @return istante di inizio della fase successiva
+     */
+    private long endPhase(LoadPhase phase, long start) {
+        long now = System.nanoTime();
+        long millis = (now - start) / 1_000_000;
+        phaseTimings.put(phase, millis);
+        if (loadListener != null) {
+            loadListener.phaseCompleted(phase, millis);
+        }
+        return now;
+    }
 
-            // Sincronizza stati oggetti 
-            syncObjectStatesFromDatabase();
+    /**
+     * Imposta il listener avvisato al termine di ogni fase di loadGame().
+     */
+    public void setLoadListener(LoadListener loadListener) {
+        this.loadListener = loadListener;
+    }
+
+    /**
+     * @return durata in millisecondi delle fasi dell'ultimo caricamento
+     */
+    public Map<LoadPhase, Long> getPhaseTimings() {
+        return new EnumMap<>(phaseTimings);
+    }
+
+    /**
+     * Carica i dati di gioco da una fotografia del mondo già in memoria, senza
+     * interrogare il database. Il database della partita deve essere nello
+     * stesso stato da cui è stata letta la fotografia.
+     *
+     * @param snapshot fotografia del mondo iniziale
+     */
+    public void loadFromSnapshot(WorldSnapshot snapshot) {
+        long start = System.nanoTime();
+        snapshot.instantiate(game, roomMap);
+        System.out.println("Dati di gioco creati dalla fotografia del mondo (" + roomMap.size() + " stanze, "
+                + (System.nanoTime() - start) / 1000 + " us)");
+    }
+
+    /**
+     * Ottiene una connessione dal pool del database. Le modifiche ancora in
+     * coda vengono scritte prima, così ogni accesso sincrono vede uno stato
+     * aggiornato.
+     */
+    private Connection getConnection() throws SQLException {
+        writeQueue.flush();
+        return database.getConnection();
+    }
+
+    /**
+     * Scrive subito nel database tutte le modifiche di stato in coda. Da
+     * chiamare prima di salvataggi, reset e game over.
+     */
+    public void flushPendingWrites() {
+        try {
+            writeQueue.flush();
+        } catch (SQLException e) {
+            System.err.println("Errore nella scrittura delle modifiche in coda: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Scrive le modifiche in coda e ferma la scrittura in background.
+     */
+    public void shutdown() {
+        writeQueue.close();
+    }
 
-            System.out.println("Tutti i dati caricati con successo!");
+    /**
+     * Carica dal database gli oggetti con gli ID indicati (es. per
+     * ricostruire l'inventario di un salvataggio).
+     *
+     * @return oggetti trovati, vuota in caso di errore
+     */
+    public List<GameObjects> findObjectsById(Collection<Integer> ids) {
+        try (Connection conn = getConnection()) {
+            return loadObjectsById(conn, ids);
+        } catch (SQLException e) {
+            System.err.println("Errore nel caricamento degli oggetti: " + e.getMessage());
+            return new ArrayList<>();
         }
     }
 
     public boolean isChestOpenInDatabase(int chestId) {
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
+        try (Connection conn = getConnection()) {
             String sql = "SELECT IS_OPEN FROM OBJECTS WHERE ID = ?";
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setInt(1, chestId);
@@ -98,7 +227,7 @@ public class GameLoader {
     }
 
     public void syncObjectStatesFromDatabase() {
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
+        try (Connection conn = getConnection()) {
 
             String sql = "SELECT ID, IS_OPEN, IS_PUSHED FROM OBJECTS WHERE ID >= 100 AND ID <= 103";
 
@@ -137,7 +266,7 @@ public class GameLoader {
      * popolare il database
      */
     public void populateInitialRoomObjects() throws SQLException {
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
+        try (Connection conn = getConnection()) {
 
             // Controlla se ROOM_OBJECTS è vuota
             String checkSql = "SELECT COUNT(*) FROM ROOM_OBJECTS";
@@ -339,102 +468,113 @@ public class GameLoader {
         };
     }
 
+    /**
+     * Assicura che le casse siano nelle stanze corrette, nel database con un
+     * solo batch di MERGE e in memoria con al massimo una query.
+     */
     private void ensureChestsInRooms(Connection conn) throws SQLException {
         System.out.println("Verifica e correzione presenza casse nelle stanze...");
 
-        // Array CORRETTO con le casse e le loro stanze
-        int[][] chestRoomPairs = {
-            {0, 100}, // Stanza 0 (Ingresso), Cassa 100
-            {3, 101}, // Stanza 3 (Dormitorio), Cassa 101  
-            {4, 102}, // Stanza 4 (Sala Guardie), Cassa 102
-            {6, 103} // Stanza 6 (Torture), Cassa 103
-        };
-
-        String checkSql = "SELECT COUNT(*) FROM ROOM_OBJECTS WHERE ROOM_ID = ? AND OBJECT_ID = ?";
-        String insertSql = "INSERT INTO ROOM_OBJECTS (ROOM_ID, OBJECT_ID) VALUES (?, ?)";
-        String getChestSql = "SELECT * FROM OBJECTS WHERE ID = ?";
+        // 1. Le coppie già presenti restano invariate, quelle mancanti vengono inserite
+        mergeRoomObjects(conn, CHEST_ROOMS);
 
-        int totalInserted = 0;
-
-        for (int[] pair : chestRoomPairs) {
+        // 2. Raccoglie le casse mancanti in memoria
+        Map<Integer, Room> missing = new LinkedHashMap<>();
+        for (int[] pair : CHEST_ROOMS) {
             int roomId = pair[0];
             int chestId = pair[1];
 
-            System.out.println("Controllo cassa " + chestId + " in stanza " + roomId);
-
             Room room = roomMap.get(roomId);
             if (room == null) {
                 System.out.println("ERRORE: Stanza " + roomId + " non trovata!");
                 continue;
             }
 
-            // 1. Controlla se è già presente nel database
-            boolean inDatabase = false;
-            try (PreparedStatement checkStmt = conn.prepareStatement(checkSql)) {
-                checkStmt.setInt(1, roomId);
-                checkStmt.setInt(2, chestId);
-
-                try (ResultSet rs = checkStmt.executeQuery()) {
-                    if (rs.next() && rs.getInt(1) > 0) {
-                        inDatabase = true;
-                    }
-                }
+            boolean inMemory = room.getObjects().stream().anyMatch(obj -> obj.getId() == chestId);
+            if (!inMemory) {
+                missing.put(chestId, room);
             }
+        }
 
-            // 2. Se non è nel database, aggiungila
-            if (!inDatabase) {
-                try (PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
-                    insertStmt.setInt(1, roomId);
-                    insertStmt.setInt(2, chestId);
-                    insertStmt.executeUpdate();
-                    totalInserted++;
-                    System.out.println("  Cassa " + chestId + " aggiunta al database per stanza " + roomId);
-                }
+        // 3. Carica dal database tutte le casse mancanti insieme
+        if (!missing.isEmpty()) {
+            for (GameObjects chestObj : loadObjectsById(conn, missing.keySet())) {
+                Room room = missing.remove(chestObj.getId());
+                room.getObjects().add(chestObj);
+                System.out.println("  Cassa " + chestObj.getId() + " (" + chestObj.getName() + ") aggiunta in memoria alla stanza " + room.getId());
             }
-
-            // 3. CORREZIONE CRITICA: Controlla se è presente in memoria
-            boolean inMemory = false;
-            for (GameObjects obj : room.getObjects()) {
-                if (obj.getId() == chestId) {
-                    inMemory = true;
-                    System.out.println("  Cassa " + chestId + " già presente in memoria nella stanza " + roomId);
-                    break;
-                }
+            for (Integer chestId : missing.keySet()) {
+                System.out.println("  ERRORE: Cassa " + chestId + " non trovata nella tabella OBJECTS");
             }
+        }
 
-            // 4. Se non è in memoria, caricala dal database
-            if (!inMemory) {
-                try (PreparedStatement chestStmt = conn.prepareStatement(getChestSql)) {
-                    chestStmt.setInt(1, chestId);
+        System.out.println("Casse verificate nel database: " + CHEST_ROOMS.length);
 
-                    try (ResultSet rs = chestStmt.executeQuery()) {
-                        if (rs.next()) {
-                            GameObjects chestObj = createObjectFromResultSet(rs);
-                            if (chestObj != null) {
-                                room.getObjects().add(chestObj);
-                                System.out.println("  Cassa " + chestId + " (" + chestObj.getName() + ") aggiunta in memoria alla stanza " + roomId);
-                            } else {
-                                System.out.println("  ERRORE: Impossibile creare oggetto cassa " + chestId);
-                            }
-                        } else {
-                            System.out.println("  ERRORE: Cassa " + chestId + " non trovata nella tabella OBJECTS");
-                        }
-                    }
-                }
+        // DEBUG finale: Verifica tutte le casse
+        debugChestsInDatabase(conn);
+    }
+
+    /**
+     * Inserisce in ROOM_OBJECTS le coppie stanza/oggetto mancanti con un unico
+     * batch di MERGE.
+     *
+     * @param pairs coppie {ROOM_ID, OBJECT_ID}
+     */
+    private void mergeRoomObjects(Connection conn, int[][] pairs) throws SQLException {
+        if (pairs.length == 0) {
+            return;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(MERGE_ROOM_OBJECT_SQL)) {
+            for (int[] pair : pairs) {
+                stmt.setInt(1, pair[0]);
+                stmt.setInt(2, pair[1]);
+                stmt.addBatch();
             }
+            stmt.executeBatch();
         }
+    }
 
-        System.out.println("Totale casse inserite nel database: " + totalInserted);
+    /**
+     * Carica più oggetti (armi comprese) con una sola query.
+     *
+     * @param ids ID degli oggetti
+     * @return oggetti trovati, ordinati per ID
+     */
+    private List<GameObjects> loadObjectsById(Connection conn, Collection<Integer> ids) throws SQLException {
+        List<GameObjects> objects = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return objects;
+        }
 
-        // DEBUG finale: Verifica tutte le casse
-        debugChestsInDatabase(conn);
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        String sql = """
+            SELECT o.*, w.WEAPON_TYPE, w.ATTACK_BONUS, w.CRITICAL_CHANCE,
+                   w.CRITICAL_MULTIPLIER, w.IS_POISONED, w.POISON_DAMAGE, w.SPECIAL_EFFECT
+            FROM OBJECTS o
+            LEFT JOIN WEAPONS w ON o.ID = w.OBJECT_ID
+            WHERE o.ID IN (%s)
+            ORDER BY o.ID
+        """.formatted(placeholders);
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (Integer id : ids) {
+                stmt.setInt(index++, id);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    objects.add(createObjectFromResultSet(rs));
+                }
+            }
+        }
+        return objects;
     }
 
     /**
      * METODO PUBBLICO AGGIORNATO per forzare refresh completo delle casse
      */
     public void forceRefreshChests() {
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
+        try (Connection conn = getConnection()) {
 
             System.out.println("REFRESH FORZATO CASSE - Rimozione da memoria e ricaricamento...");
 
@@ -463,45 +603,8 @@ public class GameLoader {
      */
     private void restoreFixedRoomObjects(Connection conn) throws SQLException {
         System.out.println(" Ripristino oggetti fissi nelle stanze...");
-
-        // Oggetti che dovrebbero sempre essere presenti in specifiche stanze
-        int[][] fixedObjectPairs = {
-            {1, 4} // Stanza 1 (Topo), Oggetto 4 (stringhe ragnatela)
-        // Aggiungi altri oggetti fissi qui se necessario
-        };
-
-        String checkSql = "SELECT COUNT(*) FROM ROOM_OBJECTS WHERE ROOM_ID = ? AND OBJECT_ID = ?";
-        String insertSql = "INSERT INTO ROOM_OBJECTS (ROOM_ID, OBJECT_ID) VALUES (?, ?)";
-
-        int totalRestored = 0;
-
-        for (int[] pair : fixedObjectPairs) {
-            int roomId = pair[0];
-            int objectId = pair[1];
-
-            // Controlla se l'oggetto è già nella stanza
-            try (PreparedStatement checkStmt = conn.prepareStatement(checkSql)) {
-                checkStmt.setInt(1, roomId);
-                checkStmt.setInt(2, objectId);
-
-                try (ResultSet rs = checkStmt.executeQuery()) {
-                    if (rs.next() && rs.getInt(1) == 0) {
-                        // L'oggetto non c'è, ripristinalo
-                        try (PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
-                            insertStmt.setInt(1, roomId);
-                            insertStmt.setInt(2, objectId);
-                            insertStmt.executeUpdate();
-                            totalRestored++;
-                            System.out.println("  ✅ Oggetto " + objectId + " ripristinato nella stanza " + roomId);
-                        }
-                    } else {
-                        System.out.println("  ℹ️ Oggetto " + objectId + " già presente nella stanza " + roomId);
-                    }
-                }
-            }
-        }
-
-        System.out.println(" Totale oggetti fissi ripristinati: " + totalRestored);
+        mergeRoomObjects(conn, FIXED_ROOM_OBJECTS);
+        System.out.println(" Oggetti fissi verificati: " + FIXED_ROOM_OBJECTS.length);
     }
 
     /**
@@ -509,17 +612,12 @@ public class GameLoader {
      * dell'uscita nella stanza del boss
      */
     public void onBossDefeated(int bossRoomId) {
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
+        try (Connection conn = getConnection()) {
 
             System.out.println("Il Cane Demone è stato sconfitto! La chiave dell'uscita cade a terra...");
 
             // Aggiungi la chiave dell'uscita (ID 11) alla stanza del boss
-            String insertKeySQL = "INSERT OR IGNORE INTO ROOM_OBJECTS (ROOM_ID, OBJECT_ID) VALUES (?, ?)";
-            try (PreparedStatement stmt = conn.prepareStatement(insertKeySQL)) {
-                stmt.setInt(1, bossRoomId);
-                stmt.setInt(2, 11); // Chiave dell'uscita
-                stmt.executeUpdate();
-            }
+            mergeRoomObjects(conn, new int[][]{{bossRoomId, 11}});
 
             // Aggiungi anche alla memoria di gioco se il room è già caricato
             Room bossRoom = roomMap.get(bossRoomId);
@@ -570,7 +668,7 @@ public class GameLoader {
      * Apre la cella della principessa e libera la principessa
      */
     public boolean openPrincessCell(Room bossRoom, List<GameObjects> inventory) {
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
+        try (Connection conn = getConnection()) {
 
             // Verifica che il giocatore abbia la chiave cella principessa (ID 10)
             boolean hasKey = inventory.stream().anyMatch(obj -> obj.getId() == 10);
@@ -599,12 +697,7 @@ public class GameLoader {
                                 bossRoom.getObjects().add(princess);
 
                                 // Aggiungi la principessa alla stanza nel database
-                                String insertPrincessSQL = "INSERT OR IGNORE INTO ROOM_OBJECTS (ROOM_ID, OBJECT_ID) VALUES (?, ?)";
-                                try (PreparedStatement insertStmt = conn.prepareStatement(insertPrincessSQL)) {
-                                    insertStmt.setInt(1, bossRoom.getId());
-                                    insertStmt.setInt(2, 14);
-                                    insertStmt.executeUpdate();
-                                }
+                                mergeRoomObjects(conn, new int[][]{{bossRoom.getId(), 14}});
 
                                 System.out.println("La principessa è libera!");
                                 return true;
@@ -746,111 +839,114 @@ public class GameLoader {
      * Reset completo di tutte le casse
      */
     public void resetAllChests() {
+        try (Connection conn = getConnection()) {
+            resetAllChests(conn);
+        } catch (SQLException e) {
+            System.err.println("Errore nel reset delle casse: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Errore nel reset delle casse", e);
+        }
+    }
+
+    private void resetAllChests(Connection conn) throws SQLException {
         System.out.println("Resetting tutte le casse del gioco...");
 
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
 
-            // 1. Verifica che le casse esistano nella tabella OBJECTS
-            String checkChestsExistSql = "SELECT ID FROM OBJECTS WHERE ID IN (100, 101, 102, 103) ORDER BY ID";
-            List<Integer> existingChests = new ArrayList<>();
+        // 1. Verifica che le casse esistano nella tabella OBJECTS
+        String checkChestsExistSql = "SELECT ID FROM OBJECTS WHERE ID IN (100, 101, 102, 103) ORDER BY ID";
+        List<Integer> existingChests = new ArrayList<>();
 
-            try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(checkChestsExistSql)) {
-                while (rs.next()) {
-                    existingChests.add(rs.getInt("ID"));
-                }
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(checkChestsExistSql)) {
+            while (rs.next()) {
+                existingChests.add(rs.getInt("ID"));
             }
+        }
 
-            System.out.println("Casse esistenti nel database: " + existingChests);
-
-            if (existingChests.isEmpty()) {
-                System.out.println("NESSUNA CASSA TROVATA NEL DATABASE! Creazione casse...");
-                createMissingChests(conn);
+        System.out.println("Casse esistenti nel database: " + existingChests);
 
-                // Ricarica la lista dopo la creazione
-                try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(checkChestsExistSql)) {
-                    while (rs.next()) {
-                        existingChests.add(rs.getInt("ID"));
-                    }
-                }
-            }
+        if (existingChests.isEmpty()) {
+            System.out.println("NESSUNA CASSA TROVATA NEL DATABASE! Creazione casse...");
+            createMissingChests(conn);
 
-            // 2. Chiudi tutte le casse esistenti
-            if (!existingChests.isEmpty()) {
-                String chestIds = existingChests.stream().map(String::valueOf)
-                        .collect(java.util.stream.Collectors.joining(","));
-                String resetChestsSql = "UPDATE OBJECTS SET IS_OPEN = FALSE WHERE ID IN (" + chestIds + ")";
-                try (Statement stmt = conn.createStatement()) {
-                    int updated = stmt.executeUpdate(resetChestsSql);
-                    System.out.println(updated + " casse chiuse");
+            // Ricarica la lista dopo la creazione
+            try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(checkChestsExistSql)) {
+                while (rs.next()) {
+                    existingChests.add(rs.getInt("ID"));
                 }
             }
+        }
 
-            // 3. Rimuovi TUTTI i contenuti dalle stanze (tranne oggetti fissi)
-            String removeContentSql = """
-        DELETE FROM ROOM_OBJECTS 
-        WHERE OBJECT_ID NOT IN (
-            SELECT ID FROM OBJECTS WHERE OBJECT_TYPE IN ('DECORATION', 'FIXED')
-        )
-        AND OBJECT_ID NOT IN (100, 101, 102, 103, 4, 13, 15)
-    """;
+        // 2. Chiudi tutte le casse esistenti
+        if (!existingChests.isEmpty()) {
+            String chestIds = existingChests.stream().map(String::valueOf)
+                    .collect(java.util.stream.Collectors.joining(","));
+            String resetChestsSql = "UPDATE OBJECTS SET IS_OPEN = FALSE WHERE ID IN (" + chestIds + ")";
             try (Statement stmt = conn.createStatement()) {
-                int removed = stmt.executeUpdate(removeContentSql);
-                System.out.println(removed + " oggetti rimossi dalle stanze");
+                int updated = stmt.executeUpdate(resetChestsSql);
+                System.out.println(updated + " casse chiuse");
             }
+        }
 
-            // 4. Posiziona le casse nelle stanze corrette
-            int[][] chestRoomMapping = {
-                {0, 100}, // Ingresso -> Cassa 100
-                {3, 101}, // Dormitorio -> Cassa 101  
-                {4, 102}, // Sala Guardie -> Cassa 102
-                {6, 103} // Sala Torture -> Cassa 103
-            };
-
-            String insertChestSql = "MERGE INTO ROOM_OBJECTS (ROOM_ID, OBJECT_ID) KEY(ROOM_ID, OBJECT_ID) VALUES (?, ?)";
-            int chestsPlaced = 0;
-
-            try (PreparedStatement stmt = conn.prepareStatement(insertChestSql)) {
-                for (int[] mapping : chestRoomMapping) {
-                    int roomId = mapping[0];
-                    int chestId = mapping[1];
-
-                    if (existingChests.contains(chestId)) {
-                        stmt.setInt(1, roomId);
-                        stmt.setInt(2, chestId);
-                        stmt.addBatch();
-                        chestsPlaced++;
-                    } else {
-                        System.out.println("Cassa " + chestId + " non esiste, salto...");
-                    }
-                }
+        // 3. Rimuovi TUTTI i contenuti dalle stanze (tranne oggetti fissi)
+        String removeContentSql = """
+    DELETE FROM ROOM_OBJECTS 
+    WHERE OBJECT_ID NOT IN (
+        SELECT ID FROM OBJECTS WHERE OBJECT_TYPE IN ('DECORATION', 'FIXED')
+    )
+    AND OBJECT_ID NOT IN (100, 101, 102, 103, 4, 13, 15)
+""";
+        try (Statement stmt = conn.createStatement()) {
+            int removed = stmt.executeUpdate(removeContentSql);
+            System.out.println(removed + " oggetti rimossi dalle stanze");
+        }
+
+        // 4. Posiziona le casse nelle stanze corrette
+        int[][] chestRoomMapping = {
+            {0, 100}, // Ingresso -> Cassa 100
+            {3, 101}, // Dormitorio -> Cassa 101  
+            {4, 102}, // Sala Guardie -> Cassa 102
+            {6, 103} // Sala Torture -> Cassa 103
+        };
 
-                if (chestsPlaced > 0) {
-                    stmt.executeBatch();
-                    System.out.println(chestsPlaced + " casse posizionate nelle stanze");
+        String insertChestSql = "MERGE INTO ROOM_OBJECTS (ROOM_ID, OBJECT_ID) KEY(ROOM_ID, OBJECT_ID) VALUES (?, ?)";
+        int chestsPlaced = 0;
+
+        try (PreparedStatement stmt = conn.prepareStatement(insertChestSql)) {
+            for (int[] mapping : chestRoomMapping) {
+                int roomId = mapping[0];
+                int chestId = mapping[1];
+
+                if (existingChests.contains(chestId)) {
+                    stmt.setInt(1, roomId);
+                    stmt.setInt(2, chestId);
+                    stmt.addBatch();
+                    chestsPlaced++;
+                } else {
+                    System.out.println("Cassa " + chestId + " non esiste, salto...");
                 }
             }
 
-            // 5. Reset stati di gioco importanti
-            String resetGameStateSQL = """
-        UPDATE OBJECTS SET IS_OPEN = FALSE 
-        WHERE ID IN (13, 15); -- Cella principessa e porta uscita
-        
-        DELETE FROM ROOM_OBJECTS 
-        WHERE OBJECT_ID IN (11, 14); -- Rimuovi chiave uscita e principessa libera
-    """;
-
-            try (Statement stmt = conn.createStatement()) {
-                stmt.executeUpdate(resetGameStateSQL);
-                System.out.println("Stati del finale del gioco resettati");
+            if (chestsPlaced > 0) {
+                stmt.executeBatch();
+                System.out.println(chestsPlaced + " casse posizionate nelle stanze");
             }
+        }
 
-            System.out.println("Reset casse completato!");
+        // 5. Reset stati di gioco importanti
+        String resetGameStateSQL = """
+    UPDATE OBJECTS SET IS_OPEN = FALSE 
+    WHERE ID IN (13, 15); -- Cella principessa e porta uscita
+    
+    DELETE FROM ROOM_OBJECTS 
+    WHERE OBJECT_ID IN (11, 14); -- Rimuovi chiave uscita e principessa libera
+""";
 
-        } catch (SQLException e) {
-            System.err.println("Errore nel reset delle casse: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Errore nel reset delle casse", e);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(resetGameStateSQL);
+            System.out.println("Stati del finale del gioco resettati");
         }
+
+        System.out.println("Reset casse completato!");
     }
 
     /**
@@ -867,9 +963,9 @@ public class GameLoader {
         };
 
         String insertChestSql = """
-    INSERT OR IGNORE INTO OBJECTS 
-    (ID, NAME, DESCRIPTION, OBJECT_TYPE, PICKUPABLE, OPENABLE, IS_OPEN) 
-    VALUES (?, ?, ?, 'CONTAINER', ?, ?, ?)
+    MERGE INTO OBJECTS
+    (ID, NAME, DESCRIPTION, OBJECT_TYPE, PICKUPABLE, OPENABLE, IS_OPEN)
+    KEY(ID) VALUES (?, ?, ?, 'CONTAINER', ?, ?, ?)
 """;
 
         try (PreparedStatement stmt = conn.prepareStatement(insertChestSql)) {
@@ -898,7 +994,7 @@ public class GameLoader {
     public void removeObjectFromRoom(int objectId, int roomId) {
         String sql = "DELETE FROM ROOM_OBJECTS WHERE OBJECT_ID = ? AND ROOM_ID = ?";
 
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD); PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, objectId);
             stmt.setInt(2, roomId);
@@ -945,7 +1041,7 @@ public class GameLoader {
 
     // Aggiungi questo metodo pubblico a GameLoader
     public void ensureChestsInRooms() {
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
+        try (Connection conn = getConnection()) {
             ensureChestsInRooms(conn);
         } catch (SQLException e) {
             System.err.println("Errore nell'assicurare le casse nelle stanze: " + e.getMessage());
@@ -988,6 +1084,9 @@ public class GameLoader {
 
                 if (type == CharacterType.PLAYER) {
                     game.setPlayer(character);
+                    if (character.getId() == 0) {
+                        playerRoomId = rs.getInt("ROOM_ID");
+                    }
                     System.out.println(" Giocatore caricato: " + character.getName() + " (HP: " + character.getCurrentHp() + ")");
                     characterCount++;
 
@@ -1054,28 +1153,18 @@ public class GameLoader {
     }
 
     /**
-     * Imposta la stanza corrente del giocatore.
+     * Imposta la stanza corrente del giocatore, letta da loadCharacters().
      */
-    private void setPlayerCurrentRoom(Connection conn) throws SQLException {
-        String sql = "SELECT ROOM_ID FROM CHARACTERS WHERE CHARACTER_TYPE = 'PLAYER' AND ID = 0";
-
-        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
-
-            if (rs.next()) {
-                int roomId = rs.getInt("ROOM_ID");
-                Room currentRoom = roomMap.get(roomId);
-
-                if (currentRoom != null) {
-                    game.setCurrentRoom(currentRoom);
-                    System.out.println("Giocatore posizionato in: " + currentRoom.getName());
-                } else {
-                    // Fallback alla prima stanza
-                    if (!game.getRooms().isEmpty()) {
-                        game.setCurrentRoom(game.getRooms().get(0));
-                        System.out.println("Stanza non trovata, posizionato nella prima stanza");
-                    }
-                }
-            }
+    private void setPlayerCurrentRoom() {
+        Room currentRoom = roomMap.get(playerRoomId);
+
+        if (currentRoom != null) {
+            game.setCurrentRoom(currentRoom);
+            System.out.println("Giocatore posizionato in: " + currentRoom.getName());
+        } else if (playerRoomId >= 0 && !game.getRooms().isEmpty()) {
+            // Fallback alla prima stanza
+            game.setCurrentRoom(game.getRooms().get(0));
+            System.out.println("Stanza non trovata, posizionato nella prima stanza");
         }
     }
 
@@ -1140,7 +1229,7 @@ public class GameLoader {
      * Salva lo stato del giocatore nel database.
      */
     public void savePlayerState() {
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
+        try (Connection conn = getConnection()) {
 
             // Aggiorna posizione del giocatore
             if (game.getCurrentRoom() != null) {
@@ -1167,22 +1256,10 @@ public class GameLoader {
     }
 
     /**
-     * Aggiorna lo stato di un oggetto nel database.
+     * Aggiorna lo stato di un oggetto nel database (scrittura differita).
      */
     public void updateObjectState(GameObjects obj) {
-        String sql = "UPDATE OBJECTS SET IS_OPEN = ?, IS_PUSHED = ? WHERE ID = ?";
-
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD); PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setBoolean(1, obj.isOpen());
-            stmt.setBoolean(2, obj.isPush());
-            stmt.setInt(3, obj.getId());
-
-            stmt.executeUpdate();
-
-        } catch (SQLException e) {
-            System.err.println("Errore nell'aggiornamento oggetto " + obj.getName() + ": " + e.getMessage());
-        }
+        writeQueue.enqueueObjectState(obj.getId(), obj.isOpen(), obj.isPush());
     }
 
     /**
@@ -1196,7 +1273,7 @@ public class GameLoader {
     public List<GameObjects> openChest(int chestId, Room room) {
         List<GameObjects> foundObjects = new ArrayList<>();
 
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
+        try (Connection conn = getConnection()) {
 
             // Query per ottenere gli oggetti che dovrebbero essere nella cassa
             String sql = getChestContentQuery(chestId);
@@ -1220,9 +1297,6 @@ public class GameLoader {
                     if (obj != null) {
                         foundObjects.add(obj);
                         room.getObjects().add(obj);
-
-                        // Aggiungi l'oggetto alla tabella ROOM_OBJECTS se non c'è già
-                        addObjectToRoom(conn, room.getId(), obj.getId());
                         objectCount++;
                         System.out.println(" Oggetto " + obj.getName() + " aggiunto alla stanza " + room.getName());
                     } else {
@@ -1234,6 +1308,9 @@ public class GameLoader {
 
             }
 
+            // Aggiungi gli oggetti alla tabella ROOM_OBJECTS con un solo batch
+            addObjectsToRoom(conn, room.getId(), foundObjects);
+
         } catch (SQLException e) {
             System.err.println(" Errore nell'apertura cassa " + chestId + ": " + e.getMessage());
             e.printStackTrace();
@@ -1243,35 +1320,22 @@ public class GameLoader {
     }
 
     /**
-     * Aggiunge un oggetto a una stanza nel database (se non c'è già)
+     * Aggiunge più oggetti a una stanza nel database (se non ci sono già)
      *
      * @param conn connessione al database
      * @param roomId ID della stanza
-     * @param objectId ID dell'oggetto
+     * @param objects oggetti da aggiungere
      */
-    private void addObjectToRoom(Connection conn, int roomId, int objectId) {
-        try {
-            // Controlla se l'oggetto è già nella stanza
-            String checkSql = "SELECT COUNT(*) FROM ROOM_OBJECTS WHERE ROOM_ID = ? AND OBJECT_ID = ?";
-            try (PreparedStatement checkStmt = conn.prepareStatement(checkSql)) {
-                checkStmt.setInt(1, roomId);
-                checkStmt.setInt(2, objectId);
-
-                try (ResultSet rs = checkStmt.executeQuery()) {
-                    if (rs.next() && rs.getInt(1) == 0) {
-                        // L'oggetto non c'è, aggiungilo
-                        String insertSql = "INSERT INTO ROOM_OBJECTS (ROOM_ID, OBJECT_ID) VALUES (?, ?)";
-                        try (PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
-                            insertStmt.setInt(1, roomId);
-                            insertStmt.setInt(2, objectId);
-                            insertStmt.executeUpdate();
-                        }
-                    }
-                }
-            }
+    private void addObjectsToRoom(Connection conn, int roomId, List<GameObjects> objects) {
+        int[][] pairs = new int[objects.size()][];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = new int[]{roomId, objects.get(i).getId()};
+        }
 
+        try {
+            mergeRoomObjects(conn, pairs);
         } catch (SQLException e) {
-            System.err.println("️ Errore nell'aggiunta oggetto alla stanza: " + e.getMessage());
+            System.err.println("️ Errore nell'aggiunta oggetti alla stanza: " + e.getMessage());
         }
     }
 
@@ -1281,113 +1345,30 @@ public class GameLoader {
      * @param chestId ID della cassa
      */
     public void markChestAsOpened(int chestId) {
-        String sql = "UPDATE OBJECTS SET IS_OPEN = TRUE WHERE ID = ?";
-
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD); PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, chestId);
-            stmt.executeUpdate();
-
-        } catch (SQLException e) {
-            System.err.println("Errore nel segnare cassa come aperta: " + e.getMessage());
-        }
+        writeQueue.enqueueObjectState(chestId, Boolean.TRUE, null);
     }
 
     /**
-     * Sposta un oggetto dall'inventario a una stanza.
+     * Sposta un oggetto dall'inventario a una stanza (scrittura differita).
      */
     public void moveObjectToRoom(GameObjects obj, Room room) {
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
-
-            conn.setAutoCommit(false);
-
-            try {
-                // Rimuovi dall'inventario
-                String deleteSql = "DELETE FROM INVENTORY WHERE OBJECT_ID = ?";
-                try (PreparedStatement stmt = conn.prepareStatement(deleteSql)) {
-                    stmt.setInt(1, obj.getId());
-                    stmt.executeUpdate();
-                }
-
-                // Rimuovi da eventuali altre stanze
-                String deleteRoomSql = "DELETE FROM ROOM_OBJECTS WHERE OBJECT_ID = ?";
-                try (PreparedStatement stmt = conn.prepareStatement(deleteRoomSql)) {
-                    stmt.setInt(1, obj.getId());
-                    stmt.executeUpdate();
-                }
-
-                // Aggiungi alla nuova stanza
-                String insertSql = "INSERT INTO ROOM_OBJECTS (ROOM_ID, OBJECT_ID) VALUES (?, ?)";
-                try (PreparedStatement stmt = conn.prepareStatement(insertSql)) {
-                    stmt.setInt(1, room.getId());
-                    stmt.setInt(2, obj.getId());
-                    stmt.executeUpdate();
-                }
-
-                conn.commit();
-
-            } catch (SQLException e) {
-                conn.rollback();
-                throw e;
-            }
-
-        } catch (SQLException e) {
-            System.err.println("Errore nello spostamento oggetto in stanza: " + e.getMessage());
-        }
+        writeQueue.enqueueMoveToRoom(obj.getId(), room.getId());
     }
 
     /**
-     * Sposta un oggetto da una stanza all'inventario.
+     * Sposta un oggetto da una stanza all'inventario (scrittura differita).
      */
     public void moveObjectToInventory(GameObjects obj, int playerId) {
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
-
-            conn.setAutoCommit(false);
-
-            try {
-                // Rimuovi da tutte le stanze
-                String deleteRoomSql = "DELETE FROM ROOM_OBJECTS WHERE OBJECT_ID = ?";
-                try (PreparedStatement stmt = conn.prepareStatement(deleteRoomSql)) {
-                    stmt.setInt(1, obj.getId());
-                    stmt.executeUpdate();
-                }
-
-                // Verifica che non sia già nell'inventario
-                String checkSql = "SELECT COUNT(*) FROM INVENTORY WHERE CHARACTER_ID = ? AND OBJECT_ID = ?";
-                try (PreparedStatement stmt = conn.prepareStatement(checkSql)) {
-                    stmt.setInt(1, playerId);
-                    stmt.setInt(2, obj.getId());
-
-                    try (ResultSet rs = stmt.executeQuery()) {
-                        if (rs.next() && rs.getInt(1) == 0) {
-                            // Aggiungi all'inventario solo se non è già presente
-                            String insertSql = "INSERT INTO INVENTORY (CHARACTER_ID, OBJECT_ID) VALUES (?, ?)";
-                            try (PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
-                                insertStmt.setInt(1, playerId);
-                                insertStmt.setInt(2, obj.getId());
-                                insertStmt.executeUpdate();
-                            }
-                        }
-                    }
-                }
-
-                conn.commit();
-
-            } catch (SQLException e) {
-                conn.rollback();
-                throw e;
-            }
-
-        } catch (SQLException e) {
-            System.err.println("Errore nello spostamento oggetto nell'inventario: " + e.getMessage());
-        }
+        writeQueue.enqueueMoveToInventory(obj.getId(), playerId);
     }
 
     /**
      * Rimuove un oggetto dal gioco (distrugge).
      */
     public void removeObject(GameObjects obj) {
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
+        writeQueue.discardObject(obj.getId());
+
+        try (Connection conn = getConnection()) {
 
             conn.setAutoCommit(false);
 
@@ -1433,29 +1414,17 @@ public class GameLoader {
     }
 
     /**
-     * Aggiorna lo stato di un personaggio.
+     * Aggiorna lo stato di un personaggio (scrittura differita).
      */
     public void updateCharacterState(GameCharacter character) {
-        String sql = "UPDATE CHARACTERS SET CURRENT_HP = ?, IS_ALIVE = ? WHERE ID = ?";
-
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD); PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, character.getCurrentHp());
-            stmt.setBoolean(2, character.isAlive());
-            stmt.setInt(3, character.getId());
-
-            stmt.executeUpdate();
-
-        } catch (SQLException e) {
-            System.err.println("Errore nell'aggiornamento personaggio " + character.getName() + ": " + e.getMessage());
-        }
+        writeQueue.enqueueCharacterState(character.getId(), character.getCurrentHp(), character.isAlive());
     }
 
     /**
      * Ottiene statistiche del database per debug.
      */
     public void printDatabaseStats() {
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
+        try (Connection conn = getConnection()) {
 
             System.out.println("\n=== STATISTICHE DATABASE ===");
 
@@ -1484,7 +1453,7 @@ public class GameLoader {
      * Verifica l'integrità del database.
      */
     public boolean verifyDatabaseIntegrity() {
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
+        try (Connection conn = getConnection()) {
 
             boolean allGood = true;
 
@@ -1537,4 +1506,12 @@ public class GameLoader {
             return false;
         }
     }
+
+    /**
+     * Riceve la notifica del completamento di ogni fase di loadGame().
+     */
+    public interface LoadListener {
+
+        void phaseCompleted(LoadPhase phase, long elapsedMillis);
+    }
 }
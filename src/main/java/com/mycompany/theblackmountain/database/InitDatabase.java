@@ -4,27 +4,33 @@
 package com.mycompany.theblackmountain.database;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
 
 /**
  * Classe di inizializzazione del database per The Black Mountain.
  */
 public class InitDatabase {
 
-    private static final String DB_URL = "jdbc:h2:./data/theblackmountain;DB_CLOSE_DELAY=-1;AUTO_SERVER=TRUE";
-    private static final String DB_USER = "sa";
-    private static final String DB_PASSWORD = "";
+    private final TBMDatabase database;
+
+    /**
+     * Costruttore.
+     *
+     * @param database gestore del database da cui ottenere le connessioni
+     */
+    public InitDatabase(TBMDatabase database) {
+        this.database = database;
+    }
 
     /**
      * Metodo di inizializzazione del database di gioco.
      */
     public final void initDatabase() {
-        try {
-            Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        try (Connection conn = database.getConnectionForInit()) {
 
             // ==================
             // CREAZIONE TABELLE
@@ -53,7 +59,6 @@ public class InitDatabase {
             // 7. POI gli oggetti nelle stanze (SOLO oggetti fissi e casse)
             insertRoomObjectsIfEmpty(conn);
 
-            conn.close();
             System.out.println("Database inizializzato con successo!");
 
         } catch (SQLException e) {
@@ -62,6 +67,27 @@ public class InitDatabase {
         }
     }
 
+    /**
+     * Popola il database eseguendo uno script generato da un database modello
+     * (tabelle e dati), in un'unica transazione.
+     *
+     * @param script istruzioni SQL da eseguire in ordine
+     */
+    public void initFromScript(List<String> script) throws SQLException {
+        try (Connection conn = database.getConnectionForInit()) {
+            conn.setAutoCommit(false);
+            try (Statement stm = conn.createStatement()) {
+                for (String sql : script) {
+                    stm.execute(sql);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
     private void createTables(Connection conn) throws SQLException {
         // Tabella ROOMS - Stanze del gioco
         Statement stm = conn.createStatement();
@@ -695,7 +721,7 @@ public class InitDatabase {
      * Metodo di utilità per testare la connessione
      */
     public boolean testConnection() {
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
+        try (Connection conn = database.getConnectionForInit()) {
             return conn.isValid(5);
         } catch (SQLException e) {
             System.err.println("Connessione fallita: " + e.getMessage());
@@ -0,0 +1,44 @@
+/*
+ * Package database
+ */
+package com.mycompany.theblackmountain.database;
+
+/**
+ * Fasi del caricamento dei dati di gioco dal database, nell'ordine in cui
+ * vengono eseguite da GameLoader.
+ *
+ * @author vince
+ */
+public enum LoadPhase {
+
+    /**
+     * Stanze
+     */
+    ROOMS("Costruzione delle stanze"),
+    /**
+     * Collegamenti tra le stanze
+     */
+    CONNECTIONS("Collegamento delle stanze"),
+    /**
+     * Casse e oggetti nelle stanze
+     */
+    OBJECTS("Posizionamento degli oggetti"),
+    /**
+     * Giocatore e nemici
+     */
+    CHARACTERS("Caricamento dei personaggi"),
+    /**
+     * Inventario e posizione del giocatore
+     */
+    INVENTORY("Preparazione dell'inventario");
+
+    private final String description;
+
+    LoadPhase(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
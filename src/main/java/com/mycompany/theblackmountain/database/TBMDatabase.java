@@ -3,9 +3,10 @@
  */
 package com.mycompany.theblackmountain.database;
 
+import com.mycompany.theblackmountain.log.GameLog;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.List;
 
 /**
  * Gestore database semplificato per The Black Mountain.
@@ -17,12 +18,33 @@ public class TBMDatabase {
     private static final String DB_URL = "jdbc:h2:./data/theblackmountain;DB_CLOSE_DELAY=-1;AUTO_SERVER=TRUE";
     private static final String DB_USER = "sa";
     private static final String DB_PASSWORD = "";
-    
+
+    // Configurazione del pool di connessioni
+    private static final int POOL_MAX_SIZE = 8;
+    private static final long POOL_BORROW_TIMEOUT_MS = 5000;
+    private static final long POOL_IDLE_TIMEOUT_MS = 60000;
+
+    // Database in memoria delle sessioni headless
+    private static final String MEMORY_URL_PREFIX = "jdbc:h2:mem:";
+    private static final String MEMORY_URL_OPTIONS = ";DB_CLOSE_DELAY=-1";
+    private static final int SESSION_POOL_MAX_SIZE = 2;
+
+    private final String url;
+    private final int poolMaxSize;
+    private final List<String> templateScript;
     private InitDatabase initializer;
+    private ConnectionPool pool;
     private boolean initialized = false;
 
     private TBMDatabase() {
-        this.initializer = new InitDatabase();
+        this(DB_URL, POOL_MAX_SIZE, null);
+    }
+
+    private TBMDatabase(String url, int poolMaxSize, List<String> templateScript) {
+        this.url = url;
+        this.poolMaxSize = poolMaxSize;
+        this.templateScript = templateScript;
+        this.initializer = new InitDatabase(this);
     }
 
     /**
@@ -35,44 +57,106 @@ public class TBMDatabase {
         return instance;
     }
 
+    /**
+     * Crea un database in memoria privato, usato dalle sessioni del server
+     * headless per non condividere lo stato di gioco con altre partite. Il
+     * database viene eliminato da shutdown().
+     *
+     * @param name nome univoco del database
+     */
+    public static TBMDatabase createInMemory(String name) {
+        return new TBMDatabase(MEMORY_URL_PREFIX + name + MEMORY_URL_OPTIONS, SESSION_POOL_MAX_SIZE, null);
+    }
+
+    /**
+     * Crea un database in memoria privato popolato copiando lo script del
+     * mondo iniziale (vedi WorldTemplate), senza ricreare i dati riga per riga
+     * né eseguire i reset della partita.
+     *
+     * @param name nome univoco del database
+     * @param templateScript script SQL del mondo iniziale
+     */
+    public static TBMDatabase createFromTemplate(String name, List<String> templateScript) {
+        return new TBMDatabase(MEMORY_URL_PREFIX + name + MEMORY_URL_OPTIONS, SESSION_POOL_MAX_SIZE,
+                List.copyOf(templateScript));
+    }
+
+    /**
+     * @return true se il database è una copia del mondo iniziale, già pronto
+     * per una nuova partita
+     */
+    public boolean isClonedFromTemplate() {
+        return templateScript != null;
+    }
+
     /**
      * Inizializza il database.
      */
-    public void initialize() throws SQLException {
+    public synchronized void initialize() throws SQLException {
         if (initialized) {
             return;
         }
         
         System.out.println("Inizializzazione database...");
-        
-        // Testa la connessione
-        if (!testConnection()) {
-            throw new SQLException("Test di connessione fallito");
+
+        if (pool == null) {
+            pool = new ConnectionPool(url, DB_USER, DB_PASSWORD,
+                    poolMaxSize, POOL_BORROW_TIMEOUT_MS, POOL_IDLE_TIMEOUT_MS);
         }
         
-        // Inizializza le tabelle e i dati
-        initializer.initDatabase();
+        try {
+            // Testa la connessione
+            if (!testConnection()) {
+                throw new SQLException("Test di connessione fallito");
+            }
+            
+            // Inizializza le tabelle e i dati
+            if (templateScript != null) {
+                initializer.initFromScript(templateScript);
+            } else {
+                initializer.initDatabase();
+            }
+        } catch (SQLException | RuntimeException e) {
+            // Chiude le connessioni e il thread di pulizia del pool
+            pool.close();
+            pool = null;
+            throw e;
+        }
         
         initialized = true;
         System.out.println("Database inizializzato con successo!");
     }
 
     /**
-     * Ottiene una connessione al database.
+     * Ottiene una connessione dal pool. Va chiusa dopo l'uso per restituirla.
      */
     public Connection getConnection() throws SQLException {
         if (!initialized) {
             throw new SQLException("Database non inizializzato. Chiama initialize() prima.");
         }
         
-        return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        return pool.getConnection();
+    }
+
+    /**
+     * Ottiene una connessione dal pool senza verificare l'inizializzazione,
+     * usata da InitDatabase durante la creazione dello schema.
+     */
+    Connection getConnectionForInit() throws SQLException {
+        if (pool == null) {
+            throw new SQLException("Pool di connessioni non disponibile");
+        }
+        return pool.getConnection();
     }
 
     /**
      * Testa la connessione al database.
      */
     public boolean testConnection() {
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
+        if (pool == null) {
+            return false;
+        }
+        try (Connection conn = pool.getConnection()) {
             return conn.isValid(5); // timeout 5 secondi
         } catch (SQLException e) {
             System.err.println("Test connessione fallito: " + e.getMessage());
@@ -83,7 +167,7 @@ public class TBMDatabase {
     /**
      * Chiude il database.
      */
-    public void shutdown() {
+    public synchronized void shutdown() {
         if (!initialized) {
             return;
         }
@@ -95,6 +179,11 @@ public class TBMDatabase {
             System.err.println("Errore nella chiusura del database: " + e.getMessage());
         } finally {
             initialized = false;
+            if (GameLog.isDebugEnabled()) {
+                GameLog.debug(pool.getPoolInfo());
+            }
+            pool.close();
+            pool = null;
         }
     }
 
@@ -112,8 +201,11 @@ public class TBMDatabase {
         StringBuilder info = new StringBuilder();
         info.append("=== DATABASE INFO ===\n");
         info.append("Inizializzato: ").append(initialized).append("\n");
-        info.append("URL: ").append(DB_URL).append("\n");
+        info.append("URL: ").append(url).append("\n");
         info.append("Connessione attiva: ").append(testConnection()).append("\n");
+        if (pool != null) {
+            info.append(pool.getPoolInfo()).append("\n");
+        }
         
         if (initialized && testConnection()) {
             try (Connection conn = getConnection()) {
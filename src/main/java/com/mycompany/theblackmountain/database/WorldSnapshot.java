@@ -0,0 +1,469 @@
+/*
+ * Package database
+ */
+package com.mycompany.theblackmountain.database;
+
+import com.mycompany.theblackmountain.impl.TBMGame;
+import com.mycompany.theblackmountain.type.CharacterType;
+import com.mycompany.theblackmountain.type.GameCharacter;
+import com.mycompany.theblackmountain.type.GameObjects;
+import com.mycompany.theblackmountain.type.Room;
+import com.mycompany.theblackmountain.type.Weapon;
+import com.mycompany.theblackmountain.type.WeaponType;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fotografia immutabile del mondo di gioco all'inizio di una partita.
+ *
+ * Stanze, uscite, modelli di oggetti e personaggi sono memorizzati in array
+ * indicizzati, letti una sola volta dal database. Una nuova partita crea i
+ * propri Room, GameObjects e GameCharacter da qui con instantiate(), senza
+ * eseguire query.
+ */
+public final class WorldSnapshot {
+
+    // Direzioni nell'array delle uscite
+    public static final int NORTH = 0;
+    public static final int SOUTH = 1;
+    public static final int EAST = 2;
+    public static final int WEST = 3;
+
+    // Flag degli oggetti
+    private static final int OPENABLE = 1;
+    private static final int PICKUPABLE = 1 << 1;
+    private static final int PUSHABLE = 1 << 2;
+    private static final int OPEN = 1 << 3;
+    private static final int PUSHED = 1 << 4;
+    private static final int POISONED = 1 << 5;
+
+    // Stanze
+    private final int[] roomIds;
+    private final String[] roomNames;
+    private final String[] roomDescriptions;
+    private final String[] roomLooks;
+    private final boolean[] roomVisible;
+    private final int[] exits; // 4 per stanza, indice della stanza o -1
+    private final int[][] roomObjects; // indici dei modelli di oggetto
+
+    // Modelli di oggetto
+    private final int[] objectIds;
+    private final String[] objectNames;
+    private final String[] objectDescriptions;
+    private final String[][] objectAliases;
+    private final int[] objectFlags;
+    private final WeaponType[] weaponTypes; // null se non è un'arma
+    private final int[] weaponStats; // 4 per oggetto: bonus, critico %, moltiplicatore, veleno
+    private final String[] specialEffects;
+
+    // Modelli di personaggio
+    private final int[] characterIds;
+    private final String[] characterNames;
+    private final String[] characterDescriptions;
+    private final int[] characterStats; // 4 per personaggio: HP max, HP, attacco, difesa
+    private final CharacterType[] characterTypes;
+    private final int[] characterRooms; // indice della stanza, -1 per il giocatore
+
+    private final int playerIndex;
+    private final int[] inventory; // indici dei modelli di oggetto
+    private final int startRoom;
+
+    private WorldSnapshot(Builder b) {
+        this.roomIds = b.roomIds;
+        this.roomNames = b.roomNames;
+        this.roomDescriptions = b.roomDescriptions;
+        this.roomLooks = b.roomLooks;
+        this.roomVisible = b.roomVisible;
+        this.exits = b.exits;
+        this.roomObjects = b.roomObjects;
+        this.objectIds = b.objectIds;
+        this.objectNames = b.objectNames;
+        this.objectDescriptions = b.objectDescriptions;
+        this.objectAliases = b.objectAliases;
+        this.objectFlags = b.objectFlags;
+        this.weaponTypes = b.weaponTypes;
+        this.weaponStats = b.weaponStats;
+        this.specialEffects = b.specialEffects;
+        this.characterIds = b.characterIds;
+        this.characterNames = b.characterNames;
+        this.characterDescriptions = b.characterDescriptions;
+        this.characterStats = b.characterStats;
+        this.characterTypes = b.characterTypes;
+        this.characterRooms = b.characterRooms;
+        this.playerIndex = b.playerIndex;
+        this.inventory = b.inventory;
+        this.startRoom = b.startRoom;
+    }
+
+    /**
+     * Legge il mondo dal database con una query per tabella.
+     *
+     * @param conn connessione a un database nello stato di nuova partita
+     */
+    public static WorldSnapshot load(Connection conn) throws SQLException {
+        Builder b = new Builder();
+        try (Statement stmt = conn.createStatement()) {
+            b.loadRooms(stmt);
+            b.loadConnections(stmt);
+            b.loadObjects(stmt);
+            b.loadRoomObjects(stmt);
+            b.loadCharacters(stmt);
+            b.loadInventory(stmt);
+        }
+        return new WorldSnapshot(b);
+    }
+
+    /**
+     * Popola una partita con una copia indipendente del mondo.
+     *
+     * @param game partita da popolare
+     * @param roomMap mappa ID stanza -> stanza da riempire
+     */
+    public void instantiate(TBMGame game, Map<Integer, Room> roomMap) {
+        Room[] rooms = new Room[roomIds.length];
+        for (int r = 0; r < rooms.length; r++) {
+            Room room = new Room(roomIds[r], roomNames[r], roomDescriptions[r]);
+            room.setLook(roomLooks[r]);
+            room.setVisible(roomVisible[r]);
+            rooms[r] = room;
+            roomMap.put(room.getId(), room);
+            game.getRooms().add(room);
+        }
+
+        for (int r = 0; r < rooms.length; r++) {
+            int base = r * 4;
+            if (exits[base + NORTH] >= 0) {
+                rooms[r].setNorth(rooms[exits[base + NORTH]]);
+            }
+            if (exits[base + SOUTH] >= 0) {
+                rooms[r].setSouth(rooms[exits[base + SOUTH]]);
+            }
+            if (exits[base + EAST] >= 0) {
+                rooms[r].setEast(rooms[exits[base + EAST]]);
+            }
+            if (exits[base + WEST] >= 0) {
+                rooms[r].setWest(rooms[exits[base + WEST]]);
+            }
+            for (int o : roomObjects[r]) {
+                rooms[r].getObjects().add(newObject(o));
+            }
+        }
+
+        for (int c = 0; c < characterIds.length; c++) {
+            GameCharacter character = newCharacter(c);
+            if (c == playerIndex) {
+                game.setPlayer(character);
+            } else {
+                rooms[characterRooms[c]].getEnemies().add(character);
+            }
+        }
+
+        for (int o : inventory) {
+            game.getInventory().add(newObject(o));
+        }
+
+        if (startRoom >= 0) {
+            game.setCurrentRoom(rooms[startRoom]);
+        }
+    }
+
+    private GameObjects newObject(int o) {
+        GameObjects obj;
+        if (weaponTypes[o] != null) {
+            int base = o * 4;
+            Weapon weapon = new Weapon(objectIds[o], objectNames[o], objectDescriptions[o],
+                    weaponStats[base], weaponTypes[o], weaponStats[base + 1], weaponStats[base + 2]);
+            if ((objectFlags[o] & POISONED) != 0) {
+                weapon.applyPoison(weaponStats[base + 3]);
+                if (specialEffects[o] != null) {
+                    weapon.setSpecialEffect(specialEffects[o]);
+                }
+            }
+            obj = weapon;
+        } else {
+            obj = new GameObjects(objectIds[o], objectNames[o], objectDescriptions[o]);
+        }
+
+        int flags = objectFlags[o];
+        obj.setOpenable((flags & OPENABLE) != 0);
+        obj.setPickupable((flags & PICKUPABLE) != 0);
+        obj.setPushable((flags & PUSHABLE) != 0);
+        obj.setOpen((flags & OPEN) != 0);
+        obj.setPush((flags & PUSHED) != 0);
+        if (objectAliases[o] != null) {
+            obj.setAlias(objectAliases[o]);
+        }
+        return obj;
+    }
+
+    private GameCharacter newCharacter(int c) {
+        int base = c * 4;
+        GameCharacter character = new GameCharacter(characterIds[c], characterNames[c], characterDescriptions[c],
+                characterStats[base], characterStats[base + 2], characterStats[base + 3], characterTypes[c]);
+        character.setCurrentHp(characterStats[base + 1]);
+        return character;
+    }
+
+    public int getRoomCount() {
+        return roomIds.length;
+    }
+
+    public int getObjectCount() {
+        return objectIds.length;
+    }
+
+    public int getCharacterCount() {
+        return characterIds.length;
+    }
+
+    /**
+     * Raccoglie i dati letti dal database prima di congelarli negli array.
+     */
+    private static final class Builder {
+
+        private int[] roomIds;
+        private String[] roomNames;
+        private String[] roomDescriptions;
+        private String[] roomLooks;
+        private boolean[] roomVisible;
+        private int[] exits;
+        private int[][] roomObjects;
+        private final Map<Integer, Integer> roomIndex = new HashMap<>();
+
+        private int[] objectIds;
+        private String[] objectNames;
+        private String[] objectDescriptions;
+        private String[][] objectAliases;
+        private int[] objectFlags;
+        private WeaponType[] weaponTypes;
+        private int[] weaponStats;
+        private String[] specialEffects;
+        private final Map<Integer, Integer> objectIndex = new HashMap<>();
+
+        private int[] characterIds;
+        private String[] characterNames;
+        private String[] characterDescriptions;
+        private int[] characterStats;
+        private CharacterType[] characterTypes;
+        private int[] characterRooms;
+
+        private int playerIndex = -1;
+        private int[] inventory;
+        private int startRoom = -1;
+
+        private void loadRooms(Statement stmt) throws SQLException {
+            List<Object[]> rows = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery("SELECT ID, NAME, DESCRIPTION, LOOK_DESCRIPTION, VISIBLE FROM ROOMS ORDER BY ID")) {
+                while (rs.next()) {
+                    rows.add(new Object[]{rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getBoolean(5)});
+                }
+            }
+
+            int n = rows.size();
+            roomIds = new int[n];
+            roomNames = new String[n];
+            roomDescriptions = new String[n];
+            roomLooks = new String[n];
+            roomVisible = new boolean[n];
+            exits = new int[n * 4];
+            Arrays.fill(exits, -1);
+            for (int i = 0; i < n; i++) {
+                Object[] row = rows.get(i);
+                roomIds[i] = (Integer) row[0];
+                roomNames[i] = (String) row[1];
+                roomDescriptions[i] = (String) row[2];
+                roomLooks[i] = (String) row[3];
+                roomVisible[i] = (Boolean) row[4];
+                roomIndex.put(roomIds[i], i);
+            }
+        }
+
+        private void loadConnections(Statement stmt) throws SQLException {
+            try (ResultSet rs = stmt.executeQuery("SELECT ROOM_ID, NORTH_ID, SOUTH_ID, EAST_ID, WEST_ID FROM ROOM_CONNECTIONS")) {
+                while (rs.next()) {
+                    Integer r = roomIndex.get(rs.getInt(1));
+                    if (r == null) {
+                        continue;
+                    }
+                    for (int dir = 0; dir < 4; dir++) {
+                        Integer targetId = (Integer) rs.getObject(dir + 2);
+                        Integer target = targetId != null ? roomIndex.get(targetId) : null;
+                        if (target != null) {
+                            exits[r * 4 + dir] = target;
+                        }
+                    }
+                }
+            }
+        }
+
+        private void loadObjects(Statement stmt) throws SQLException {
+            String sql = """
+                SELECT o.*, w.WEAPON_TYPE, w.ATTACK_BONUS, w.CRITICAL_CHANCE,
+                       w.CRITICAL_MULTIPLIER, w.IS_POISONED, w.POISON_DAMAGE, w.SPECIAL_EFFECT
+                FROM OBJECTS o
+                LEFT JOIN WEAPONS w ON o.ID = w.OBJECT_ID
+                ORDER BY o.ID
+            """;
+
+            List<Object[]> rows = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    int flags = 0;
+                    flags |= rs.getBoolean("OPENABLE") ? OPENABLE : 0;
+                    flags |= rs.getBoolean("PICKUPABLE") ? PICKUPABLE : 0;
+                    flags |= rs.getBoolean("PUSHABLE") ? PUSHABLE : 0;
+                    flags |= rs.getBoolean("IS_OPEN") ? OPEN : 0;
+                    flags |= rs.getBoolean("IS_PUSHED") ? PUSHED : 0;
+
+                    WeaponType weaponType = null;
+                    int[] stats = new int[4];
+                    String specialEffect = null;
+                    if ("WEAPON".equals(rs.getString("OBJECT_TYPE")) && rs.getString("WEAPON_TYPE") != null) {
+                        weaponType = WeaponType.valueOf(rs.getString("WEAPON_TYPE"));
+                        stats[0] = rs.getInt("ATTACK_BONUS");
+                        stats[1] = rs.getInt("CRITICAL_CHANCE");
+                        stats[2] = rs.getInt("CRITICAL_MULTIPLIER");
+                        if (rs.getBoolean("IS_POISONED")) {
+                            flags |= POISONED;
+                            stats[3] = rs.getInt("POISON_DAMAGE");
+                            specialEffect = rs.getString("SPECIAL_EFFECT");
+                        }
+                    }
+
+                    String[] aliases = null;
+                    String aliasStr = rs.getString("ALIASES");
+                    if (aliasStr != null && !aliasStr.trim().isEmpty()) {
+                        aliases = aliasStr.split(",");
+                        for (int i = 0; i < aliases.length; i++) {
+                            aliases[i] = aliases[i].trim();
+                        }
+                    }
+
+                    rows.add(new Object[]{rs.getInt("ID"), rs.getString("NAME"), rs.getString("DESCRIPTION"),
+                        aliases, flags, weaponType, stats, specialEffect});
+                }
+            }
+
+            int n = rows.size();
+            objectIds = new int[n];
+            objectNames = new String[n];
+            objectDescriptions = new String[n];
+            objectAliases = new String[n][];
+            objectFlags = new int[n];
+            weaponTypes = new WeaponType[n];
+            weaponStats = new int[n * 4];
+            specialEffects = new String[n];
+            for (int i = 0; i < n; i++) {
+                Object[] row = rows.get(i);
+                objectIds[i] = (Integer) row[0];
+                objectNames[i] = (String) row[1];
+                objectDescriptions[i] = (String) row[2];
+                objectAliases[i] = (String[]) row[3];
+                objectFlags[i] = (Integer) row[4];
+                weaponTypes[i] = (WeaponType) row[5];
+                System.arraycopy((int[]) row[6], 0, weaponStats, i * 4, 4);
+                specialEffects[i] = (String) row[7];
+                objectIndex.put(objectIds[i], i);
+            }
+        }
+
+        private void loadRoomObjects(Statement stmt) throws SQLException {
+            List<List<Integer>> perRoom = new ArrayList<>();
+            for (int i = 0; i < roomIds.length; i++) {
+                perRoom.add(new ArrayList<>());
+            }
+
+            try (ResultSet rs = stmt.executeQuery("SELECT ROOM_ID, OBJECT_ID FROM ROOM_OBJECTS ORDER BY ROOM_ID, OBJECT_ID")) {
+                while (rs.next()) {
+                    Integer r = roomIndex.get(rs.getInt(1));
+                    Integer o = objectIndex.get(rs.getInt(2));
+                    if (r != null && o != null) {
+                        perRoom.get(r).add(o);
+                    }
+                }
+            }
+
+            roomObjects = new int[roomIds.length][];
+            for (int i = 0; i < roomIds.length; i++) {
+                roomObjects[i] = perRoom.get(i).stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+
+        private void loadCharacters(Statement stmt) throws SQLException {
+            List<Object[]> rows = new ArrayList<>();
+            int playerRoomId = -1;
+
+            try (ResultSet rs = stmt.executeQuery("SELECT * FROM CHARACTERS ORDER BY ID")) {
+                while (rs.next()) {
+                    CharacterType type = CharacterType.valueOf(rs.getString("CHARACTER_TYPE"));
+                    boolean alive = rs.getBoolean("IS_ALIVE");
+                    int currentHp = alive ? rs.getInt("CURRENT_HP") : 0;
+                    int roomRef = -1;
+
+                    if (type == CharacterType.PLAYER) {
+                        playerRoomId = rs.getInt("ROOM_ID");
+                    } else {
+                        // Come GameLoader: solo nemici vivi in stanze esistenti
+                        Integer r = roomIndex.get(rs.getInt("ROOM_ID"));
+                        if (!alive || currentHp <= 0 || r == null) {
+                            continue;
+                        }
+                        roomRef = r;
+                    }
+
+                    rows.add(new Object[]{rs.getInt("ID"), rs.getString("NAME"), rs.getString("DESCRIPTION"),
+                        new int[]{rs.getInt("MAX_HP"), currentHp, rs.getInt("ATTACK"), rs.getInt("DEFENSE")},
+                        type, roomRef});
+                }
+            }
+
+            int n = rows.size();
+            characterIds = new int[n];
+            characterNames = new String[n];
+            characterDescriptions = new String[n];
+            characterStats = new int[n * 4];
+            characterTypes = new CharacterType[n];
+            characterRooms = new int[n];
+            for (int i = 0; i < n; i++) {
+                Object[] row = rows.get(i);
+                characterIds[i] = (Integer) row[0];
+                characterNames[i] = (String) row[1];
+                characterDescriptions[i] = (String) row[2];
+                System.arraycopy((int[]) row[3], 0, characterStats, i * 4, 4);
+                characterTypes[i] = (CharacterType) row[4];
+                characterRooms[i] = (Integer) row[5];
+                if (characterTypes[i] == CharacterType.PLAYER) {
+                    playerIndex = i;
+                }
+            }
+
+            if (playerIndex < 0) {
+                throw new SQLException("Impossibile caricare il giocatore dal database");
+            }
+
+            Integer r = roomIndex.get(playerRoomId);
+            startRoom = r != null ? r : (roomIds.length > 0 ? 0 : -1);
+        }
+
+        private void loadInventory(Statement stmt) throws SQLException {
+            List<Integer> items = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery("SELECT OBJECT_ID FROM INVENTORY WHERE CHARACTER_ID = 0 ORDER BY OBJECT_ID")) {
+                while (rs.next()) {
+                    Integer o = objectIndex.get(rs.getInt(1));
+                    if (o != null) {
+                        items.add(o);
+                    }
+                }
+            }
+            inventory = items.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+}
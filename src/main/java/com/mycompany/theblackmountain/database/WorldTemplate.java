@@ -0,0 +1,109 @@
+/*
+ * Package database
+ */
+package com.mycompany.theblackmountain.database;
+
+import com.mycompany.theblackmountain.impl.TBMGame;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Modello del mondo di gioco all'inizio di una partita.
+ *
+ * Il modello viene costruito una sola volta per JVM: un database in memoria
+ * viene inizializzato e portato allo stato di nuova partita da un TBMGame
+ * headless, poi esportato con SCRIPT. Le sessioni creano il proprio database
+ * eseguendo lo script, invece di rieseguire InitDatabase e i reset globali
+ * su un database condiviso. Dallo stesso database viene letta anche una
+ * WorldSnapshot, da cui le sessioni creano gli oggetti di gioco senza query.
+ */
+public final class WorldTemplate {
+
+    private static final String TEMPLATE_DB_NAME = "tbm_world_template";
+
+    private static volatile List<String> script;
+    private static volatile WorldSnapshot snapshot;
+
+    private WorldTemplate() {
+    }
+
+    /**
+     * Restituisce lo script SQL del mondo iniziale, costruendolo al primo
+     * utilizzo.
+     */
+    public static List<String> getScript() throws Exception {
+        List<String> result = script;
+        if (result == null) {
+            synchronized (WorldTemplate.class) {
+                result = script;
+                if (result == null) {
+                    result = buildTemplate();
+                    script = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Restituisce la fotografia immutabile del mondo iniziale, condivisa da
+     * tutte le sessioni.
+     */
+    public static WorldSnapshot getSnapshot() throws Exception {
+        getScript();
+        return snapshot;
+    }
+
+    /**
+     * Crea il database di una nuova sessione copiando il modello.
+     *
+     * @param name nome univoco del database della sessione
+     */
+    public static TBMDatabase newSessionDatabase(String name) throws Exception {
+        return TBMDatabase.createFromTemplate(name, getScript());
+    }
+
+    /**
+     * Costruisce script e snapshot; snapshot viene assegnato prima che lo
+     * script sia pubblicato.
+     */
+    private static List<String> buildTemplate() throws Exception {
+        long start = System.nanoTime();
+        TBMDatabase templateDb = TBMDatabase.createInMemory(TEMPLATE_DB_NAME);
+        TBMGame templateGame = new TBMGame(templateDb, true);
+
+        try {
+            templateGame.init();
+            templateGame.flushPendingWrites();
+
+            List<String> statements = new ArrayList<>();
+            try (Connection conn = templateDb.getConnection()) {
+                try (Statement stmt = conn.createStatement();
+                        ResultSet rs = stmt.executeQuery("SCRIPT NOPASSWORDS NOSETTINGS")) {
+                    while (rs.next()) {
+                        String sql = rs.getString(1).trim();
+                        if (!sql.isEmpty() && !sql.startsWith("--") && !sql.startsWith("CREATE USER")) {
+                            statements.add(sql);
+                        }
+                    }
+                }
+                snapshot = WorldSnapshot.load(conn);
+            }
+
+            System.out.println("Modello del mondo creato (" + statements.size() + " istruzioni, "
+                    + snapshot.getRoomCount() + " stanze, " + snapshot.getObjectCount() + " oggetti, "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms)");
+            return List.copyOf(statements);
+
+        } catch (SQLException e) {
+            throw new SQLException("Impossibile creare il modello del mondo: " + e.getMessage(), e);
+        } finally {
+            templateGame.cleanup();
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Package database
+ */
+package com.mycompany.theblackmountain.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coda write-behind per le modifiche di stato del gioco.
+ *
+ * Le modifiche vengono accodate in memoria e accorpate per entità (l'ultimo
+ * valore vince), poi scritte nel database in un'unica transazione con
+ * statement batch da un thread in background. flush() applica subito le
+ * modifiche in sospeso ed è usato come barriera prima di letture, salvataggi e
+ * game over.
+ */
+public class WriteBehindQueue {
+
+    private static final String UPDATE_CHARACTER_SQL
+            = "UPDATE CHARACTERS SET CURRENT_HP = ?, IS_ALIVE = ? WHERE ID = ?";
+    private static final String UPDATE_OBJECT_SQL
+            = "UPDATE OBJECTS SET IS_OPEN = COALESCE(?, IS_OPEN), IS_PUSHED = COALESCE(?, IS_PUSHED) WHERE ID = ?";
+    private static final String DELETE_FROM_INVENTORY_SQL = "DELETE FROM INVENTORY WHERE OBJECT_ID = ?";
+    private static final String DELETE_FROM_ROOMS_SQL = "DELETE FROM ROOM_OBJECTS WHERE OBJECT_ID = ?";
+    private static final String INSERT_ROOM_OBJECT_SQL = "INSERT INTO ROOM_OBJECTS (ROOM_ID, OBJECT_ID) VALUES (?, ?)";
+    private static final String INSERT_INVENTORY_SQL = "INSERT INTO INVENTORY (CHARACTER_ID, OBJECT_ID) VALUES (?, ?)";
+
+    private final TBMDatabase database;
+    private final ScheduledExecutorService executor;
+    private final Object flushLock = new Object();
+
+    // Modifiche in sospeso, accorpate per ID entità
+    private Map<Integer, CharacterState> pendingCharacters = new LinkedHashMap<>();
+    private Map<Integer, ObjectState> pendingObjects = new LinkedHashMap<>();
+    private Map<Integer, ObjectLocation> pendingLocations = new LinkedHashMap<>();
+
+    private volatile boolean closed = false;
+
+    /**
+     * Costruttore.
+     *
+     * @param database database su cui scrivere
+     * @param flushIntervalMillis intervallo tra due scritture in background
+     */
+    public WriteBehindQueue(TBMDatabase database, long flushIntervalMillis) {
+        this.database = database;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "TBM-WriteBehind");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(this::backgroundFlush,
+                flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Accoda l'aggiornamento di HP e stato vitale di un personaggio.
+     */
+    public synchronized void enqueueCharacterState(int characterId, int currentHp, boolean alive) {
+        pendingCharacters.put(characterId, new CharacterState(currentHp, alive));
+    }
+
+    /**
+     * Accoda l'aggiornamento dei flag di un oggetto. Un valore null lascia
+     * invariato il flag corrispondente.
+     */
+    public synchronized void enqueueObjectState(int objectId, Boolean open, Boolean pushed) {
+        ObjectState previous = pendingObjects.get(objectId);
+        if (previous != null) {
+            if (open == null) {
+                open = previous.open;
+            }
+            if (pushed == null) {
+                pushed = previous.pushed;
+            }
+        }
+        pendingObjects.put(objectId, new ObjectState(open, pushed));
+    }
+
+    /**
+     * Accoda lo spostamento di un oggetto in una stanza.
+     */
+    public synchronized void enqueueMoveToRoom(int objectId, int roomId) {
+        pendingLocations.put(objectId, new ObjectLocation(roomId, false));
+    }
+
+    /**
+     * Accoda lo spostamento di un oggetto nell'inventario di un personaggio.
+     */
+    public synchronized void enqueueMoveToInventory(int objectId, int characterId) {
+        pendingLocations.put(objectId, new ObjectLocation(characterId, true));
+    }
+
+    /**
+     * Verifica se ci sono modifiche non ancora scritte.
+     */
+    public synchronized boolean hasPendingWrites() {
+        return !pendingCharacters.isEmpty() || !pendingObjects.isEmpty() || !pendingLocations.isEmpty();
+    }
+
+    private void backgroundFlush() {
+        try {
+            flush();
+        } catch (SQLException e) {
+            System.err.println("Errore nella scrittura differita: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Scrive subito tutte le modifiche in sospeso. Al ritorno il database
+     * riflette tutte le modifiche accodate prima della chiamata.
+     */
+    public void flush() throws SQLException {
+        synchronized (flushLock) {
+            Map<Integer, CharacterState> characters;
+            Map<Integer, ObjectState> objects;
+            Map<Integer, ObjectLocation> locations;
+
+            synchronized (this) {
+                if (!hasPendingWrites()) {
+                    return;
+                }
+                characters = pendingCharacters;
+                objects = pendingObjects;
+                locations = pendingLocations;
+                pendingCharacters = new LinkedHashMap<>();
+                pendingObjects = new LinkedHashMap<>();
+                pendingLocations = new LinkedHashMap<>();
+            }
+
+            try {
+                write(characters, objects, locations);
+            } catch (SQLException e) {
+                requeue(characters, objects, locations);
+                throw e;
+            }
+        }
+    }
+
+    private void write(Map<Integer, CharacterState> characters, Map<Integer, ObjectState> objects,
+            Map<Integer, ObjectLocation> locations) throws SQLException {
+        try (Connection conn = database.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try {
+                if (!characters.isEmpty()) {
+                    try (PreparedStatement stmt = conn.prepareStatement(UPDATE_CHARACTER_SQL)) {
+                        for (Map.Entry<Integer, CharacterState> e : characters.entrySet()) {
+                            stmt.setInt(1, e.getValue().currentHp);
+                            stmt.setBoolean(2, e.getValue().alive);
+                            stmt.setInt(3, e.getKey());
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+                }
+
+                if (!objects.isEmpty()) {
+                    try (PreparedStatement stmt = conn.prepareStatement(UPDATE_OBJECT_SQL)) {
+                        for (Map.Entry<Integer, ObjectState> e : objects.entrySet()) {
+                            setNullableBoolean(stmt, 1, e.getValue().open);
+                            setNullableBoolean(stmt, 2, e.getValue().pushed);
+                            stmt.setInt(3, e.getKey());
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+                }
+
+                if (!locations.isEmpty()) {
+                    writeLocations(conn, locations);
+                }
+
+                conn.commit();
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private void writeLocations(Connection conn, Map<Integer, ObjectLocation> locations) throws SQLException {
+        try (PreparedStatement deleteInv = conn.prepareStatement(DELETE_FROM_INVENTORY_SQL);
+                PreparedStatement deleteRoom = conn.prepareStatement(DELETE_FROM_ROOMS_SQL)) {
+            for (Integer objectId : locations.keySet()) {
+                deleteInv.setInt(1, objectId);
+                deleteInv.addBatch();
+                deleteRoom.setInt(1, objectId);
+                deleteRoom.addBatch();
+            }
+            deleteInv.executeBatch();
+            deleteRoom.executeBatch();
+        }
+
+        try (PreparedStatement insertRoom = conn.prepareStatement(INSERT_ROOM_OBJECT_SQL);
+                PreparedStatement insertInv = conn.prepareStatement(INSERT_INVENTORY_SQL)) {
+            boolean hasRoomRows = false;
+            boolean hasInventoryRows = false;
+
+            for (Map.Entry<Integer, ObjectLocation> e : locations.entrySet()) {
+                ObjectLocation location = e.getValue();
+                PreparedStatement stmt = location.inventory ? insertInv : insertRoom;
+                stmt.setInt(1, location.ownerId);
+                stmt.setInt(2, e.getKey());
+                stmt.addBatch();
+                hasInventoryRows |= location.inventory;
+                hasRoomRows |= !location.inventory;
+            }
+
+            if (hasRoomRows) {
+                insertRoom.executeBatch();
+            }
+            if (hasInventoryRows) {
+                insertInv.executeBatch();
+            }
+        }
+    }
+
+    private static void setNullableBoolean(PreparedStatement stmt, int index, Boolean value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(index, Types.BOOLEAN);
+        } else {
+            stmt.setBoolean(index, value);
+        }
+    }
+
+    /**
+     * Rimette in coda le modifiche non scritte senza sovrascrivere quelle più
+     * recenti accodate nel frattempo.
+     */
+    private synchronized void requeue(Map<Integer, CharacterState> characters, Map<Integer, ObjectState> objects,
+            Map<Integer, ObjectLocation> locations) {
+        characters.forEach(pendingCharacters::putIfAbsent);
+        objects.forEach(pendingObjects::putIfAbsent);
+        locations.forEach(pendingLocations::putIfAbsent);
+    }
+
+    /**
+     * Scarta le modifiche in sospeso di un oggetto (es. oggetto distrutto).
+     */
+    public synchronized void discardObject(int objectId) {
+        pendingObjects.remove(objectId);
+        pendingLocations.remove(objectId);
+    }
+
+    /**
+     * Scrive le modifiche in sospeso e ferma il thread in background.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(2, TimeUnit.SECONDS);
+            flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (SQLException e) {
+            System.err.println("Errore nella scrittura finale delle modifiche: " + e.getMessage());
+        }
+    }
+
+    private static final class CharacterState {
+
+        private final int currentHp;
+        private final boolean alive;
+
+        private CharacterState(int currentHp, boolean alive) {
+            this.currentHp = currentHp;
+            this.alive = alive;
+        }
+    }
+
+    private static final class ObjectState {
+
+        private final Boolean open;
+        private final Boolean pushed;
+
+        private ObjectState(Boolean open, Boolean pushed) {
+            this.open = open;
+            this.pushed = pushed;
+        }
+    }
+
+    private static final class ObjectLocation {
+
+        private final int ownerId;
+        private final boolean inventory;
+
+        private ObjectLocation(int ownerId, boolean inventory) {
+            this.ownerId = ownerId;
+            this.inventory = inventory;
+        }
+    }
+}
@@ -3,9 +3,14 @@ package com.mycompany.theblackmountain.gui;
 import com.mycompany.theblackmountain.impl.TBMGame;
 import com.mycompany.theblackmountain.parser.Parser;
 import com.mycompany.theblackmountain.parser.ParserOutput;
+import com.mycompany.theblackmountain.save.AutosaveJournal;
+import com.mycompany.theblackmountain.save.SaveData;
 import com.mycompany.theblackmountain.save.SaveManager;
+import com.mycompany.theblackmountain.systems.DoorSystem;
 import com.mycompany.theblackmountain.type.Room;
+import com.mycompany.theblackmountain.type.Direction;
 import com.mycompany.theblackmountain.thread.MusicManager;
+import com.mycompany.theblackmountain.gui.utils.OutputConsole;
 import com.mycompany.theblackmountain.gui.utils.UIComponents;
 import com.mycompany.theblackmountain.gui.utils.UIImageManager;
 
@@ -19,6 +24,7 @@ import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.StringWriter;
 import java.util.HashSet;
+import com.mycompany.theblackmountain.log.GameLog;
 
 public class GameGUI extends JFrame {
 
@@ -26,7 +32,7 @@ public class GameGUI extends JFrame {
     private final Parser parser;
 
     // Componenti UI
-    private JTextArea outputArea;
+    private OutputConsole outputConsole;
     private JTextField inputField;
     private JButton northButton, southButton, eastButton, westButton;
     private JButton inventoryButton, saveButton, soundToggleButton;
@@ -45,22 +51,13 @@ public class GameGUI extends JFrame {
         this(null);
     }
 
-    public GameGUI(String saveData) throws Exception {
+    public GameGUI(SaveData saveData) throws Exception {
         game = new TBMGame();
         game.init();
 
         if (saveData != null) {
             SaveManager.applyLoadedData(game, saveData, game.getCombatSystem());
-            for (String line : saveData.split("\n")) {
-                if (line.startsWith("play.time=")) {
-                    try {
-                        totalPlayTime = Long.parseLong(line.substring("play.time=".length()));
-                    } catch (NumberFormatException e) {
-                        totalPlayTime = 0;
-                    }
-                    break;
-                }
-            }
+            totalPlayTime = saveData.getPlayTime();
         } else {
             totalPlayTime = 0;
         }
@@ -70,6 +67,8 @@ public class GameGUI extends JFrame {
 
         setupUI();
         initializeGame(saveData);
+        startAutosave();
+        game.addCompletionListener(this::onGameCompleted);
     }
 
     /**
@@ -86,6 +85,8 @@ public class GameGUI extends JFrame {
 
         setupUI();
         initializeGameWithLoadedData();
+        startAutosave();
+        game.addCompletionListener(this::onGameCompleted);
     }
 
     private void setupUI() {
@@ -114,8 +115,8 @@ public class GameGUI extends JFrame {
         );
 
         // Area di output
-        outputArea = UIComponents.createOutputArea(gameFont);
-        JScrollPane scrollPane = new JScrollPane(outputArea);
+        outputConsole = UIComponents.createOutputConsole(gameFont);
+        JScrollPane scrollPane = new JScrollPane(outputConsole);
         scrollPane.setPreferredSize(new Dimension(1200, 500)); // Ridotta l'altezza per fare spazio all'input
         scrollPane.setOpaque(false);
         scrollPane.getViewport().setOpaque(false);
@@ -273,6 +274,7 @@ public class GameGUI extends JFrame {
             @Override
             public void windowClosing(WindowEvent e) {
                 if (game != null) {
+                    stopAutosave();
                     game.cleanup();
                 }
                 MusicManager.getInstance().stopMusic();
@@ -306,8 +308,30 @@ public class GameGUI extends JFrame {
         return wrapper;
     }
 
+    /**
+     * Uscita finale: dopo 2 secondi mostra l'outro, poi chiude il gioco.
+     * Chiamato dal thread che elabora i comandi.
+     */
+    private void onGameCompleted() {
+        SwingUtilities.invokeLater(() -> {
+            Timer outroTimer = new Timer(2000, e -> {
+                OutroScreen.showOutro(null, () -> {
+                    // Dopo l'outro, aspetta 3 secondi e chiudi il gioco
+                    Timer exitTimer = new Timer(3000, exitEvent -> {
+                        GameLog.debug("Gioco completato - Uscita...");
+                        System.exit(0);
+                    });
+                    exitTimer.setRepeats(false);
+                    exitTimer.start();
+                });
+            });
+            outroTimer.setRepeats(false);
+            outroTimer.start();
+        });
+    }
+
 // Modifica initializeGame per aggiungere debug:
-    private void initializeGame(String saveData) {
+    private void initializeGame(SaveData saveData) {
         if (saveData == null) {
             appendToOutput("=== BENVENUTO IN THE BLACK MOUNTAIN ===");
             appendToOutput("Un'avventura testuale nella fortezza maledetta");
@@ -366,7 +390,7 @@ public class GameGUI extends JFrame {
         appendToOutput("\n> " + command);
 
         // *** DEBUG: Stato PRIMA del comando ***
-        System.out.println("🔍 PRIMA del comando '" + command + "':");
+        GameLog.debug(() -> "🔍 PRIMA del comando '" + command + "':");
         game.debugPlayerState();
 
         ParserOutput output = parser.parse(command, game.getCommands(),
@@ -404,7 +428,7 @@ public class GameGUI extends JFrame {
         // ==========================
 
         // *** DEBUG: Stato DOPO il comando ***
-        System.out.println("🔍 DOPO il comando '" + command + "':");
+        GameLog.debug(() -> "🔍 DOPO il comando '" + command + "':");
         game.debugPlayerState();
 
         updateUI();
@@ -412,19 +436,19 @@ public class GameGUI extends JFrame {
         inputField.requestFocus();
 
         // *** CONTROLLO GAME OVER ***
-        System.out.println("🔍 Controllo Game Over...");
+        GameLog.debug("🔍 Controllo Game Over...");
         checkAndHandleGameOver();
     }
 
 // E modifica anche il metodo checkAndHandleGameOver per aggiungere più debug:
     private void checkAndHandleGameOver() {
-        System.out.println(" checkAndHandleGameOver() chiamato");
+        GameLog.debug(" checkAndHandleGameOver() chiamato");
 
         if (game.isGameOver()) {
-            System.out.println(" Game Over rilevato!");
+            GameLog.debug(" Game Over rilevato!");
             handleGameOver();
         } else {
-            System.out.println(" Giocatore ancora vivo");
+            GameLog.debug(" Giocatore ancora vivo");
         }
     }
 
@@ -456,23 +480,58 @@ public class GameGUI extends JFrame {
 
         if (saveName != null && !saveName.trim().isEmpty()) {
             long currentPlayTime = totalPlayTime + (System.currentTimeMillis() - gameStartTime);
-            boolean success = SaveManager.saveGame(game, game.getCombatSystem(),
-                    saveName.trim(), currentPlayTime);
-
-            if (success) {
-                appendToOutput("\nPartita salvata con successo: " + saveName);
-                JOptionPane.showMessageDialog(this,
-                        "Partita salvata con successo!",
-                        "Salvataggio",
-                        JOptionPane.INFORMATION_MESSAGE);
-            } else {
-                appendToOutput("\nErrore nel salvataggio della partita!");
-                JOptionPane.showMessageDialog(this,
-                        "Errore nel salvataggio!",
-                        "Errore",
-                        JOptionPane.ERROR_MESSAGE);
-            }
+            appendToOutput("\nSalvataggio in corso...");
+
+            // La scrittura avviene in background: l'interfaccia resta reattiva
+            SaveManager.saveGameAsync(game, game.getCombatSystem(), saveName.trim(), currentPlayTime)
+                    .thenAccept(success -> SwingUtilities.invokeLater(() -> {
+                        if (success) {
+                            appendToOutput("Partita salvata con successo: " + saveName);
+                            JOptionPane.showMessageDialog(this,
+                                    "Partita salvata con successo!",
+                                    "Salvataggio",
+                                    JOptionPane.INFORMATION_MESSAGE);
+                        } else {
+                            appendToOutput("Errore nel salvataggio della partita!");
+                            JOptionPane.showMessageDialog(this,
+                                    "Errore nel salvataggio!",
+                                    "Errore",
+                                    JOptionPane.ERROR_MESSAGE);
+                        }
+                    }));
+        }
+    }
+
+    /**
+     * Avvia il salvataggio automatico partendo dallo stato attuale del gioco,
+     * chiudendo quello precedente
+     */
+    private void startAutosave() {
+        stopAutosave();
+        long currentPlayTime = totalPlayTime + (System.currentTimeMillis() - gameStartTime);
+        game.setAutosave(AutosaveJournal.start(SaveManager.createSaveData(game, game.getCombatSystem(),
+                "Autosalvataggio", currentPlayTime)));
+    }
+
+    /**
+     * Ferma il salvataggio automatico ed elimina la sessione, perché la
+     * partita è stata chiusa normalmente
+     */
+    private void stopAutosave() {
+        AutosaveJournal autosave = game.getAutosave();
+        if (autosave != null) {
+            game.setAutosave(null);
+            autosave.close(true);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        // Partita conclusa (es. completamento): niente da recuperare
+        if (game != null) {
+            stopAutosave();
         }
+        super.dispose();
     }
 
     private void toggleSound() {
@@ -538,9 +597,21 @@ public class GameGUI extends JFrame {
     }
 
     private void updateMapDisplay() {
-        if (game.getCurrentRoom() != null) {
-            mapPanel.updateMap(game.getCurrentRoom().getName());
+        Room currentRoom = game.getCurrentRoom();
+        if (currentRoom == null) {
+            return;
+        }
+        // Uscite chiuse a chiave, mostrate come lucchetti sulla mappa
+        int lockedExits = 0;
+        DoorSystem doorSystem = game.getDoorSystem();
+        if (doorSystem != null) {
+            for (Direction direction : Direction.values()) {
+                if (direction.getExit(currentRoom) != null && doorSystem.isDoorLocked(currentRoom.getId(), direction)) {
+                    lockedExits |= 1 << direction.ordinal();
+                }
+            }
         }
+        mapPanel.updateMap(currentRoom.getName(), lockedExits);
     }
 
     /**
@@ -648,10 +719,7 @@ public class GameGUI extends JFrame {
     }
 
     private void appendToOutput(String text) {
-        SwingUtilities.invokeLater(() -> {
-            outputArea.append(text + "\n");
-            outputArea.setCaretPosition(outputArea.getDocument().getLength());
-        });
+        outputConsole.append(text);
     }
 
     private Font loadCustomFont(float size) {
@@ -698,9 +766,10 @@ public class GameGUI extends JFrame {
             // Reset del tempo di gioco
             totalPlayTime = 0;
             gameStartTime = System.currentTimeMillis();
+            startAutosave();
 
             // Pulisci l'output
-            outputArea.setText("");
+            outputConsole.clear();
 
             // Mostra la stanza corrente
             appendToOutput(game.getCurrentRoom().getName());
@@ -729,6 +798,7 @@ public class GameGUI extends JFrame {
      */
     private void exitGame() {
         if (game != null) {
+            stopAutosave();
             game.cleanup();
         }
         MusicManager.getInstance().stopMusic();
@@ -4,15 +4,19 @@ import com.mycompany.theblackmountain.gui.utils.UIComponents;
 import com.mycompany.theblackmountain.gui.utils.UIImageManager;
 import com.mycompany.theblackmountain.gui.utils.ImagePathConfig;
 import com.mycompany.theblackmountain.impl.TBMGame;
+import com.mycompany.theblackmountain.save.SaveData;
 import com.mycompany.theblackmountain.save.SaveManager;
-import com.mycompany.theblackmountain.parser.Parser;
 import com.mycompany.theblackmountain.thread.MusicManager;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.HashSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Schermata di caricamento reale per il gioco
@@ -21,21 +25,31 @@ import java.util.HashSet;
  */
 public class LoadingScreen extends JDialog {
 
+    private static final int LOADER_THREADS = 4;
+
+    // Peso di ogni attività sulla barra (totale 100)
+    private static final int WORLD_PHASE_WEIGHT = 10; // per ognuna delle 5 fasi
+    private static final int SAVE_WEIGHT = 15;
+    private static final int IMAGES_WEIGHT = 20;
+    private static final int AUDIO_WEIGHT = 15;
+
     private JProgressBar progressBar;
     private JLabel loadingLabel;
     private JLabel statusLabel;
     private Timer animationTimer;
     private int animationFrame = 0;
+    private final AtomicInteger completedWeight = new AtomicInteger();
+    private long loadingStartNanos;
 
     // Callback per quando il caricamento è completato
     private LoadingCompleteCallback onComplete;
 
     // Dati per il gioco
-    private String saveData;
+    private SaveData saveData;
     private TBMGame loadedGame;
     private long totalPlayTime;
 
-    public LoadingScreen(JFrame parent, String saveData, LoadingCompleteCallback onComplete) {
+    public LoadingScreen(JFrame parent, SaveData saveData, LoadingCompleteCallback onComplete) {
         super(parent, "Caricamento", true);
         this.saveData = saveData;
         this.onComplete = onComplete;
@@ -117,9 +131,16 @@ public class LoadingScreen extends JDialog {
     }
 
     /**
-     * Avvia il caricamento reale del gioco
+     * Avvia il caricamento reale del gioco.
+     *
+     * Le attività indipendenti (mondo di gioco dal database, immagini, audio)
+     * partono insieme; il ripristino del salvataggio attende il mondo.
+     * La barra avanza di un peso fisso al completamento di ogni attività e di
+     * ogni fase del caricamento del mondo.
      */
     private void startRealLoading() {
+        loadingStartNanos = System.nanoTime();
+
         // Timer per l'animazione del testo
         animationTimer = new Timer(500, new ActionListener() {
             @Override
@@ -135,97 +156,109 @@ public class LoadingScreen extends JDialog {
         });
         animationTimer.start();
 
-        // Avvia il caricamento reale in background
-        SwingWorker<TBMGame, LoadingStep> gameLoader = new SwingWorker<TBMGame, LoadingStep>() {
-            @Override
-            protected TBMGame doInBackground() throws Exception {
-                // Fase 1: Inizializzazione sistema di gioco
-                publish(new LoadingStep(10, "Inizializzazione del sistema", "Avvio dei componenti base"));
-                Thread.sleep(300); // Piccolo delay per mostrare il progresso
-
-                TBMGame game = new TBMGame();
-
-                // Fase 2: Caricamento delle stanze
-                publish(new LoadingStep(25, "Caricamento mondo di gioco", "Costruzione delle stanze"));
-                game.init();
-                Thread.sleep(400);
-
-                // Fase 3: Inizializzazione parser
-                publish(new LoadingStep(40, "Configurazione parser", "Preparazione comandi"));
-                Parser parser = new Parser(new HashSet<>());
-                Thread.sleep(300);
-
-                // Fase 4: Caricamento immagini UI
-                publish(new LoadingStep(55, "Caricamento risorse grafiche", "Pre-caricamento immagini"));
-                preloadImages();
-                Thread.sleep(500);
-
-                // Fase 5: Applicazione dati di salvataggio (se presenti)
-                if (saveData != null) {
-                    publish(new LoadingStep(70, "Ripristino salvataggio", "Applicazione dati salvati"));
-                    applySaveData(game);
-                    Thread.sleep(400);
-                } else {
-                    publish(new LoadingStep(70, "Configurazione nuova partita", "Impostazione stato iniziale"));
-                    Thread.sleep(300);
-                }
+        showStep(new LoadingStep(0, "Inizializzazione del sistema", "Avvio dei componenti base"));
 
-                // Fase 6: Inizializzazione audio
-                publish(new LoadingStep(85, "Inizializzazione sistema audio", "Caricamento effetti sonori"));
-                initializeAudioSystem();
-                Thread.sleep(300);
+        ExecutorService executor = Executors.newFixedThreadPool(LOADER_THREADS, r -> {
+            Thread t = new Thread(r, "TBM-Loading");
+            t.setDaemon(true);
+            return t;
+        });
 
-                // Fase 7: Finalizzazione
-                publish(new LoadingStep(100, "Finalizzazione", "Completamento caricamento"));
-                Thread.sleep(200);
+        // Mondo di gioco: database e caricamento dei dati
+        CompletableFuture<TBMGame> worldTask = CompletableFuture.supplyAsync(() -> timed("mondo di gioco", () -> {
+            TBMGame game = new TBMGame();
+            game.setLoadListener((phase, elapsedMillis) -> advance(WORLD_PHASE_WEIGHT,
+                    "Caricamento mondo di gioco", phase.getDescription() + " (" + elapsedMillis + " ms)"));
+            game.init();
+            return game;
+        }), executor);
+
+        // Salvataggio: richiede il mondo già caricato
+        CompletableFuture<TBMGame> gameTask = worldTask.thenApplyAsync(game -> timed("salvataggio", () -> {
+            applySaveData(game);
+            advance(SAVE_WEIGHT, saveData != null ? "Ripristino salvataggio" : "Configurazione nuova partita",
+                    saveData != null ? "Dati salvati applicati" : "Stato iniziale impostato");
+            return game;
+        }), executor);
+
+        CompletableFuture<Void> imagesTask = CompletableFuture.runAsync(() -> timed("immagini", () -> {
+            preloadImages();
+            advance(IMAGES_WEIGHT, "Caricamento risorse grafiche", "Immagini pre-caricate");
+            return null;
+        }), executor);
+
+        CompletableFuture<Void> audioTask = CompletableFuture.runAsync(() -> timed("audio", () -> {
+            initializeAudioSystem();
+            advance(AUDIO_WEIGHT, "Inizializzazione sistema audio", "Musica decodificata");
+            return null;
+        }), executor);
+
+        CompletableFuture.allOf(gameTask, imagesTask, audioTask)
+                .whenComplete((ignored, error) -> {
+                    executor.shutdown();
+                    SwingUtilities.invokeLater(() -> finishLoading(gameTask, error));
+                });
+    }
 
-                return game;
-            }
+    /**
+     * Chiude la schermata e consegna la partita, oppure mostra l'errore.
+     */
+    private void finishLoading(CompletableFuture<TBMGame> gameTask, Throwable error) {
+        animationTimer.stop();
+
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            JOptionPane.showMessageDialog(LoadingScreen.this,
+                    "Errore durante il caricamento: " + cause.getMessage(),
+                    "Errore",
+                    JOptionPane.ERROR_MESSAGE);
+            dispose();
+            cause.printStackTrace();
+            return;
+        }
 
-            @Override
-            protected void process(java.util.List<LoadingStep> chunks) {
-                for (LoadingStep step : chunks) {
-                    SwingUtilities.invokeLater(() -> {
-                        progressBar.setValue(step.getProgress());
-                        progressBar.setString(step.getProgress() + "%");
-                        loadingLabel.setText(step.getMainText());
-                        statusLabel.setText(step.getDetailText());
-                    });
-                }
-            }
+        loadedGame = gameTask.join();
+        showStep(new LoadingStep(100, "Finalizzazione", "Completamento caricamento"));
+        System.out.println("Partita giocabile dopo " + (System.nanoTime() - loadingStartNanos) / 1_000_000
+                + " ms dall'avvio del caricamento");
 
-            @Override
-            protected void done() {
-                animationTimer.stop();
-
-                try {
-                    loadedGame = get();
-
-                    // Pausa breve per mostrare il completamento
-                    Timer completeTimer = new Timer(500, e -> {
-                        dispose();
-                        if (onComplete != null) {
-                            onComplete.onLoadingComplete(loadedGame, totalPlayTime);
-                        }
-                        ((Timer) e.getSource()).stop();
-                    });
-                    completeTimer.setRepeats(false);
-                    completeTimer.start();
-
-                } catch (Exception e) {
-                    // Gestione errori
-                    animationTimer.stop();
-                    JOptionPane.showMessageDialog(LoadingScreen.this,
-                            "Errore durante il caricamento: " + e.getMessage(),
-                            "Errore",
-                            JOptionPane.ERROR_MESSAGE);
-                    dispose();
-                    e.printStackTrace();
-                }
-            }
-        };
+        dispose();
+        if (onComplete != null) {
+            onComplete.onLoadingComplete(loadedGame, totalPlayTime);
+        }
+    }
+
+    /**
+     * Aggiunge il peso di un'attività completata e aggiorna la schermata.
+     */
+    private void advance(int weight, String mainText, String detailText) {
+        int progress = Math.min(100, completedWeight.addAndGet(weight));
+        SwingUtilities.invokeLater(() -> showStep(new LoadingStep(progress, mainText, detailText)));
+    }
 
-        gameLoader.execute();
+    private void showStep(LoadingStep step) {
+        // Gli aggiornamenti arrivano da più thread: la barra non torna indietro
+        int progress = Math.max(progressBar.getValue(), step.getProgress());
+        progressBar.setValue(progress);
+        progressBar.setString(progress + "%");
+        loadingLabel.setText(step.getMainText());
+        statusLabel.setText(step.getDetailText());
+    }
+
+    /**
+     * Esegue un'attività di caricamento registrandone la durata.
+     */
+    private static <T> T timed(String name, LoadingTask<T> task) {
+        long start = System.nanoTime();
+        try {
+            return task.run();
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        } finally {
+            System.out.println("Caricamento " + name + ": " + (System.nanoTime() - start) / 1_000_000 + " ms ["
+                    + Thread.currentThread().getName() + "]");
+        }
     }
 
     /**
@@ -245,9 +278,12 @@ public class LoadingScreen extends JDialog {
             "magnifier", "save", "volume_on", "volume_off", "commands", "help"
         };
 
-        for (String buttonName : commonButtons) {
-            imageManager.loadButtonImages(buttonName, 50, 50);
+        // Il ridimensionamento è asincrono: aspetta che finisca prima di segnare il progresso
+        CompletableFuture<?>[] scaled = new CompletableFuture<?>[commonButtons.length];
+        for (int i = 0; i < commonButtons.length; i++) {
+            scaled[i] = imageManager.preloadButtonImages(commonButtons[i], 50, 50);
         }
+        CompletableFuture.allOf(scaled).join();
     }
 
     /**
@@ -256,28 +292,26 @@ public class LoadingScreen extends JDialog {
     private void applySaveData(TBMGame game) throws Exception {
         if (saveData != null) {
             SaveManager.applyLoadedData(game, saveData, game.getCombatSystem());
-
-            // Estrai il tempo di gioco salvato
-            for (String line : saveData.split("\n")) {
-                if (line.startsWith("play.time=")) {
-                    try {
-                        totalPlayTime = Long.parseLong(line.substring("play.time=".length()));
-                    } catch (NumberFormatException e) {
-                        totalPlayTime = 0;
-                    }
-                    break;
-                }
-            }
+            totalPlayTime = saveData.getPlayTime();
         } else {
             totalPlayTime = 0;
         }
     }
 
     /**
-     * Inizializza il sistema audio
+     * Inizializza il sistema audio decodificando la musica in anticipo
      */
     private void initializeAudioSystem() {
-        MusicManager.getInstance();
+        MusicManager.getInstance().preloadMusic();
+    }
+
+    /**
+     * Attività di caricamento che può lanciare eccezioni
+     */
+    @FunctionalInterface
+    private interface LoadingTask<T> {
+
+        T run() throws Exception;
     }
 
     /**
@@ -370,7 +404,7 @@ public class LoadingScreen extends JDialog {
     /**
      * Mostra la schermata di caricamento reale
      */
-    public static void showRealLoadingScreen(JFrame parent, String saveData, LoadingCompleteCallback onComplete) {
+    public static void showRealLoadingScreen(JFrame parent, SaveData saveData, LoadingCompleteCallback onComplete) {
         SwingUtilities.invokeLater(() -> {
             LoadingScreen loadingScreen = new LoadingScreen(parent, saveData, onComplete);
             loadingScreen.setVisible(true);
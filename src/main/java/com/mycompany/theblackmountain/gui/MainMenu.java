@@ -1,7 +1,10 @@
 package com.mycompany.theblackmountain.gui;
 
 import com.mycompany.theblackmountain.thread.MusicManager;
+import com.mycompany.theblackmountain.save.AutosaveJournal;
+import com.mycompany.theblackmountain.save.SaveData;
 import com.mycompany.theblackmountain.save.SaveManager;
+import com.mycompany.theblackmountain.save.SaveSlot;
 import com.mycompany.theblackmountain.gui.utils.UIComponents;
 import com.mycompany.theblackmountain.gui.utils.UIImageManager;
 
@@ -9,6 +12,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionListener;
 import java.io.*;
+import java.util.List;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.Clip;
@@ -28,6 +32,41 @@ public class MainMenu extends JFrame {
 
         // Avvia la musica usando il MusicManager
         MusicManager.getInstance().startMusic();
+
+        // Propone il recupero di una partita interrotta
+        SwingUtilities.invokeLater(this::checkAutosaveRecovery);
+    }
+
+    /**
+     * Se l'ultima esecuzione si è interrotta con una partita in corso, chiede
+     * se recuperarla dal salvataggio automatico.
+     */
+    private void checkAutosaveRecovery() {
+        File session = AutosaveJournal.findRecoverableSession();
+        if (session == null) {
+            return;
+        }
+
+        int choice = JOptionPane.showConfirmDialog(this,
+                "L'ultima partita non è stata chiusa correttamente.\nVuoi recuperarla?",
+                "Recupero partita",
+                JOptionPane.YES_NO_OPTION,
+                JOptionPane.QUESTION_MESSAGE);
+
+        if (choice == JOptionPane.YES_OPTION) {
+            try {
+                SaveData saveData = AutosaveJournal.recover(session);
+                AutosaveJournal.deleteSession(session);
+                startSavedGame(saveData);
+            } catch (Exception e) {
+                JOptionPane.showMessageDialog(this,
+                        "Impossibile recuperare la partita: " + e.getMessage(),
+                        "Errore", JOptionPane.ERROR_MESSAGE);
+                e.printStackTrace();
+            }
+        } else {
+            AutosaveJournal.deleteSession(session);
+        }
     }
 
     private void setupUI() {
@@ -250,7 +289,7 @@ public class MainMenu extends JFrame {
         UIImageManager imageManager = UIImageManager.getInstance();
 
         String imageName = musicEnabled ? "volume_on" : "volume_off";
-        ImageIcon icon = imageManager.loadScaledImage(
+        ImageIcon icon = imageManager.loadScaledImageAsync(
                 UIImageManager.ICONS_PATH + imageName + ".png", 48, 48);
 
         button.setIcon(icon);
@@ -342,6 +381,48 @@ public class MainMenu extends JFrame {
     }
 
     private void loadGame() {
+        // Elenco dei salvataggi letto dal catalogo, senza aprire i file
+        List<SaveSlot> slots = SaveManager.listSaveSlots();
+        if (slots.isEmpty()) {
+            loadGameFromFile();
+            return;
+        }
+
+        // Il modello legge le voci dal catalogo solo quando vengono mostrate
+        JList<SaveSlot> slotList = new JList<>(new AbstractListModel<SaveSlot>() {
+            @Override
+            public int getSize() {
+                return slots.size();
+            }
+
+            @Override
+            public SaveSlot getElementAt(int index) {
+                return slots.get(index);
+            }
+        });
+        slotList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        // Dimensioni fisse: la JList non deve misurare tutte le voci
+        slotList.setFixedCellWidth(520);
+        slotList.setFixedCellHeight(22);
+        slotList.setSelectedIndex(0);
+        slotList.setVisibleRowCount(Math.min(slots.size(), 10));
+
+        Object[] options = {"Carica", "Altro file...", "Annulla"};
+        int choice = JOptionPane.showOptionDialog(this,
+                new JScrollPane(slotList),
+                "Carica Partita Salvata",
+                JOptionPane.DEFAULT_OPTION,
+                JOptionPane.PLAIN_MESSAGE,
+                null, options, options[0]);
+
+        if (choice == 0 && slotList.getSelectedValue() != null) {
+            loadSaveFile(SaveManager.getSaveFile(slotList.getSelectedValue()));
+        } else if (choice == 1) {
+            loadGameFromFile();
+        }
+    }
+
+    private void loadGameFromFile() {
         JFileChooser fileChooser = new JFileChooser(new File(SaveManager.SAVE_DIRECTORY));
         fileChooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter(
                 "File di salvataggio TBM", "dat"));
@@ -351,32 +432,46 @@ public class MainMenu extends JFrame {
 
         int result = fileChooser.showOpenDialog(this);
         if (result == JFileChooser.APPROVE_OPTION) {
-            try {
-                String saveData = SaveManager.loadGame(fileChooser.getSelectedFile());
-
-                // Usa il caricamento reale anche per i salvataggi
-                LoadingScreen.showRealLoadingScreen(this, saveData, (game, totalPlayTime) -> {
-                    SwingUtilities.invokeLater(() -> {
-                        try {
-                            GameGUI gameGUI = new GameGUI(game, totalPlayTime);
-                            gameGUI.setVisible(true);
-                            this.dispose();
-                        } catch (Exception e) {
-                            JOptionPane.showMessageDialog(this,
-                                    "Errore nel caricamento del gioco: " + e.getMessage(),
-                                    "Errore", JOptionPane.ERROR_MESSAGE);
-                            e.printStackTrace();
-                        }
-                    });
-                });
+            loadSaveFile(fileChooser.getSelectedFile());
+        }
+    }
 
-            } catch (Exception ex) {
+    /**
+     * Legge il salvataggio in background e poi avvia la partita
+     */
+    private void loadSaveFile(File saveFile) {
+        SaveManager.loadGameAsync(saveFile).whenComplete((saveData, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
                 JOptionPane.showMessageDialog(this,
-                        "Errore nel caricamento: " + ex.getMessage(),
+                        "Errore nel caricamento: " + cause.getMessage(),
                         "Errore", JOptionPane.ERROR_MESSAGE);
-                ex.printStackTrace();
+                cause.printStackTrace();
+            } else {
+                startSavedGame(saveData);
             }
-        }
+        }));
+    }
+
+    /**
+     * Avvia una partita salvata con la schermata di caricamento
+     */
+    private void startSavedGame(SaveData saveData) {
+        // Usa il caricamento reale anche per i salvataggi
+        LoadingScreen.showRealLoadingScreen(this, saveData, (game, totalPlayTime) -> {
+            SwingUtilities.invokeLater(() -> {
+                try {
+                    GameGUI gameGUI = new GameGUI(game, totalPlayTime);
+                    gameGUI.setVisible(true);
+                    this.dispose();
+                } catch (Exception e) {
+                    JOptionPane.showMessageDialog(this,
+                            "Errore nel caricamento del gioco: " + e.getMessage(),
+                            "Errore", JOptionPane.ERROR_MESSAGE);
+                    e.printStackTrace();
+                }
+            });
+        });
     }
 
     private void exitGame() {
@@ -0,0 +1,193 @@
+package com.mycompany.theblackmountain.gui.utils;
+
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.swing.ImageIcon;
+
+/**
+ * Cache di immagini limitata in memoria, thread-safe, con rimozione LRU.
+ *
+ * Ogni voce pesa quanto i suoi pixel (larghezza x altezza x 4 byte). Quando il
+ * totale supera il budget vengono rimosse le immagini usate meno di recente;
+ * se la riserva soft è attiva, le immagini rimosse restano raggiungibili
+ * tramite SoftReference finché il garbage collector non ha bisogno di
+ * memoria.
+ *
+ * @author vince
+ */
+public class ImageCache {
+
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, SoftReference<ImageIcon>> spill = new HashMap<>();
+    private final boolean softSpill;
+    private long maxBytes;
+    private long currentBytes;
+
+    // Statistiche
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong softHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param maxBytes memoria massima occupata dalle immagini in cache
+     * @param softSpill true per conservare le immagini rimosse come
+     * SoftReference
+     */
+    public ImageCache(long maxBytes, boolean softSpill) {
+        this.maxBytes = maxBytes;
+        this.softSpill = softSpill;
+    }
+
+    /**
+     * @return immagine in cache o null
+     */
+    public synchronized ImageIcon get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            hits.incrementAndGet();
+            return entry.icon;
+        }
+
+        if (softSpill) {
+            SoftReference<ImageIcon> ref = spill.remove(key);
+            ImageIcon icon = ref != null ? ref.get() : null;
+            if (icon != null) {
+                softHits.incrementAndGet();
+                putEntry(key, icon);
+                return icon;
+            }
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Inserisce un'immagine, rimuovendo le meno usate se si supera il budget.
+     * Le immagini più grandi dell'intero budget non vengono memorizzate, e
+     * l'eventuale immagine precedente con la stessa chiave viene rimossa.
+     */
+    public synchronized void put(String key, ImageIcon icon) {
+        if (icon == null) {
+            return;
+        }
+        spill.remove(key);
+        putEntry(key, icon);
+    }
+
+    private void putEntry(String key, ImageIcon icon) {
+        long size = sizeOf(icon);
+        if (size > maxBytes) {
+            // Non resta la versione vecchia sotto la stessa chiave
+            Entry stale = entries.remove(key);
+            if (stale != null) {
+                currentBytes -= stale.bytes;
+            }
+            return;
+        }
+
+        Entry previous = entries.put(key, new Entry(icon, size));
+        if (previous != null) {
+            currentBytes -= previous.bytes;
+        }
+        currentBytes += size;
+        evictToBudget();
+    }
+
+    private void evictToBudget() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Entry> eldest = it.next();
+            it.remove();
+            currentBytes -= eldest.getValue().bytes;
+            evictions.incrementAndGet();
+            if (softSpill) {
+                spill.put(eldest.getKey(), new SoftReference<>(eldest.getValue().icon));
+            }
+        }
+
+        if (softSpill) {
+            // Elimina i riferimenti già liberati dal garbage collector
+            spill.values().removeIf(ref -> ref.get() == null);
+        }
+    }
+
+    private static long sizeOf(ImageIcon icon) {
+        long width = Math.max(icon.getIconWidth(), 1);
+        long height = Math.max(icon.getIconHeight(), 1);
+        return width * height * BYTES_PER_PIXEL;
+    }
+
+    /**
+     * Cambia il budget di memoria, rimuovendo subito le voci in eccesso.
+     */
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        evictToBudget();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        spill.clear();
+        currentBytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    public synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getSoftHits() {
+        return softHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Ottiene le statistiche della cache per debug.
+     */
+    public synchronized String getInfo() {
+        long lookups = hits.get() + softHits.get() + misses.get();
+        double hitRate = lookups == 0 ? 0.0 : 100.0 * (hits.get() + softHits.get()) / lookups;
+        return String.format(
+                "Immagini in cache: %d (%.1f/%.1f MB), riserva soft: %d, hit=%d, hit soft=%d, "
+                + "miss=%d, rimosse=%d, hit rate=%.1f%%",
+                entries.size(), currentBytes / 1048576.0, maxBytes / 1048576.0, spill.size(),
+                hits.get(), softHits.get(), misses.get(), evictions.get(), hitRate);
+    }
+
+    private static final class Entry {
+
+        private final ImageIcon icon;
+        private final long bytes;
+
+        private Entry(ImageIcon icon, long bytes) {
+            this.icon = icon;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.mycompany.theblackmountain.gui.utils;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ridimensionamento delle immagini, al posto di getScaledInstance.
+ *
+ * Le immagini vengono ridotte a metà più volte con interpolazione bilineare
+ * finché non si arriva alla dimensione richiesta: la qualità è simile a
+ * SCALE_SMOOTH ma in una frazione del tempo. Il risultato è un BufferedImage
+ * compatibile con lo schermo, che Java2D disegna senza conversioni.
+ *
+ * Il pool di thread serve per scalare le immagini fuori dall'EDT.
+ *
+ * @author vince
+ */
+public final class ImageScaler {
+
+    private static final ExecutorService WORKERS = createWorkers();
+
+    private ImageScaler() {
+    }
+
+    private static ExecutorService createWorkers() {
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "ImageScaler-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+    }
+
+    /**
+     * @return pool di thread per il ridimensionamento in background
+     */
+    public static ExecutorService workers() {
+        return WORKERS;
+    }
+
+    /**
+     * Ridimensiona un'immagine con riduzioni bilineari successive.
+     *
+     * @param source immagine già caricata
+     * @param width larghezza finale
+     * @param height altezza finale
+     * @return immagine ridimensionata, compatibile con lo schermo
+     */
+    public static BufferedImage scale(Image source, int width, int height) {
+        width = Math.max(width, 1);
+        height = Math.max(height, 1);
+        Image current = source;
+        int currentWidth = source.getWidth(null);
+        int currentHeight = source.getHeight(null);
+        if (currentWidth <= 0 || currentHeight <= 0) {
+            return createCompatibleImage(width, height);
+        }
+
+        do {
+            // Riduce al massimo della metà per passo; l'ingrandimento è diretto
+            currentWidth = currentWidth > width ? Math.max(currentWidth / 2, width) : width;
+            currentHeight = currentHeight > height ? Math.max(currentHeight / 2, height) : height;
+            boolean last = currentWidth == width && currentHeight == height;
+
+            BufferedImage next = last
+                    ? createCompatibleImage(width, height)
+                    : new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = next.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            g.dispose();
+            current = next;
+        } while (currentWidth != width || currentHeight != height);
+
+        return (BufferedImage) current;
+    }
+
+    /**
+     * @return immagine trasparente compatibile con lo schermo, o ARGB se non
+     * c'è uno schermo
+     */
+    public static BufferedImage createCompatibleImage(int width, int height) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+            return gc.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    }
+}
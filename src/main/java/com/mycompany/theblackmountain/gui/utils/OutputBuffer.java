@@ -0,0 +1,79 @@
+package com.mycompany.theblackmountain.gui.utils;
+
+import java.util.Arrays;
+
+/**
+ * Buffer circolare delle righe della console di gioco.
+ *
+ * Conserva al massimo capacity righe: quando è pieno ogni nuova riga
+ * sostituisce la più vecchia, quindi la memoria occupata resta costante anche
+ * nelle sessioni lunghe. Ogni riga ha un numero progressivo (firstLineNumber()
+ * + indice) che non cambia quando le righe precedenti vengono scartate.
+ *
+ * Non è thread-safe: va usato dall'EDT.
+ *
+ * @author vince
+ */
+public class OutputBuffer {
+
+    private final String[] lines;
+    private int head;
+    private int size;
+    private long firstLineNumber;
+
+    public OutputBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacità non valida: " + capacity);
+        }
+        this.lines = new String[capacity];
+    }
+
+    /**
+     * Aggiunge una riga in fondo.
+     *
+     * @return true se è stata scartata la riga più vecchia
+     */
+    public boolean add(String line) {
+        if (size < lines.length) {
+            lines[(head + size) % lines.length] = line;
+            size++;
+            return false;
+        }
+        lines[head] = line;
+        head = (head + 1) % lines.length;
+        firstLineNumber++;
+        return true;
+    }
+
+    /**
+     * @param index posizione dalla riga più vecchia
+     */
+    public String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return lines[(head + index) % lines.length];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return lines.length;
+    }
+
+    /**
+     * @return numero progressivo della riga più vecchia ancora presente
+     */
+    public long firstLineNumber() {
+        return firstLineNumber;
+    }
+
+    public void clear() {
+        Arrays.fill(lines, null);
+        firstLineNumber += size;
+        head = 0;
+        size = 0;
+    }
+}
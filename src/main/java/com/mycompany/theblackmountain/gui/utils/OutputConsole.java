@@ -0,0 +1,357 @@
+package com.mycompany.theblackmountain.gui.utils;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Console di output del gioco, al posto di una JTextArea che cresce senza
+ * limiti.
+ *
+ * Le righe sono conservate in un OutputBuffer di dimensione fissa
+ * (modificabile con -Dtbm.scrollback=N). Il componente disegna solo le righe
+ * visibili: per ogni riga memorizza quante righe occupa a capo e da quale riga
+ * a schermo inizia, così la prima riga da disegnare si trova con una ricerca
+ * binaria.
+ *
+ * append() si può chiamare da qualsiasi thread: il testo viene accodato e
+ * aggiunto al buffer una volta per frame, quindi una raffica di messaggi (ad
+ * es. un turno di combattimento) produce un solo layout e un solo repaint.
+ *
+ * @author vince
+ */
+public class OutputConsole extends JComponent implements Scrollable {
+
+    // Righe conservate, modificabile con -Dtbm.scrollback=N
+    public static final int DEFAULT_SCROLLBACK = 2000;
+
+    // Intervallo di raccolta dei messaggi (circa un frame a 60 Hz)
+    private static final int FRAME_MS = 16;
+
+    private final OutputBuffer buffer;
+
+    // Per numero di riga (modulo capacità): righe a schermo e riga di inizio
+    private final int[] rows;
+    private final long[] rowStart;
+    private long endRow;
+
+    private int wrapWidth = -1;
+    private FontMetrics metrics;
+    private int[] breaks = new int[16];
+
+    // Testo in attesa del prossimo frame; protetto da synchronized (pending)
+    private final List<String> pending = new ArrayList<>();
+    private boolean clearPending;
+    private boolean flushScheduled;
+
+    // Usato solo dall'EDT
+    private final Timer flushTimer;
+
+    public OutputConsole() {
+        this(Integer.getInteger("tbm.scrollback", DEFAULT_SCROLLBACK));
+    }
+
+    public OutputConsole(int scrollback) {
+        buffer = new OutputBuffer(scrollback);
+        rows = new int[scrollback];
+        rowStart = new long[scrollback];
+        flushTimer = new Timer(FRAME_MS, e -> flush());
+        flushTimer.setRepeats(false);
+        setOpaque(true);
+    }
+
+    /**
+     * Accoda del testo, che può contenere più righe. Thread-safe.
+     */
+    public void append(String text) {
+        synchronized (pending) {
+            pending.add(text);
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Svuota la console, scartando anche il testo in attesa. Thread-safe.
+     */
+    public void clear() {
+        synchronized (pending) {
+            pending.clear();
+            clearPending = true;
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Avvia il timer del frame se non è già in attesa. Chiamato con il lock
+     * di pending.
+     */
+    private void scheduleFlush() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            SwingUtilities.invokeLater(flushTimer::restart);
+        }
+    }
+
+    /**
+     * Aggiunge al buffer il testo accodato. Eseguito sull'EDT dal timer.
+     */
+    private void flush() {
+        List<String> texts;
+        boolean clear;
+        synchronized (pending) {
+            texts = new ArrayList<>(pending);
+            pending.clear();
+            clear = clearPending;
+            clearPending = false;
+            flushScheduled = false;
+        }
+
+        boolean follow = clear || isAtBottom();
+        if (clear) {
+            buffer.clear();
+            endRow = 0;
+        }
+        for (String text : texts) {
+            int start = 0;
+            int end;
+            while ((end = text.indexOf('\n', start)) >= 0) {
+                addLine(text.substring(start, end));
+                start = end + 1;
+            }
+            addLine(text.substring(start));
+        }
+
+        revalidate();
+        repaint();
+        if (follow) {
+            // Dopo il layout, per avere già la nuova altezza
+            SwingUtilities.invokeLater(() -> scrollRectToVisible(new Rectangle(0, getHeight() - 1, 1, 1)));
+        }
+    }
+
+    private void addLine(String line) {
+        buffer.add(line);
+        int slot = slot(buffer.firstLineNumber() + buffer.size() - 1);
+        rows[slot] = countRows(line);
+        rowStart[slot] = endRow;
+        endRow += rows[slot];
+    }
+
+    private boolean isAtBottom() {
+        Rectangle visible = getVisibleRect();
+        return visible.y + visible.height >= getHeight() - metrics().getHeight();
+    }
+
+    private int slot(long lineNumber) {
+        return (int) (lineNumber % rows.length);
+    }
+
+    private long firstRow() {
+        return buffer.size() == 0 ? endRow : rowStart[slot(buffer.firstLineNumber())];
+    }
+
+    private FontMetrics metrics() {
+        if (metrics == null) {
+            metrics = getFontMetrics(getFont() != null ? getFont() : new Font(Font.SANS_SERIF, Font.PLAIN, 14));
+        }
+        return metrics;
+    }
+
+    /**
+     * Ricalcola gli a capo di tutte le righe, dopo un cambio di larghezza o
+     * di font.
+     */
+    private void rewrap() {
+        long first = buffer.firstLineNumber();
+        endRow = 0;
+        for (int i = 0; i < buffer.size(); i++) {
+            int slot = slot(first + i);
+            rows[slot] = countRows(buffer.get(i));
+            rowStart[slot] = endRow;
+            endRow += rows[slot];
+        }
+    }
+
+    private int countRows(String line) {
+        return wrap(line, null);
+    }
+
+    /**
+     * Divide una riga a capo tra le parole in base a wrapWidth.
+     *
+     * @param line testo della riga
+     * @param out se non null riceve gli indici di inizio delle righe a capo
+     * successive alla prima
+     * @return numero di righe a schermo
+     */
+    private int wrap(String line, int[] out) {
+        if (wrapWidth <= 0) {
+            return 1;
+        }
+        FontMetrics fm = metrics();
+        int count = 1;
+        int start = 0;
+        int x = 0;
+        int lastSpace = -1;
+        for (int i = 0; i < line.length();) {
+            int cp = line.codePointAt(i);
+            int width = fm.charWidth(cp);
+            if (x + width > wrapWidth && i > start) {
+                int breakAt = lastSpace >= start ? lastSpace + 1 : i;
+                if (out != null) {
+                    out[count - 1] = breakAt;
+                }
+                count++;
+                start = breakAt;
+                x = 0;
+                for (int j = breakAt; j < i;) {
+                    int c = line.codePointAt(j);
+                    x += fm.charWidth(c);
+                    j += Character.charCount(c);
+                }
+                lastSpace = -1;
+            }
+            if (cp == ' ') {
+                lastSpace = i;
+            }
+            x += width;
+            i += Character.charCount(cp);
+        }
+        return count;
+    }
+
+    @Override
+    public void setFont(Font font) {
+        super.setFont(font);
+        metrics = null;
+        rewrap();
+        revalidate();
+        repaint();
+    }
+
+    @Override
+    public void setBounds(int x, int y, int width, int height) {
+        super.setBounds(x, y, width, height);
+        Insets insets = getInsets();
+        int newWrapWidth = width - insets.left - insets.right;
+        if (newWrapWidth != wrapWidth) {
+            wrapWidth = newWrapWidth;
+            rewrap();
+            revalidate();
+        }
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet()) {
+            return super.getPreferredSize();
+        }
+        Insets insets = getInsets();
+        int height = (int) (endRow - firstRow()) * metrics().getHeight();
+        return new Dimension(Math.max(getWidth(), insets.left + insets.right + 1),
+                insets.top + insets.bottom + height);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        if (isOpaque()) {
+            g.setColor(getBackground());
+            g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        }
+        if (buffer.size() == 0) {
+            return;
+        }
+
+        Graphics2D g2 = (Graphics2D) g;
+        Map<?, ?> hints = (Map<?, ?>) Toolkit.getDefaultToolkit().getDesktopProperty("awt.font.desktophints");
+        if (hints != null) {
+            g2.addRenderingHints(hints);
+        }
+        g.setFont(getFont());
+        g.setColor(getForeground());
+
+        FontMetrics fm = metrics();
+        int lineHeight = fm.getHeight();
+        Insets insets = getInsets();
+        long base = firstRow();
+        long firstVisibleRow = base + Math.max(0, (clip.y - insets.top) / lineHeight);
+        long lastVisibleRow = base + (clip.y + clip.height - insets.top) / lineHeight;
+
+        long first = buffer.firstLineNumber();
+        for (int i = findLine(firstVisibleRow); i < buffer.size(); i++) {
+            int slot = slot(first + i);
+            long row = rowStart[slot];
+            if (row > lastVisibleRow) {
+                break;
+            }
+            String line = buffer.get(i);
+            if (breaks.length < rows[slot]) {
+                breaks = new int[rows[slot] * 2];
+            }
+            int count = wrap(line, breaks);
+            int start = 0;
+            for (int r = 0; r < count; r++) {
+                int end = r < count - 1 ? breaks[r] : line.length();
+                int y = insets.top + (int) (row + r - base) * lineHeight + fm.getAscent();
+                g.drawString(line.substring(start, end), insets.left, y);
+                start = end;
+            }
+        }
+    }
+
+    /**
+     * @return indice della riga che contiene la riga a schermo indicata
+     */
+    private int findLine(long row) {
+        long first = buffer.firstLineNumber();
+        int low = 0;
+        int high = buffer.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (rowStart[slot(first + mid)] <= row) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    public int getLineCount() {
+        return buffer.size();
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? metrics().getHeight() : 10;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL
+                ? Math.max(metrics().getHeight(), visibleRect.height - metrics().getHeight())
+                : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        Container parent = SwingUtilities.getUnwrappedParent(this);
+        return parent instanceof JViewport && parent.getHeight() > getPreferredSize().height;
+    }
+}
@@ -1,10 +1,17 @@
 package com.mycompany.theblackmountain.gui.utils;
 
+import com.mycompany.theblackmountain.log.GameLog;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Factory per creare componenti UI riutilizzabili e consistenti
@@ -169,22 +176,18 @@ public class UIComponents {
     }
     
     /**
-     * Crea un'area di testo per l'output del gioco
+     * Crea la console per l'output del gioco
      * @param font font da utilizzare
-     * @return JTextArea configurata
+     * @return OutputConsole configurata
      */
-    public static JTextArea createOutputArea(Font font) {
-        JTextArea textArea = new JTextArea();
-        textArea.setEditable(false);
-        textArea.setLineWrap(true);
-        textArea.setWrapStyleWord(true);
-        textArea.setFont(font);
-        textArea.setBackground(DARK_BACKGROUND);
-        textArea.setForeground(TEXT_COLOR);
-        textArea.setCaretColor(TEXT_COLOR);
-        textArea.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+    public static OutputConsole createOutputConsole(Font font) {
+        OutputConsole console = new OutputConsole();
+        console.setFont(font);
+        console.setBackground(DARK_BACKGROUND);
+        console.setForeground(TEXT_COLOR);
+        console.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         
-        return textArea;
+        return console;
     }
     
     /**
@@ -266,33 +269,157 @@ public class UIComponents {
     }
     
     /**
-     * Classe per pannelli con mappa
+     * Pannello della mappa.
+     *
+     * La mappa viene disegnata in un back buffer (VolatileImage) e a ogni
+     * repaint viene solo copiata sullo schermo. Il buffer si ridisegna solo
+     * nelle zone sporche: tutta la mappa quando cambia la stanza, il solo
+     * lucchetto quando cambia lo stato di una porta. Le mappe già ridimensionate
+     * restano in un atlante per stanza, quindi tornare in una stanza o
+     * ricevere un comando che non cambia nulla non carica né scala immagini.
+     *
+     * I tempi di disegno sono disponibili con getFrameStats() e nel log di
+     * debug.
      */
     public static class MapPanel extends JPanel {
-        private ImageIcon currentMap;
+        private static final int MARGIN = 10;
+        private static final int LOCK_SIZE = 28;
+        private static final int LOCK_HALO = 4; // Ombra attorno al lucchetto
+
         private String roomName = "";
-        
+        // Bit i impostato se l'uscita con ordinale i (N, S, E, O) è chiusa a chiave
+        private int lockedExits;
+
+        // Mappe ridimensionate per stanza, valide per la dimensione atlasSize
+        private final Map<String, BufferedImage> atlas = new HashMap<>();
+        private final Dimension atlasSize = new Dimension();
+        // Stanze la cui mappa si sta caricando in background
+        private final Set<String> loadingMaps = new HashSet<>();
+
+        private VolatileImage backBuffer;
+        private Rectangle dirty;
+
+        // Statistiche dei frame
+        private long frames;
+        private long renderedFrames;
+        private long lastFrameNanos;
+        private long maxFrameNanos;
+        private long totalFrameNanos;
+
         public MapPanel(int width, int height) {
             setPreferredSize(new Dimension(width, height));
             setBackground(DARK_BACKGROUND);
             setBorder(BorderFactory.createLineBorder(new Color(100, 100, 120), 2));
         }
-        
+
         public void updateMap(String roomName) {
-            this.roomName = roomName;
-            UIImageManager imageManager = UIImageManager.getInstance();
-            this.currentMap = imageManager.loadRoomMap(roomName, getWidth() - 20, getHeight() - 20);
-            repaint();
+            updateMap(roomName, 0);
         }
-        
+
+        /**
+         * Aggiorna la stanza mostrata e le sue uscite chiuse; se non cambia
+         * nulla non fa niente.
+         *
+         * @param roomName nome della stanza corrente
+         * @param lockedExits bit per ordinale di direzione delle uscite chiuse
+         */
+        public void updateMap(String roomName, int lockedExits) {
+            if (!roomName.equals(this.roomName)) {
+                this.roomName = roomName;
+                this.lockedExits = lockedExits;
+                markDirty(new Rectangle(0, 0, getWidth(), getHeight()));
+                return;
+            }
+            int changed = this.lockedExits ^ lockedExits;
+            this.lockedExits = lockedExits;
+            for (int i = 0; changed != 0; i++, changed >>>= 1) {
+                if ((changed & 1) != 0) {
+                    markDirty(lockBounds(i));
+                }
+            }
+        }
+
+        private void markDirty(Rectangle region) {
+            if (dirty == null) {
+                dirty = new Rectangle(region);
+            } else {
+                dirty.add(region);
+            }
+            repaint(region);
+        }
+
+        @Override
+        public void setBounds(int x, int y, int width, int height) {
+            boolean resized = width != getWidth() || height != getHeight();
+            super.setBounds(x, y, width, height);
+            if (resized) {
+                dirty = new Rectangle(0, 0, width, height);
+            }
+        }
+
         @Override
         protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
-            
-            if (currentMap != null) {
-                int x = (getWidth() - currentMap.getIconWidth()) / 2;
-                int y = (getHeight() - currentMap.getIconHeight()) / 2;
-                g.drawImage(currentMap.getImage(), x, y, this);
+            int width = getWidth();
+            int height = getHeight();
+            if (width <= 0 || height <= 0) {
+                return;
+            }
+            long start = System.nanoTime();
+            boolean rendered = dirty != null;
+
+            do {
+                if (backBuffer == null || backBuffer.getWidth() != width || backBuffer.getHeight() != height) {
+                    backBuffer = createVolatileImage(width, height);
+                    dirty = new Rectangle(0, 0, width, height);
+                }
+                if (backBuffer == null) {
+                    // Componente non visualizzabile: disegna direttamente
+                    render((Graphics2D) g, new Rectangle(0, 0, width, height));
+                    dirty = null;
+                    break;
+                }
+                int status = backBuffer.validate(getGraphicsConfiguration());
+                if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                    backBuffer = createVolatileImage(width, height);
+                    dirty = new Rectangle(0, 0, width, height);
+                } else if (status == VolatileImage.IMAGE_RESTORED) {
+                    dirty = new Rectangle(0, 0, width, height);
+                }
+                if (dirty != null) {
+                    rendered = true;
+                    Graphics2D bufferGraphics = backBuffer.createGraphics();
+                    try {
+                        render(bufferGraphics, dirty);
+                    } finally {
+                        bufferGraphics.dispose();
+                    }
+                    dirty = null;
+                }
+                g.drawImage(backBuffer, 0, 0, null);
+            } while (backBuffer.contentsLost());
+
+            long elapsed = System.nanoTime() - start;
+            frames++;
+            lastFrameNanos = elapsed;
+            totalFrameNanos += elapsed;
+            maxFrameNanos = Math.max(maxFrameNanos, elapsed);
+            if (rendered) {
+                renderedFrames++;
+                GameLog.debug(() -> "Mappa ridisegnata in " + (elapsed / 1000) + " us (" + getFrameStats() + ")");
+            }
+        }
+
+        /**
+         * Disegna la zona indicata della mappa.
+         */
+        private void render(Graphics2D g, Rectangle region) {
+            g.setClip(region);
+            g.setColor(getBackground());
+            g.fillRect(region.x, region.y, region.width, region.height);
+
+            BufferedImage map = roomName.isEmpty() ? null : mapImage(roomName);
+            if (map != null) {
+                g.drawImage(map, (getWidth() - map.getWidth()) / 2, (getHeight() - map.getHeight()) / 2, null);
             } else {
                 // Disegna placeholder
                 g.setColor(TEXT_COLOR);
@@ -303,9 +430,110 @@ public class UIComponents {
                 int textY = getHeight() / 2;
                 g.drawString(text, textX, textY);
             }
+
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            for (int i = 0; i < 4; i++) {
+                if ((lockedExits & (1 << i)) != 0) {
+                    Rectangle lock = lockBounds(i);
+                    if (lock.intersects(region)) {
+                        drawLock(g, lock);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Mappa della stanza alla dimensione attuale, dall'atlante. Se manca
+         * viene caricata e scalata in background e la mappa viene ridisegnata
+         * quando è pronta; nel frattempo restituisce null.
+         */
+        private BufferedImage mapImage(String room) {
+            int width = getWidth() - 2 * MARGIN;
+            int height = getHeight() - 2 * MARGIN;
+            if (width <= 0 || height <= 0) {
+                return null;
+            }
+            if (atlasSize.width != width || atlasSize.height != height) {
+                atlas.clear();
+                atlasSize.setSize(width, height);
+            }
+            BufferedImage image = atlas.get(room);
+            if (image == null && loadingMaps.add(room)) {
+                Dimension size = new Dimension(width, height);
+                UIImageManager.getInstance().loadRoomMapAsync(room, width, height).thenAccept(icon -> {
+                    loadingMaps.remove(room);
+                    // Scartata se nel frattempo il pannello è stato ridimensionato
+                    if (atlasSize.equals(size)) {
+                        atlas.put(room, toCompatibleImage(icon));
+                    }
+                    if (room.equals(roomName)) {
+                        markDirty(new Rectangle(0, 0, getWidth(), getHeight()));
+                    }
+                });
+            }
+            return image;
+        }
+
+        private BufferedImage toCompatibleImage(ImageIcon icon) {
+            GraphicsConfiguration gc = getGraphicsConfiguration();
+            BufferedImage image = gc != null
+                    ? gc.createCompatibleImage(icon.getIconWidth(), icon.getIconHeight(), Transparency.TRANSLUCENT)
+                    : new BufferedImage(icon.getIconWidth(), icon.getIconHeight(), BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = image.createGraphics();
+            g.drawImage(icon.getImage(), 0, 0, null);
+            g.dispose();
+            return image;
+        }
+
+        /**
+         * @return area del lucchetto, ombra compresa, per l'uscita con
+         * l'ordinale indicato (0 nord, 1 sud, 2 est, 3 ovest)
+         */
+        private Rectangle lockBounds(int directionOrdinal) {
+            int inset = MARGIN + 6;
+            int x = (getWidth() - LOCK_SIZE) / 2;
+            int y = (getHeight() - LOCK_SIZE) / 2;
+            switch (directionOrdinal) {
+                case 0:
+                    y = inset;
+                    break;
+                case 1:
+                    y = getHeight() - inset - LOCK_SIZE;
+                    break;
+                case 2:
+                    x = getWidth() - inset - LOCK_SIZE;
+                    break;
+                default:
+                    x = inset;
+                    break;
+            }
+            return new Rectangle(x - LOCK_HALO, y - LOCK_HALO, LOCK_SIZE + 2 * LOCK_HALO, LOCK_SIZE + 2 * LOCK_HALO);
+        }
+
+        private void drawLock(Graphics2D g, Rectangle bounds) {
+            g.setColor(new Color(0, 0, 0, 160));
+            g.fillOval(bounds.x, bounds.y, bounds.width, bounds.height);
+            Rectangle r = new Rectangle(bounds);
+            r.grow(-LOCK_HALO, -LOCK_HALO);
+            int bodyTop = r.y + r.height * 2 / 5;
+            g.setColor(new Color(200, 160, 60));
+            g.setStroke(new BasicStroke(3f));
+            g.drawArc(r.x + r.width / 4, r.y + 2, r.width / 2, r.height / 2, 0, 180);
+            g.drawLine(r.x + r.width / 4, r.y + 2 + r.height / 4, r.x + r.width / 4, bodyTop);
+            g.drawLine(r.x + r.width * 3 / 4, r.y + 2 + r.height / 4, r.x + r.width * 3 / 4, bodyTop);
+            g.fillRoundRect(r.x + 3, bodyTop, r.width - 6, r.y + r.height - bodyTop - 2, 4, 4);
+        }
+
+        /**
+         * @return riepilogo dei tempi di disegno
+         */
+        public String getFrameStats() {
+            long average = frames == 0 ? 0 : totalFrameNanos / frames;
+            return String.format("frame: %d, ridisegnati: %d, ultimo: %d us, medio: %d us, max: %d us",
+                    frames, renderedFrames, lastFrameNanos / 1000, average / 1000, maxFrameNanos / 1000);
         }
     }
-    
+
     /**
      * Classe per pannelli con sfondo
      */
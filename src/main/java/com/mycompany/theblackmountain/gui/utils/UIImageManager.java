@@ -3,9 +3,14 @@ package com.mycompany.theblackmountain.gui.utils;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import javax.imageio.ImageIO;
 
 /**
@@ -15,7 +20,13 @@ import javax.imageio.ImageIO;
 public class UIImageManager {
     
     private static UIImageManager instance;
-    private Map<String, ImageIcon> imageCache;
+    private final ImageCache imageCache;
+    
+    // Ridimensionamenti in corso per chiave (percorso + dimensione), protetto da synchronized (inFlight)
+    private final Map<String, PendingImage> inFlight = new HashMap<>();
+    
+    // Budget predefinito della cache, modificabile con -Dtbm.imageCacheMB=N
+    private static final long DEFAULT_CACHE_MB = 64;
     
     // Percorsi delle immagini
     public static final String IMAGES_PATH = "/images/";
@@ -25,10 +36,12 @@ public class UIImageManager {
     public static final String ICONS_PATH = IMAGES_PATH + "icons/";
     
     private UIImageManager() {
-        imageCache = new HashMap<>();
+        // Thread-safe: le immagini vengono pre-caricate anche fuori dall'EDT
+        long budgetMb = Long.getLong("tbm.imageCacheMB", DEFAULT_CACHE_MB);
+        imageCache = new ImageCache(budgetMb * 1024 * 1024, true);
     }
     
-    public static UIImageManager getInstance() {
+    public static synchronized UIImageManager getInstance() {
         if (instance == null) {
             instance = new UIImageManager();
         }
@@ -41,56 +54,82 @@ public class UIImageManager {
      * @return ImageIcon o null se non trovata
      */
     public ImageIcon loadImage(String imagePath) {
-        // Controlla prima nella cache
-        if (imageCache.containsKey(imagePath)) {
-            return imageCache.get(imagePath);
-        }
-        
         try {
-            InputStream imageStream = getClass().getResourceAsStream(imagePath);
-            if (imageStream == null) {
-                System.err.println("Immagine non trovata: " + imagePath);
-                return createPlaceholderIcon(40, 40, imagePath);
-            }
-            
-            BufferedImage bufferedImage = ImageIO.read(imageStream);
-            ImageIcon icon = new ImageIcon(bufferedImage);
-            
-            // Salva nella cache
-            imageCache.put(imagePath, icon);
-            
-            System.out.println("Immagine caricata: " + imagePath);
-            return icon;
-            
+            return loadOriginal(imagePath);
+        } catch (FileNotFoundException e) {
+            System.err.println(e.getMessage());
         } catch (Exception e) {
             System.err.println("Errore caricamento immagine " + imagePath + ": " + e.getMessage());
-            return createPlaceholderIcon(40, 40, imagePath);
         }
+        return createPlaceholderIcon(40, 40, imagePath);
+    }
+    
+    /**
+     * Carica un'immagine dalla cache o dalle risorse; gli errori non vengono
+     * messi in cache.
+     * @throws IOException se l'immagine non esiste o non è leggibile
+     */
+    private ImageIcon loadOriginal(String imagePath) throws IOException {
+        // Controlla prima nella cache
+        ImageIcon cached = imageCache.get(imagePath);
+        if (cached != null) {
+            return cached;
+        }
+        
+        InputStream imageStream = getClass().getResourceAsStream(imagePath);
+        if (imageStream == null) {
+            throw new FileNotFoundException("Immagine non trovata: " + imagePath);
+        }
+        BufferedImage bufferedImage;
+        try (InputStream in = imageStream) {
+            bufferedImage = ImageIO.read(in);
+        }
+        if (bufferedImage == null) {
+            throw new IOException("formato non supportato");
+        }
+        ImageIcon icon = new ImageIcon(bufferedImage);
+        
+        // Salva nella cache
+        imageCache.put(imagePath, icon);
+        
+        System.out.println("Immagine caricata: " + imagePath);
+        return icon;
     }
     
     /**
-     * Carica un'immagine ridimensionata
+     * Carica un'immagine ridimensionata. Se la stessa immagine si sta già
+     * ridimensionando in background restituisce subito la sua icona
+     * provvisoria, che viene completata e ridisegnata quando è pronta.
      * @param imagePath percorso dell'immagine
      * @param width larghezza desiderata
      * @param height altezza desiderata
      * @return ImageIcon ridimensionata
      */
     public ImageIcon loadScaledImage(String imagePath, int width, int height) {
-        String cacheKey = imagePath + "_" + width + "x" + height;
+        String cacheKey = scaledKey(imagePath, width, height);
         
         // Controlla nella cache
-        if (imageCache.containsKey(cacheKey)) {
-            return imageCache.get(cacheKey);
+        ImageIcon cached = imageCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
         }
         
-        ImageIcon originalIcon = loadImage(imagePath);
-        if (originalIcon == null) {
-            return createPlaceholderIcon(width, height, imagePath);
+        // Se la stessa immagine si sta già ridimensionando in background, non la aspetta
+        PendingImage pending;
+        synchronized (inFlight) {
+            pending = inFlight.get(cacheKey);
+        }
+        if (pending != null) {
+            return pending.icon;
         }
         
-        // Ridimensiona l'immagine
-        Image scaledImage = originalIcon.getImage().getScaledInstance(width, height, Image.SCALE_SMOOTH);
-        ImageIcon scaledIcon = new ImageIcon(scaledImage);
+        ImageIcon scaledIcon;
+        try {
+            scaledIcon = new ImageIcon(scaleResource(imagePath, width, height));
+        } catch (UncheckedIOException e) {
+            System.err.println("Errore caricamento immagine " + imagePath + ": " + e.getCause().getMessage());
+            return createPlaceholderIcon(width, height, imagePath);
+        }
         
         // Salva nella cache
         imageCache.put(cacheKey, scaledIcon);
@@ -98,6 +137,102 @@ public class UIImageManager {
         return scaledIcon;
     }
     
+    /**
+     * Carica un'immagine ridimensionata senza bloccare il chiamante.
+     * 
+     * Se l'immagine non è in cache restituisce subito un'icona trasparente
+     * della dimensione richiesta; il ridimensionamento avviene nel pool di
+     * ImageScaler e, quando è pronto, l'immagine dell'icona viene sostituita
+     * sull'EDT e le finestre ridisegnate. Richieste uguali mentre il lavoro è
+     * in corso ricevono la stessa icona.
+     * 
+     * @param imagePath percorso dell'immagine
+     * @param width larghezza desiderata
+     * @param height altezza desiderata
+     * @return ImageIcon definitiva o provvisoria
+     */
+    public ImageIcon loadScaledImageAsync(String imagePath, int width, int height) {
+        return scaleAsync(imagePath, width, height).icon;
+    }
+    
+    private PendingImage scaleAsync(String imagePath, int width, int height) {
+        String cacheKey = scaledKey(imagePath, width, height);
+        ImageIcon cached = imageCache.get(cacheKey);
+        if (cached != null) {
+            return new PendingImage(cached, CompletableFuture.completedFuture(toBufferedImage(cached)));
+        }
+        
+        synchronized (inFlight) {
+            PendingImage pending = inFlight.get(cacheKey);
+            if (pending == null) {
+                CompletableFuture<BufferedImage> future = CompletableFuture.supplyAsync(
+                        () -> scaleResource(imagePath, width, height), ImageScaler.workers());
+                pending = new PendingImage(createPendingIcon(width, height), future);
+                inFlight.put(cacheKey, pending);
+                PendingImage started = pending;
+                future.whenComplete((image, error) -> SwingUtilities.invokeLater(() -> finish(cacheKey, started, image, error)));
+            }
+            return pending;
+        }
+    }
+    
+    /**
+     * Sostituisce l'immagine provvisoria con quella ridimensionata, o con un
+     * segnaposto che non viene messo in cache. Eseguito sull'EDT.
+     */
+    private void finish(String cacheKey, PendingImage pending, BufferedImage image, Throwable error) {
+        if (error != null) {
+            Throwable cause = error;
+            while ((cause instanceof CompletionException || cause instanceof UncheckedIOException) && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            System.err.println("Errore ridimensionamento " + cacheKey + ": " + cause.getMessage());
+            pending.icon.setImage(createPlaceholderIcon(pending.icon.getIconWidth(), pending.icon.getIconHeight(), cacheKey).getImage());
+        } else {
+            pending.icon.setImage(image);
+            imageCache.put(cacheKey, pending.icon);
+        }
+        synchronized (inFlight) {
+            inFlight.remove(cacheKey);
+        }
+        for (Window window : Window.getWindows()) {
+            if (window.isShowing()) {
+                window.repaint();
+            }
+        }
+    }
+    
+    /**
+     * Carica e ridimensiona un'immagine; chiamato anche dai thread di
+     * ImageScaler.
+     * @throws UncheckedIOException se l'immagine non esiste o non è leggibile
+     */
+    private BufferedImage scaleResource(String imagePath, int width, int height) {
+        try {
+            return ImageScaler.scale(loadOriginal(imagePath).getImage(), width, height);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static String scaledKey(String imagePath, int width, int height) {
+        return imagePath + "_" + width + "x" + height;
+    }
+    
+    private static BufferedImage toBufferedImage(ImageIcon icon) {
+        if (icon.getImage() instanceof BufferedImage) {
+            return (BufferedImage) icon.getImage();
+        }
+        return ImageScaler.scale(icon.getImage(), icon.getIconWidth(), icon.getIconHeight());
+    }
+    
+    /**
+     * Icona trasparente mostrata finché l'immagine vera non è pronta
+     */
+    private static ImageIcon createPendingIcon(int width, int height) {
+        return new ImageIcon(new BufferedImage(Math.max(width, 1), Math.max(height, 1), BufferedImage.TYPE_INT_ARGB));
+    }
+    
     /**
      * Crea un'icona placeholder quando l'immagine non è trovata
      * @param width larghezza
@@ -141,17 +276,46 @@ public class UIImageManager {
         String normalPath = BUTTONS_PATH + baseName + ".png";
         String hoverPath = BUTTONS_PATH + baseName + "_hover.png";
         
-        ImageIcon normalIcon = loadScaledImage(normalPath, width, height);
-        ImageIcon hoverIcon = loadScaledImage(hoverPath, width, height);
-        
-        // Se hover non esiste, usa la normale con effetto
-        if (hoverIcon == normalIcon || !resourceExists(hoverPath)) {
-            hoverIcon = createHoverEffect(normalIcon);
+        PendingImage normal = scaleAsync(normalPath, width, height);
+        if (resourceExists(hoverPath)) {
+            return new ImageIcon[]{normal.icon, loadScaledImageAsync(hoverPath, width, height)};
         }
         
-        return new ImageIcon[]{normalIcon, hoverIcon};
+        // Se hover non esiste, usa la normale con effetto, appena è pronta
+        String hoverKey = scaledKey(hoverPath, width, height) + "_effect";
+        ImageIcon cachedHover = imageCache.get(hoverKey);
+        if (cachedHover != null) {
+            return new ImageIcon[]{normal.icon, cachedHover};
+        }
+        ImageIcon hoverIcon = createPendingIcon(width, height);
+        normal.future.whenComplete((image, error) -> SwingUtilities.invokeLater(() -> {
+            if (image != null) {
+                hoverIcon.setImage(createHoverEffect(new ImageIcon(image)).getImage());
+                imageCache.put(hoverKey, hoverIcon);
+            }
+        }));
+        return new ImageIcon[]{normal.icon, hoverIcon};
     }
     
+    /**
+     * Avvia il ridimensionamento delle immagini di un pulsante, come
+     * loadButtonImages, per averle pronte quando servono.
+     * @param baseName nome base del file (senza estensione)
+     * @param width larghezza
+     * @param height altezza
+     * @return future completato quando le immagini sono ridimensionate, anche
+     * se qualcuna non è disponibile (l'errore è già segnalato da finish)
+     */
+    public CompletableFuture<Void> preloadButtonImages(String baseName, int width, int height) {
+        loadButtonImages(baseName, width, height);
+        CompletableFuture<BufferedImage> normal = scaleAsync(BUTTONS_PATH + baseName + ".png", width, height).future;
+        String hoverPath = BUTTONS_PATH + baseName + "_hover.png";
+        CompletableFuture<BufferedImage> hover = resourceExists(hoverPath)
+                ? scaleAsync(hoverPath, width, height).future
+                : normal;
+        return CompletableFuture.allOf(normal, hover).handle((ignored, error) -> null);
+    }
+
     /**
      * Crea un effetto hover su un'icona esistente
      * @param original icona originale
@@ -185,26 +349,30 @@ public class UIImageManager {
      * @return true se esiste
      */
     private boolean resourceExists(String path) {
-        return getClass().getResourceAsStream(path) != null;
+        return getClass().getResource(path) != null;
     }
     
     /**
-     * Carica mappa per una stanza
+     * Carica mappa per una stanza senza bloccare il chiamante; il
+     * ridimensionamento avviene nel pool di ImageScaler.
      * @param roomName nome della stanza
      * @param width larghezza desiderata
      * @param height altezza desiderata
-     * @return ImageIcon della mappa
+     * @return future completato sull'EDT con la mappa, o con una mappa
+     * placeholder se l'immagine non è disponibile
      */
-    public ImageIcon loadRoomMap(String roomName, int width, int height) {
+    public CompletableFuture<ImageIcon> loadRoomMapAsync(String roomName, int width, int height) {
         String mapPath = MAPS_PATH + roomName.toLowerCase().replace(" ", "_") + ".png";
-        ImageIcon mapIcon = loadScaledImage(mapPath, width, height);
-        
-        if (mapIcon == null) {
-            // Crea mappa placeholder con nome stanza
-            return createMapPlaceholder(width, height, roomName);
-        }
-        
-        return mapIcon;
+        CompletableFuture<ImageIcon> result = new CompletableFuture<>();
+        scaleAsync(mapPath, width, height).future.whenComplete((image, error) -> SwingUtilities.invokeLater(() -> {
+            if (image != null) {
+                result.complete(new ImageIcon(image));
+            } else {
+                // Crea mappa placeholder con nome stanza
+                result.complete(createMapPlaceholder(width, height, roomName));
+            }
+        }));
+        return result;
     }
     
     /**
@@ -262,11 +430,32 @@ public class UIImageManager {
         System.out.println("Cache immagini pulita");
     }
     
+    /**
+     * Imposta la memoria massima occupata dalla cache delle immagini
+     * @param maxBytes budget in byte
+     */
+    public void setCacheBudget(long maxBytes) {
+        imageCache.setMaxBytes(maxBytes);
+    }
+    
     /**
      * Restituisce informazioni sulla cache
-     * @return informazioni sulla cache
+     * @return informazioni sulla cache (dimensione, hit, miss, rimozioni)
      */
     public String getCacheInfo() {
-        return "Immagini in cache: " + imageCache.size();
+        return imageCache.getInfo();
+    }
+    
+    /**
+     * Icona restituita subito e risultato del ridimensionamento in corso
+     */
+    private static final class PendingImage {
+        private final ImageIcon icon;
+        private final CompletableFuture<BufferedImage> future;
+        
+        PendingImage(ImageIcon icon, CompletableFuture<BufferedImage> future) {
+            this.icon = icon;
+            this.future = future;
+        }
     }
-}
\ No newline at end of file
+}
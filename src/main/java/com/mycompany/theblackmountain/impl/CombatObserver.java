@@ -5,6 +5,8 @@ import com.mycompany.theblackmountain.GameObserver;
 import com.mycompany.theblackmountain.combat.CombatSystem;
 import com.mycompany.theblackmountain.parser.ParserOutput;
 import com.mycompany.theblackmountain.type.CommandType;
+import java.util.EnumSet;
+import java.util.Set;
 
 /**
  * Observer per gestire il sistema di combattimento
@@ -17,6 +19,14 @@ public class CombatObserver extends GameObserver {
         this.combatSystem = combatSystem;
     }
     
+    /**
+     * Inizio del combattimento, attacchi e uso di armi e pozioni
+     */
+    @Override
+    public Set<CommandType> getHandledCommands() {
+        return EnumSet.of(CommandType.FIGHT, CommandType.ATTACK, CommandType.USE);
+    }
+    
     @Override
     public String update(GameDescription description, ParserOutput parserOutput) {
         if (combatSystem == null) {
@@ -26,18 +36,10 @@ public class CombatObserver extends GameObserver {
         CommandType commandType = parserOutput.getCommand().getType();
         String commandName = parserOutput.getCommand().getName().toLowerCase();
         
-        // DEBUG
-        System.out.println("🔍 DEBUG CombatObserver:");
-        System.out.println("  - Comando: " + commandName + " (Type: " + commandType + ")");
-        System.out.println("  - In combattimento: " + combatSystem.isInCombat());
-        
         StringBuilder result = new StringBuilder();
         
         // *** INIZIO COMBATTIMENTO ***
-        if (commandType == CommandType.FIGHT || 
-            commandName.equals("combatti") || 
-            commandName.equals("combattimento") ||
-            commandName.equals("battaglia")) {
+        if (commandType == CommandType.FIGHT) {
             
             if (combatSystem.isInCombat()) {
                 return "Sei già in combattimento!";
@@ -53,10 +55,7 @@ public class CombatObserver extends GameObserver {
         // *** AZIONI DURANTE IL COMBATTIMENTO ***
         if (combatSystem.isInCombat()) {
             // Attacchi diretti
-            if (commandType == CommandType.ATTACK || 
-                commandName.equals("attacca") || 
-                commandName.equals("attacco") || 
-                commandName.equals("colpisci")) {
+            if (commandType == CommandType.ATTACK) {
                 return combatSystem.processCombatAction(parserOutput);
             }
             
@@ -8,6 +8,8 @@ import com.mycompany.theblackmountain.GameDescription;
 import com.mycompany.theblackmountain.parser.ParserOutput;
 import com.mycompany.theblackmountain.type.CommandType;
 import com.mycompany.theblackmountain.GameObserver;
+import java.util.EnumSet;
+import java.util.Set;
 
 /**
  *
@@ -15,6 +17,14 @@ import com.mycompany.theblackmountain.GameObserver;
  */
 public class LookAt extends GameObserver {
 
+    /**
+     * Osservazione della stanza e degli oggetti
+     */
+    @Override
+    public Set<CommandType> getHandledCommands() {
+        return EnumSet.of(CommandType.LOOK_AT);
+    }
+
     /**
      *
      * @param description
@@ -8,12 +8,17 @@ import com.mycompany.theblackmountain.GameDescription;
 import com.mycompany.theblackmountain.parser.ParserOutput;
 import com.mycompany.theblackmountain.GameObserver;
 import com.mycompany.theblackmountain.combat.CombatSystem;
+import com.mycompany.theblackmountain.systems.DoorPassage;
 import com.mycompany.theblackmountain.systems.DoorSystem;
 import com.mycompany.theblackmountain.type.CommandType;
+import com.mycompany.theblackmountain.type.Direction;
 import com.mycompany.theblackmountain.type.GameCharacter;
-import com.mycompany.theblackmountain.gui.OutroScreen;
+import com.mycompany.theblackmountain.type.Room;
 
-import javax.swing.*;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import com.mycompany.theblackmountain.log.GameLog;
 
 /**
  *
@@ -32,6 +37,14 @@ public class Move extends GameObserver {
         this.combatSystem = combatSystem;
     }
 
+    /**
+     * Comandi di movimento
+     */
+    @Override
+    public Set<CommandType> getHandledCommands() {
+        return EnumSet.of(CommandType.NORD, CommandType.SOUTH, CommandType.EAST, CommandType.WEST);
+    }
+
     /**
      *
      * @param description
@@ -84,148 +97,62 @@ public class Move extends GameObserver {
             return "Non puoi muoverti durante un combattimento! Devi prima sconfiggere i nemici.";
         }
 
-        String direction = "";
-        String result = "";
-
-        switch (commandType) {
-            case NORD:
-                direction = "north";
-                if (description.getCurrentRoom().getNorth() != null) {
-                    // Controlla se la porta è bloccata
-                    String doorResult = doorSystem.attemptDoorPassage(description, description.getCurrentRoom().getId(), "north");
-                    if (doorResult.contains("chiave")) {
-                        return doorResult;
-                    } else if (!doorResult.isEmpty()) {
-                        result = doorResult + "\n";
-                    }
-
-                    description.setCurrentRoom(description.getCurrentRoom().getNorth());
-                } else {
-                    return "Da quella parte non si puo' andare!";
-                }
-                break;
-            case SOUTH:
-                direction = "south";
-                if (description.getCurrentRoom().getSouth() != null) {
-                    // Controlla se la porta è bloccata
-                    String doorResult = doorSystem.attemptDoorPassage(description, description.getCurrentRoom().getId(), "south");
-                    if (doorResult.contains("chiave")) {
-                        return doorResult;
-                    } else if (!doorResult.isEmpty()) {
-                        result = doorResult + "\n";
-                    }
-
-                    description.setCurrentRoom(description.getCurrentRoom().getSouth());
-                } else {
-                    return "Da quella parte non si puo' andare!";
-                }
-                break;
-            case EAST:
-                direction = "east";
-                if (description.getCurrentRoom().getEast() != null) {
-                    // Controlla se la porta è bloccata
-                    String doorResult = doorSystem.attemptDoorPassage(description, description.getCurrentRoom().getId(), "east");
-                    if (doorResult.contains("chiave")) {
-                        return doorResult;
-                    } else if (!doorResult.isEmpty()) {
-                        result = doorResult + "\n";
-                    }
+        Direction direction = Direction.fromCommand(commandType);
+        Room current = description.getCurrentRoom();
+        Room next = direction.getExit(current);
+        if (next == null) {
+            return "Da quella parte non si puo' andare!";
+        }
 
-                    description.setCurrentRoom(description.getCurrentRoom().getEast());
-                } else {
-                    return "Da quella parte non si puo' andare!";
-                }
-                break;
-            case WEST:
-                direction = "west";
-                if (description.getCurrentRoom().getWest() != null) {
-                    // Controlla se la porta è bloccata
-                    String doorResult = doorSystem.attemptDoorPassage(description, description.getCurrentRoom().getId(), "west");
-                    if (doorResult.contains("chiave")) {
-                        return doorResult;
-                    } else if (!doorResult.isEmpty()) {
-                        result = doorResult + "\n";
-                    }
+        // Controlla se la porta è bloccata
+        DoorPassage passage = doorSystem.attemptDoorPassage(description, current.getId(), direction);
+        if (passage == DoorPassage.LOCKED) {
+            return doorSystem.getPassageMessage(passage, current.getId(), direction);
+        }
 
-                    description.setCurrentRoom(description.getCurrentRoom().getWest());
-                } else {
-                    return "Da quella parte non si puo' andare!";
-                }
-                break;
-            default:
-                return "";
+        StringBuilder result = new StringBuilder();
+        if (passage == DoorPassage.UNLOCKED) {
+            result.append(doorSystem.getPassageMessage(passage, current.getId(), direction)).append('\n');
         }
 
-        if (!direction.isEmpty()) {
-            // Descrivi la nuova stanza
-            result += "Ti dirigi a " + getDirectionName(direction) + ".\n\n";
-            result += description.getCurrentRoom().getName() + "\n";
-            result += description.getCurrentRoom().getDescription();
+        description.setCurrentRoom(next);
 
-            // Informa il giocatore se ci sono nemici nella nuova stanza
-            if (hasLivingEnemies(description)) {
-                result += "\n" + getEnemyWarning(description);
-            }
+        // Descrivi la nuova stanza
+        result.append("Ti dirigi a ").append(direction.getDisplayName()).append(".\n\n");
+        result.append(next.getName()).append('\n');
+        result.append(next.getDescription());
+
+        // Informa il giocatore se ci sono nemici nella nuova stanza
+        if (hasLivingEnemies(description)) {
+            result.append('\n').append(getEnemyWarning(description));
         }
 
-        return result;
+        return result.toString();
     }
 
     /**
-     * Gestisce l'uscita finale del gioco
+     * Gestisce l'uscita finale del gioco. Outro e chiusura sono a carico dei
+     * listener di completamento (la GUI); in modalità headless c'è solo il
+     * testo, così un giocatore non chiude il server.
      */
     private String handleFinalExit(TBMGame game) {
-            
-            // Programma l'outro dopo 2 secondi
-            Timer outroTimer = new Timer(2000, e -> {
-                SwingUtilities.invokeLater(() -> {
-                    // Avvia l'outro
-                    OutroScreen.showOutro(null, () -> {
-                        // Dopo l'outro, aspetta 3 secondi e chiudi il gioco
-                        Timer exitTimer = new Timer(3000, exitEvent -> {
-                            System.out.println("Gioco completato - Uscita...");
-                            System.exit(0);
-                        });
-                        exitTimer.setRepeats(false);
-                        exitTimer.start();
-                    });
-                });
-            });
-            outroTimer.setRepeats(false);
-            outroTimer.start();
-        
-        
+        if (!game.isHeadless()) {
+            game.notifyGameCompleted();
+        }
+
         return "Tu e la principessa correte verso la liberta'!\n\n"
                + "Il sole del mattino illumina i vostri volti mentre lasciate per sempre\n"
                + "la Montagna Nera alle vostre spalle...\n\n"
                + "MISSIONE COMPLETATA";
     }
 
-    /**
-     * Converte la direzione in inglese al nome italiano
-     */
-    private String getDirectionName(String direction) {
-        switch (direction.toLowerCase()) {
-            case "north":
-                return "nord";
-            case "south":
-                return "sud";
-            case "east":
-                return "est";
-            case "west":
-                return "ovest";
-            default:
-                return direction;
-        }
-    }
-
     /**
      * Reset del sistema porte per nuova partita
      */
     public void resetForNewGame() {
         if (doorSystem != null) {
             doorSystem.resetAllDoors();
-            System.out.println("Move Observer: Sistema porte resettato");
+            GameLog.debug("Move Observer: Sistema porte resettato");
         }
     }
 
@@ -236,8 +163,13 @@ public class Move extends GameObserver {
      * @return true se ci sono nemici vivi
      */
     private boolean hasLivingEnemies(GameDescription description) {
-        return description.getCurrentRoom().getEnemies().stream()
-                .anyMatch(GameCharacter::isAlive);
+        List<GameCharacter> enemies = description.getCurrentRoom().getEnemies();
+        for (int i = 0; i < enemies.size(); i++) {
+            if (enemies.get(i).isAlive()) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -12,8 +12,12 @@ import com.mycompany.theblackmountain.type.CommandType;
 import com.mycompany.theblackmountain.GameObserver;
 import com.mycompany.theblackmountain.database.GameLoader;
 import com.mycompany.theblackmountain.type.GameCharacter;
+import com.mycompany.theblackmountain.save.AutosaveJournal;
 import java.util.Iterator;
 import java.util.List;
+import java.util.EnumSet;
+import java.util.Set;
+import com.mycompany.theblackmountain.log.GameLog;
 
 /**
  *
@@ -21,7 +25,15 @@ import java.util.List;
  */
 public class Open extends GameObserver {
 
-    private static boolean princessFreed = false;
+    private boolean princessFreed = false;
+
+    /**
+     * Apertura di casse e porte; USE per il comando "libera"
+     */
+    @Override
+    public Set<CommandType> getHandledCommands() {
+        return EnumSet.of(CommandType.OPEN, CommandType.USE);
+    }
 
     /**
      *
@@ -34,14 +46,14 @@ public class Open extends GameObserver {
         StringBuilder msg = new StringBuilder();
 
         // CONTROLLO DEBUG INIZIALE
-        System.out.println("DEBUG Open: Comando ricevuto - " + parserOutput.getCommand().getName());
-        System.out.println("DEBUG Open: Tipo comando - " + parserOutput.getCommand().getType());
-        System.out.println("DEBUG Open: Oggetto - " + (parserOutput.getObject() != null ? parserOutput.getObject().getName() : "null"));
-        System.out.println("DEBUG Open: InvObject - " + (parserOutput.getInvObject() != null ? parserOutput.getInvObject().getName() : "null"));
+        GameLog.debug(() -> "Open: Comando ricevuto - " + parserOutput.getCommand().getName());
+        GameLog.debug(() -> "Open: Tipo comando - " + parserOutput.getCommand().getType());
+        GameLog.debug(() -> "Open: Oggetto - " + (parserOutput.getObject() != null ? parserOutput.getObject().getName() : "null"));
+        GameLog.debug(() -> "Open: InvObject - " + (parserOutput.getInvObject() != null ? parserOutput.getInvObject().getName() : "null"));
 
         // COMANDO SPECIALE: libera principessa
         if (parserOutput.getCommand().getName().toLowerCase().contains("libera")) {
-            System.out.println("DEBUG Open: Comando libera principessa ricevuto");
+            GameLog.debug("Open: Comando libera principessa ricevuto");
 
             // Controlla se siamo nella stanza del boss (ID 7)
             if (description.getCurrentRoom().getId() != 7) {
@@ -74,18 +86,18 @@ public class Open extends GameObserver {
         }
 
         if (parserOutput.getCommand().getType() == CommandType.OPEN) {
-            System.out.println("DEBUG Open: Comando OPEN confermato, procedo...");
+            GameLog.debug("Open: Comando OPEN confermato, procedo...");
 
             // MODIFICA CRITICA: Controlla sempre se si tratta di una cassa
             String commandText = parserOutput.getCommand().getName().toLowerCase();
             boolean isChestCommand = commandText.contains("cassa") || commandText.contains("cella") || commandText.equals("apri");
 
-            System.out.println("DEBUG Open: Comando text: '" + commandText + "', isChestCommand: " + isChestCommand);
+            GameLog.debug(() -> "Open: Comando text: '" + commandText + "', isChestCommand: " + isChestCommand);
 
             // CASO 1: Oggetto specifico trovato dal parser
             if (parserOutput.getObject() != null) {
                 GameObjects obj = parserOutput.getObject();
-                System.out.println("DEBUG Open: Oggetto specifico trovato - " + obj.getName() + " (ID: " + obj.getId() + ")");
+                GameLog.debug(() -> "Open: Oggetto specifico trovato - " + obj.getName() + " (ID: " + obj.getId() + ")");
 
                 // Gestione cella della principessa (ID 13)
                 if (obj.getId() == 13) {
@@ -179,7 +191,7 @@ public class Open extends GameObserver {
                     }
                 } // Gestione casse (id 100-103)
                 else if (obj.getId() >= 100 && obj.getId() <= 103) {
-                    System.out.println("DEBUG Open: È una cassa, procedo con apertura DB");
+                    GameLog.debug("Open: È una cassa, procedo con apertura DB");
                     return openChestFromDB(description, obj);
                 } // Gestione oggetti normali apribili
                 else if (obj.isOpenable() && !obj.isOpen()) {
@@ -192,30 +204,30 @@ public class Open extends GameObserver {
             } // CASO 2: Oggetto nell'inventario - MA solo se non è una chiave per aprire qualcos'altro
             else if (parserOutput.getInvObject() != null) {
                 GameObjects invObj = parserOutput.getInvObject();
-                System.out.println("DEBUG Open: Oggetto inventario trovato - " + invObj.getName());
+                GameLog.debug(() -> "Open: Oggetto inventario trovato - " + invObj.getName());
 
                 // Se è una chiave, cerca cosa aprire nella stanza invece di aprire la chiave stessa
                 if (invObj.getName().toLowerCase().contains("chiave")) {
-                    System.out.println("DEBUG Open: È una chiave, cerco cosa aprire nella stanza");
+                    GameLog.debug("Open: È una chiave, cerco cosa aprire nella stanza");
                     return handleChestSearch(description);
                 }
 
                 return handleInventoryObject(description, invObj, msg);
             } // CASO 3: Nessun oggetto specifico - cerca cassa nella stanza
             else if (isChestCommand) {
-                System.out.println("DEBUG Open: Nessun oggetto specifico, cerco cassa nella stanza");
+                GameLog.debug("Open: Nessun oggetto specifico, cerco cassa nella stanza");
                 return handleChestSearch(description);
             } // CASO 4: Comando non riconosciuto
             else {
-                System.out.println("DEBUG Open: Comando non gestibile");
+                GameLog.debug("Open: Comando non gestibile");
                 msg.append("Cosa vuoi aprire?");
             }
         } else {
-            System.out.println("DEBUG Open: Non è un comando OPEN, ignoro");
+            GameLog.debug("Open: Non è un comando OPEN, ignoro");
             return ""; // Non è un comando OPEN, non fare nulla
         }
 
-        System.out.println("DEBUG Open: Messaggio finale: '" + msg.toString() + "'");
+        GameLog.debug(() -> "Open: Messaggio finale: '" + msg.toString() + "'");
         return msg.toString();
     }
 
@@ -281,13 +293,13 @@ public class Open extends GameObserver {
      * Gestisce la ricerca e apertura di casse nella stanza
      */
     private String handleChestSearch(GameDescription description) {
-        System.out.println("DEBUG Open: Ricerca oggetto apribile nella stanza " + description.getCurrentRoom().getId());
+        GameLog.debug(() -> "Open: Ricerca oggetto apribile nella stanza " + description.getCurrentRoom().getId());
 
         // Cerca casse, celle, porte nella stanza corrente
         GameObjects openableObj = findOpenableObjectInRoom(description.getCurrentRoom().getObjects());
 
         if (openableObj != null) {
-            System.out.println("DEBUG Open: Trovato oggetto apribile: " + openableObj.getName());
+            GameLog.debug(() -> "Open: Trovato oggetto apribile: " + openableObj.getName());
 
 
             // Gestione speciale per porta est
@@ -316,7 +328,7 @@ public class Open extends GameObserver {
 
     // Nuovo metodo per aprire la porta finale
     private String openExitDoor(GameDescription description, GameObjects porta) {
-        System.out.println("DEBUG Open: Tentativo apertura porta finale");
+        GameLog.debug("Open: Tentativo apertura porta finale");
 
         if (porta.isOpen()) {
             return "La porta e' gia' aperta. La via d'uscita ti aspetta!";
@@ -353,9 +365,8 @@ public class Open extends GameObserver {
         porta.setOpen(true);
 
         // Aggiorna il database
-        GameLoader gameLoader = getGameLoader(description);
-        if (gameLoader != null) {
-            gameLoader.updateObjectState(porta);
+        if (description instanceof TBMGame) {
+            ((TBMGame) description).updateObjectState(porta);
         }
 
         return "Hai aperto la porta finale! Tu e la principessa potete finalmente fuggire dalla Montagna Nera!\n"
@@ -366,26 +377,26 @@ public class Open extends GameObserver {
      * Cerca casse in base a ID e nome - VERSIONE MIGLIORATA
      */
     private GameObjects findChestInRoom(List<GameObjects> roomObjects) {
-        System.out.println("DEBUG Open: Ricerca cassa tra " + roomObjects.size() + " oggetti");
+        GameLog.debug(() -> "Open: Ricerca cassa tra " + roomObjects.size() + " oggetti");
 
         for (GameObjects obj : roomObjects) {
-            System.out.println("DEBUG Open: Controllo oggetto ID " + obj.getId() + " (" + obj.getName() + ")");
+            GameLog.debug(() -> "Open: Controllo oggetto ID " + obj.getId() + " (" + obj.getName() + ")");
 
             // Cerca per ID (casse hanno ID >= 100 e <= 103)
             if (obj.getId() >= 100 && obj.getId() <= 103) {
-                System.out.println("DEBUG Open: Trovata cassa per ID: " + obj.getId() + " (" + obj.getName() + ")");
+                GameLog.debug(() -> "Open: Trovata cassa per ID: " + obj.getId() + " (" + obj.getName() + ")");
                 return obj;
             }
 
             // Cerca per nome (come fallback) - controllo più permissivo
             String objName = obj.getName().toLowerCase();
             if ((objName.contains("cassa") || objName.equals("chest")) && obj.isOpenable()) {
-                System.out.println("DEBUG Open: Trovata cassa per nome: " + obj.getName() + " (ID: " + obj.getId() + ")");
+                GameLog.debug(() -> "Open: Trovata cassa per nome: " + obj.getName() + " (ID: " + obj.getId() + ")");
                 return obj;
             }
         }
 
-        System.out.println("DEBUG Open: Nessuna cassa trovata tra gli oggetti della stanza");
+        GameLog.debug("Open: Nessuna cassa trovata tra gli oggetti della stanza");
         return null;
     }
 
@@ -395,50 +406,41 @@ public class Open extends GameObserver {
     private String openChestFromDB(GameDescription description, GameObjects cassa) {
         StringBuilder msg = new StringBuilder();
 
-        System.out.println("DEBUG Open: Tentativo apertura cassa " + cassa.getId() + " (" + cassa.getName() + ") nella stanza " + description.getCurrentRoom().getId());
+        GameLog.debug(() -> "Open: Tentativo apertura cassa " + cassa.getId() + " (" + cassa.getName() + ") nella stanza " + description.getCurrentRoom().getId());
 
         if (!cassa.isOpenable()) {
             msg.append("Questa cassa non puo' essere aperta.");
-            System.out.println("DEBUG Open: Cassa " + cassa.getId() + " non è apribile");
+            GameLog.debug(() -> "Open: Cassa " + cassa.getId() + " non è apribile");
             return msg.toString();
         }
 
         GameLoader gameLoader = getGameLoader(description);
         if (gameLoader == null) {
             msg.append("Errore nel sistema del gioco.");
-            System.out.println("DEBUG Open: GameLoader non disponibile");
+            GameLog.debug("Open: GameLoader non disponibile");
             return msg.toString();
         }
 
         // CORREZIONE CRITICA: Rimuovi prima eventuali oggetti che dovrebbero essere DENTRO la cassa
         List<Integer> expectedContents = getExpectedChestContents(cassa.getId());
         if (expectedContents != null && !expectedContents.isEmpty()) {
-            System.out.println("DEBUG Open: Controllo contenuti che dovrebbero essere nella cassa " + cassa.getId());
-
-            // Rimuovi dalla stanza gli oggetti che dovrebbero essere nella cassa
-            Iterator<GameObjects> roomObjIterator = description.getCurrentRoom().getObjects().iterator();
-            while (roomObjIterator.hasNext()) {
-                GameObjects roomObj = roomObjIterator.next();
-                if (expectedContents.contains(roomObj.getId())) {
-                    System.out.println("DEBUG Open: Rimuovo " + roomObj.getName() + " dalla stanza (dovrebbe essere nella cassa)");
-                    roomObjIterator.remove();
-                }
-            }
+            GameLog.debug(() -> "Open: Controllo contenuti che dovrebbero essere nella cassa " + cassa.getId());
 
-            // IMPORTANTE: Rimuovi anche dal database ROOM_OBJECTS
+            // Rimuovi dalla stanza (memoria, ROOM_OBJECTS e autosave) gli oggetti che dovrebbero essere nella cassa
+            TBMGame game = (TBMGame) description;
             for (Integer contentId : expectedContents) {
-                gameLoader.removeObjectFromRoom(contentId, description.getCurrentRoom().getId());
+                game.removeObjectFromRoom(contentId, description.getCurrentRoom());
             }
         }
 
         // Controlla se la cassa è già stata aperta
         if (gameLoader.isChestOpenInDatabase(cassa.getId())) {
             msg.append("La cassa e' gia' stata aperta.");
-            System.out.println("DEBUG Open: Cassa " + cassa.getId() + " già aperta nel database");
+            GameLog.debug(() -> "Open: Cassa " + cassa.getId() + " già aperta nel database");
             return msg.toString();
         }
 
-        System.out.println("DEBUG Open: Procedo con apertura cassa " + cassa.getId());
+        GameLog.debug(() -> "Open: Procedo con apertura cassa " + cassa.getId());
         msg.append("Hai aperto la cassa!\n");
 
         // Usa il GameLoader per aprire la cassa
@@ -446,14 +448,19 @@ public class Open extends GameObserver {
 
         if (foundObjects.isEmpty()) {
             msg.append("La cassa e' vuota.");
-            System.out.println("DEBUG Open: Cassa " + cassa.getId() + " risulta vuota dopo apertura");
+            GameLog.debug(() -> "Open: Cassa " + cassa.getId() + " risulta vuota dopo apertura");
         } else {
             msg.append("Dentro trovi:");
-            System.out.println("DEBUG Open: Trovati " + foundObjects.size() + " oggetti nella cassa " + cassa.getId() + ":");
+            GameLog.debug(() -> "Open: Trovati " + foundObjects.size() + " oggetti nella cassa " + cassa.getId() + ":");
 
+            AutosaveJournal autosave = ((TBMGame) description).getAutosave();
             for (GameObjects obj : foundObjects) {
                 msg.append(" ").append(obj.getName());
-                System.out.println("  - " + obj.getName() + " (ID: " + obj.getId() + ")");
+                GameLog.debug(() -> "  - " + obj.getName() + " (ID: " + obj.getId() + ")");
+                // openChest ha già aggiornato stanza e database
+                if (autosave != null) {
+                    autosave.objectMovedToRoom(obj.getId(), description.getCurrentRoom().getId());
+                }
             }
             msg.append("!");
         }
@@ -461,9 +468,13 @@ public class Open extends GameObserver {
         // Aggiorna lo stato della cassa
         cassa.setOpen(true);
         gameLoader.markChestAsOpened(cassa.getId());
-        gameLoader.updateObjectState(cassa);
+        if (description instanceof TBMGame) {
+            ((TBMGame) description).updateObjectState(cassa);
+        } else {
+            gameLoader.updateObjectState(cassa);
+        }
 
-        System.out.println("DEBUG Open: Apertura cassa " + cassa.getId() + " completata con successo");
+        GameLog.debug(() -> "Open: Apertura cassa " + cassa.getId() + " completata con successo");
         return msg.toString();
     }
 
@@ -487,7 +498,7 @@ public class Open extends GameObserver {
 
     public void resetForNewGame() {
         princessFreed = false;
-        System.out.println("DEBUG: Stati Open observer resettati");
+        GameLog.debug("Stati Open observer resettati");
     }
 
     /**
@@ -9,6 +9,8 @@ import com.mycompany.theblackmountain.parser.ParserOutput;
 import com.mycompany.theblackmountain.type.GameObjects;
 import com.mycompany.theblackmountain.type.CommandType;
 import com.mycompany.theblackmountain.GameObserver;
+import java.util.EnumSet;
+import java.util.Set;
 
 /**
  *
@@ -16,6 +18,14 @@ import com.mycompany.theblackmountain.GameObserver;
  */
 public class OpenInventory extends GameObserver {
 
+    /**
+     * Visualizzazione dell'inventario
+     */
+    @Override
+    public Set<CommandType> getHandledCommands() {
+        return EnumSet.of(CommandType.INVENTORY);
+    }
+
     /**
      *
      * @param description
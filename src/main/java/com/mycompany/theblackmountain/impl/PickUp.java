@@ -8,7 +8,10 @@ import com.mycompany.theblackmountain.GameDescription;
 import com.mycompany.theblackmountain.parser.ParserOutput;
 import com.mycompany.theblackmountain.type.CommandType;
 import com.mycompany.theblackmountain.GameObserver;
-import com.mycompany.theblackmountain.database.GameLoader;
+import com.mycompany.theblackmountain.type.GameObjects;
+import java.util.EnumSet;
+import java.util.Set;
+import com.mycompany.theblackmountain.log.GameLog;
 
 /**
  *
@@ -16,6 +19,14 @@ import com.mycompany.theblackmountain.database.GameLoader;
  */
 public class PickUp extends GameObserver {
 
+    /**
+     * Raccolta di oggetti
+     */
+    @Override
+    public Set<CommandType> getHandledCommands() {
+        return EnumSet.of(CommandType.PICK_UP);
+    }
+
     /**
      *
      * @param description
@@ -28,26 +39,16 @@ public class PickUp extends GameObserver {
         if (parserOutput.getCommand().getType() == CommandType.PICK_UP) {
 
             // DEBUG: Stampa oggetti disponibili nella stanza
-            System.out.println("🔍 DEBUG PickUp - Oggetti nella stanza " + description.getCurrentRoom().getId() + ":");
+            GameLog.debug(() -> "🔍 DEBUG PickUp - Oggetti nella stanza " + description.getCurrentRoom().getId() + ":");
             for (var obj : description.getCurrentRoom().getObjects()) {
-                System.out.println("  - " + obj.getName() + " (ID: " + obj.getId() + ", Raccoglibile: " + obj.isPickupable() + ")");
+                GameLog.debug(() -> "  - " + obj.getName() + " (ID: " + obj.getId() + ", Raccoglibile: " + obj.isPickupable() + ")");
             }
 
             if (parserOutput.getObject() != null) {
                 if (parserOutput.getObject().isPickupable()) {
 
-                    // *** PARTE CORRETTA: Aggiorna sia memoria che database ***
-                    description.getInventory().add(parserOutput.getObject());
-                    description.getCurrentRoom().getObjects().remove(parserOutput.getObject());
-
-                    // *** NUOVO: Sincronizza con il database ***
-                    GameLoader gameLoader = getGameLoader(description);
-                    if (gameLoader != null) {
-                        gameLoader.moveObjectToInventory(parserOutput.getObject(), 0); // 0 = ID giocatore
-                        System.out.println("✅ DEBUG: Oggetto " + parserOutput.getObject().getName() + " spostato nel database");
-                    } else {
-                        System.out.println("⚠️ DEBUG: GameLoader non disponibile, sincronizzazione database saltata");
-                    }
+                    // Aggiorna memoria, database e journal di autosave
+                    moveToInventory(description, parserOutput.getObject());
 
                     msg.append("Hai raccolto: ").append(parserOutput.getObject().getName());
 
@@ -75,26 +76,18 @@ public class PickUp extends GameObserver {
      * oggetto specifico
      */
     private String handlePickupStrings(GameDescription description) {
-        System.out.println("🔍 DEBUG: Ricerca stringhe nella stanza " + description.getCurrentRoom().getId());
+        GameLog.debug(() -> "🔍 DEBUG: Ricerca stringhe nella stanza " + description.getCurrentRoom().getId());
 
         // Cerca le stringhe di ragnatela (ID 4) nella stanza
         for (var obj : description.getCurrentRoom().getObjects()) {
             if (obj.getId() == 4 || obj.getName().toLowerCase().contains("stringhe")
                     || obj.getName().toLowerCase().contains("ragnatela")) {
 
-                System.out.println("✅ DEBUG: Trovate stringhe: " + obj.getName());
+                GameLog.debug(() -> "✅ DEBUG: Trovate stringhe: " + obj.getName());
 
                 if (obj.isPickupable()) {
                     // Sposta l'oggetto
-                    description.getInventory().add(obj);
-                    description.getCurrentRoom().getObjects().remove(obj);
-
-                    // Sincronizza database
-                    GameLoader gameLoader = getGameLoader(description);
-                    if (gameLoader != null) {
-                        gameLoader.moveObjectToInventory(obj, 0);
-                        System.out.println("✅ DEBUG: Stringhe spostate nel database");
-                    }
+                    moveToInventory(description, obj);
 
                     updateRoomDescription(description, obj.getId());
                     return "Hai raccolto: " + obj.getName();
@@ -104,19 +97,21 @@ public class PickUp extends GameObserver {
             }
         }
 
-        System.out.println("❌ DEBUG: Stringhe non trovate nella stanza corrente");
+        GameLog.debug("❌ DEBUG: Stringhe non trovate nella stanza corrente");
         return "Non ci sono stringhe di ragnatela da raccogliere qui.";
     }
 
     /**
-     * Ottiene il GameLoader dall'istanza del gioco
+     * Sposta un oggetto dalla stanza corrente all'inventario. Nel gioco vero
+     * passa da TBMGame, che sincronizza anche database e autosave.
      */
-    private GameLoader getGameLoader(GameDescription description) {
+    private void moveToInventory(GameDescription description, GameObjects obj) {
         if (description instanceof TBMGame) {
-            TBMGame game = (TBMGame) description;
-            return game.getGameLoader();
+            ((TBMGame) description).pickupObject(obj);
+        } else {
+            description.getInventory().add(obj);
+            description.getCurrentRoom().getObjects().remove(obj);
         }
-        return null;
     }
 
     /**
@@ -3,9 +3,15 @@ package com.mycompany.theblackmountain.impl;
 import com.mycompany.theblackmountain.GameDescription;
 import com.mycompany.theblackmountain.GameObservable;
 import com.mycompany.theblackmountain.GameObserver;
+import com.mycompany.theblackmountain.GameRandom;
 import com.mycompany.theblackmountain.combat.CombatSystem;
 import com.mycompany.theblackmountain.database.GameLoader;
 import com.mycompany.theblackmountain.database.TBMDatabase;
+import com.mycompany.theblackmountain.database.WorldSnapshot;
+import com.mycompany.theblackmountain.save.AutosaveJournal;
+import com.mycompany.theblackmountain.systems.DoorSystem;
+import com.mycompany.theblackmountain.systems.RoomGraph;
+import com.mycompany.theblackmountain.type.ContainerObj;
 import com.mycompany.theblackmountain.type.GameCharacter;
 import com.mycompany.theblackmountain.type.GameObjects;
 import com.mycompany.theblackmountain.type.Room;
@@ -21,7 +27,10 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import com.mycompany.theblackmountain.log.GameLog;
 
 public class TBMGame extends GameDescription implements GameObservable {
 
@@ -30,6 +39,8 @@ public class TBMGame extends GameDescription implements GameObservable {
     private CombatSystem combatSystem;
     private GameCharacter player;
     private final List<GameObserver> observers = new ArrayList<>();
+    // Observer interessati a ogni tipo di comando, nell'ordine di registrazione
+    private final Map<CommandType, List<GameObserver>> observersByCommand = new EnumMap<>(CommandType.class);
     private boolean princessFreed = false;
     private boolean princessLiberated = false;
     private boolean gameEndingTriggered = false;
@@ -37,14 +48,57 @@ public class TBMGame extends GameDescription implements GameObservable {
     // Campo per memorizzare l'ultimo ParserOutput
     private ParserOutput lastParserOutput;
 
+    // In modalità headless (server) il gioco non usa l'audio
+    private boolean headless = false;
+
+    // Fotografia del mondo da cui creare gli oggetti di gioco, se presente
+    private WorldSnapshot worldSnapshot;
+
+    // Avvisato al termine di ogni fase del caricamento dal database
+    private GameLoader.LoadListener loadListener;
+
+    // Salvataggio automatico della sessione, se attivo
+    private AutosaveJournal autosave;
+
+    // Generatore casuale della partita (combattimenti, danni)
+    private GameRandom random = new GameRandom();
+
+    // Grafo delle stanze, costruito alla prima richiesta dopo il caricamento
+    private RoomGraph roomGraph;
+
+    /**
+     * Costruttore per la partita locale, che usa il database condiviso.
+     */
+    public TBMGame() {
+    }
+
+    /**
+     * Costruttore per una partita con un database dedicato.
+     *
+     * @param database database della sessione
+     * @param headless true per disattivare l'audio
+     */
+    public TBMGame(TBMDatabase database, boolean headless) {
+        this.database = database;
+        this.headless = headless;
+    }
+
     @Override
     public void init() throws Exception {
         System.out.println("Inizializzazione The Black Mountain...");
+        GameLog.info("Seme casuale della partita: " + random.getSeed());
 
         try {
             initializeDatabase();
-            forceCompleteReset();
+            // Un database copiato dal modello è già nello stato di nuova partita
+            if (!database.isClonedFromTemplate()) {
+                forceCompleteReset();
+            }
             loadGameData();
+            // Testo di riferimento per i salvataggi, che memorizzano solo le stanze modificate
+            for (Room room : getRooms()) {
+                room.markTextAsOriginal();
+            }
             initializeCommands();
             initializeCombatSystem();
             initializeObservers();
@@ -58,7 +112,9 @@ public class TBMGame extends GameDescription implements GameObservable {
 
     private void initializeDatabase() throws SQLException {
         System.out.println("Inizializzazione database...");
-        database = TBMDatabase.getInstance();
+        if (database == null) {
+            database = TBMDatabase.getInstance();
+        }
         database.initialize();
         if (!database.isHealthy()) {
             throw new SQLException("Database non funzionante dopo l'inizializzazione");
@@ -69,8 +125,18 @@ public class TBMGame extends GameDescription implements GameObservable {
     private void loadGameData() throws SQLException {
         System.out.println("Caricamento dati di gioco...");
         gameLoader = new GameLoader(this);
+        gameLoader.setLoadListener(loadListener);
+        roomGraph = null;
+        if (worldSnapshot != null) {
+            // Database copiato dal modello: gli oggetti vengono creati in memoria
+            gameLoader.loadFromSnapshot(worldSnapshot);
+            System.out.println("Dati di gioco caricati");
+            return;
+        }
         gameLoader.loadGame();
-        resetForNewGame();
+        if (!database.isClonedFromTemplate()) {
+            resetForNewGame();
+        }
         gameLoader.printDatabaseStats();
         gameLoader.verifyDatabaseIntegrity();
         debugAfterLoad();
@@ -156,7 +222,7 @@ WHERE CHARACTER_TYPE != 'PLAYER'
             // - Stanza 4: cassa 102 (che CONTIENE libro ID 8 e veleno ID 9)
             // - Stanza 6: cassa 103
             String restoreInitialRoomObjectsSql = """
-INSERT OR IGNORE INTO ROOM_OBJECTS (ROOM_ID, OBJECT_ID) VALUES
+MERGE INTO ROOM_OBJECTS (ROOM_ID, OBJECT_ID) KEY(ROOM_ID, OBJECT_ID) VALUES
 (0, 100),  -- Ingresso: cassa
 (1, 4),    -- Stanza Topo: ragnatele (oggetto fisso)
 (3, 101),  -- Dormitorio: cassa
@@ -258,6 +324,8 @@ ORDER BY r.ROOM_ID, r.OBJECT_ID
                 Move moveObserver = new Move();
                 moveObserver.setCombatSystem(combatSystem);
                 this.attach(moveObserver);
+
+                this.attach(new WalkTo(moveObserver));
             }
 
             this.attach(new OpenInventory());
@@ -433,7 +501,8 @@ ORDER BY r.ROOM_ID, r.OBJECT_ID
             StringBuilder result = new StringBuilder();
             boolean commandHandled = false;
 
-            for (GameObserver observer : observers) {
+            List<GameObserver> handlers = observersByCommand.getOrDefault(p.getCommand().getType(), List.of());
+            for (GameObserver observer : handlers) {
                 try {
                     String observerResult = observer.update(this, lastParserOutput);
                     if (observerResult != null && !observerResult.trim().isEmpty()) {
@@ -449,6 +518,10 @@ ORDER BY r.ROOM_ID, r.OBJECT_ID
                 }
             }
 
+            if (autosave != null && getCurrentRoom() != null) {
+                autosave.playerMoved(getCurrentRoom().getId());
+            }
+
             // Se abbiamo un risultato viene stampato
             if (result.length() > 0) {
                 String output = result.toString();
@@ -462,16 +535,17 @@ ORDER BY r.ROOM_ID, r.OBJECT_ID
 
             // *** CORREZIONE: Controlla il game over SOLO DOPO aver elaborato il comando ***
             if (isGameOver()) {
+                flushPendingWrites();
                 out.println("\n" + getGameOverMessage());
                 out.flush();
-                System.out.println("DEBUG: GAME OVER confermato - Player HP: "
+                GameLog.info("Game over confermato - HP giocatore: "
                         + (player != null ? player.getCurrentHp() : "null"));
             }
 
             if (isGameCompleted()) {
                 out.println("\n" + getVictoryMessage());
                 out.flush();
-                System.out.println("DEBUG: GIOCO COMPLETATO - Vittoria!");
+                GameLog.info("Gioco completato - Vittoria!");
 
                 // Segnala la vittoria 
                 notifyGameCompleted();
@@ -493,7 +567,6 @@ ORDER BY r.ROOM_ID, r.OBJECT_ID
      */
     public boolean isGameOver() {
         if (player == null) {
-            System.out.println("DEBUG: Player è null - NO GAME OVER");
             return false;
         }
 
@@ -501,14 +574,11 @@ ORDER BY r.ROOM_ID, r.OBJECT_ID
         boolean isDead = currentHp <= 0;
         boolean isNotAlive = !player.isAlive();
 
-        System.out.println("DEBUG Game Over Check:");
-        System.out.println("  - Player: " + player.getName());
-        System.out.println("  - Current HP: " + currentHp);
-        System.out.println("  - Max HP: " + player.getMaxHp());
-        System.out.println("  - Is Alive Flag: " + player.isAlive());
-        System.out.println("  - HP <= 0: " + isDead);
-        System.out.println("  - Not Alive: " + isNotAlive);
-        System.out.println("  - Should be Game Over: " + (isDead || isNotAlive));
+        if (GameLog.isDebugEnabled()) {
+            GameLog.debug("Controllo game over: " + player.getName()
+                    + " HP " + currentHp + "/" + player.getMaxHp()
+                    + ", vivo: " + !isNotAlive + ", game over: " + (isDead || isNotAlive));
+        }
 
         // Verifica entrambe le condizioni
         return isDead || isNotAlive;
@@ -557,6 +627,11 @@ ORDER BY r.ROOM_ID, r.OBJECT_ID
         ovest.setAlias(new String[]{"o", "O", "Ovest", "OVEST"});
         getCommands().add(ovest);
 
+        // Viaggio automatico verso una stanza: "vai alla mensa"
+        Command walkTo = new Command(CommandType.WALK_TO, "vai");
+        walkTo.setAlias(new String[]{"raggiungi", "viaggia", "torna"});
+        getCommands().add(walkTo);
+
         Command look = new Command(CommandType.LOOK_AT, "osserva");
         look.setAlias(new String[]{"guarda", "vedi", "trova", "cerca", "descrivi"});
         getCommands().add(look);
@@ -676,6 +751,9 @@ ORDER BY r.ROOM_ID, r.OBJECT_ID
         try {
             System.out.println("DEBUG: Resetting gioco per nuova partita...");
 
+            // Le modifiche ancora in coda non devono sovrascrivere il reset
+            flushPendingWrites();
+
             // 1. Reset posizione giocatore all'ingresso
             Room entrance = null;
             for (Room room : getRooms()) {
@@ -877,6 +955,28 @@ ORDER BY r.ROOM_ID, r.OBJECT_ID
         }
     }
 
+    /**
+     * @return grafo delle stanze caricate
+     */
+    public RoomGraph getRoomGraph() {
+        if (roomGraph == null) {
+            roomGraph = RoomGraph.fromRooms(getRooms());
+        }
+        return roomGraph;
+    }
+
+    /**
+     * @return sistema porte del Move observer, o null se non registrato
+     */
+    public DoorSystem getDoorSystem() {
+        for (GameObserver observer : observers) {
+            if (observer instanceof Move) {
+                return ((Move) observer).getDoorSystem();
+            }
+        }
+        return null;
+    }
+
     /**
      * Crea oggetti iniziali di default come fallback
      */
@@ -922,9 +1022,6 @@ ORDER BY r.ROOM_ID, r.OBJECT_ID
      */
     private void reloadCharactersFromDatabase() {
         try {
-            // Creare un nuovo GameLoader temporaneo per ricaricare solo i caratteri
-            GameLoader tempLoader = new GameLoader(this);
-
             // Chiama il metodo pubblico loadGame che ricaricherà tutti i dati
             // Ma dato che abbiamo già le stanze, ricaricherà solo i personaggi
             try (Connection conn = database.getConnection()) {
@@ -1010,7 +1107,7 @@ ORDER BY r.ROOM_ID, r.OBJECT_ID
         // Gioco completato = stanza uscita (ID 8) + principessa liberata  
         boolean completed = getCurrentRoom().getId() == 8 && princessFreed;
 
-        if (completed) {
+        if (completed && !headless) {
             // Ferma la musica del gioco quando viene completato
             MusicManager.getInstance().stopMusic();
         }
@@ -1065,7 +1162,7 @@ ORDER BY r.ROOM_ID, r.OBJECT_ID
     /**
      * Notifica tutti i listener che il gioco è completato
      */
-    private void notifyGameCompleted() {
+    void notifyGameCompleted() {
         if (!gameCompleted) {
             gameCompleted = true;
             for (GameCompletionListener listener : completionListeners) {
@@ -1114,21 +1211,25 @@ ORDER BY r.ROOM_ID, r.OBJECT_ID
      * Debug: Stampa lo stato completo del giocatore
      */
     public void debugPlayerState() {
-        System.out.println(" === STATO GIOCATORE ===");
+        if (!GameLog.isDebugEnabled()) {
+            return;
+        }
         if (player == null) {
-            System.out.println("PLAYER È NULL!");
+            GameLog.debug("PLAYER È NULL!");
             return;
         }
 
-        System.out.println("Nome: " + player.getName());
-        System.out.println("HP Correnti: " + player.getCurrentHp());
-        System.out.println("HP Massimi: " + player.getMaxHp());
-        System.out.println("Attacco: " + player.getAttack());
-        System.out.println("Difesa: " + player.getDefense());
-        System.out.println("È vivo: " + player.isAlive());
-        System.out.println("========================");
+        GameLog.debug(" === STATO GIOCATORE ===\n"
+                + "Nome: " + player.getName() + "\n"
+                + "HP Correnti: " + player.getCurrentHp() + "\n"
+                + "HP Massimi: " + player.getMaxHp() + "\n"
+                + "Attacco: " + player.getAttack() + "\n"
+                + "Difesa: " + player.getDefense() + "\n"
+                + "È vivo: " + player.isAlive() + "\n"
+                + "========================");
     }
 
+
     /**
      * Crea manualmente i nemici nelle stanze come fallback
      */
@@ -1181,56 +1282,151 @@ ORDER BY r.ROOM_ID, r.OBJECT_ID
     }
 
     public void dropObject(GameObjects obj) {
-        if (getCurrentRoom() == null || gameLoader == null) {
+        if (getCurrentRoom() == null) {
             return;
         }
+        placeObject(obj, getCurrentRoom());
+    }
+
+    /**
+     * Sposta un oggetto nella stanza indicata (dall'inventario o dal nulla,
+     * come la chiave lasciata dal boss) aggiornando memoria, database e
+     * journal di autosave.
+     *
+     * @param obj oggetto da spostare
+     * @param room stanza di destinazione
+     */
+    public void placeObject(GameObjects obj, Room room) {
         getInventory().remove(obj);
-        getCurrentRoom().getObjects().add(obj);
-        gameLoader.moveObjectToRoom(obj, getCurrentRoom());
-        System.out.println("Oggetto " + obj.getName() + " lasciato in " + getCurrentRoom().getName());
+        if (!room.getObjects().contains(obj)) {
+            room.getObjects().add(obj);
+        }
+        if (gameLoader != null) {
+            gameLoader.moveObjectToRoom(obj, room);
+        }
+        if (autosave != null) {
+            autosave.objectMovedToRoom(obj.getId(), room.getId());
+        }
+        GameLog.debug(() -> "Oggetto " + obj.getName() + " lasciato in " + room.getName());
     }
 
     public boolean pickupObject(GameObjects obj) {
-        if (getCurrentRoom() == null || gameLoader == null) {
+        if (getCurrentRoom() == null) {
             return false;
         }
         if (!obj.isPickupable()) {
             return false;
         }
         getCurrentRoom().getObjects().remove(obj);
-        getInventory().add(obj);
-        gameLoader.moveObjectToInventory(obj, 0); // ID giocatore = 0
-        System.out.println("Oggetto " + obj.getName() + " aggiunto all'inventario");
+        giveObject(obj);
         return true;
     }
 
-    public void destroyObject(GameObjects obj) {
-        if (gameLoader == null) {
-            return;
+    /**
+     * Mette un oggetto nell'inventario del giocatore aggiornando memoria,
+     * database e journal di autosave.
+     *
+     * @param obj oggetto da aggiungere
+     */
+    public void giveObject(GameObjects obj) {
+        if (!getInventory().contains(obj)) {
+            getInventory().add(obj);
+        }
+        if (gameLoader != null) {
+            gameLoader.moveObjectToInventory(obj, 0); // ID giocatore = 0
+        }
+        if (autosave != null) {
+            autosave.objectMovedToInventory(obj.getId());
         }
+        GameLog.debug(() -> "Oggetto " + obj.getName() + " aggiunto all'inventario");
+    }
+
+    public void destroyObject(GameObjects obj) {
         getInventory().remove(obj);
         for (Room room : getRooms()) {
             room.getObjects().remove(obj);
         }
-        gameLoader.removeObject(obj);
-        System.out.println("Oggetto " + obj.getName() + " rimosso dal gioco");
+        if (gameLoader != null) {
+            gameLoader.removeObject(obj);
+        }
+        if (autosave != null) {
+            autosave.objectRemoved(obj.getId());
+        }
+        GameLog.debug(() -> "Oggetto " + obj.getName() + " rimosso dal gioco");
+    }
+
+    /**
+     * Toglie un oggetto da una stanza (in memoria e nel database). Il journal
+     * registra la rimozione solo se l'oggetto era davvero nella stanza, così
+     * un oggetto già raccolto non sparisce dall'inventario al recupero.
+     *
+     * @param objectId id dell'oggetto
+     * @param room stanza da cui togliere l'oggetto
+     */
+    public void removeObjectFromRoom(int objectId, Room room) {
+        boolean removed = room.getObjects().removeIf(o -> o.getId() == objectId);
+        if (gameLoader != null) {
+            gameLoader.removeObjectFromRoom(objectId, room.getId());
+        }
+        if (removed && autosave != null) {
+            autosave.objectRemoved(objectId);
+        }
     }
 
     public void updateObjectState(GameObjects obj) {
         if (gameLoader != null) {
             gameLoader.updateObjectState(obj);
         }
+        if (autosave != null) {
+            if (obj instanceof ContainerObj) {
+                autosave.chestChanged(obj.getId(), obj.isOpen());
+            } else {
+                autosave.objectFlagsChanged(obj.getId(), obj.isOpen(), obj.isPush());
+            }
+        }
     }
 
     public void updateCharacterState(GameCharacter character) {
         if (gameLoader != null) {
             gameLoader.updateCharacterState(character);
         }
+        if (autosave != null) {
+            if (character == player) {
+                autosave.playerChanged(character.getCurrentHp());
+            } else {
+                autosave.characterChanged(character.getId(), character.getCurrentHp(), character.isAlive());
+            }
+        }
+    }
+
+    /**
+     * Collega il salvataggio automatico, che riceve le modifiche di stato.
+     *
+     * @param autosave journal della sessione, o null per scollegarlo
+     */
+    public void setAutosave(AutosaveJournal autosave) {
+        this.autosave = autosave;
+    }
+
+    public AutosaveJournal getAutosave() {
+        return autosave;
+    }
+
+    /**
+     * Scrive subito nel database le modifiche di stato ancora in coda.
+     */
+    public void flushPendingWrites() {
+        if (gameLoader != null) {
+            gameLoader.flushPendingWrites();
+        }
     }
 
     public void cleanup() {
         try {
             System.out.println("Cleanup del gioco...");
+            if (gameLoader != null) {
+                gameLoader.shutdown();
+            }
             if (database != null) {
                 database.shutdown();
             }
@@ -1322,12 +1518,27 @@ ORDER BY r.ROOM_ID, r.OBJECT_ID
     public void attach(GameObserver observer) {
         if (observer != null && !observers.contains(observer)) {
             observers.add(observer);
+            rebuildDispatchTable();
         }
     }
 
     @Override
     public void detach(GameObserver observer) {
-        observers.remove(observer);
+        if (observers.remove(observer)) {
+            rebuildDispatchTable();
+        }
+    }
+
+    /**
+     * Ricostruisce la tabella tipo di comando -> observer interessati.
+     */
+    private void rebuildDispatchTable() {
+        observersByCommand.clear();
+        for (GameObserver observer : observers) {
+            for (CommandType type : observer.getHandledCommands()) {
+                observersByCommand.computeIfAbsent(type, t -> new ArrayList<>()).add(observer);
+            }
+        }
     }
 
     @Override
@@ -1342,6 +1553,18 @@ ORDER BY r.ROOM_ID, r.OBJECT_ID
     }
 
     // Getter / Setter
+    public GameRandom getRandom() {
+        return random;
+    }
+
+    /**
+     * Sostituisce il generatore casuale, ad es. per rigiocare una partita con
+     * un seme noto. Va chiamato prima di init().
+     */
+    public void setRandom(GameRandom random) {
+        this.random = random;
+    }
+
     public CombatSystem getCombatSystem() {
         return combatSystem;
     }
@@ -1368,6 +1591,26 @@ ORDER BY r.ROOM_ID, r.OBJECT_ID
         }
     }
 
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    /**
+     * Imposta la fotografia del mondo da usare in init() al posto del
+     * caricamento dal database. Il database della partita deve essere una
+     * copia dello stesso modello.
+     */
+    public void setWorldSnapshot(WorldSnapshot worldSnapshot) {
+        this.worldSnapshot = worldSnapshot;
+    }
+
+    /**
+     * Imposta il listener delle fasi di caricamento usato da init().
+     */
+    public void setLoadListener(GameLoader.LoadListener loadListener) {
+        this.loadListener = loadListener;
+    }
+
     public boolean isPrincessFreed() {
         return princessFreed;
     }
@@ -5,6 +5,7 @@
 package com.mycompany.theblackmountain.impl;
 
 import com.mycompany.theblackmountain.GameDescription;
+import com.mycompany.theblackmountain.GameRandom;
 import com.mycompany.theblackmountain.GameObserver;
 import com.mycompany.theblackmountain.GameUtils;
 import com.mycompany.theblackmountain.parser.ParserOutput;
@@ -13,6 +14,9 @@ import com.mycompany.theblackmountain.type.GameCharacter;
 import com.mycompany.theblackmountain.type.GameObjects;
 import com.mycompany.theblackmountain.type.Weapon;
 import com.mycompany.theblackmountain.type.WeaponType;
+import java.util.EnumSet;
+import java.util.Set;
+import com.mycompany.theblackmountain.log.GameLog;
 
 /**
  * Observer per gestire i comandi USE e CREATE
@@ -21,6 +25,14 @@ import com.mycompany.theblackmountain.type.WeaponType;
  */
 public class Use extends GameObserver {
 
+    /**
+     * Uso e creazione di oggetti
+     */
+    @Override
+    public Set<CommandType> getHandledCommands() {
+        return EnumSet.of(CommandType.USE, CommandType.CREATE);
+    }
+
     @Override
     public String update(GameDescription description, ParserOutput parserOutput) {
 
@@ -52,7 +64,7 @@ public class Use extends GameObserver {
         StringBuilder msg = new StringBuilder();
         String commandText = parserOutput.getCommand().getName().toLowerCase();
 
-        System.out.println("🔍 DEBUG CREATE: comando = '" + commandText + "'");
+        GameLog.debug(() -> "🔍 DEBUG CREATE: comando = '" + commandText + "'");
 
         if (commandText.contains("arco") || commandText.equals("crea")) {
             if (description.getCurrentRoom().getId() != 5) {
@@ -73,14 +85,14 @@ public class Use extends GameObserver {
                         msg.append("\n✨ L'altare magico infonde potere nella tua creazione...");
                         msg.append("\n💔 Il processo ti ha indebolito. (-20 HP)");
 
-                        description.getInventory().remove(bastone);
-                        description.getInventory().remove(stringhe);
+                        game.destroyObject(bastone);
+                        game.destroyObject(stringhe);
 
                         player.setCurrentHp(player.getCurrentHp() - 20);
                         game.updateCharacterState(player);
 
                         GameObjects magicBow = createMagicBow();
-                        description.getInventory().add(magicBow);
+                        game.giveObject(magicBow);
 
                         msg.append("\n🎯 Hai ottenuto: ").append(magicBow.getName());
                         msg.append("\n❤️ HP rimanenti: ").append(player.getCurrentHp());
@@ -163,13 +175,11 @@ public class Use extends GameObserver {
         msg.append("\n L'arma ora infliggerà +5 danni da veleno!");
         msg.append("\n️ Statistiche aggiornate: ").append(weaponToPoison.getWeaponStats());
 
-        // Aggiorna il database se disponibile
+        // Aggiorna database e autosave
         if (description instanceof TBMGame) {
             TBMGame game = (TBMGame) description;
-            if (game.getGameLoader() != null) {
-                game.updateObjectState(weaponToPoison);
-                game.getGameLoader().removeObject(poison);
-            }
+            game.updateObjectState(weaponToPoison);
+            game.destroyObject(poison);
         }
 
         msg.append("\n Veleno applicato!");
@@ -229,7 +239,7 @@ public class Use extends GameObserver {
 
         // Applica la cura
         player.setCurrentHp(newHp);
-        description.getInventory().remove(potion);
+        game.destroyObject(potion);
 
         // Aggiorna il database
         game.updateCharacterState(player);
@@ -280,7 +290,8 @@ public class Use extends GameObserver {
 
         // Danni dell'incantesimo
         int baseDamage = 25;
-        int actualDamage = baseDamage + (int) (Math.random() * 10); // 25-35 danni
+        GameRandom random = description instanceof TBMGame ? ((TBMGame) description).getRandom() : new GameRandom();
+        int actualDamage = baseDamage + random.nextInt(10); // 25-34 danni
 
         // Colpisci tutti i nemici nella stanza
         int enemiesHit = 0;
@@ -338,15 +349,13 @@ public class Use extends GameObserver {
         GameObjects fireBook = GameUtils.getObjectFromInventory(description.getInventory(), 8);
         if (fireBook != null) {
 
-            // Rimuovi dal database se disponibile
             if (description instanceof TBMGame) {
-                TBMGame game = (TBMGame) description;
-                if (game.getGameLoader() != null) {
-                    game.getGameLoader().removeObject(fireBook);
-                }
+                ((TBMGame) description).destroyObject(fireBook);
+            } else {
+                description.getInventory().remove(fireBook);
             }
 
-            msg.append("\n Il grimorio rimane utilizzabile dopo aver lanciato l'incantesimo!");
+            msg.append("\n Il grimorio si consuma tra le fiamme dopo aver lanciato l'incantesimo!");
         }
 
         return msg.toString();
@@ -363,7 +372,7 @@ public class Use extends GameObserver {
         String commandText = parserOutput.getCommand().getName().toLowerCase();
         boolean commandHandled = false;
 
-        System.out.println("🔍 DEBUG USE: comando = '" + commandText + "'");
+        GameLog.debug(() -> "🔍 DEBUG USE: comando = '" + commandText + "'");
 
         // *** GESTIONE LIBRO INCANTESIMO FUOCO - PRIORITÀ ALTA ***
         if (commandText.contains("libro") || commandText.contains("grimorio") || commandText.contains("incantesimo") || commandText.contains("fuoco")) {
@@ -0,0 +1,149 @@
+package com.mycompany.theblackmountain.impl;
+
+import com.mycompany.theblackmountain.GameDescription;
+import com.mycompany.theblackmountain.GameObserver;
+import com.mycompany.theblackmountain.parser.ParserOutput;
+import com.mycompany.theblackmountain.systems.RoomGraph;
+import com.mycompany.theblackmountain.type.Command;
+import com.mycompany.theblackmountain.type.CommandType;
+import com.mycompany.theblackmountain.type.Direction;
+import com.mycompany.theblackmountain.type.Room;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Viaggio automatico verso una stanza ("vai alla mensa").
+ *
+ * Il percorso più breve viene calcolato sul grafo delle stanze con le porte
+ * che il giocatore può aprire; ogni passo passa poi dal Move observer, quindi
+ * porte, nemici e combattimenti fermano il viaggio come un movimento normale.
+ *
+ * @author vince
+ */
+public class WalkTo extends GameObserver {
+
+    private final Move move;
+
+    // Comandi di movimento per direzione, usati per i singoli passi
+    private final ParserOutput[] steps = new ParserOutput[Direction.values().length];
+
+    public WalkTo(Move move) {
+        this.move = move;
+        steps[Direction.NORTH.ordinal()] = new ParserOutput(new Command(CommandType.NORD, "nord"), null);
+        steps[Direction.SOUTH.ordinal()] = new ParserOutput(new Command(CommandType.SOUTH, "sud"), null);
+        steps[Direction.EAST.ordinal()] = new ParserOutput(new Command(CommandType.EAST, "est"), null);
+        steps[Direction.WEST.ordinal()] = new ParserOutput(new Command(CommandType.WEST, "ovest"), null);
+    }
+
+    /**
+     * Viaggio verso una stanza
+     */
+    @Override
+    public Set<CommandType> getHandledCommands() {
+        return EnumSet.of(CommandType.WALK_TO);
+    }
+
+    /**
+     *
+     * @param description
+     * @param parserOutput
+     * @return
+     */
+    @Override
+    public String update(GameDescription description, ParserOutput parserOutput) {
+        String commandName = parserOutput.getCommand().getName();
+        int space = commandName.indexOf(' ');
+        if (space < 0) {
+            return "Dove vuoi andare? Scrivi ad esempio 'vai alla mensa'.";
+        }
+        String[] query = commandName.substring(space + 1).toLowerCase(Locale.ROOT).split(" ");
+
+        RoomGraph graph = description instanceof TBMGame
+                ? ((TBMGame) description).getRoomGraph()
+                : RoomGraph.fromRooms(description.getRooms());
+        Room current = description.getCurrentRoom();
+        BitSet edges = graph.passableEdges(move.getDoorSystem(), description);
+
+        Room target = findRoom(description, graph, current, edges, query);
+        if (target == null) {
+            return "Non conosci nessuna stanza chiamata \"" + String.join(" ", query) + "\".";
+        }
+        if (target == current) {
+            return "Sei gia' in " + target.getName() + ".";
+        }
+
+        Direction[] path = graph.findPath(current.getId(), target.getId(), edges);
+        if (path == null) {
+            if (graph.distance(current.getId(), target.getId(), graph.allEdges()) > 0) {
+                return "La strada per " + target.getName() + " e' sbarrata da una porta di cui non hai la chiave.";
+            }
+            return "Non c'e' una strada per " + target.getName() + ".";
+        }
+
+        StringBuilder result = new StringBuilder();
+        for (Direction direction : path) {
+            Room before = description.getCurrentRoom();
+            String step = move.update(description, steps[direction.ordinal()]);
+            if (result.length() > 0) {
+                result.append("\n\n");
+            }
+            result.append(step);
+            // Passo bloccato (porta, nemici, combattimento): il viaggio si ferma qui
+            if (description.getCurrentRoom() == before || hasLivingEnemies(description.getCurrentRoom())) {
+                break;
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Cerca la stanza il cui nome contiene tutte le parole cercate (anche
+     * solo come inizio di parola). A parità preferisce la più vicina.
+     */
+    private Room findRoom(GameDescription description, RoomGraph graph, Room current, BitSet edges, String[] query) {
+        Room best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        for (Room room : description.getRooms()) {
+            if (room.getName() == null || !matches(room.getName(), query)) {
+                continue;
+            }
+            int distance = graph.distance(current.getId(), room.getId(), edges);
+            if (distance < 0) {
+                distance = Integer.MAX_VALUE - 1;
+            }
+            if (best == null || distance < bestDistance) {
+                best = room;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    private static boolean matches(String roomName, String[] query) {
+        String[] words = roomName.toLowerCase(Locale.ROOT).split("[\\s']+");
+        for (String token : query) {
+            boolean found = false;
+            for (String word : words) {
+                if (word.startsWith(token)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasLivingEnemies(Room room) {
+        for (int i = 0; i < room.getEnemies().size(); i++) {
+            if (room.getEnemies().get(i).isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,196 @@
+package com.mycompany.theblackmountain.log;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Log asincrono del gioco, con livelli.
+ *
+ * I messaggi sotto il livello attivo vengono scartati prima di costruirli: le
+ * varianti con Supplier non eseguono nemmeno la concatenazione. Gli altri
+ * vengono accodati in un LogRingBuffer senza lock e scritti su stdout/stderr
+ * da un thread in background, quindi chi scrive non attende la console. Se la
+ * coda è piena i messaggi vengono scartati e contati.
+ *
+ * Il livello si imposta con -Dtbm.log.level=DEBUG|INFO|WARN|ERROR|OFF
+ * (predefinito INFO) o con setLevel().
+ *
+ * @author vince
+ */
+public final class GameLog {
+
+    /**
+     * Livelli di log, dal più dettagliato.
+     */
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR, OFF
+    }
+
+    private static final int BUFFER_CAPACITY = 8192;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private static final LogRingBuffer<Record> buffer = new LogRingBuffer<>(BUFFER_CAPACITY);
+    private static final AtomicLong dropped = new AtomicLong();
+    private static volatile Level level = parseLevel(System.getProperty("tbm.log.level"));
+    private static final Thread writer;
+
+    static {
+        writer = new Thread(GameLog::writeLoop, "TBM-Log");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(GameLog::flush, "TBM-Log-Flush"));
+    }
+
+    private GameLog() {
+    }
+
+    private static Level parseLevel(String value) {
+        if (value == null) {
+            return Level.INFO;
+        }
+        try {
+            return Level.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
+        }
+    }
+
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+    }
+
+    public static Level getLevel() {
+        return level;
+    }
+
+    /**
+     * @return true se i messaggi del livello indicato vengono scritti
+     */
+    public static boolean isEnabled(Level messageLevel) {
+        return messageLevel.ordinal() >= level.ordinal() && messageLevel != Level.OFF;
+    }
+
+    public static boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    public static void debug(String message) {
+        log(Level.DEBUG, message, null);
+    }
+
+    public static void debug(Supplier<String> message) {
+        if (isEnabled(Level.DEBUG)) {
+            enqueue(Level.DEBUG, message.get(), null);
+        }
+    }
+
+    public static void info(String message) {
+        log(Level.INFO, message, null);
+    }
+
+    public static void info(Supplier<String> message) {
+        if (isEnabled(Level.INFO)) {
+            enqueue(Level.INFO, message.get(), null);
+        }
+    }
+
+    public static void warn(String message) {
+        log(Level.WARN, message, null);
+    }
+
+    public static void error(String message) {
+        log(Level.ERROR, message, null);
+    }
+
+    public static void error(String message, Throwable error) {
+        log(Level.ERROR, message, error);
+    }
+
+    private static void log(Level messageLevel, String message, Throwable error) {
+        if (isEnabled(messageLevel)) {
+            enqueue(messageLevel, message, error);
+        }
+    }
+
+    private static void enqueue(Level messageLevel, String message, Throwable error) {
+        Record record = new Record(messageLevel, Thread.currentThread().getName(), message, error);
+        if (!buffer.offer(record)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Scrive subito i messaggi già accodati (es. prima dell'uscita).
+     */
+    public static void flush() {
+        synchronized (GameLog.class) {
+            drain();
+        }
+    }
+
+    private static void writeLoop() {
+        while (true) {
+            boolean wrote;
+            synchronized (GameLog.class) {
+                wrote = drain();
+            }
+            if (!wrote) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Scrive tutti i messaggi in coda. Va chiamato tenendo il monitor della
+     * classe, che garantisce un solo consumatore alla volta.
+     *
+     * @return true se è stato scritto almeno un messaggio
+     */
+    private static boolean drain() {
+        boolean wrote = false;
+        Record record;
+        while ((record = buffer.poll()) != null) {
+            record.writeTo(record.level.ordinal() >= Level.WARN.ordinal() ? System.err : System.out);
+            wrote = true;
+        }
+
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            System.err.println("[LOG] " + lost + " messaggi scartati (coda piena)");
+        }
+        if (wrote) {
+            System.out.flush();
+        }
+        return wrote;
+    }
+
+    private static final class Record {
+
+        private final Level level;
+        private final String thread;
+        private final String message;
+        private final Throwable error;
+        private final long timestamp = System.currentTimeMillis();
+
+        private Record(Level level, String thread, String message, Throwable error) {
+            this.level = level;
+            this.thread = thread;
+            this.message = message;
+            this.error = error;
+        }
+
+        private void writeTo(PrintStream stream) {
+            LocalTime time = Instant.ofEpochMilli(timestamp).atZone(ZoneId.systemDefault()).toLocalTime();
+            stream.println(time + " " + level + " [" + thread + "] " + message);
+            if (error != null) {
+                error.printStackTrace(stream);
+            }
+        }
+    }
+}
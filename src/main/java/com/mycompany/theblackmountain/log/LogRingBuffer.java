@@ -0,0 +1,84 @@
+package com.mycompany.theblackmountain.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Coda circolare limitata e senza lock, con più produttori e un solo
+ * consumatore.
+ *
+ * Ogni cella ha un numero di sequenza che indica se è libera per il
+ * produttore della posizione corrente o pronta per il consumatore. Se la coda
+ * è piena offer() restituisce false invece di bloccare il chiamante.
+ *
+ * @param <T> tipo degli elementi
+ * @author vince
+ */
+public final class LogRingBuffer<T> {
+
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head; // usato solo dal consumatore
+
+    /**
+     * @param capacity capacità, arrotondata alla potenza di due successiva
+     */
+    public LogRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Inserisce un elemento; può essere chiamato da qualsiasi thread.
+     *
+     * @return false se la coda è piena
+     */
+    public boolean offer(T item) {
+        long pos = tail.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots[index] = item;
+                    sequences.set(index, pos + 1); // pubblica l'elemento
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Preleva il prossimo elemento; da chiamare solo dal thread consumatore.
+     *
+     * @return elemento o null se la coda è vuota
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        T item = (T) slots[index];
+        slots[index] = null;
+        sequences.set(index, head + slots.length); // libera la cella per il giro successivo
+        head++;
+        return item;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+}
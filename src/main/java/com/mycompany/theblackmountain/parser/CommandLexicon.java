@@ -0,0 +1,68 @@
+package com.mycompany.theblackmountain.parser;
+
+import com.mycompany.theblackmountain.type.Command;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Indice hash di nomi e alias dei comandi.
+ *
+ * A parità di chiave vince il comando che compare per primo nella lista,
+ * come nella vecchia scansione lineare.
+ *
+ * @author vince
+ */
+public class CommandLexicon {
+
+    private final Command[] snapshot;
+    private final Set<?>[] aliasSnapshot;
+    private final SpanIndex index = new SpanIndex();
+
+    /**
+     * @param commands lista dei comandi da indicizzare
+     */
+    public CommandLexicon(List<Command> commands) {
+        int size = commands.size();
+        this.snapshot = commands.toArray(new Command[size]);
+        this.aliasSnapshot = new Set<?>[size];
+
+        for (int i = 0; i < size; i++) {
+            Command cmd = snapshot[i];
+            aliasSnapshot[i] = cmd.getAlias();
+            index.putIfAbsent(cmd.getName(), i);
+            if (cmd.getAlias() != null) {
+                for (String alias : cmd.getAlias()) {
+                    index.putIfAbsent(alias, i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Verifica se l'indice corrisponde ancora alla lista dei comandi.
+     */
+    public boolean matches(List<Command> commands) {
+        if (commands.size() != snapshot.length) {
+            return false;
+        }
+        for (int i = 0; i < snapshot.length; i++) {
+            Command cmd = commands.get(i);
+            if (cmd != snapshot[i] || cmd.getAlias() != aliasSnapshot[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cerca il token indicato da inizio e lunghezza, senza allocare.
+     *
+     * @param chars caratteri del token
+     * @param start inizio del token
+     * @param length lunghezza del token
+     * @return indice del comando corrispondente, o -1
+     */
+    public int lookup(char[] chars, int start, int length) {
+        return index.get(chars, start, length);
+    }
+}
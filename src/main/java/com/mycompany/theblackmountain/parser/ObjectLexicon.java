@@ -0,0 +1,196 @@
+package com.mycompany.theblackmountain.parser;
+
+import com.mycompany.theblackmountain.type.GameObjects;
+import com.mycompany.theblackmountain.type.ObjectList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Indice precompilato degli oggetti di una lista (stanza o inventario).
+ *
+ * Risolve un token con le stesse regole della vecchia scansione lineare
+ * (nome esatto, alias, nome che contiene il token) restituendo l'indice più
+ * basso che soddisfa almeno una regola. I nomi esatti e gli alias sono in
+ * una tabella hash, le corrispondenze parziali in un trie dei suffissi dei nomi
+ * in minuscolo.
+ *
+ * Per le ObjectList la validità si controlla con il contatore di modifiche
+ * della lista e la versione dei nomi degli oggetti, senza scandire la lista.
+ *
+ * @author vince
+ */
+public class ObjectLexicon {
+
+    private final GameObjects[] snapshot;
+    private final Entry[] entries;
+    private final SpanIndex exact = new SpanIndex();
+    private final TrieNode substrings = new TrieNode();
+    private final int modCount;
+    private final int namesVersion;
+
+    /**
+     * Costruisce l'indice riutilizzando le voci già calcolate di un indice
+     * precedente della stessa lista.
+     *
+     * @param objects lista indicizzata
+     * @param previous indice precedente, o null
+     */
+    public ObjectLexicon(List<GameObjects> objects, ObjectLexicon previous) {
+        this.modCount = objects instanceof ObjectList ? ((ObjectList) objects).getModCount() : -1;
+        this.namesVersion = GameObjects.getNamesVersion();
+        int size = objects.size();
+        this.snapshot = objects.toArray(new GameObjects[size]);
+        this.entries = new Entry[size];
+
+        Map<GameObjects, Entry> reusable = new IdentityHashMap<>();
+        if (previous != null) {
+            for (int i = 0; i < previous.snapshot.length; i++) {
+                reusable.put(previous.snapshot[i], previous.entries[i]);
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            GameObjects obj = snapshot[i];
+            Entry entry = reusable.get(obj);
+            if (entry == null || !entry.isCurrent(obj)) {
+                entry = new Entry(obj);
+            }
+            entries[i] = entry;
+            index(entry, i);
+        }
+    }
+
+    private void index(Entry entry, int position) {
+        if (entry.name == null) {
+            return;
+        }
+        exact.putIfAbsent(entry.name, position);
+        if (entry.alias != null) {
+            for (String alias : entry.alias) {
+                exact.putIfAbsent(alias, position);
+            }
+        }
+        for (int start = 0; start <= entry.lowerName.length(); start++) {
+            substrings.insert(entry.lowerName, start, position);
+        }
+    }
+
+    /**
+     * Verifica se l'indice corrisponde ancora alla lista (stessi oggetti, nello
+     * stesso ordine, con nome e alias invariati).
+     */
+    public boolean matches(List<GameObjects> objects) {
+        if (objects instanceof ObjectList) {
+            return ((ObjectList) objects).getModCount() == modCount
+                    && GameObjects.getNamesVersion() == namesVersion;
+        }
+        if (objects.size() != snapshot.length) {
+            return false;
+        }
+        for (int i = 0; i < snapshot.length; i++) {
+            GameObjects obj = objects.get(i);
+            if (obj != snapshot[i] || !entries[i].isCurrent(obj)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cerca il token (in minuscolo) indicato da inizio e lunghezza, senza
+     * allocare.
+     *
+     * @param chars caratteri del token
+     * @param start inizio del token
+     * @param length lunghezza del token
+     * @return indice del primo oggetto corrispondente, o -1
+     */
+    public int lookup(char[] chars, int start, int length) {
+        int byName = exact.get(chars, start, length);
+        int bySubstring = substrings.find(chars, start, length);
+        if (byName < 0) {
+            return bySubstring;
+        }
+        return bySubstring < 0 ? byName : Math.min(byName, bySubstring);
+    }
+
+    /**
+     * Dati precalcolati di un singolo oggetto.
+     */
+    private static final class Entry {
+
+        private final String name;
+        private final Set<String> alias;
+        private final String lowerName;
+
+        private Entry(GameObjects obj) {
+            this.name = obj.getName();
+            this.alias = obj.getAlias();
+            this.lowerName = name != null ? name.toLowerCase() : null;
+        }
+
+        private boolean isCurrent(GameObjects obj) {
+            return obj.getName() == name && obj.getAlias() == alias;
+        }
+    }
+
+    /**
+     * Nodo del trie dei suffissi; ogni nodo ricorda l'indice più basso degli
+     * oggetti che passano di lì.
+     */
+    private static final class TrieNode {
+
+        private char[] keys = new char[0];
+        private TrieNode[] children = new TrieNode[0];
+        private int minIndex = -1;
+
+        private void insert(String word, int start, int position) {
+            TrieNode node = this;
+            node.mark(position);
+            for (int i = start; i < word.length(); i++) {
+                node = node.child(word.charAt(i));
+                node.mark(position);
+            }
+        }
+
+        private void mark(int position) {
+            if (minIndex < 0 || position < minIndex) {
+                minIndex = position;
+            }
+        }
+
+        private TrieNode child(char c) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == c) {
+                    return children[i];
+                }
+            }
+            int n = keys.length;
+            keys = Arrays.copyOf(keys, n + 1);
+            children = Arrays.copyOf(children, n + 1);
+            keys[n] = c;
+            children[n] = new TrieNode();
+            return children[n];
+        }
+
+        private int find(char[] chars, int start, int length) {
+            TrieNode node = this;
+            for (int i = start; i < start + length && node != null; i++) {
+                node = node.next(chars[i]);
+            }
+            return node == null ? -1 : node.minIndex;
+        }
+
+        private TrieNode next(char c) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == c) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -4,69 +4,89 @@
  */
 package com.mycompany.theblackmountain.parser;
 
-import com.mycompany.theblackmountain.Utils;
 import com.mycompany.theblackmountain.type.GameObjects;
 import com.mycompany.theblackmountain.type.Command;
+import com.mycompany.theblackmountain.type.CommandType;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class Parser {
 
-    private final Set<String> stopwords;
+    private static final int MAX_CACHED_LISTS = 64;
+
+    private final Tokenizer tokenizer;
+
+    // Buffer dei token riutilizzato tra un comando e l'altro
+    private final TokenBuffer tokens = new TokenBuffer();
+
+    private CommandLexicon commandLexicon;
+
+    // Indici per lista di oggetti (stanze e inventario), per identità
+    private final Map<List<GameObjects>, ObjectLexicon> objectLexicons = new IdentityHashMap<>();
 
     public Parser(Set<String> stopwords) {
-        this.stopwords = stopwords;
+        this.tokenizer = new Tokenizer(stopwords);
     }
 
-    private int checkForCommand(String token, List<Command> commands) {
-        for (int i = 0; i < commands.size(); i++) {
-            if (commands.get(i).getName().equals(token) || 
-                (commands.get(i).getAlias() != null && commands.get(i).getAlias().contains(token))) {
-                return i;
-            }
+    private int checkForCommand(int token, List<Command> commands) {
+        if (commandLexicon == null || !commandLexicon.matches(commands)) {
+            commandLexicon = new CommandLexicon(commands);
         }
-        return -1;
+        return commandLexicon.lookup(tokens.chars(), tokens.start(token), tokens.length(token));
     }
 
-    private int checkForObject(String token, List<GameObjects> objects) {
-        for (int i = 0; i < objects.size(); i++) {
-            // Controlla nome esatto
-            if (objects.get(i).getName().equals(token)) {
-                return i;
-            }
-            // Controlla alias se esistono
-            if (objects.get(i).getAlias() != null && objects.get(i).getAlias().contains(token)) {
-                return i;
-            }
-            // Controlla se il nome dell'oggetto contiene il token (per matching parziale)
-            if (objects.get(i).getName().toLowerCase().contains(token.toLowerCase())) {
-                return i;
+    /**
+     * Restituisce l'indice della lista, ricostruendolo solo se la lista è
+     * cambiata dall'ultima volta.
+     */
+    private ObjectLexicon lexiconFor(List<GameObjects> objects) {
+        ObjectLexicon lexicon = objectLexicons.get(objects);
+        if (lexicon == null || !lexicon.matches(objects)) {
+            if (lexicon == null && objectLexicons.size() >= MAX_CACHED_LISTS) {
+                objectLexicons.clear();
             }
+            lexicon = new ObjectLexicon(objects, lexicon);
+            objectLexicons.put(objects, lexicon);
         }
-        return -1;
+        return lexicon;
     }
 
     public ParserOutput parse(String command, List<Command> commands, List<GameObjects> objects, List<GameObjects> inventory) {
-        List<String> tokens = Utils.parseString(command, stopwords);
+        tokenizer.tokenize(command, tokens);
 
         if (!tokens.isEmpty()) {
-            int ic = checkForCommand(tokens.get(0), commands);
+            int ic = checkForCommand(0, commands);
 
             if (ic > -1) {
                 Command cmd = commands.get(ic);
 
+                // "vai a <stanza>": il resto della frase è il nome della stanza
+                if (cmd.getType() == CommandType.WALK_TO && tokens.size() > 1) {
+                    StringBuilder name = new StringBuilder(cmd.getName());
+                    for (int i = 1; i < tokens.size(); i++) {
+                        name.append(' ').append(tokens.chars(), tokens.start(i), tokens.length(i));
+                    }
+                    return new ParserOutput(new Command(cmd.getType(), name.toString()), null, null);
+                }
+
                 if (tokens.size() > 1) {
                     // Prima cerca negli oggetti della stanza
                     int io = -1;
                     int ioinv = -1;
+                    ObjectLexicon roomLexicon = lexiconFor(objects);
+                    ObjectLexicon inventoryLexicon = lexiconFor(inventory);
                     
                     // Cerca negli oggetti della stanza e nell'inventario
-                    for (int i = 1; i < tokens.size(); i++) {
+                    for (int i = 1; i < tokens.size() && (io < 0 || ioinv < 0); i++) {
+                        int start = tokens.start(i);
+                        int length = tokens.length(i);
                         if (io < 0) {
-                            io = checkForObject(tokens.get(i), objects);
+                            io = roomLexicon.lookup(tokens.chars(), start, length);
                         }
                         if (ioinv < 0) {
-                            ioinv = checkForObject(tokens.get(i), inventory);
+                            ioinv = inventoryLexicon.lookup(tokens.chars(), start, length);
                         }
                     }
 
@@ -84,7 +104,7 @@ public class Parser {
                         // Se non trovato da nessuna parte ma c'è un secondo token, 
                         // crea un comando con il nome del token per gestioni speciali
                         if (tokens.size() > 1) {
-                            Command specialCmd = new Command(cmd.getType(), cmd.getName() + " " + tokens.get(1));
+                            Command specialCmd = new Command(cmd.getType(), cmd.getName() + " " + tokens.token(1));
                             return new ParserOutput(specialCmd, null, null);
                         }
                         
@@ -0,0 +1,95 @@
+package com.mycompany.theblackmountain.parser;
+
+/**
+ * Tabella hash da parola a indice, interrogabile con una porzione di un array
+ * di caratteri.
+ *
+ * Serve agli indici del parser per cercare i token direttamente nel
+ * TokenBuffer, senza creare una stringa per ogni ricerca. Le collisioni sono
+ * risolte con scansione lineare.
+ *
+ * @author vince
+ */
+public class SpanIndex {
+
+    private char[][] keys = new char[16][];
+    private int[] values = new int[16];
+    private int size;
+
+    /**
+     * Associa la parola all'indice, se la parola non è già presente.
+     *
+     * @param word parola da inserire
+     * @param value indice associato
+     */
+    public void putIfAbsent(String word, int value) {
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        char[] chars = word.toCharArray();
+        int mask = keys.length - 1;
+        int slot = hash(chars, 0, chars.length) & mask;
+        while (keys[slot] != null) {
+            if (equals(keys[slot], chars, 0, chars.length)) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = chars;
+        values[slot] = value;
+        size++;
+    }
+
+    /**
+     * @return indice associato ai caratteri indicati, o -1
+     */
+    public int get(char[] chars, int offset, int length) {
+        int mask = keys.length - 1;
+        int slot = hash(chars, offset, length) & mask;
+        while (keys[slot] != null) {
+            if (equals(keys[slot], chars, offset, length)) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void grow() {
+        char[][] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new char[oldKeys.length * 2][];
+        values = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = hash(oldKeys[i], 0, oldKeys[i].length) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int hash(char[] chars, int offset, int length) {
+        int h = 0x811C9DC5;
+        for (int i = offset; i < offset + length; i++) {
+            h = (h ^ chars[i]) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean equals(char[] key, char[] chars, int offset, int length) {
+        if (key.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key[i] != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,78 @@
+package com.mycompany.theblackmountain.parser;
+
+import java.util.Set;
+
+/**
+ * Insieme immutabile di stopword con hash perfetto.
+ *
+ * All'avvio viene cercato un seme per cui nessuna parola collide nella
+ * tabella, così la ricerca di un token costa un calcolo di hash e un solo
+ * confronto, senza allocazioni.
+ *
+ * @author vince
+ */
+public class StopwordSet {
+
+    private static final int MAX_SEED_ATTEMPTS = 4096;
+
+    private final char[][] table;
+    private final int mask;
+    private final int seed;
+
+    /**
+     * @param words stopword in minuscolo
+     */
+    public StopwordSet(Set<String> words) {
+        int capacity = Integer.highestOneBit(Math.max(2, words.size() * 2) - 1) << 1;
+
+        while (true) {
+            for (int s = 1; s <= MAX_SEED_ATTEMPTS; s++) {
+                char[][] candidate = tryBuild(words, capacity, s);
+                if (candidate != null) {
+                    this.table = candidate;
+                    this.mask = capacity - 1;
+                    this.seed = s;
+                    return;
+                }
+            }
+            capacity <<= 1;
+        }
+    }
+
+    private static char[][] tryBuild(Set<String> words, int capacity, int seed) {
+        char[][] slots = new char[capacity][];
+        for (String word : words) {
+            char[] chars = word.toCharArray();
+            int slot = hash(chars, 0, chars.length, seed) & (capacity - 1);
+            if (slots[slot] != null) {
+                return null;
+            }
+            slots[slot] = chars;
+        }
+        return slots;
+    }
+
+    private static int hash(char[] chars, int offset, int length, int seed) {
+        int h = seed * 0x9E3779B9;
+        for (int i = offset; i < offset + length; i++) {
+            h = (h ^ chars[i]) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Verifica se i caratteri indicati (già in minuscolo) sono una stopword.
+     */
+    public boolean contains(char[] chars, int offset, int length) {
+        char[] candidate = table[hash(chars, offset, length, seed) & mask];
+        if (candidate == null || candidate.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (candidate[i] != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
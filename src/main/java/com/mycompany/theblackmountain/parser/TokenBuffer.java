@@ -0,0 +1,107 @@
+package com.mycompany.theblackmountain.parser;
+
+import java.util.Arrays;
+
+/**
+ * Buffer riutilizzabile in cui il Tokenizer scrive i token riconosciuti.
+ *
+ * I caratteri dei token (in minuscolo) sono copiati in un unico array e ogni
+ * token è descritto da inizio e lunghezza. Gli array crescono solo quando un
+ * comando è più lungo dei precedenti, quindi a regime non ci sono
+ * allocazioni.
+ *
+ * @author vince
+ */
+public class TokenBuffer {
+
+    private char[] chars = new char[64];
+    private int[] starts = new int[8];
+    private int[] lengths = new int[8];
+    private int charCount;
+    private int size;
+
+    void clear() {
+        charCount = 0;
+        size = 0;
+    }
+
+    int charCount() {
+        return charCount;
+    }
+
+    /**
+     * @return array condiviso con i caratteri di tutti i token; valido fino
+     * al prossimo comando
+     */
+    char[] chars() {
+        return chars;
+    }
+
+    void appendChar(char c) {
+        if (charCount == chars.length) {
+            chars = Arrays.copyOf(chars, chars.length * 2);
+        }
+        chars[charCount++] = c;
+    }
+
+    void commitToken(int start) {
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            lengths = Arrays.copyOf(lengths, size * 2);
+        }
+        starts[size] = start;
+        lengths[size] = charCount - start;
+        size++;
+    }
+
+    void discardToken(int start) {
+        charCount = start;
+    }
+
+    /**
+     * @return numero di token nel buffer
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return inizio del token nell'array restituito da chars()
+     */
+    public int start(int index) {
+        return starts[index];
+    }
+
+    public int length(int index) {
+        return lengths[index];
+    }
+
+    /**
+     * Verifica se il token è uguale alla stringa indicata, senza allocare.
+     */
+    public boolean tokenEquals(int index, String s) {
+        int len = lengths[index];
+        if (s.length() != len) {
+            return false;
+        }
+        int start = starts[index];
+        for (int i = 0; i < len; i++) {
+            if (chars[start + i] != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Crea la stringa del token. È l'unico metodo che alloca e va usato solo
+     * per i token effettivamente consultati.
+     */
+    public String token(int index) {
+        return new String(chars, starts[index], lengths[index]);
+    }
+}
@@ -0,0 +1,70 @@
+package com.mycompany.theblackmountain.parser;
+
+import java.util.Set;
+
+/**
+ * Tokenizzatore dei comandi senza allocazioni.
+ *
+ * Scorre l'input una sola volta, separa le parole sugli spazi (gli stessi
+ * caratteri di \s nelle espressioni regolari), le converte in minuscolo e
+ * scarta le stopword, scrivendo il risultato in un TokenBuffer fornito dal
+ * chiamante.
+ *
+ * @author vince
+ */
+public class Tokenizer {
+
+    private final StopwordSet stopwords;
+
+    /**
+     * @param stopwords stopword in minuscolo, ad esempio caricate con
+     * Utils.loadFileListInSet
+     */
+    public Tokenizer(Set<String> stopwords) {
+        this.stopwords = new StopwordSet(stopwords);
+    }
+
+    /**
+     * Suddivide l'input in token.
+     *
+     * @param input testo del comando
+     * @param out buffer di destinazione, svuotato prima dell'uso
+     * @return numero di token prodotti
+     */
+    public int tokenize(CharSequence input, TokenBuffer out) {
+        out.clear();
+        int tokenStart = -1;
+
+        for (int i = 0, n = input.length(); i < n; i++) {
+            char c = input.charAt(i);
+            if (isWhitespace(c)) {
+                if (tokenStart >= 0) {
+                    endToken(out, tokenStart);
+                    tokenStart = -1;
+                }
+            } else {
+                if (tokenStart < 0) {
+                    tokenStart = out.charCount();
+                }
+                out.appendChar(Character.toLowerCase(c));
+            }
+        }
+
+        if (tokenStart >= 0) {
+            endToken(out, tokenStart);
+        }
+        return out.size();
+    }
+
+    private void endToken(TokenBuffer out, int start) {
+        if (stopwords.contains(out.chars(), start, out.charCount() - start)) {
+            out.discardToken(start);
+        } else {
+            out.commitToken(start);
+        }
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,50 @@
+package com.mycompany.theblackmountain.save;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Scrittura di un file senza mai lasciarlo a metà: il contenuto viene scritto
+ * in un file temporaneo nella stessa cartella, forzato su disco e poi
+ * spostato al posto del file finale con un'unica operazione.
+ *
+ * @author vince
+ */
+final class AtomicFile {
+
+    /**
+     * Scrive il contenuto nel canale del file temporaneo
+     */
+    interface Writer {
+
+        void write(FileChannel channel) throws IOException;
+    }
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private AtomicFile() {
+    }
+
+    static void write(Path target, Writer writer) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writer.write(channel);
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package com.mycompany.theblackmountain.save;
+
+import com.mycompany.theblackmountain.log.GameLog;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Salvataggio automatico incrementale della partita in corso.
+ *
+ * Il gioco segnala ogni modifica di stato (oggetti, personaggi, posizione);
+ * le modifiche vengono accorpate per entità e un thread in background le
+ * aggiunge periodicamente al journal della sessione come blocchi compatti
+ * protetti da CRC. Quando il journal supera una certa dimensione viene
+ * compattato: lo stato completo viene riscritto nello snapshot e il journal
+ * svuotato.
+ *
+ * Ogni sessione ha la propria cartella, che viene eliminata alla chiusura
+ * normale del gioco. Se il gioco termina in modo anomalo la cartella resta e
+ * recover() ricostruisce la partita dallo snapshot più le modifiche del
+ * journal; un blocco finale scritto a metà viene ignorato.
+ *
+ * @author vince
+ */
+public class AutosaveJournal {
+
+    public static final String AUTOSAVE_DIRECTORY = SaveManager.SAVE_DIRECTORY + "/autosave";
+
+    private static final String SESSION_PREFIX = "session-";
+    private static final String SNAPSHOT_FILE = "snapshot.dat";
+    private static final String JOURNAL_FILE = "journal.log";
+
+    private static final long FLUSH_INTERVAL_MILLIS = 2000;
+    private static final long COMPACT_THRESHOLD_BYTES = 32 * 1024;
+    private static final int BLOCK_HEADER_BYTES = 8; // lunghezza + CRC
+
+    // Tipi di modifica
+    private static final int DELTA_CHEST = 1;
+    private static final int DELTA_OBJECT_FLAGS = 2;
+    private static final int DELTA_CHARACTER = 3;
+    private static final int DELTA_PLAYER_HP = 4;
+    private static final int DELTA_LOCATION = 5;
+    private static final int DELTA_PLAYER_ROOM = 6;
+
+    // Valori di DELTA_LOCATION; le stanze partono da LOCATION_ROOM
+    private static final int LOCATION_REMOVED = 0;
+    private static final int LOCATION_INVENTORY = 1;
+    private static final int LOCATION_ROOM = 2;
+
+    private final File sessionDir;
+    private final ScheduledExecutorService executor;
+    private final long startMillis;
+    private final long basePlayTime;
+
+    // Modifiche in sospeso: (tipo << 32 | id) -> valore, l'ultimo vince
+    private Map<Long, Integer> pending = new LinkedHashMap<>();
+
+    // Usati solo dal thread di autosalvataggio
+    private final SaveData state;
+    private FileChannel journal;
+
+    private volatile boolean closed = false;
+
+    private AutosaveJournal(File sessionDir, SaveData initialState) {
+        this.sessionDir = sessionDir;
+        this.state = initialState;
+        this.startMillis = System.currentTimeMillis();
+        this.basePlayTime = initialState.getPlayTime();
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "TBM-Autosave");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Avvia l'autosalvataggio di una nuova sessione a partire dallo stato
+     * completo della partita. Lo snapshot iniziale viene scritto in
+     * background.
+     *
+     * @param initialState stato completo, non più modificato dal chiamante
+     */
+    public static AutosaveJournal start(SaveData initialState) {
+        File sessionDir = new File(AUTOSAVE_DIRECTORY, SESSION_PREFIX + System.currentTimeMillis());
+        AutosaveJournal autosave = new AutosaveJournal(sessionDir, initialState);
+        autosave.executor.execute(autosave::openSession);
+        autosave.executor.scheduleWithFixedDelay(autosave::backgroundFlush,
+                FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        return autosave;
+    }
+
+    // Notifiche dal gioco
+
+    public void chestChanged(int chestId, boolean open) {
+        record(DELTA_CHEST, chestId, open ? 1 : 0);
+    }
+
+    public void objectFlagsChanged(int objectId, boolean open, boolean pushed) {
+        record(DELTA_OBJECT_FLAGS, objectId, (open ? SaveData.FLAG_OPEN : 0) | (pushed ? SaveData.FLAG_PUSHED : 0));
+    }
+
+    public void characterChanged(int characterId, int currentHp, boolean alive) {
+        record(DELTA_CHARACTER, characterId, alive ? Math.max(currentHp, 0) : 0);
+    }
+
+    public void playerChanged(int currentHp) {
+        record(DELTA_PLAYER_HP, 0, Math.max(currentHp, 0));
+    }
+
+    public void objectMovedToInventory(int objectId) {
+        record(DELTA_LOCATION, objectId, LOCATION_INVENTORY);
+    }
+
+    public void objectMovedToRoom(int objectId, int roomId) {
+        record(DELTA_LOCATION, objectId, LOCATION_ROOM + roomId);
+    }
+
+    public void objectRemoved(int objectId) {
+        record(DELTA_LOCATION, objectId, LOCATION_REMOVED);
+    }
+
+    public void playerMoved(int roomId) {
+        record(DELTA_PLAYER_ROOM, 0, roomId);
+    }
+
+    private synchronized void record(int type, int id, int value) {
+        if (!closed) {
+            pending.put(((long) type << 32) | (id & 0xFFFFFFFFL), value);
+        }
+    }
+
+    private synchronized Map<Long, Integer> drainPending() {
+        Map<Long, Integer> batch = pending;
+        pending = new LinkedHashMap<>();
+        return batch;
+    }
+
+    // Thread di autosalvataggio
+
+    private void openSession() {
+        try {
+            Files.createDirectories(sessionDir.toPath());
+            writeSnapshot();
+            journal = FileChannel.open(new File(sessionDir, JOURNAL_FILE).toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            GameLog.debug(() -> "Autosalvataggio attivo in: " + sessionDir.getPath());
+        } catch (IOException e) {
+            System.err.println("Impossibile avviare l'autosalvataggio: " + e.getMessage());
+        }
+    }
+
+    private void backgroundFlush() {
+        try {
+            flushPending();
+        } catch (Exception e) {
+            System.err.println("Errore nell'autosalvataggio: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Aggiunge al journal le modifiche in sospeso e, se serve, compatta.
+     */
+    private void flushPending() throws IOException {
+        Map<Long, Integer> batch = drainPending();
+        if (batch.isEmpty() || journal == null) {
+            return;
+        }
+
+        long playTime = basePlayTime + (System.currentTimeMillis() - startMillis);
+        SaveFormat.Encoder payload = new SaveFormat.Encoder(16 + batch.size() * 8);
+        payload.putVarLong(playTime);
+        payload.putVarInt(batch.size());
+        for (Map.Entry<Long, Integer> delta : batch.entrySet()) {
+            int type = (int) (delta.getKey() >>> 32);
+            int id = (int) (long) delta.getKey();
+            payload.putByte(type);
+            payload.putVarInt(id);
+            payload.putVarInt(delta.getValue());
+            apply(state, type, id, delta.getValue());
+        }
+        state.setPlayTime(playTime);
+
+        ByteBuffer body = payload.flip();
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_BYTES);
+        header.putInt(body.remaining());
+        header.putInt((int) crc.getValue());
+        header.flip();
+
+        ByteBuffer[] block = {header, body};
+        while (body.hasRemaining()) {
+            journal.write(block);
+        }
+        journal.force(false);
+
+        if (journal.size() > COMPACT_THRESHOLD_BYTES) {
+            compact();
+        }
+    }
+
+    /**
+     * Riscrive lo snapshot con lo stato completo e svuota il journal. Le
+     * modifiche del journal sono valori assoluti, quindi se il gioco si
+     * interrompe tra le due operazioni rieseguirle sul nuovo snapshot non
+     * cambia il risultato.
+     */
+    private void compact() throws IOException {
+        long start = System.currentTimeMillis();
+        writeSnapshot();
+        journal.truncate(0);
+        journal.position(0);
+        long elapsed = System.currentTimeMillis() - start;
+        GameLog.debug(() -> "Journal di autosalvataggio compattato in " + elapsed + " ms");
+    }
+
+    private void writeSnapshot() throws IOException {
+        AtomicFile.write(new File(sessionDir, SNAPSHOT_FILE).toPath(), channel -> SaveFormat.write(state, channel));
+    }
+
+    /**
+     * Applica una modifica allo stato salvato.
+     */
+    private static void apply(SaveData data, int type, int id, int value) {
+        switch (type) {
+            case DELTA_CHEST:
+                data.getChests().put(id, value != 0);
+                break;
+            case DELTA_OBJECT_FLAGS:
+                data.getObjectFlags().put(id, value);
+                break;
+            case DELTA_CHARACTER:
+                data.getCharacterHp().put(id, value);
+                break;
+            case DELTA_PLAYER_HP:
+                data.setHp(value);
+                break;
+            case DELTA_LOCATION:
+                data.getInventory().remove(Integer.valueOf(id));
+                data.getObjectRooms().remove(id);
+                if (value == LOCATION_INVENTORY) {
+                    data.getInventory().add(id);
+                } else if (value >= LOCATION_ROOM) {
+                    data.getObjectRooms().put(id, value - LOCATION_ROOM);
+                }
+                break;
+            case DELTA_PLAYER_ROOM:
+                data.setRoomId(value);
+                break;
+            default:
+                // Modifica sconosciuta: ignorata
+                break;
+        }
+    }
+
+    /**
+     * Ferma l'autosalvataggio.
+     *
+     * @param discard true alla chiusura normale: la sessione viene eliminata
+     * perché non c'è nulla da recuperare
+     */
+    public void close(boolean discard) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        executor.execute(() -> {
+            try {
+                if (!discard) {
+                    flushPending();
+                }
+                if (journal != null) {
+                    journal.close();
+                }
+            } catch (IOException e) {
+                System.err.println("Errore nella chiusura dell'autosalvataggio: " + e.getMessage());
+            }
+            if (discard) {
+                deleteSession(sessionDir);
+            }
+        });
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Recupero
+
+    /**
+     * Cerca la sessione più recente rimasta da un'esecuzione interrotta.
+     * Solo quella può essere recuperata: le altre sessioni interrotte, più
+     * vecchie o senza snapshot, vengono eliminate.
+     *
+     * @return cartella della sessione o null
+     */
+    public static File findRecoverableSession() {
+        File[] sessions = new File(AUTOSAVE_DIRECTORY).listFiles(
+                f -> f.isDirectory() && f.getName().startsWith(SESSION_PREFIX));
+        if (sessions == null) {
+            return null;
+        }
+        File latest = null;
+        for (File session : sessions) {
+            if (new File(session, SNAPSHOT_FILE).isFile()
+                    && (latest == null || session.lastModified() > latest.lastModified())) {
+                latest = session;
+            }
+        }
+        for (File session : sessions) {
+            if (session != latest) {
+                GameLog.debug(() -> "Sessione di autosalvataggio obsoleta eliminata: " + session.getName());
+                deleteSession(session);
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Ricostruisce la partita di una sessione: snapshot più journal.
+     */
+    public static SaveData recover(File sessionDir) throws IOException {
+        SaveData data;
+        try (FileChannel channel = FileChannel.open(new File(sessionDir, SNAPSHOT_FILE).toPath(),
+                StandardOpenOption.READ)) {
+            data = SaveFormat.read(channel);
+        }
+
+        File journalFile = new File(sessionDir, JOURNAL_FILE);
+        if (!journalFile.isFile()) {
+            return data;
+        }
+
+        int blocks = 0;
+        try (FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_BYTES);
+            while (readBlock(channel, header)) {
+                int length = header.getInt(0);
+                int expectedCrc = header.getInt(4);
+                if (length <= 0 || length > channel.size() - channel.position()) {
+                    break; // blocco troncato
+                }
+                ByteBuffer body = ByteBuffer.allocate(length);
+                if (!readBlock(channel, body)) {
+                    break;
+                }
+                CRC32 crc = new CRC32();
+                crc.update(body.duplicate());
+                if ((int) crc.getValue() != expectedCrc) {
+                    break; // blocco scritto a metà
+                }
+
+                data.setPlayTime(SaveFormat.getVarLong(body));
+                int count = SaveFormat.getVarInt(body);
+                for (int i = 0; i < count; i++) {
+                    int type = body.get();
+                    int id = SaveFormat.getVarInt(body);
+                    apply(data, type, id, SaveFormat.getVarInt(body));
+                }
+                blocks++;
+            }
+        }
+        System.out.println("Partita recuperata: snapshot + " + blocks + " blocchi di journal");
+        return data;
+    }
+
+    private static boolean readBlock(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    /**
+     * Elimina la cartella di una sessione.
+     */
+    public static void deleteSession(File sessionDir) {
+        File[] files = sessionDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        sessionDir.delete();
+    }
+
+    /**
+     * @return cartella della sessione
+     */
+    public File getSessionDirectory() {
+        return sessionDir;
+    }
+}
@@ -0,0 +1,376 @@
+package com.mycompany.theblackmountain.save;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Catalogo dei salvataggi di una cartella, mappato in memoria.
+ *
+ * Il file contiene un'intestazione e un record di dimensione fissa per ogni
+ * salvataggio (nome del file, nome, data, tempo di gioco, stanza, HP, data di
+ * modifica e dimensione del file). Viene mappato con FileChannel.map, quindi
+ * il menu di caricamento legge i record direttamente dalla memoria: slots()
+ * restituisce una vista che decodifica un record solo quando viene mostrato,
+ * senza aprire i file dei salvataggi.
+ *
+ * I record sono ordinati per data di salvataggio, dal meno recente: la vista
+ * li legge al contrario. I file con un nome più lungo di
+ * MAX_FILE_NAME_BYTES non vengono catalogati.
+ *
+ * SaveManager aggiorna il record di un salvataggio subito dopo averlo
+ * scritto. Se la data di modifica della cartella non corrisponde a quella
+ * registrata (file aggiunti, rimossi o sostituiti a mano) il catalogo viene
+ * riallineato leggendo solo i file cambiati.
+ *
+ * @author vince
+ */
+public final class SaveCatalog {
+
+    public static final String CATALOG_FILE = "saves.cat";
+
+    /**
+     * Lunghezza massima in byte UTF-8 del nome di un file di salvataggio
+     */
+    public static final int MAX_FILE_NAME_BYTES = 128;
+
+    private static final int MAGIC = 0x54424D43; // "TBMC"
+    private static final int VERSION = 2; // 2: record ordinati per data
+
+    // Intestazione: firma, versione, dimensione record, numero record, data cartella
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_RECORD_BYTES = 8;
+    private static final int HEADER_COUNT = 12;
+    private static final int HEADER_DIR_MODIFIED = 16;
+    private static final int HEADER_BYTES = 24;
+
+    // Record
+    private static final int FILE_NAME_BYTES = MAX_FILE_NAME_BYTES;
+    private static final int NAME_BYTES = 96;
+    private static final int OFF_FILE_NAME = 0;
+    private static final int OFF_NAME = OFF_FILE_NAME + 2 + FILE_NAME_BYTES;
+    private static final int OFF_SAVE_DATE = OFF_NAME + 2 + NAME_BYTES;
+    private static final int OFF_PLAY_TIME = OFF_SAVE_DATE + 8;
+    private static final int OFF_LAST_MODIFIED = OFF_PLAY_TIME + 8;
+    private static final int OFF_SIZE = OFF_LAST_MODIFIED + 8;
+    private static final int OFF_ROOM = OFF_SIZE + 8;
+    private static final int OFF_HP = OFF_ROOM + 4;
+    private static final int OFF_MAX_HP = OFF_HP + 4;
+    private static final int RECORD_BYTES = OFF_MAX_HP + 4;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final File saveDir;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int count;
+
+    // Nome file -> posizione del record, creata solo per gli aggiornamenti
+    private Map<String, Integer> positions;
+
+    private final List<SaveSlot> view = new AbstractList<SaveSlot>() {
+        @Override
+        public SaveSlot get(int index) {
+            synchronized (SaveCatalog.this) {
+                // Dal più recente: i record sono ordinati per data crescente
+                return readRecord(count - 1 - index);
+            }
+        }
+
+        @Override
+        public int size() {
+            synchronized (SaveCatalog.this) {
+                return count;
+            }
+        }
+    };
+
+    private SaveCatalog(File saveDir, FileChannel channel) {
+        this.saveDir = saveDir;
+        this.channel = channel;
+    }
+
+    /**
+     * Apre il catalogo della cartella, creandolo o ricostruendolo se manca o
+     * non è valido.
+     */
+    public static SaveCatalog open(File saveDir) throws IOException {
+        saveDir.mkdirs();
+        FileChannel channel = FileChannel.open(new File(saveDir, CATALOG_FILE).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        SaveCatalog catalog = new SaveCatalog(saveDir, channel);
+        synchronized (catalog) {
+            if (!catalog.load()) {
+                catalog.rebuild();
+            }
+        }
+        return catalog;
+    }
+
+    /**
+     * Mappa il file esistente.
+     *
+     * @return false se il file è vuoto o non è un catalogo valido
+     */
+    private boolean load() throws IOException {
+        long fileSize = channel.size();
+        if (fileSize < HEADER_BYTES) {
+            return false;
+        }
+        int records = (int) ((fileSize - HEADER_BYTES) / RECORD_BYTES);
+        map(Math.max(records, INITIAL_CAPACITY));
+        if (buffer.getInt(HEADER_MAGIC) != MAGIC || buffer.getInt(HEADER_VERSION) != VERSION
+                || buffer.getInt(HEADER_RECORD_BYTES) != RECORD_BYTES) {
+            return false;
+        }
+        count = buffer.getInt(HEADER_COUNT);
+        return count >= 0 && count <= records;
+    }
+
+    private void map(int newCapacity) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) newCapacity * RECORD_BYTES);
+        capacity = newCapacity;
+    }
+
+    /**
+     * Svuota il catalogo e lo ricrea leggendo le intestazioni di tutti i
+     * salvataggi della cartella.
+     */
+    private void rebuild() throws IOException {
+        System.out.println("Ricostruzione del catalogo dei salvataggi...");
+        if (buffer == null) {
+            map(INITIAL_CAPACITY);
+        }
+        buffer.putInt(HEADER_MAGIC, MAGIC);
+        buffer.putInt(HEADER_VERSION, VERSION);
+        buffer.putInt(HEADER_RECORD_BYTES, RECORD_BYTES);
+        count = 0;
+        buffer.putInt(HEADER_COUNT, 0);
+        buffer.putLong(HEADER_DIR_MODIFIED, 0);
+        positions = new HashMap<>();
+        reconcile();
+    }
+
+    /**
+     * Vista dei salvataggi, dal più recente. Gli elementi vengono letti dalla
+     * memoria mappata solo quando richiesti.
+     */
+    public List<SaveSlot> slots() {
+        synchronized (this) {
+            if (saveDir.lastModified() != buffer.getLong(HEADER_DIR_MODIFIED)) {
+                try {
+                    reconcile();
+                } catch (IOException e) {
+                    System.err.println("Errore nell'aggiornamento del catalogo: " + e.getMessage());
+                }
+            }
+        }
+        return view;
+    }
+
+    /**
+     * Aggiunge o aggiorna il record di un salvataggio appena scritto.
+     */
+    public synchronized void update(SaveSlot slot) throws IOException {
+        if (!fitsFileName(slot.getFileName())) {
+            throw new IOException("Nome del file troppo lungo per il catalogo: " + slot.getFileName());
+        }
+        put(slot);
+        buffer.putLong(HEADER_DIR_MODIFIED, saveDir.lastModified());
+        buffer.force();
+    }
+
+    /**
+     * Allinea il catalogo ai file presenti nella cartella: legge solo i
+     * salvataggi nuovi o modificati e rimuove quelli cancellati.
+     */
+    private void reconcile() throws IOException {
+        ensurePositions();
+        File[] files = saveDir.listFiles(f -> f.isFile() && f.getName().endsWith(SaveManager.SAVE_EXTENSION));
+        Set<String> present = new HashSet<>();
+        if (files != null) {
+            for (File file : files) {
+                if (!fitsFileName(file.getName())) {
+                    System.err.println("Salvataggio ignorato, nome troppo lungo: " + file.getName());
+                    continue;
+                }
+                present.add(file.getName());
+                Integer position = positions.get(file.getName());
+                if (position != null
+                        && buffer.getLong(recordOffset(position) + OFF_LAST_MODIFIED) == file.lastModified()
+                        && buffer.getLong(recordOffset(position) + OFF_SIZE) == file.length()) {
+                    continue;
+                }
+                SaveSlot slot = readSlot(file);
+                if (slot != null) {
+                    put(slot);
+                }
+            }
+        }
+
+        for (String fileName : new HashSet<>(positions.keySet())) {
+            if (!present.contains(fileName)) {
+                remove(fileName);
+            }
+        }
+
+        buffer.putLong(HEADER_DIR_MODIFIED, saveDir.lastModified());
+        buffer.force();
+    }
+
+    private static SaveSlot readSlot(File file) {
+        try (FileChannel saveChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return SaveSlot.of(file, SaveFormat.read(saveChannel));
+        } catch (IOException e) {
+            System.err.println("Salvataggio non valido ignorato: " + file.getName() + " (" + e.getMessage() + ")");
+            return null;
+        }
+    }
+
+    private void ensurePositions() {
+        if (positions == null) {
+            positions = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                positions.put(getString(recordOffset(i) + OFF_FILE_NAME), i);
+            }
+        }
+    }
+
+    /**
+     * @return true se il nome del file entra nel campo del record
+     */
+    public static boolean fitsFileName(String fileName) {
+        return fileName.getBytes(StandardCharsets.UTF_8).length <= FILE_NAME_BYTES;
+    }
+
+    /**
+     * Inserisce o aggiorna un record mantenendo l'ordine per data di
+     * salvataggio.
+     */
+    private void put(SaveSlot slot) throws IOException {
+        ensurePositions();
+        Integer existing = positions.get(slot.getFileName());
+        if (existing != null) {
+            removeAt(existing);
+        }
+        if (count == capacity) {
+            map(capacity * 2);
+        }
+
+        // Dopo tutti i record con data minore o uguale
+        int position = count;
+        while (position > 0 && buffer.getLong(recordOffset(position - 1) + OFF_SAVE_DATE) > slot.getSaveDate()) {
+            position--;
+        }
+        moveRecords(position, position + 1, count - position);
+        writeRecord(position, slot);
+        count++;
+        buffer.putInt(HEADER_COUNT, count);
+        reindex(position);
+    }
+
+    /**
+     * Rimuove un record spostando indietro quelli successivi.
+     */
+    private void remove(String fileName) {
+        Integer position = positions.get(fileName);
+        if (position != null) {
+            removeAt(position);
+        }
+    }
+
+    private void removeAt(int position) {
+        positions.remove(getString(recordOffset(position) + OFF_FILE_NAME));
+        moveRecords(position + 1, position, count - position - 1);
+        count--;
+        buffer.putInt(HEADER_COUNT, count);
+        reindex(position);
+    }
+
+    /**
+     * Copia records record consecutivi da from a to (anche sovrapposti).
+     */
+    private void moveRecords(int from, int to, int records) {
+        if (records > 0) {
+            buffer.put(recordOffset(to), buffer, recordOffset(from), records * RECORD_BYTES);
+        }
+    }
+
+    /**
+     * Aggiorna le posizioni dei record da from in poi, dopo uno spostamento.
+     */
+    private void reindex(int from) {
+        for (int i = from; i < count; i++) {
+            positions.put(getString(recordOffset(i) + OFF_FILE_NAME), i);
+        }
+    }
+
+    private static int recordOffset(int position) {
+        return HEADER_BYTES + position * RECORD_BYTES;
+    }
+
+    private void writeRecord(int position, SaveSlot slot) {
+        int offset = recordOffset(position);
+        putString(offset + OFF_FILE_NAME, slot.getFileName(), FILE_NAME_BYTES);
+        putString(offset + OFF_NAME, slot.getName(), NAME_BYTES);
+        buffer.putLong(offset + OFF_SAVE_DATE, slot.getSaveDate());
+        buffer.putLong(offset + OFF_PLAY_TIME, slot.getPlayTime());
+        buffer.putLong(offset + OFF_LAST_MODIFIED, slot.getLastModified());
+        buffer.putLong(offset + OFF_SIZE, slot.getSize());
+        buffer.putInt(offset + OFF_ROOM, slot.getRoomId());
+        buffer.putInt(offset + OFF_HP, slot.getHp());
+        buffer.putInt(offset + OFF_MAX_HP, slot.getMaxHp());
+    }
+
+    private SaveSlot readRecord(int position) {
+        int offset = recordOffset(position);
+        return new SaveSlot(getString(offset + OFF_FILE_NAME), getString(offset + OFF_NAME),
+                buffer.getLong(offset + OFF_SAVE_DATE), buffer.getLong(offset + OFF_PLAY_TIME),
+                buffer.getInt(offset + OFF_ROOM), buffer.getInt(offset + OFF_HP), buffer.getInt(offset + OFF_MAX_HP),
+                buffer.getLong(offset + OFF_LAST_MODIFIED), buffer.getLong(offset + OFF_SIZE));
+    }
+
+    /**
+     * Scrive una stringa in un campo di lunghezza fissa, troncandola senza
+     * spezzare i caratteri UTF-8.
+     */
+    private void putString(int offset, String value, int maxBytes) {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, maxBytes);
+        while (length < bytes.length && length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        buffer.putShort(offset, (short) length);
+        buffer.put(offset + 2, bytes, 0, length);
+    }
+
+    private String getString(int offset) {
+        byte[] bytes = new byte[buffer.getShort(offset)];
+        buffer.get(offset + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Scrive su disco le modifiche e chiude il file.
+     */
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
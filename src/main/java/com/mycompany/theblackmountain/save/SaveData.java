@@ -0,0 +1,174 @@
+package com.mycompany.theblackmountain.save;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contenuto di un salvataggio, indipendente dal formato su disco.
+ *
+ * Viene riempito da SaveManager a partire dallo stato del gioco e letto o
+ * scritto da SaveFormat. Le descrizioni delle stanze sono presenti solo per le
+ * stanze il cui testo è cambiato rispetto al database.
+ *
+ * @author vince
+ */
+public class SaveData {
+
+    /**
+     * Flag degli oggetti: aperto
+     */
+    public static final int FLAG_OPEN = 1;
+
+    /**
+     * Flag degli oggetti: spinto
+     */
+    public static final int FLAG_PUSHED = 2;
+
+    private String name = "Salvataggio";
+    private long saveDate;
+    private long playTime;
+
+    private int roomId = -1;
+    private int hp = -1;
+    private int maxHp = -1;
+    private boolean combatActive;
+
+    private final List<Integer> inventory = new ArrayList<>();
+    private final Map<Integer, Boolean> chests = new LinkedHashMap<>();
+    private final Map<Integer, Integer> objectFlags = new LinkedHashMap<>();
+    private final Map<Integer, Integer> characterHp = new LinkedHashMap<>();
+    private final Map<Integer, Integer> objectRooms = new LinkedHashMap<>();
+    private final Map<String, Boolean> doors = new LinkedHashMap<>(); // "roomId-direction" -> aperta
+    private final Map<Integer, String> roomDescriptions = new LinkedHashMap<>();
+    private final Map<Integer, String> roomLooks = new LinkedHashMap<>();
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return data del salvataggio in millisecondi
+     */
+    public long getSaveDate() {
+        return saveDate;
+    }
+
+    public void setSaveDate(long saveDate) {
+        this.saveDate = saveDate;
+    }
+
+    /**
+     * @return tempo di gioco in millisecondi
+     */
+    public long getPlayTime() {
+        return playTime;
+    }
+
+    public void setPlayTime(long playTime) {
+        this.playTime = playTime;
+    }
+
+    /**
+     * @return stanza corrente o -1 se non salvata
+     */
+    public int getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(int roomId) {
+        this.roomId = roomId;
+    }
+
+    /**
+     * @return HP del giocatore o -1 se non salvati
+     */
+    public int getHp() {
+        return hp;
+    }
+
+    public void setHp(int hp) {
+        this.hp = hp;
+    }
+
+    public int getMaxHp() {
+        return maxHp;
+    }
+
+    public void setMaxHp(int maxHp) {
+        this.maxHp = maxHp;
+    }
+
+    public boolean hasPlayerStats() {
+        return hp >= 0 && maxHp >= 0;
+    }
+
+    public boolean isCombatActive() {
+        return combatActive;
+    }
+
+    public void setCombatActive(boolean combatActive) {
+        this.combatActive = combatActive;
+    }
+
+    /**
+     * @return ID degli oggetti nell'inventario
+     */
+    public List<Integer> getInventory() {
+        return inventory;
+    }
+
+    /**
+     * @return ID cassa -> aperta
+     */
+    public Map<Integer, Boolean> getChests() {
+        return chests;
+    }
+
+    /**
+     * @return ID oggetto -> combinazione di FLAG_OPEN e FLAG_PUSHED
+     */
+    public Map<Integer, Integer> getObjectFlags() {
+        return objectFlags;
+    }
+
+    /**
+     * @return ID nemico -> HP correnti (0 se morto)
+     */
+    public Map<Integer, Integer> getCharacterHp() {
+        return characterHp;
+    }
+
+    /**
+     * @return ID oggetto -> stanza in cui è stato lasciato
+     */
+    public Map<Integer, Integer> getObjectRooms() {
+        return objectRooms;
+    }
+
+    /**
+     * @return "roomId-direction" -> porta sbloccata
+     */
+    public Map<String, Boolean> getDoors() {
+        return doors;
+    }
+
+    /**
+     * @return ID stanza -> descrizione modificata
+     */
+    public Map<Integer, String> getRoomDescriptions() {
+        return roomDescriptions;
+    }
+
+    /**
+     * @return ID stanza -> testo "osserva" modificato
+     */
+    public Map<Integer, String> getRoomLooks() {
+        return roomLooks;
+    }
+}
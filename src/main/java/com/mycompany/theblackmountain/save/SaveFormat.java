@@ -0,0 +1,634 @@
+package com.mycompany.theblackmountain.save;
+
+import com.mycompany.theblackmountain.type.Direction;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Formato binario dei salvataggi.
+ *
+ * Il file inizia con la firma "TBMS" e il numero di versione, seguiti da una
+ * serie di sezioni (tipo, lunghezza, contenuto) terminata dalla sezione END.
+ * Gli interi sono varint, i flag di casse, oggetti e porte sono bitset e le
+ * stringhe sono UTF-8 precedute dalla lunghezza. Chi legge salta le sezioni
+ * che non conosce, così un file scritto da una versione più recente resta
+ * leggibile.
+ *
+ * I salvataggi della versione 1 sono file Properties di testo: vengono
+ * riconosciuti dall'assenza della firma e convertiti da migrateLegacy(). Le
+ * versioni binarie successive devono aggiungere il proprio passo in
+ * migrate().
+ *
+ * @author vince
+ */
+public final class SaveFormat {
+
+    /**
+     * Salvataggi in formato Properties
+     */
+    public static final int VERSION_PROPERTIES = 1;
+
+    /**
+     * Primo formato binario
+     */
+    public static final int VERSION_BINARY = 2;
+
+    public static final int CURRENT_VERSION = VERSION_BINARY;
+
+    private static final byte[] MAGIC = {'T', 'B', 'M', 'S'};
+
+    // Sezioni
+    private static final int SECTION_END = 0;
+    private static final int SECTION_HEADER = 1;
+    private static final int SECTION_PLAYER = 2;
+    private static final int SECTION_INVENTORY = 3;
+    private static final int SECTION_CHESTS = 4;
+    private static final int SECTION_OBJECTS = 5;
+    private static final int SECTION_DOORS = 6;
+    private static final int SECTION_ROOM_TEXT = 7;
+    private static final int SECTION_CHARACTERS = 8;
+    private static final int SECTION_OBJECT_ROOMS = 9;
+
+    private static final int TEXT_DESCRIPTION = 1;
+    private static final int TEXT_LOOK = 2;
+
+    private static final int READ_CHUNK = 4096;
+
+    // Oltre questa dimensione l'intestazione non viene letta da sola
+    private static final int MAX_HEADER_BYTES = 64 * 1024;
+
+    private SaveFormat() {
+    }
+
+    /**
+     * Scrive il salvataggio nel canale.
+     */
+    public static void write(SaveData data, WritableByteChannel channel) throws IOException {
+        Encoder out = new Encoder(1024);
+        out.putBytes(MAGIC);
+        out.putVarInt(CURRENT_VERSION);
+
+        Encoder section = new Encoder(256);
+
+        section.putString(data.getName());
+        section.putVarLong(data.getSaveDate());
+        section.putVarLong(data.getPlayTime());
+        out.putSection(SECTION_HEADER, section);
+
+        section.putVarInt(data.getRoomId() + 1);
+        section.putVarInt(data.getHp() + 1);
+        section.putVarInt(data.getMaxHp() + 1);
+        section.putByte(data.isCombatActive() ? 1 : 0);
+        out.putSection(SECTION_PLAYER, section);
+
+        section.putVarInt(data.getInventory().size());
+        for (int id : data.getInventory()) {
+            section.putVarInt(id);
+        }
+        out.putSection(SECTION_INVENTORY, section);
+
+        BitSet open = new BitSet();
+        section.putVarInt(data.getChests().size());
+        int index = 0;
+        for (Map.Entry<Integer, Boolean> chest : data.getChests().entrySet()) {
+            section.putVarInt(chest.getKey());
+            open.set(index++, chest.getValue());
+        }
+        section.putBitSet(open, index);
+        out.putSection(SECTION_CHESTS, section);
+
+        open = new BitSet();
+        BitSet pushed = new BitSet();
+        section.putVarInt(data.getObjectFlags().size());
+        index = 0;
+        for (Map.Entry<Integer, Integer> object : data.getObjectFlags().entrySet()) {
+            section.putVarInt(object.getKey());
+            open.set(index, (object.getValue() & SaveData.FLAG_OPEN) != 0);
+            pushed.set(index, (object.getValue() & SaveData.FLAG_PUSHED) != 0);
+            index++;
+        }
+        section.putBitSet(open, index);
+        section.putBitSet(pushed, index);
+        out.putSection(SECTION_OBJECTS, section);
+
+        BitSet unlocked = new BitSet();
+        List<int[]> doors = new ArrayList<>();
+        for (Map.Entry<String, Boolean> door : data.getDoors().entrySet()) {
+            int[] parsed = parseDoorKey(door.getKey());
+            if (parsed != null) {
+                unlocked.set(doors.size(), door.getValue());
+                doors.add(parsed);
+            }
+        }
+        section.putVarInt(doors.size());
+        for (int[] door : doors) {
+            section.putVarInt(door[0]);
+            section.putByte(door[1]);
+        }
+        section.putBitSet(unlocked, doors.size());
+        out.putSection(SECTION_DOORS, section);
+
+        List<Integer> changedRooms = new ArrayList<>(data.getRoomDescriptions().keySet());
+        for (Integer roomId : data.getRoomLooks().keySet()) {
+            if (!data.getRoomDescriptions().containsKey(roomId)) {
+                changedRooms.add(roomId);
+            }
+        }
+        section.putVarInt(changedRooms.size());
+        for (int roomId : changedRooms) {
+            String description = data.getRoomDescriptions().get(roomId);
+            String look = data.getRoomLooks().get(roomId);
+            section.putVarInt(roomId);
+            section.putByte((description != null ? TEXT_DESCRIPTION : 0) | (look != null ? TEXT_LOOK : 0));
+            if (description != null) {
+                section.putString(description);
+            }
+            if (look != null) {
+                section.putString(look);
+            }
+        }
+        out.putSection(SECTION_ROOM_TEXT, section);
+
+        if (!data.getCharacterHp().isEmpty()) {
+            putIntMap(section, data.getCharacterHp());
+            out.putSection(SECTION_CHARACTERS, section);
+        }
+
+        if (!data.getObjectRooms().isEmpty()) {
+            putIntMap(section, data.getObjectRooms());
+            out.putSection(SECTION_OBJECT_ROOMS, section);
+        }
+
+        out.putVarInt(SECTION_END);
+
+        ByteBuffer buffer = out.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Legge un salvataggio, convertendo i formati precedenti.
+     *
+     * @throws IOException se il file è danneggiato o di una versione non
+     * supportata
+     */
+    public static SaveData read(ReadableByteChannel channel) throws IOException {
+        return decode(readFully(channel), false);
+    }
+
+    /**
+     * Legge solo l'intestazione (nome, data e tempo di gioco). Dal file
+     * vengono letti solo i byte della sezione HEADER; i salvataggi di testo
+     * della versione 1 vengono letti per intero.
+     */
+    public static SaveData readHeader(ReadableByteChannel channel) throws IOException {
+        ByteBuffer buffer = readAtLeast(channel, ByteBuffer.allocate(256), 256);
+        ByteBuffer probe = buffer.duplicate().flip();
+        if (isBinary(probe)) {
+            try {
+                probe.position(MAGIC.length);
+                getVarInt(probe);
+                if (getVarInt(probe) == SECTION_HEADER) {
+                    long end = getVarInt(probe) + (long) probe.position();
+                    if (end >= 0 && end <= MAX_HEADER_BYTES) {
+                        return decode(readAtLeast(channel, buffer, (int) end).flip(), true);
+                    }
+                }
+            } catch (BufferUnderflowException e) {
+                // File troppo corto: l'errore viene segnalato da decode
+            }
+        }
+        return decode(readRemaining(channel, buffer), true);
+    }
+
+    /**
+     * @return true se il buffer inizia con la firma del formato binario
+     */
+    public static boolean isBinary(ByteBuffer buffer) {
+        if (buffer.remaining() < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buffer.get(buffer.position() + i) != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static ByteBuffer readFully(ReadableByteChannel channel) throws IOException {
+        return readRemaining(channel, ByteBuffer.allocate(READ_CHUNK));
+    }
+
+    /**
+     * Legge il resto del canale in coda al buffer, ingrandendolo se serve.
+     *
+     * @param buffer buffer in scrittura con i byte già letti
+     * @return buffer pronto per la lettura
+     */
+    private static ByteBuffer readRemaining(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        if (!buffer.hasRemaining()) {
+            buffer = grow(buffer, buffer.capacity() * 2);
+        }
+        while (channel.read(buffer) >= 0) {
+            if (!buffer.hasRemaining()) {
+                buffer = grow(buffer, buffer.capacity() * 2);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Legge finché il buffer contiene almeno bytes byte o il file finisce.
+     *
+     * @param buffer buffer in scrittura con i byte già letti
+     * @return buffer ancora in scrittura, ingrandito se serviva
+     */
+    private static ByteBuffer readAtLeast(ReadableByteChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.capacity() < bytes) {
+            buffer = grow(buffer, bytes);
+        }
+        while (buffer.position() < bytes && channel.read(buffer) >= 0) {
+            // Continua finché ci sono dati
+        }
+        return buffer;
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int capacity) {
+        ByteBuffer larger = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+
+    /**
+     * Decodifica un salvataggio già letto in memoria.
+     *
+     * @param headerOnly true per fermarsi dopo l'intestazione
+     */
+    public static SaveData decode(ByteBuffer buffer, boolean headerOnly) throws IOException {
+        if (!isBinary(buffer)) {
+            byte[] text = new byte[buffer.remaining()];
+            buffer.duplicate().get(text);
+            return migrateLegacy(new String(text, StandardCharsets.ISO_8859_1));
+        }
+
+        try {
+            buffer.position(buffer.position() + MAGIC.length);
+            int version = getVarInt(buffer);
+            if (version < VERSION_BINARY) {
+                throw new IOException("Versione del salvataggio non valida: " + version);
+            }
+
+            SaveData data = new SaveData();
+            int type;
+            while ((type = getVarInt(buffer)) != SECTION_END) {
+                int length = getVarInt(buffer);
+                if (length < 0 || length > buffer.remaining()) {
+                    throw new IOException("Sezione " + type + " troncata");
+                }
+                int end = buffer.position() + length;
+                ByteBuffer body = buffer.slice(buffer.position(), length);
+                buffer.position(end);
+
+                if (type == SECTION_HEADER) {
+                    readHeaderSection(body, data);
+                    if (headerOnly) {
+                        break;
+                    }
+                } else if (!headerOnly) {
+                    readSection(type, body, data);
+                }
+            }
+            return migrate(data, version);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Salvataggio danneggiato", e);
+        }
+    }
+
+    private static void readHeaderSection(ByteBuffer in, SaveData data) throws IOException {
+        data.setName(getString(in));
+        data.setSaveDate(getVarLong(in));
+        data.setPlayTime(getVarLong(in));
+    }
+
+    private static void readSection(int type, ByteBuffer in, SaveData data) throws IOException {
+        switch (type) {
+            case SECTION_PLAYER:
+                data.setRoomId(getVarInt(in) - 1);
+                data.setHp(getVarInt(in) - 1);
+                data.setMaxHp(getVarInt(in) - 1);
+                data.setCombatActive(in.get() != 0);
+                break;
+            case SECTION_INVENTORY: {
+                int count = getLength(in);
+                for (int i = 0; i < count; i++) {
+                    data.getInventory().add(getVarInt(in));
+                }
+                break;
+            }
+            case SECTION_CHESTS: {
+                int[] ids = getIds(in);
+                BitSet open = getBitSet(in, ids.length);
+                for (int i = 0; i < ids.length; i++) {
+                    data.getChests().put(ids[i], open.get(i));
+                }
+                break;
+            }
+            case SECTION_OBJECTS: {
+                int[] ids = getIds(in);
+                BitSet open = getBitSet(in, ids.length);
+                BitSet pushed = getBitSet(in, ids.length);
+                for (int i = 0; i < ids.length; i++) {
+                    int flags = (open.get(i) ? SaveData.FLAG_OPEN : 0) | (pushed.get(i) ? SaveData.FLAG_PUSHED : 0);
+                    data.getObjectFlags().put(ids[i], flags);
+                }
+                break;
+            }
+            case SECTION_DOORS: {
+                int count = getLength(in);
+                String[] keys = new String[count];
+                for (int i = 0; i < count; i++) {
+                    int roomId = getVarInt(in);
+                    int direction = in.get();
+                    if (direction < 0 || direction >= Direction.values().length) {
+                        throw new IOException("Direzione della porta non valida: " + direction);
+                    }
+                    keys[i] = roomId + "-" + Direction.fromOrdinal(direction).getKey();
+                }
+                BitSet unlocked = getBitSet(in, count);
+                for (int i = 0; i < count; i++) {
+                    data.getDoors().put(keys[i], unlocked.get(i));
+                }
+                break;
+            }
+            case SECTION_ROOM_TEXT: {
+                int count = getLength(in);
+                for (int i = 0; i < count; i++) {
+                    int roomId = getVarInt(in);
+                    int mask = in.get();
+                    if ((mask & TEXT_DESCRIPTION) != 0) {
+                        data.getRoomDescriptions().put(roomId, getString(in));
+                    }
+                    if ((mask & TEXT_LOOK) != 0) {
+                        data.getRoomLooks().put(roomId, getString(in));
+                    }
+                }
+                break;
+            }
+            case SECTION_CHARACTERS:
+                getIntMap(in, data.getCharacterHp());
+                break;
+            case SECTION_OBJECT_ROOMS:
+                getIntMap(in, data.getObjectRooms());
+                break;
+            default:
+                // Sezione di una versione più recente: ignorata
+                break;
+        }
+    }
+
+    /**
+     * Porta i dati letti da una versione binaria precedente al formato
+     * corrente. Ogni nuova versione aggiunge qui il proprio passo.
+     */
+    private static SaveData migrate(SaveData data, int version) {
+        // VERSION_BINARY è la prima versione binaria: nessun passo necessario
+        return data;
+    }
+
+    /**
+     * Converte un salvataggio della versione 1 (Properties di testo).
+     */
+    static SaveData migrateLegacy(String text) throws IOException {
+        Properties properties = new Properties();
+        try (StringReader reader = new StringReader(text)) {
+            properties.load(reader);
+        }
+        if (properties.getProperty("save.version") == null) {
+            throw new IOException("Formato del salvataggio non riconosciuto");
+        }
+
+        SaveData data = new SaveData();
+        try {
+            data.setName(properties.getProperty("save.name", "Salvataggio"));
+            String date = properties.getProperty("save.date");
+            if (date != null) {
+                try {
+                    data.setSaveDate(new SimpleDateFormat("dd/MM/yyyy HH:mm:ss").parse(date).getTime());
+                } catch (java.text.ParseException e) {
+                    data.setSaveDate(0);
+                }
+            }
+            data.setPlayTime(Long.parseLong(properties.getProperty("play.time", "0")));
+
+            String room = properties.getProperty("player.room");
+            if (room != null) {
+                data.setRoomId(Integer.parseInt(room));
+            }
+            String hp = properties.getProperty("player.hp");
+            String maxHp = properties.getProperty("player.maxhp");
+            if (hp != null && maxHp != null) {
+                data.setHp(Integer.parseInt(hp));
+                data.setMaxHp(Integer.parseInt(maxHp));
+            }
+            data.setCombatActive(Boolean.parseBoolean(properties.getProperty("combat.active")));
+
+            for (String item : properties.getProperty("player.inventory", "").split(";")) {
+                String[] parts = item.split(",");
+                if (parts.length >= 2) {
+                    data.getInventory().add(Integer.parseInt(parts[0].trim()));
+                }
+            }
+            for (String chest : properties.getProperty("world.chests", "").split(";")) {
+                String[] parts = chest.split(",");
+                if (parts.length >= 2) {
+                    data.getChests().put(Integer.parseInt(parts[0].trim()), Boolean.parseBoolean(parts[1].trim()));
+                }
+            }
+
+            // La versione 1 salvava il testo di tutte le stanze
+            for (String key : properties.stringPropertyNames()) {
+                if (key.startsWith("room.") && key.endsWith(".description")) {
+                    int roomId = Integer.parseInt(key.substring(5, key.length() - ".description".length()));
+                    data.getRoomDescriptions().put(roomId, properties.getProperty(key));
+                } else if (key.startsWith("room.") && key.endsWith(".look")) {
+                    int roomId = Integer.parseInt(key.substring(5, key.length() - ".look".length()));
+                    data.getRoomLooks().put(roomId, properties.getProperty(key));
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("Salvataggio danneggiato: " + e.getMessage(), e);
+        }
+        return data;
+    }
+
+    private static int[] parseDoorKey(String key) {
+        int dash = key.indexOf('-');
+        if (dash <= 0) {
+            return null;
+        }
+        Direction direction = Direction.fromKey(key.substring(dash + 1));
+        if (direction == null) {
+            return null;
+        }
+        return new int[]{Integer.parseInt(key.substring(0, dash)), direction.ordinal()};
+    }
+
+    private static void putIntMap(Encoder out, Map<Integer, Integer> map) {
+        out.putVarInt(map.size());
+        for (Map.Entry<Integer, Integer> entry : map.entrySet()) {
+            out.putVarInt(entry.getKey());
+            out.putVarInt(entry.getValue());
+        }
+    }
+
+    // Lettura
+
+    private static void getIntMap(ByteBuffer in, Map<Integer, Integer> map) throws IOException {
+        int count = getLength(in);
+        for (int i = 0; i < count; i++) {
+            map.put(getVarInt(in), getVarInt(in));
+        }
+    }
+
+    static int getVarInt(ByteBuffer in) {
+        return (int) getVarLong(in);
+    }
+
+    static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0 && shift < 64);
+        return value;
+    }
+
+    /**
+     * Legge una lunghezza o un numero di elementi. Ogni elemento occupa
+     * almeno un byte, quindi non può superare i byte rimasti.
+     *
+     * @throws IOException se il valore è negativo o troppo grande
+     */
+    static int getLength(ByteBuffer in) throws IOException {
+        int length = getVarInt(in);
+        if (length < 0 || length > in.remaining()) {
+            throw new IOException("Lunghezza non valida: " + length + " (byte rimasti: " + in.remaining() + ")");
+        }
+        return length;
+    }
+
+    private static int[] getIds(ByteBuffer in) throws IOException {
+        int[] ids = new int[getLength(in)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = getVarInt(in);
+        }
+        return ids;
+    }
+
+    private static BitSet getBitSet(ByteBuffer in, int bits) throws IOException {
+        int length = (bits + 7) / 8;
+        if (bits < 0 || length > in.remaining()) {
+            throw new IOException("Bitset troncato: " + bits + " bit");
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return BitSet.valueOf(bytes);
+    }
+
+    static String getString(ByteBuffer in) throws IOException {
+        byte[] bytes = new byte[getLength(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Buffer di scrittura che cresce quando serve.
+     */
+    static final class Encoder {
+
+        private ByteBuffer buffer;
+
+        Encoder(int capacity) {
+            buffer = ByteBuffer.allocate(capacity);
+        }
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+
+        void putByte(int value) {
+            ensure(1);
+            buffer.put((byte) value);
+        }
+
+        void putBytes(byte[] bytes) {
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        void putVarInt(int value) {
+            putVarLong(value & 0xFFFFFFFFL);
+        }
+
+        void putVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        private void putBitSet(BitSet bits, int size) {
+            byte[] packed = bits.toByteArray();
+            byte[] bytes = new byte[(size + 7) / 8];
+            System.arraycopy(packed, 0, bytes, 0, Math.min(packed.length, bytes.length));
+            putBytes(bytes);
+        }
+
+        void putString(String value) {
+            byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+            putVarInt(bytes.length);
+            putBytes(bytes);
+        }
+
+        /**
+         * Aggiunge una sezione con il contenuto di body, che viene svuotato.
+         */
+        private void putSection(int type, Encoder body) {
+            putVarInt(type);
+            putVarInt(body.buffer.position());
+            ensure(body.buffer.position());
+            buffer.put(body.buffer.array(), 0, body.buffer.position());
+            body.buffer.clear();
+        }
+
+        ByteBuffer flip() {
+            buffer.flip();
+            return buffer;
+        }
+    }
+}
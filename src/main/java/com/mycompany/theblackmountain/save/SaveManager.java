@@ -3,23 +3,49 @@ package com.mycompany.theblackmountain.save;
 import com.mycompany.theblackmountain.GameDescription;
 import com.mycompany.theblackmountain.combat.CombatSystem;
 import com.mycompany.theblackmountain.impl.TBMGame;
+import com.mycompany.theblackmountain.type.GameCharacter;
+import com.mycompany.theblackmountain.type.Direction;
 import com.mycompany.theblackmountain.type.GameObjects;
 import com.mycompany.theblackmountain.type.ContainerObj;
 import com.mycompany.theblackmountain.type.Room;
 
-import java.io.*;
+import com.mycompany.theblackmountain.systems.DoorSystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.Properties;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
- * Sistema di salvataggio semplificato che usa Properties
+ * Sistema di salvataggio. I file usano il formato binario di SaveFormat; i
+ * vecchi salvataggi in formato Properties vengono convertiti al caricamento.
  * @author vince
  */
 public class SaveManager {
     
     public static final String SAVE_DIRECTORY = "src/main/saves";
-    private static final String SAVE_EXTENSION = ".dat";
+    static final String SAVE_EXTENSION = ".dat";
+
+    private static SaveCatalog catalog;
+
+    // Un solo thread: i salvataggi e il catalogo vengono scritti in ordine
+    private static final ExecutorService SAVE_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "TBM-Save");
+        t.setDaemon(true);
+        return t;
+    });
     
     static {
         // Crea la directory dei salvataggi se non esiste
@@ -30,218 +56,310 @@ public class SaveManager {
     }
     
     /**
-     * Salva lo stato corrente del gioco
+     * Salva lo stato corrente del gioco e attende la fine della scrittura
      */
     public static boolean saveGame(GameDescription gameDescription, CombatSystem combatSystem,
-                               String saveName, long playTimeMillis) {
-    try {
-        // Percorso completo per salvataggi
-        String saveDirPath = "src/main/saves";
-        File saveDir = new File(saveDirPath);
+            String saveName, long playTimeMillis) {
+        return saveGameAsync(gameDescription, combatSystem, saveName, playTimeMillis).join();
+    }
+
+    /**
+     * Salva lo stato corrente del gioco in background.
+     *
+     * Lo stato viene copiato subito, nel thread chiamante (quello del gioco);
+     * la scrittura del file avviene nel thread dei salvataggi su un file
+     * temporaneo, forzato su disco e poi spostato al posto del salvataggio,
+     * così un'interruzione non lascia mai un file a metà.
+     *
+     * @return future completato con true se il salvataggio è riuscito
+     */
+    public static CompletableFuture<Boolean> saveGameAsync(GameDescription gameDescription, CombatSystem combatSystem,
+            String saveName, long playTimeMillis) {
+        String filename = sanitizeFilename(saveName) + SAVE_EXTENSION;
+        if (!SaveCatalog.fitsFileName(filename)) {
+            System.err.println("Errore nel salvataggio: nome troppo lungo (massimo "
+                    + SaveCatalog.MAX_FILE_NAME_BYTES + " caratteri compresa l'estensione)");
+            return CompletableFuture.completedFuture(false);
+        }
+
+        SaveData saveData;
+        try {
+            saveData = createSaveData(gameDescription, combatSystem, saveName, playTimeMillis);
+        } catch (Exception e) {
+            System.err.println("Errore nel salvataggio: " + e.getMessage());
+            e.printStackTrace();
+            return CompletableFuture.completedFuture(false);
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                // Allinea il database alle modifiche ancora in coda
+                if (gameDescription instanceof TBMGame) {
+                    ((TBMGame) gameDescription).flushPendingWrites();
+                }
+                writeSave(saveData, filename);
+                return true;
+            } catch (Exception e) {
+                System.err.println("Errore nel salvataggio: " + e.getMessage());
+                e.printStackTrace();
+                return false;
+            }
+        }, SAVE_EXECUTOR);
+    }
+
+    /**
+     * Scrive il salvataggio in modo atomico e aggiorna il catalogo
+     */
+    private static void writeSave(SaveData saveData, String filename) throws IOException {
+        long start = System.currentTimeMillis();
+        File saveDir = new File(SAVE_DIRECTORY);
         if (!saveDir.exists()) {
             boolean created = saveDir.mkdirs();
             System.out.println("Directory 'saves' creata? " + created);
-        } else {
-            System.out.println("Directory 'saves' già esistente");
         }
 
-        Properties saveData = new Properties();
+        File saveFile = new File(saveDir, filename);
+        System.out.println("Salvataggio in corso in: " + saveFile.getAbsolutePath());
+
+        AtomicFile.write(saveFile.toPath(), channel -> SaveFormat.write(saveData, channel));
+        getCatalog().update(SaveSlot.of(saveFile, saveData));
+
+        System.out.println("Gioco salvato con successo in " + (System.currentTimeMillis() - start) + " ms.");
+    }
+
+    /**
+     * Catalogo dei salvataggi, aperto al primo utilizzo
+     */
+    private static synchronized SaveCatalog getCatalog() throws IOException {
+        if (catalog == null) {
+            catalog = SaveCatalog.open(new File(SAVE_DIRECTORY));
+        }
+        return catalog;
+    }
+
+    /**
+     * Elenca i salvataggi disponibili, dal più recente. L'elenco è letto dal
+     * catalogo mappato in memoria, senza aprire i file dei salvataggi.
+     */
+    public static List<SaveSlot> listSaveSlots() {
+        try {
+            return getCatalog().slots();
+        } catch (IOException e) {
+            System.err.println("Catalogo dei salvataggi non disponibile: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * @return file del salvataggio di uno slot
+     */
+    public static File getSaveFile(SaveSlot slot) {
+        return new File(SAVE_DIRECTORY, slot.getFileName());
+    }
+
+    /**
+     * Raccoglie lo stato del gioco da salvare
+     */
+    public static SaveData createSaveData(GameDescription gameDescription, CombatSystem combatSystem,
+            String saveName, long playTimeMillis) {
+        SaveData saveData = new SaveData();
 
         // Dati generali
-        saveData.setProperty("save.name", saveName != null ? saveName : "Salvataggio");
-        saveData.setProperty("save.date", new SimpleDateFormat("dd/MM/yyyy HH:mm:ss").format(new Date()));
-        saveData.setProperty("save.version", "1.0");
-        saveData.setProperty("play.time", String.valueOf(playTimeMillis));
+        saveData.setName(saveName != null ? saveName : "Salvataggio");
+        saveData.setSaveDate(System.currentTimeMillis());
+        saveData.setPlayTime(playTimeMillis);
 
         // Stanza attuale
         if (gameDescription.getCurrentRoom() != null) {
-            saveData.setProperty("player.room", String.valueOf(gameDescription.getCurrentRoom().getId()));
+            saveData.setRoomId(gameDescription.getCurrentRoom().getId());
         }
 
         // Inventario
-        StringBuilder inventoryStr = new StringBuilder();
         for (GameObjects obj : gameDescription.getInventory()) {
             if (obj != null && obj.getName() != null) {
-                if (inventoryStr.length() > 0) inventoryStr.append(";");
-                inventoryStr.append(obj.getId()).append(",").append(obj.getName());
+                saveData.getInventory().add(obj.getId());
             }
         }
-        saveData.setProperty("player.inventory", inventoryStr.toString());
 
-        // HP giocatore
-        if (combatSystem != null && combatSystem.getPlayer() != null) {
-            saveData.setProperty("player.hp", String.valueOf(combatSystem.getPlayer().getHp()));
-            saveData.setProperty("player.maxhp", String.valueOf(combatSystem.getPlayer().getMaxHp()));
-        }
-
-        // Stato combattimento
+        // HP giocatore e stato combattimento
         if (combatSystem != null) {
-            saveData.setProperty("combat.active", String.valueOf(combatSystem.isInCombat()));
+            if (combatSystem.getPlayer() != null) {
+                saveData.setHp(combatSystem.getPlayer().getHp());
+                saveData.setMaxHp(combatSystem.getPlayer().getMaxHp());
+            }
+            saveData.setCombatActive(combatSystem.isInCombat());
         }
 
-        // Stato casse
-        StringBuilder chestsStr = new StringBuilder();
         for (Room room : gameDescription.getRooms()) {
-            if (room.getObjects() == null) continue;
-            for (GameObjects obj : room.getObjects()) {
-                if (obj instanceof ContainerObj) {
-                    if (chestsStr.length() > 0) chestsStr.append(";");
-                    chestsStr.append(obj.getId()).append(",").append(obj.isOpen());
+            // Stato casse e oggetti apribili o spingibili
+            if (room.getObjects() != null) {
+                for (GameObjects obj : room.getObjects()) {
+                    if (obj instanceof ContainerObj) {
+                        saveData.getChests().put(obj.getId(), obj.isOpen());
+                    } else if (obj.isOpenable() || obj.isPushable()) {
+                        int flags = (obj.isOpen() ? SaveData.FLAG_OPEN : 0) | (obj.isPush() ? SaveData.FLAG_PUSHED : 0);
+                        saveData.getObjectFlags().put(obj.getId(), flags);
+                    }
                 }
             }
-        }
-        saveData.setProperty("world.chests", chestsStr.toString());
 
-        // Descrizioni stanze
-        for (Room room : gameDescription.getRooms()) {
-            if (room.getDescription() != null) {
-                saveData.setProperty("room." + room.getId() + ".description", room.getDescription());
+            // Nemici
+            for (GameCharacter enemy : room.getEnemies()) {
+                saveData.getCharacterHp().put(enemy.getId(), enemy.isAlive() ? enemy.getCurrentHp() : 0);
             }
-            if (room.getLook() != null) {
-                saveData.setProperty("room." + room.getId() + ".look", room.getLook());
+
+            // Solo i testi cambiati durante la partita
+            if (room.isDescriptionModified() && room.getDescription() != null) {
+                saveData.getRoomDescriptions().put(room.getId(), room.getDescription());
+            }
+            if (room.isLookModified() && room.getLook() != null) {
+                saveData.getRoomLooks().put(room.getId(), room.getLook());
             }
         }
 
-        // Salvataggio su file
-        String filename = sanitizeFilename(saveName) + ".dat";
-        File saveFile = new File(saveDir, filename);
-        System.out.println("Salvataggio in corso in: " + saveFile.getAbsolutePath());
-
-        try (FileOutputStream fos = new FileOutputStream(saveFile)) {
-            saveData.store(fos, "The Black Mountain - Save Game");
+        // Porte
+        if (gameDescription instanceof TBMGame) {
+            DoorSystem doorSystem = ((TBMGame) gameDescription).getDoorSystem();
+            if (doorSystem != null) {
+                saveData.getDoors().putAll(doorSystem.getAllDoorsStatus());
+            }
         }
 
-        System.out.println("Gioco salvato con successo.");
-        return true;
-
-    } catch (Exception e) {
-        System.err.println("Errore nel salvataggio: " + e.getMessage());
-        e.printStackTrace();
-        return false;
+        return saveData;
     }
-}
 
-    
     /**
-     * Carica un gioco salvato
+     * Carica un gioco salvato, convertendo i salvataggi in formato Properties
      */
-    public static String loadGame(File saveFile) throws Exception {
-        Properties saveData = new Properties();
-        
-        try (FileInputStream fis = new FileInputStream(saveFile)) {
-            saveData.load(fis);
+    public static SaveData loadGame(File saveFile) throws IOException {
+        SaveData saveData;
+        try (FileChannel channel = FileChannel.open(saveFile.toPath(), StandardOpenOption.READ)) {
+            saveData = SaveFormat.read(channel);
         }
-        
+
         System.out.println("Gioco caricato da: " + saveFile.getAbsolutePath());
-        
-        // Converte Properties in stringa per la compatibilità
-        StringBuilder result = new StringBuilder();
-        for (String key : saveData.stringPropertyNames()) {
-            result.append(key).append("=").append(saveData.getProperty(key)).append("\n");
-        }
-        
-        return result.toString();
+        return saveData;
     }
-    
+
+    /**
+     * Carica un gioco salvato nel thread dei salvataggi
+     */
+    public static CompletableFuture<SaveData> loadGameAsync(File saveFile) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return loadGame(saveFile);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, SAVE_EXECUTOR);
+    }
+
     /**
      * Applica i dati salvati al gioco
      */
-    public static void applyLoadedData(TBMGame gameDescription, String saveDataStr, CombatSystem combatSystem) {
+    public static void applyLoadedData(TBMGame gameDescription, SaveData saveData, CombatSystem combatSystem) {
         try {
             System.out.println("Applicando dati salvati...");
-            
-            // Parsing dei dati salvati
-            Properties saveData = new Properties();
-            try (StringReader reader = new StringReader(saveDataStr)) {
-                saveData.load(reader);
-            }
-            
+
             // Ripristina la stanza corrente
-            String roomIdStr = saveData.getProperty("player.room");
-            if (roomIdStr != null) {
-                int roomId = Integer.parseInt(roomIdStr);
-                Room currentRoom = findRoomById(gameDescription, roomId);
+            if (saveData.getRoomId() >= 0) {
+                Room currentRoom = findRoomById(gameDescription, saveData.getRoomId());
                 if (currentRoom != null) {
                     gameDescription.setCurrentRoom(currentRoom);
                     System.out.println("Stanza corrente ripristinata: " + currentRoom.getName());
                 }
             }
-            
+
             // Ripristina l'inventario
-            String inventoryStr = saveData.getProperty("player.inventory");
-            if (inventoryStr != null && !inventoryStr.isEmpty()) {
+            if (!saveData.getInventory().isEmpty()) {
                 gameDescription.getInventory().clear();
-                String[] items = inventoryStr.split(";");
-                for (String item : items) {
-                    if (!item.trim().isEmpty()) {
-                        String[] parts = item.split(",");
-                        if (parts.length >= 2) {
-                            int objId = Integer.parseInt(parts[0]);
-                            String objName = parts[1];
-                            
-                            // Trova l'oggetto originale nel gioco e aggiungilo all'inventario
-                            GameObjects obj = findObjectInGame(gameDescription, objId, objName);
-                            if (obj != null) {
-                                gameDescription.getInventory().add(obj);
-                            }
-                        }
-                    }
-                }
+                gameDescription.getInventory().addAll(findObjectsInGame(gameDescription, saveData.getInventory()));
                 System.out.println("Inventario ripristinato con " + gameDescription.getInventory().size() + " oggetti");
             }
-            
+
             // Ripristina HP del giocatore
-            String hpStr = saveData.getProperty("player.hp");
-            String maxHpStr = saveData.getProperty("player.maxhp");
-            if (hpStr != null && maxHpStr != null && combatSystem != null && combatSystem.getPlayer() != null) {
-                combatSystem.getPlayer().setHp(Integer.parseInt(hpStr));
-                combatSystem.getPlayer().setMaxHp(Integer.parseInt(maxHpStr));
-                System.out.println("HP giocatore ripristinato: " + hpStr + "/" + maxHpStr);
+            if (saveData.hasPlayerStats() && combatSystem != null && combatSystem.getPlayer() != null) {
+                combatSystem.getPlayer().setHp(saveData.getHp());
+                combatSystem.getPlayer().setMaxHp(saveData.getMaxHp());
+                System.out.println("HP giocatore ripristinato: " + saveData.getHp() + "/" + saveData.getMaxHp());
             }
-            
-            // Ripristina stato delle casse
-            String chestsStr = saveData.getProperty("world.chests");
-            if (chestsStr != null && !chestsStr.isEmpty()) {
-                String[] chests = chestsStr.split(";");
-                for (String chest : chests) {
-                    if (!chest.trim().isEmpty()) {
-                        String[] parts = chest.split(",");
-                        if (parts.length >= 2) {
-                            int chestId = Integer.parseInt(parts[0]);
-                            boolean isOpen = Boolean.parseBoolean(parts[1]);
-                            
-                            // Trova e aggiorna la cassa
-                            ContainerObj container = findChestById(gameDescription, chestId);
-                            if (container != null) {
-                                container.setOpen(isOpen);
-                            }
-                        }
+
+            // Ripristina stato delle casse e degli oggetti
+            for (Room room : gameDescription.getRooms()) {
+                for (GameObjects obj : room.getObjects()) {
+                    Boolean open = saveData.getChests().get(obj.getId());
+                    Integer flags = saveData.getObjectFlags().get(obj.getId());
+                    if (obj instanceof ContainerObj && open != null) {
+                        obj.setOpen(open);
+                    } else if (flags != null) {
+                        obj.setOpen((flags & SaveData.FLAG_OPEN) != 0);
+                        obj.setPush((flags & SaveData.FLAG_PUSHED) != 0);
                     }
                 }
+            }
+            if (!saveData.getChests().isEmpty()) {
                 System.out.println("Stato delle casse ripristinato");
             }
-            
+
+            // Ripristina i nemici
+            for (Room room : gameDescription.getRooms()) {
+                for (GameCharacter enemy : room.getEnemies()) {
+                    Integer hp = saveData.getCharacterHp().get(enemy.getId());
+                    if (hp != null) {
+                        enemy.setCurrentHp(hp);
+                    }
+                }
+            }
+
+            // Ripristina gli oggetti lasciati in altre stanze
+            if (!saveData.getObjectRooms().isEmpty()) {
+                List<Integer> movedIds = new ArrayList<>(saveData.getObjectRooms().keySet());
+                for (GameObjects obj : findObjectsInGame(gameDescription, movedIds)) {
+                    Room target = findRoomById(gameDescription, saveData.getObjectRooms().get(obj.getId()));
+                    if (target != null) {
+                        for (Room room : gameDescription.getRooms()) {
+                            room.getObjects().removeIf(o -> o.getId() == obj.getId());
+                        }
+                        target.getObjects().add(obj);
+                    }
+                }
+            }
+
+            // Ripristina le porte sbloccate
+            DoorSystem doorSystem = gameDescription.getDoorSystem();
+            if (doorSystem != null) {
+                for (Map.Entry<String, Boolean> door : saveData.getDoors().entrySet()) {
+                    if (door.getValue()) {
+                        String[] parts = door.getKey().split("-");
+                        Direction direction = Direction.fromKey(parts[1]);
+                        if (direction != null) {
+                            doorSystem.unlockDoor(Integer.parseInt(parts[0]), direction);
+                        }
+                    }
+                }
+            }
+
             // Ripristina descrizioni delle stanze
             for (Room room : gameDescription.getRooms()) {
-                String savedDesc = saveData.getProperty("room." + room.getId() + ".description");
+                String savedDesc = saveData.getRoomDescriptions().get(room.getId());
                 if (savedDesc != null) {
                     room.setDescription(savedDesc);
                 }
-                String savedLook = saveData.getProperty("room." + room.getId() + ".look");
+                String savedLook = saveData.getRoomLooks().get(room.getId());
                 if (savedLook != null) {
                     room.setLook(savedLook);
                 }
             }
-            
+
             System.out.println("Dati salvati applicati con successo!");
-            
+
         } catch (Exception e) {
             System.err.println("Errore nell'applicazione dei dati salvati: " + e.getMessage());
             e.printStackTrace();
             throw new RuntimeException("Errore nell'applicazione dei dati salvati: " + e.getMessage());
         }
     }
-    
+
     /**
      * Trova una stanza per ID
      */
@@ -255,56 +373,55 @@ public class SaveManager {
     }
     
     /**
-     * Trova una cassa per ID
-     */
-    private static ContainerObj findChestById(GameDescription gameDescription, int chestId) {
-        for (Room room : gameDescription.getRooms()) {
-            for (GameObjects obj : room.getObjects()) {
-                if (obj instanceof ContainerObj && obj.getId() == chestId) {
-                    return (ContainerObj) obj;
-                }
-            }
-        }
-        return null;
-    }
-    
-    /**
-     * Trova un oggetto nel gioco (per ricostruire l'inventario)
+     * Ricostruisce gli oggetti dell'inventario: prima li cerca nelle stanze e
+     * nelle casse, poi carica dal database quelli non trovati.
      */
-    private static GameObjects findObjectInGame(GameDescription gameDescription, int objId, String objName) {
-        // Cerca in tutte le stanze
+    private static List<GameObjects> findObjectsInGame(TBMGame gameDescription, List<Integer> objIds) {
+        Map<Integer, GameObjects> found = new HashMap<>();
+        Set<Integer> wanted = new HashSet<>(objIds);
         for (Room room : gameDescription.getRooms()) {
             for (GameObjects obj : room.getObjects()) {
-                if (obj.getId() == objId || obj.getName().equals(objName)) {
-                    // Crea una copia dell'oggetto
-                    GameObjects copy = new GameObjects(obj.getId(), obj.getName(), obj.getDescription());
-                    copy.setAlias(obj.getAlias());
-                    copy.setPickupable(obj.isPickupable());
-                    return copy;
+                if (wanted.contains(obj.getId())) {
+                    found.putIfAbsent(obj.getId(), copyObject(obj));
                 }
-                
+
                 // Cerca anche dentro i container
                 if (obj instanceof ContainerObj) {
-                    ContainerObj container = (ContainerObj) obj;
-                    for (Object item : container.getList()) {
-                        if (item instanceof GameObjects) {
-                            GameObjects containerObj = (GameObjects) item;
-                            if (containerObj.getId() == objId || containerObj.getName().equals(objName)) {
-                                GameObjects copy = new GameObjects(containerObj.getId(), containerObj.getName(), containerObj.getDescription());
-                                copy.setAlias(containerObj.getAlias());
-                                copy.setPickupable(containerObj.isPickupable());
-                                return copy;
-                            }
+                    for (Object item : ((ContainerObj) obj).getList()) {
+                        if (item instanceof GameObjects && wanted.contains(((GameObjects) item).getId())) {
+                            found.putIfAbsent(((GameObjects) item).getId(), copyObject((GameObjects) item));
                         }
                     }
                 }
             }
         }
-        
-        // Se non trovato, crea un oggetto base
-        return new GameObjects(objId, objName, "Oggetto caricato dal salvataggio");
+
+        wanted.removeAll(found.keySet());
+        if (!wanted.isEmpty() && gameDescription.getGameLoader() != null) {
+            for (GameObjects obj : gameDescription.getGameLoader().findObjectsById(wanted)) {
+                found.put(obj.getId(), obj);
+            }
+        }
+
+        List<GameObjects> objects = new ArrayList<>();
+        for (int objId : objIds) {
+            GameObjects obj = found.get(objId);
+            // Se non trovato, crea un oggetto base
+            objects.add(obj != null ? obj : new GameObjects(objId, "oggetto " + objId, "Oggetto caricato dal salvataggio"));
+        }
+        return objects;
     }
-    
+
+    /**
+     * Crea una copia dell'oggetto
+     */
+    private static GameObjects copyObject(GameObjects obj) {
+        GameObjects copy = new GameObjects(obj.getId(), obj.getName(), obj.getDescription());
+        copy.setAlias(obj.getAlias());
+        copy.setPickupable(obj.isPickupable());
+        return copy;
+    }
+
     /**
      * Sanitizza il nome del file
      */
@@ -320,26 +437,26 @@ public class SaveManager {
      */
     public static String getSaveInfo(File saveFile) {
         try {
-            Properties saveData = new Properties();
-            try (FileInputStream fis = new FileInputStream(saveFile)) {
-                saveData.load(fis);
+            SaveData header;
+            try (FileChannel channel = FileChannel.open(saveFile.toPath(), StandardOpenOption.READ)) {
+                header = SaveFormat.readHeader(channel);
             }
-            
-            String saveName = saveData.getProperty("save.name", "Salvataggio");
-            String saveDate = saveData.getProperty("save.date", "Data sconosciuta");
-            String playTime = saveData.getProperty("play.time", "0");
-            
+
+            String saveDate = header.getSaveDate() > 0
+                    ? new SimpleDateFormat("dd/MM/yyyy HH:mm:ss").format(new Date(header.getSaveDate()))
+                    : "Data sconosciuta";
+
             // Converti millisecondi in formato leggibile
-            long millis = Long.parseLong(playTime);
+            long millis = header.getPlayTime();
             long seconds = millis / 1000;
             long minutes = seconds / 60;
             long hours = minutes / 60;
             String formattedTime = String.format("%02d:%02d:%02d", hours % 24, minutes % 60, seconds % 60);
-            
-            return String.format("%s - %s (Tempo: %s)", saveName, saveDate, formattedTime);
-            
+
+            return String.format("%s - %s (Tempo: %s)", header.getName(), saveDate, formattedTime);
+
         } catch (Exception e) {
             return saveFile.getName().replace(SAVE_EXTENSION, "") + " - Errore nel caricamento info";
         }
     }
-}
\ No newline at end of file
+}
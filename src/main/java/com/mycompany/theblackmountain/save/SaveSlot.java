@@ -0,0 +1,108 @@
+package com.mycompany.theblackmountain.save;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Voce del catalogo dei salvataggi: le informazioni mostrate nel menu di
+ * caricamento, senza dover leggere il file del salvataggio.
+ *
+ * @author vince
+ */
+public class SaveSlot {
+
+    private final String fileName;
+    private final String name;
+    private final long saveDate;
+    private final long playTime;
+    private final int roomId;
+    private final int hp;
+    private final int maxHp;
+    private final long lastModified;
+    private final long size;
+
+    public SaveSlot(String fileName, String name, long saveDate, long playTime,
+            int roomId, int hp, int maxHp, long lastModified, long size) {
+        this.fileName = fileName;
+        this.name = name;
+        this.saveDate = saveDate;
+        this.playTime = playTime;
+        this.roomId = roomId;
+        this.hp = hp;
+        this.maxHp = maxHp;
+        this.lastModified = lastModified;
+        this.size = size;
+    }
+
+    /**
+     * Crea la voce di un salvataggio dal suo contenuto
+     */
+    static SaveSlot of(File file, SaveData data) {
+        return new SaveSlot(file.getName(), data.getName(), data.getSaveDate(), data.getPlayTime(),
+                data.getRoomId(), data.getHp(), data.getMaxHp(), file.lastModified(), file.length());
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSaveDate() {
+        return saveDate;
+    }
+
+    public long getPlayTime() {
+        return playTime;
+    }
+
+    /**
+     * @return stanza del giocatore o -1
+     */
+    public int getRoomId() {
+        return roomId;
+    }
+
+    /**
+     * @return HP del giocatore o -1
+     */
+    public int getHp() {
+        return hp;
+    }
+
+    public int getMaxHp() {
+        return maxHp;
+    }
+
+    /**
+     * @return data di modifica del file quando la voce è stata creata
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return dimensione del file quando la voce è stata creata
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Testo mostrato nell'elenco dei salvataggi
+     */
+    @Override
+    public String toString() {
+        String date = saveDate > 0
+                ? new SimpleDateFormat("dd/MM/yyyy HH:mm:ss").format(new Date(saveDate))
+                : "Data sconosciuta";
+        long seconds = playTime / 1000;
+        long minutes = seconds / 60;
+        long hours = minutes / 60;
+        String text = String.format("%s - %s (Tempo: %02d:%02d:%02d)", name, date, hours % 24, minutes % 60, seconds % 60);
+        return hp >= 0 && maxHp >= 0 ? text + " - HP " + hp + "/" + maxHp : text;
+    }
+}
@@ -0,0 +1,157 @@
+package com.mycompany.theblackmountain.server;
+
+import com.mycompany.theblackmountain.Utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Server headless che ospita molte partite contemporanee.
+ *
+ * Ogni connessione sulla socket locale apre una sessione ed è servita da un
+ * thread virtuale. Protocollo a righe (UTF-8):
+ * <ul>
+ * <li>alla connessione il server invia "SESSION &lt;id&gt;" seguito dalla
+ * descrizione della stanza iniziale e da una riga "END";</li>
+ * <li>ogni riga inviata dal client è un comando di gioco; la risposta è il
+ * testo prodotto dal gioco seguito da una riga "END";</li>
+ * <li>"QUIT" chiude la sessione, il server risponde "BYE";</li>
+ * <li>in caso di errore il server invia "ERROR &lt;messaggio&gt;" e "END".</li>
+ * </ul>
+ *
+ * @author vince
+ */
+public class GameServer {
+
+    public static final int DEFAULT_PORT = 4477;
+    public static final int DEFAULT_MAX_SESSIONS = 500;
+
+    private static final String END = "END";
+
+    private final int port;
+    private final SessionRegistry registry;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile ServerSocket serverSocket;
+
+    /**
+     * @param port porta locale su cui ascoltare
+     * @param registry registro delle sessioni
+     */
+    public GameServer(int port, SessionRegistry registry) {
+        this.port = port;
+        this.registry = registry;
+    }
+
+    /**
+     * Accetta connessioni finché il server non viene fermato.
+     */
+    public void start() throws IOException {
+        serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+        System.out.println("Server The Black Mountain in ascolto su "
+                + serverSocket.getInetAddress().getHostAddress() + ":" + port);
+
+        try {
+            while (!serverSocket.isClosed()) {
+                Socket socket = serverSocket.accept();
+                executor.submit(() -> handle(socket));
+            }
+        } catch (SocketException e) {
+            if (!serverSocket.isClosed()) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Gestisce una connessione per tutta la sua durata.
+     */
+    private void handle(Socket socket) {
+        GameSession session = null;
+
+        try (socket;
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), false)) {
+
+            try {
+                session = registry.create();
+            } catch (Exception e) {
+                reply(out, "ERROR " + e.getMessage());
+                return;
+            }
+
+            reply(out, "SESSION " + session.getId() + "\n" + session.describeCurrentRoom());
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (line.equalsIgnoreCase("QUIT")) {
+                    out.println("BYE");
+                    out.flush();
+                    break;
+                }
+
+                try {
+                    reply(out, session.execute(line));
+                } catch (Exception e) {
+                    reply(out, "ERROR " + e.getMessage());
+                }
+            }
+
+        } catch (IOException e) {
+            System.err.println("Connessione chiusa: " + e.getMessage());
+        } finally {
+            if (session != null) {
+                registry.close(session.getId());
+            }
+        }
+    }
+
+    private static void reply(PrintWriter out, String text) {
+        if (!text.isEmpty()) {
+            out.println(text);
+        }
+        out.println(END);
+        out.flush();
+    }
+
+    /**
+     * Ferma il server e chiude tutte le sessioni.
+     */
+    public void stop() {
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Errore nella chiusura del server: " + e.getMessage());
+        }
+        executor.shutdownNow();
+        registry.closeAll();
+    }
+
+    /**
+     * Avvia il server headless.
+     *
+     * @param port porta locale
+     */
+    public static void run(int port) throws IOException {
+        SessionRegistry registry = new SessionRegistry(DEFAULT_MAX_SESSIONS,
+                Utils.loadResourceListInSet("/stopwords.txt"));
+        GameServer server = new GameServer(port, registry);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        server.start();
+    }
+}
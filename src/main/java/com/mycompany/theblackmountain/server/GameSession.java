@@ -0,0 +1,120 @@
+package com.mycompany.theblackmountain.server;
+
+import com.mycompany.theblackmountain.database.WorldTemplate;
+import com.mycompany.theblackmountain.impl.TBMGame;
+import com.mycompany.theblackmountain.parser.Parser;
+import com.mycompany.theblackmountain.parser.ParserOutput;
+import com.mycompany.theblackmountain.type.Room;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Partita di un singolo giocatore del server headless.
+ *
+ * Ogni sessione ha il proprio TBMGame, il proprio Parser e un database in
+ * memoria dedicato copiato dal modello del mondo, quindi nessuno stato di gioco è condiviso con le altre
+ * sessioni. I comandi di una stessa sessione sono eseguiti uno alla volta.
+ *
+ * @author vince
+ */
+public class GameSession {
+
+    private final String id;
+    private final TBMGame game;
+    private final Parser parser;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile long lastActivity;
+
+    /**
+     * @param id identificativo della sessione
+     * @param stopwords stopword per il parser
+     */
+    public GameSession(String id, Set<String> stopwords) throws Exception {
+        this.id = id;
+        this.game = new TBMGame(WorldTemplate.newSessionDatabase("tbm_session_" + id), true);
+        this.game.setWorldSnapshot(WorldTemplate.getSnapshot());
+        this.parser = new Parser(stopwords);
+        this.lastActivity = System.currentTimeMillis();
+    }
+
+    /**
+     * Inizializza la partita della sessione.
+     */
+    public void start() throws Exception {
+        long start = System.nanoTime();
+        game.init();
+        System.out.println("Sessione " + id + " avviata in " + (System.nanoTime() - start) / 1000 + " us");
+    }
+
+    /**
+     * Esegue un comando del giocatore e restituisce l'output prodotto.
+     *
+     * @param command riga inviata dal client
+     * @return testo da rimandare al client
+     */
+    public String execute(String command) {
+        lock.lock();
+        try {
+            lastActivity = System.currentTimeMillis();
+
+            Room room = game.getCurrentRoom();
+            if (room == null) {
+                return "La partita è terminata.";
+            }
+
+            ParserOutput p = parser.parse(command, game.getCommands(), room.getObjects(), game.getInventory());
+
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (PrintStream out = new PrintStream(buffer, true, StandardCharsets.UTF_8)) {
+                game.nextMove(p, out);
+            }
+            return buffer.toString(StandardCharsets.UTF_8).trim();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return nome e descrizione della stanza corrente
+     */
+    public String describeCurrentRoom() {
+        lock.lock();
+        try {
+            Room room = game.getCurrentRoom();
+            if (room == null) {
+                return "";
+            }
+            return room.getName() + "\n" + room.getDescription();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Termina la partita e libera il database della sessione.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            game.cleanup();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getLastActivity() {
+        return lastActivity;
+    }
+
+    public TBMGame getGame() {
+        return game;
+    }
+}
@@ -0,0 +1,90 @@
+package com.mycompany.theblackmountain.server;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registro delle sessioni attive del server headless.
+ *
+ * @author vince
+ */
+public class SessionRegistry {
+
+    private final ConcurrentMap<String, GameSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final AtomicInteger reserved = new AtomicInteger();
+    private final int maxSessions;
+    private final Set<String> stopwords;
+
+    /**
+     * @param maxSessions numero massimo di sessioni contemporanee
+     * @param stopwords stopword condivise dai parser delle sessioni
+     */
+    public SessionRegistry(int maxSessions, Set<String> stopwords) {
+        this.maxSessions = maxSessions;
+        this.stopwords = Set.copyOf(stopwords);
+    }
+
+    /**
+     * Crea e inizializza una nuova sessione.
+     *
+     * @return la sessione creata
+     * @throws IllegalStateException se è stato raggiunto il limite di sessioni
+     * @throws Exception se l'inizializzazione della partita fallisce
+     */
+    public GameSession create() throws Exception {
+        if (reserved.incrementAndGet() > maxSessions) {
+            reserved.decrementAndGet();
+            throw new IllegalStateException("Numero massimo di sessioni raggiunto (" + maxSessions + ")");
+        }
+
+        GameSession session = null;
+        try {
+            session = new GameSession(Long.toString(nextId.incrementAndGet()), stopwords);
+            session.start();
+        } catch (Exception e) {
+            if (session != null) {
+                session.close();
+            }
+            reserved.decrementAndGet();
+            throw e;
+        }
+
+        sessions.put(session.getId(), session);
+        return session;
+    }
+
+    /**
+     * @return la sessione con l'ID indicato, o null
+     */
+    public GameSession get(String id) {
+        return sessions.get(id);
+    }
+
+    /**
+     * Chiude e rimuove una sessione.
+     */
+    public void close(String id) {
+        GameSession session = sessions.remove(id);
+        if (session != null) {
+            session.close();
+            reserved.decrementAndGet();
+        }
+    }
+
+    /**
+     * Chiude tutte le sessioni.
+     */
+    public void closeAll() {
+        for (String id : sessions.keySet()) {
+            close(id);
+        }
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+}
@@ -0,0 +1,22 @@
+package com.mycompany.theblackmountain.systems;
+
+/**
+ * Esito del tentativo di attraversare una porta
+ *
+ * @author vince
+ */
+public enum DoorPassage {
+
+    /**
+     * Nessuna porta chiusa in quella direzione: si passa
+     */
+    OPEN,
+    /**
+     * La porta era chiusa ed è stata aperta con la chiave dell'inventario
+     */
+    UNLOCKED,
+    /**
+     * La porta è chiusa e manca la chiave
+     */
+    LOCKED
+}
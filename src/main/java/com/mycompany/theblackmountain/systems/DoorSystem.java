@@ -6,118 +6,146 @@ package com.mycompany.theblackmountain.systems;
 
 import com.mycompany.theblackmountain.GameDescription;
 import com.mycompany.theblackmountain.GameUtils;
-import com.mycompany.theblackmountain.type.Room;
-import java.util.HashMap;
+import com.mycompany.theblackmountain.log.GameLog;
+import com.mycompany.theblackmountain.type.Direction;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
- * Sistema per gestire porte chiuse che richiedono chiavi
+ * Sistema per gestire porte chiuse che richiedono chiavi.
+ *
+ * Ogni porta è identificata da un intero, roomId * 4 + ordinale della
+ * direzione, usato come indice di una tabella con l'ID della chiave richiesta
+ * e di un BitSet delle porte sbloccate: controllare una porta durante il
+ * movimento non crea stringhe né oggetti.
+ *
  * @author vince
  */
 public class DoorSystem {
-    
-    private Map<String, Integer> lockedDoors; // "roomId-direction" -> keyId
-    private Map<String, Boolean> unlockedDoors; // "roomId-direction" -> unlocked
-    
+
+    private static final int NO_DOOR = -1;
+
+    private int[] requiredKeys = new int[32]; // porta -> keyId, NO_DOOR se non bloccabile
+    private final BitSet unlockedDoors = new BitSet(); // porta -> sbloccata
+    private int doorCount;
+
     public DoorSystem() {
-        this.lockedDoors = new HashMap<>();
-        this.unlockedDoors = new HashMap<>();
+        Arrays.fill(requiredKeys, NO_DOOR);
         initializeLockedDoors();
     }
-    
+
     /**
      * Inizializza le porte chiuse del gioco
      */
     private void initializeLockedDoors() {
         // Ingresso -> Stanza del Topo (richiede chiave ingresso)
-        lockedDoors.put("0-east", 1);
-        
+        addLockedDoor(0, Direction.EAST, 1);
+
         // Stanza delle Torture -> Sala del Boss (richiede chiave speciale o progressione)
-        lockedDoors.put("6-south", 10);
-        
+        addLockedDoor(6, Direction.SOUTH, 10);
+
         // Sala del Boss -> Uscita (richiede chiave del boss)
-        lockedDoors.put("7-west", 11);
+        addLockedDoor(7, Direction.WEST, 11);
     }
-    
+
+    private static int doorKey(int roomId, Direction direction) {
+        return roomId * 4 + direction.ordinal();
+    }
+
+    private int requiredKey(int door) {
+        return door >= 0 && door < requiredKeys.length ? requiredKeys[door] : NO_DOOR;
+    }
+
     /**
-     * *** NUOVO METODO: Reset completo del sistema porte ***
      * Resetta tutte le porte allo stato iniziale (tutte chiuse)
      */
     public void resetAllDoors() {
-        System.out.println(" Resettando stato di tutte le porte...");
-        
-        // Svuota la mappa delle porte sbloccate
         unlockedDoors.clear();
-        
-        // Verifica che tutte le porte siano effettivamente chiuse
-        for (String doorKey : lockedDoors.keySet()) {
-            unlockedDoors.put(doorKey, false);
-        }
-        
-        System.out.println(lockedDoors.size() + " porte sono ora chiuse");
-        
-        // DEBUG: Stampa stato porte dopo reset
-        System.out.println(" DEBUG: Stato porte dopo reset:");
-        for (Map.Entry<String, Integer> entry : lockedDoors.entrySet()) {
-            String doorKey = entry.getKey();
-            int keyId = entry.getValue();
-            boolean isUnlocked = unlockedDoors.getOrDefault(doorKey, false);
-            System.out.println("  - Porta " + doorKey + " (chiave " + keyId + "): " + 
-                             (isUnlocked ? "APERTA" : "CHIUSA"));
-        }
+        GameLog.debug(() -> "Porte resettate: " + doorCount + " porte sono ora chiuse");
     }
-    
+
     /**
      * Controlla se una porta è bloccata
      * @param fromRoomId stanza di partenza
      * @param direction direzione
      * @return true se la porta è bloccata
      */
-    public boolean isDoorLocked(int fromRoomId, String direction) {
-        String doorKey = fromRoomId + "-" + direction;
-        return lockedDoors.containsKey(doorKey) && 
-               !unlockedDoors.getOrDefault(doorKey, false);
+    public boolean isDoorLocked(int fromRoomId, Direction direction) {
+        int door = doorKey(fromRoomId, direction);
+        return requiredKey(door) != NO_DOOR && !unlockedDoors.get(door);
     }
-    
+
     /**
-     * Tenta di attraversare una porta
+     * Tenta di attraversare una porta, sbloccandola se il giocatore ha la
+     * chiave
      * @param gameDescription stato del gioco
      * @param fromRoomId stanza di partenza
      * @param direction direzione
-     * @return messaggio risultato
+     * @return esito del passaggio
      */
-    public String attemptDoorPassage(GameDescription gameDescription, int fromRoomId, String direction) {
-        String doorKey = fromRoomId + "-" + direction;
-        
-        if (!isDoorLocked(fromRoomId, direction)) {
-            return ""; // Porta non bloccata
+    public DoorPassage attemptDoorPassage(GameDescription gameDescription, int fromRoomId, Direction direction) {
+        int door = doorKey(fromRoomId, direction);
+        int requiredKeyId = requiredKey(door);
+
+        if (requiredKeyId == NO_DOOR || unlockedDoors.get(door)) {
+            return DoorPassage.OPEN; // Porta non bloccata
         }
-        
-        int requiredKeyId = lockedDoors.get(doorKey);
-        
+
         // Controlla se il giocatore ha la chiave
         if (GameUtils.getObjectFromInventory(gameDescription.getInventory(), requiredKeyId) != null) {
-            // Sblocca la porta
-            unlockedDoors.put(doorKey, true);
-            
-            String keyName = getKeyName(requiredKeyId);
-            return "Hai usato " + keyName + " per aprire la porta!";
-        } else {
-            String keyName = getKeyName(requiredKeyId);
-            return "La porta è chiusa a chiave. Ti serve: " + keyName + ".";
+            unlockedDoors.set(door);
+            return DoorPassage.UNLOCKED;
         }
+        return DoorPassage.LOCKED;
+    }
+
+    /**
+     * Controlla, senza sbloccare nulla, se il giocatore può attraversare una
+     * porta: è aperta oppure ha la chiave
+     * @param gameDescription stato del gioco
+     * @param fromRoomId stanza di partenza
+     * @param direction direzione
+     * @return true se il passaggio è possibile
+     */
+    public boolean canPass(GameDescription gameDescription, int fromRoomId, Direction direction) {
+        int door = doorKey(fromRoomId, direction);
+        int requiredKeyId = requiredKey(door);
+        return requiredKeyId == NO_DOOR || unlockedDoors.get(door)
+                || GameUtils.getObjectFromInventory(gameDescription.getInventory(), requiredKeyId) != null;
     }
-    
+
+    /**
+     * Restituisce il messaggio da mostrare per l'esito di un passaggio
+     * @param passage esito di attemptDoorPassage
+     * @param fromRoomId stanza di partenza
+     * @param direction direzione
+     * @return messaggio, vuoto se la porta era aperta
+     */
+    public String getPassageMessage(DoorPassage passage, int fromRoomId, Direction direction) {
+        String keyName = getKeyName(requiredKey(doorKey(fromRoomId, direction)));
+        return switch (passage) {
+            case OPEN ->
+                "";
+            case UNLOCKED ->
+                "Hai usato " + keyName + " per aprire la porta!";
+            case LOCKED ->
+                "La porta è chiusa a chiave. Ti serve: " + keyName + ".";
+        };
+    }
+
     /**
      * Forza l'apertura di una porta (amministratore/debug)
      * @param fromRoomId stanza di partenza
      * @param direction direzione
      */
-    public void unlockDoor(int fromRoomId, String direction) {
-        String doorKey = fromRoomId + "-" + direction;
-        unlockedDoors.put(doorKey, true);
+    public void unlockDoor(int fromRoomId, Direction direction) {
+        if (fromRoomId >= 0) {
+            unlockedDoors.set(doorKey(fromRoomId, direction));
+        }
     }
-    
+
     /**
      * Restituisce il nome della chiave richiesta
      * @param keyId ID della chiave
@@ -135,49 +163,64 @@ public class DoorSystem {
                 return "chiave sconosciuta";
         }
     }
-    
+
     /**
-     * Restituisce lo stato di tutte le porte
-     * @return mappa con stato porte
+     * Restituisce lo stato di tutte le porte, per i salvataggi
+     * @return mappa "roomId-direction" -> sbloccata
      */
     public Map<String, Boolean> getAllDoorsStatus() {
-        Map<String, Boolean> status = new HashMap<>();
-        for (String doorKey : lockedDoors.keySet()) {
-            status.put(doorKey, !isDoorLocked(Integer.parseInt(doorKey.split("-")[0]), doorKey.split("-")[1]));
+        Map<String, Boolean> status = new LinkedHashMap<>();
+        for (int door = 0; door < requiredKeys.length; door++) {
+            if (requiredKeys[door] != NO_DOOR) {
+                status.put((door / 4) + "-" + Direction.fromOrdinal(door % 4).getKey(), unlockedDoors.get(door));
+            }
         }
         return status;
     }
-    
+
     /**
      * Controlla se una porta esiste (è stata definita come bloccabile)
      * @param fromRoomId stanza di partenza
      * @param direction direzione
      * @return true se la porta è definita nel sistema
      */
-    public boolean doorExists(int fromRoomId, String direction) {
-        String doorKey = fromRoomId + "-" + direction;
-        return lockedDoors.containsKey(doorKey);
+    public boolean doorExists(int fromRoomId, Direction direction) {
+        return requiredKey(doorKey(fromRoomId, direction)) != NO_DOOR;
     }
-    
+
     /**
      * Aggiunge una nuova porta bloccata
-     * @param fromRoomId stanza di partenza
+     * @param fromRoomId stanza di partenza (non negativa)
      * @param direction direzione
      * @param requiredKeyId ID della chiave richiesta
      */
-    public void addLockedDoor(int fromRoomId, String direction, int requiredKeyId) {
-        String doorKey = fromRoomId + "-" + direction;
-        lockedDoors.put(doorKey, requiredKeyId);
+    public void addLockedDoor(int fromRoomId, Direction direction, int requiredKeyId) {
+        if (fromRoomId < 0) {
+            throw new IllegalArgumentException("ID stanza non valido: " + fromRoomId);
+        }
+        int door = doorKey(fromRoomId, direction);
+        if (door >= requiredKeys.length) {
+            int oldLength = requiredKeys.length;
+            requiredKeys = Arrays.copyOf(requiredKeys, Math.max(oldLength * 2, door + 1));
+            Arrays.fill(requiredKeys, oldLength, requiredKeys.length, NO_DOOR);
+        }
+        if (requiredKeys[door] == NO_DOOR) {
+            doorCount++;
+        }
+        requiredKeys[door] = requiredKeyId;
     }
-    
+
     /**
      * Rimuove una porta dal sistema
      * @param fromRoomId stanza di partenza
      * @param direction direzione
      */
-    public void removeDoor(int fromRoomId, String direction) {
-        String doorKey = fromRoomId + "-" + direction;
-        lockedDoors.remove(doorKey);
-        unlockedDoors.remove(doorKey);
+    public void removeDoor(int fromRoomId, Direction direction) {
+        int door = doorKey(fromRoomId, direction);
+        if (requiredKey(door) != NO_DOOR) {
+            requiredKeys[door] = NO_DOOR;
+            doorCount--;
+            unlockedDoors.clear(door);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,276 @@
+package com.mycompany.theblackmountain.systems;
+
+import com.mycompany.theblackmountain.GameDescription;
+import com.mycompany.theblackmountain.type.Direction;
+import com.mycompany.theblackmountain.type.Room;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Grafo delle stanze per le domande di raggiungibilità e di percorso.
+ *
+ * Le uscite delle stanze vengono copiate una volta in array di interi
+ * (formato CSR): gli archi della stanza i sono quelli da offsets[i] a
+ * offsets[i + 1] - 1. Quali archi si possono attraversare è indicato da un
+ * BitSet sugli indici degli archi, calcolato da passableEdges() in base alle
+ * porte chiuse e alle chiavi del giocatore.
+ *
+ * Le visite in ampiezza (BFS) sono memorizzate per stanza di partenza finché
+ * la maschera degli archi non cambia. Ogni passaggio ha lo stesso costo, quindi
+ * la BFS trova già il percorso più breve.
+ *
+ * Non è thread-safe: ogni partita ha il suo grafo.
+ *
+ * @author vince
+ */
+public final class RoomGraph {
+
+    private static final int NONE = -1;
+
+    private final int[] roomIds;     // indice -> ID stanza
+    private final int[] indexById;   // ID stanza -> indice, NONE se assente
+    private final int[] offsets;     // indice -> primo arco, lunghezza n + 1
+    private final int[] targets;     // arco -> indice stanza di arrivo
+    private final byte[] directions; // arco -> ordinale della direzione
+    private final BitSet allEdges;
+
+    // BFS memorizzate per la maschera cachedEdges
+    private BitSet cachedEdges;
+    private final int[][] parentEdges; // partenza -> arco usato per arrivare, NONE se non raggiunta
+    private final int[][] distances;   // partenza -> numero di passi, NONE se non raggiunta
+    private final int[] queue;
+
+    private RoomGraph(int[] roomIds, int[] indexById, int[] offsets, int[] targets, byte[] directions) {
+        this.roomIds = roomIds;
+        this.indexById = indexById;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.directions = directions;
+        this.allEdges = new BitSet(targets.length);
+        allEdges.set(0, targets.length);
+        this.parentEdges = new int[roomIds.length][];
+        this.distances = new int[roomIds.length][];
+        this.queue = new int[roomIds.length];
+    }
+
+    /**
+     * Costruisce il grafo dalle uscite delle stanze già collegate (dal
+     * database o dalla fotografia del mondo).
+     *
+     * @param rooms stanze del gioco
+     * @return grafo delle stanze
+     */
+    public static RoomGraph fromRooms(List<Room> rooms) {
+        int n = rooms.size();
+        int[] roomIds = new int[n];
+        int maxId = -1;
+        for (int i = 0; i < n; i++) {
+            roomIds[i] = rooms.get(i).getId();
+            if (roomIds[i] < 0) {
+                throw new IllegalArgumentException("ID stanza non valido: " + roomIds[i]);
+            }
+            maxId = Math.max(maxId, roomIds[i]);
+        }
+        int[] indexById = new int[maxId + 1];
+        Arrays.fill(indexById, NONE);
+        for (int i = 0; i < n; i++) {
+            indexById[roomIds[i]] = i;
+        }
+
+        Direction[] allDirections = Direction.values();
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[n * allDirections.length];
+        byte[] directions = new byte[targets.length];
+        int edges = 0;
+        for (int i = 0; i < n; i++) {
+            offsets[i] = edges;
+            Room room = rooms.get(i);
+            for (Direction direction : allDirections) {
+                Room exit = direction.getExit(room);
+                if (exit != null && exit.getId() <= maxId && indexById[exit.getId()] != NONE) {
+                    targets[edges] = indexById[exit.getId()];
+                    directions[edges] = (byte) direction.ordinal();
+                    edges++;
+                }
+            }
+        }
+        offsets[n] = edges;
+        return new RoomGraph(roomIds, indexById, offsets,
+                Arrays.copyOf(targets, edges), Arrays.copyOf(directions, edges));
+    }
+
+    /**
+     * @return numero di stanze
+     */
+    public int roomCount() {
+        return roomIds.length;
+    }
+
+    /**
+     * @return numero di passaggi tra stanze
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * @return true se la stanza fa parte del grafo
+     */
+    public boolean contains(int roomId) {
+        return indexOf(roomId) != NONE;
+    }
+
+    private int indexOf(int roomId) {
+        return roomId >= 0 && roomId < indexById.length ? indexById[roomId] : NONE;
+    }
+
+    /**
+     * @return maschera con tutti i passaggi, ignorando le porte
+     */
+    public BitSet allEdges() {
+        return (BitSet) allEdges.clone();
+    }
+
+    /**
+     * Calcola i passaggi attraversabili ora: quelli senza porta chiusa e
+     * quelli di cui il giocatore ha la chiave.
+     *
+     * @param doors sistema delle porte
+     * @param gameDescription stato del gioco, per l'inventario
+     * @return maschera degli archi attraversabili
+     */
+    public BitSet passableEdges(DoorSystem doors, GameDescription gameDescription) {
+        BitSet edges = new BitSet(targets.length);
+        for (int i = 0; i < roomIds.length; i++) {
+            for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                if (doors == null || doors.canPass(gameDescription, roomIds[i], Direction.fromOrdinal(directions[e]))) {
+                    edges.set(e);
+                }
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Percorso più breve tra due stanze.
+     *
+     * @param fromRoomId stanza di partenza
+     * @param toRoomId stanza di arrivo
+     * @param edges archi attraversabili
+     * @return direzioni da seguire (vuoto se le stanze coincidono), o null
+     * se l'arrivo non è raggiungibile
+     */
+    public Direction[] findPath(int fromRoomId, int toRoomId, BitSet edges) {
+        int from = indexOf(fromRoomId);
+        int to = indexOf(toRoomId);
+        if (from == NONE || to == NONE) {
+            return null;
+        }
+        search(from, edges);
+        int steps = distances[from][to];
+        if (steps == NONE) {
+            return null;
+        }
+        int[] parents = parentEdges[from];
+        Direction[] path = new Direction[steps];
+        for (int node = to, step = steps - 1; step >= 0; step--) {
+            int edge = parents[node];
+            path[step] = Direction.fromOrdinal(directions[edge]);
+            node = sourceOf(edge);
+        }
+        return path;
+    }
+
+    /**
+     * @return numero minimo di passaggi tra due stanze, -1 se non
+     * raggiungibile
+     */
+    public int distance(int fromRoomId, int toRoomId, BitSet edges) {
+        int from = indexOf(fromRoomId);
+        int to = indexOf(toRoomId);
+        if (from == NONE || to == NONE) {
+            return NONE;
+        }
+        search(from, edges);
+        return distances[from][to];
+    }
+
+    /**
+     * Stanze raggiungibili da una stanza, compresa la stanza stessa.
+     *
+     * @param fromRoomId stanza di partenza
+     * @param edges archi attraversabili
+     * @return insieme degli ID delle stanze raggiungibili
+     */
+    public BitSet reachableRooms(int fromRoomId, BitSet edges) {
+        BitSet reachable = new BitSet();
+        int from = indexOf(fromRoomId);
+        if (from == NONE) {
+            return reachable;
+        }
+        search(from, edges);
+        int[] dist = distances[from];
+        for (int i = 0; i < dist.length; i++) {
+            if (dist[i] != NONE) {
+                reachable.set(roomIds[i]);
+            }
+        }
+        return reachable;
+    }
+
+    /**
+     * Esegue la BFS dalla stanza from, se non è già in cache per questa
+     * maschera.
+     */
+    private void search(int from, BitSet edges) {
+        if (!edges.equals(cachedEdges)) {
+            cachedEdges = (BitSet) edges.clone();
+            Arrays.fill(parentEdges, null);
+            Arrays.fill(distances, null);
+        }
+        if (distances[from] != null) {
+            return;
+        }
+
+        int n = roomIds.length;
+        int[] parents = new int[n];
+        int[] dist = new int[n];
+        Arrays.fill(parents, NONE);
+        Arrays.fill(dist, NONE);
+        dist[from] = 0;
+        queue[0] = from;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int node = queue[head++];
+            for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+                int next = targets[e];
+                if (dist[next] == NONE && edges.get(e)) {
+                    dist[next] = dist[node] + 1;
+                    parents[next] = e;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        parentEdges[from] = parents;
+        distances[from] = dist;
+    }
+
+    /**
+     * @return indice della stanza da cui parte l'arco
+     */
+    private int sourceOf(int edge) {
+        int low = 0;
+        int high = roomIds.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets[mid] <= edge) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+}
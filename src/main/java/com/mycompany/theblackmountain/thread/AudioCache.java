@@ -0,0 +1,157 @@
+package com.mycompany.theblackmountain.thread;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+
+/**
+ * Cache dei brani audio già decodificati, condivisa da tutta l'applicazione.
+ *
+ * I brani vengono convertiti una sola volta nel formato di uscita di
+ * AudioEngine e conservati come PCM; quando si supera il budget vengono
+ * rimossi quelli usati meno di recente. Il budget predefinito si cambia con
+ * -Dtbm.audioCacheMB=N. Thread-safe.
+ *
+ * @author vince
+ */
+public class AudioCache {
+
+    // Budget predefinito della cache, modificabile con -Dtbm.audioCacheMB=N
+    private static final long DEFAULT_CACHE_MB = 64;
+
+    private static AudioCache instance;
+
+    private final Map<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxBytes;
+    private long currentBytes;
+
+    // Statistiche
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong decodes = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public AudioCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public static synchronized AudioCache getInstance() {
+        if (instance == null) {
+            instance = new AudioCache(Long.getLong("tbm.audioCacheMB", DEFAULT_CACHE_MB) * 1024 * 1024);
+        }
+        return instance;
+    }
+
+    /**
+     * Restituisce il PCM del brano, decodificandolo se non è in cache.
+     *
+     * @param resource percorso della risorsa audio
+     * @return campioni nel formato AudioEngine.FORMAT, o null se il brano non
+     * esiste o non si può decodificare
+     */
+    public byte[] get(String resource) {
+        synchronized (this) {
+            byte[] pcm = entries.get(resource);
+            if (pcm != null) {
+                hits.incrementAndGet();
+                return pcm;
+            }
+        }
+
+        // Decodifica fuori dal lock: altri brani restano disponibili
+        byte[] pcm = decode(resource);
+        if (pcm == null) {
+            return null;
+        }
+        decodes.incrementAndGet();
+
+        synchronized (this) {
+            byte[] existing = entries.get(resource);
+            if (existing != null) {
+                return existing; // Decodificato nel frattempo da un altro thread
+            }
+            if (pcm.length <= maxBytes) {
+                entries.put(resource, pcm);
+                currentBytes += pcm.length;
+                evictToBudget();
+            }
+            return pcm;
+        }
+    }
+
+    /**
+     * @return true se il brano è già decodificato in cache
+     */
+    public synchronized boolean contains(String resource) {
+        return entries.containsKey(resource);
+    }
+
+    private void evictToBudget() {
+        Iterator<Map.Entry<String, byte[]>> it = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            currentBytes -= it.next().getValue().length;
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private byte[] decode(String resource) {
+        try (AudioInputStream stream = openStream(resource)) {
+            if (stream == null) {
+                return null;
+            }
+            ByteArrayOutputStream pcm = new ByteArrayOutputStream();
+            stream.transferTo(pcm);
+            return pcm.toByteArray();
+        } catch (Exception e) {
+            System.err.println("Errore decodifica audio " + resource + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Apre una risorsa audio convertita nel formato di AudioEngine.
+     *
+     * @param resource percorso della risorsa audio
+     * @return flusso già convertito, o null se la risorsa non esiste
+     * @throws Exception se il file non è leggibile o non è convertibile
+     */
+    static AudioInputStream openStream(String resource) throws Exception {
+        InputStream in = AudioCache.class.getResourceAsStream(resource);
+        if (in == null) {
+            System.err.println("File audio non trovato: " + resource);
+            return null;
+        }
+        AudioInputStream source = AudioSystem.getAudioInputStream(new BufferedInputStream(in));
+        AudioFormat format = source.getFormat();
+        if (format.matches(AudioEngine.FORMAT)) {
+            return source;
+        }
+        // Prima a PCM 16 bit con la frequenza originale, poi al formato di uscita
+        AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), 16,
+                format.getChannels(), format.getChannels() * 2, format.getSampleRate(), false);
+        AudioInputStream decoded = format.matches(pcm) ? source : AudioSystem.getAudioInputStream(pcm, source);
+        return AudioSystem.getAudioInputStream(AudioEngine.FORMAT, decoded);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    /**
+     * @return informazioni sulla cache (dimensione, hit, decodifiche,
+     * rimozioni)
+     */
+    public synchronized String getInfo() {
+        return String.format("Brani: %d, memoria: %d/%d KB, hit: %d, decodifiche: %d, rimozioni: %d",
+                entries.size(), currentBytes / 1024, maxBytes / 1024,
+                hits.get(), decodes.get(), evictions.get());
+    }
+}
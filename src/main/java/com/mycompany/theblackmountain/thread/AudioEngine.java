@@ -0,0 +1,424 @@
+package com.mycompany.theblackmountain.thread;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+ * Riproduzione della musica su un'unica SourceDataLine.
+ *
+ * Un thread daemon mescola i brani attivi a blocchi di CHUNK_FRAMES frame e
+ * li scrive sulla linea, che scandisce il ritmo. Ogni brano ha un guadagno
+ * che si sposta linearmente verso un obiettivo: così le dissolvenze e le
+ * dissolvenze incrociate tra musica di gioco e musica cinematica sono
+ * continue, senza buchi né scatti, perché la linea non viene mai riaperta.
+ *
+ * I brani già decodificati in AudioCache vengono letti dal PCM; gli altri
+ * vengono letti e convertiti a blocchi direttamente dalla risorsa, senza
+ * tenerli interi in memoria né decodificarli nel thread che li avvia. I brani
+ * in loop letti a blocchi riaprono la risorsa quando finisce.
+ *
+ * @author vince
+ */
+public class AudioEngine implements Runnable {
+
+    /**
+     * Formato di uscita: tutti i brani vengono convertiti in questo formato
+     */
+    public static final AudioFormat FORMAT = new AudioFormat(44100f, 16, 2, true, false);
+
+    private static final int FRAME_BYTES = 4;
+    private static final int CHUNK_FRAMES = 1024; // circa 23 ms
+    private static final int LINE_BUFFER_CHUNKS = 8;
+
+    private static AudioEngine instance;
+
+    // Brani attivi, protetti da synchronized (this)
+    private final List<Voice> voices = new ArrayList<>();
+    private boolean lineUnavailable;
+
+    // Usati solo dal thread di mixaggio
+    private final float[] mix = new float[CHUNK_FRAMES * 2];
+    private final byte[] readBuffer = new byte[CHUNK_FRAMES * FRAME_BYTES];
+    private final byte[] output = new byte[CHUNK_FRAMES * FRAME_BYTES];
+    private Voice[] active = new Voice[4];
+    private SourceDataLine line;
+    private Thread thread;
+
+    AudioEngine() {
+    }
+
+    public static synchronized AudioEngine getInstance() {
+        if (instance == null) {
+            instance = new AudioEngine();
+        }
+        return instance;
+    }
+
+    /**
+     * Avvia un brano in dissolvenza; tutti gli altri brani sfumano nello
+     * stesso tempo.
+     *
+     * @param resource percorso della risorsa audio
+     * @param loop true per ripetere il brano
+     * @param gainDb volume del brano in dB (0 = originale)
+     * @param fadeMillis durata della dissolvenza
+     * @return true se il brano è stato avviato
+     */
+    public boolean crossfadeTo(String resource, boolean loop, float gainDb, int fadeMillis) {
+        AudioSource source = openSource(resource, loop);
+        if (source == null) {
+            return false;
+        }
+        synchronized (this) {
+            if (lineUnavailable) {
+                source.close();
+                return false;
+            }
+            for (Voice voice : voices) {
+                voice.fadeOut(fadeMillis);
+            }
+            Voice voice = new Voice(resource, source);
+            voice.fadeTo(dbToGain(gainDb), fadeMillis);
+            voices.add(voice);
+            ensureThread();
+            notifyAll();
+        }
+        return true;
+    }
+
+    /**
+     * Sfuma e ferma un brano.
+     */
+    public synchronized void fadeOut(String resource, int fadeMillis) {
+        for (Voice voice : voices) {
+            if (voice.resource.equals(resource)) {
+                voice.fadeOut(fadeMillis);
+            }
+        }
+    }
+
+    /**
+     * Porta un brano a un nuovo volume senza fermarlo.
+     *
+     * @param gainDb volume in dB, Float.NEGATIVE_INFINITY per il silenzio
+     */
+    public synchronized void setGain(String resource, float gainDb, int fadeMillis) {
+        for (Voice voice : voices) {
+            if (voice.resource.equals(resource) && !voice.stopping) {
+                voice.fadeTo(dbToGain(gainDb), fadeMillis);
+            }
+        }
+    }
+
+    /**
+     * @return true se il brano è in riproduzione e non sta sfumando per
+     * fermarsi
+     */
+    public synchronized boolean isPlaying(String resource) {
+        for (Voice voice : voices) {
+            if (voice.resource.equals(resource) && !voice.stopping) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ferma subito tutti i brani.
+     */
+    public synchronized void stopAll() {
+        for (Voice voice : voices) {
+            voice.fadeOut(0);
+        }
+    }
+
+    private AudioSource openSource(String resource, boolean loop) {
+        AudioCache cache = AudioCache.getInstance();
+        if (cache.contains(resource)) {
+            byte[] pcm = cache.get(resource);
+            return pcm != null && pcm.length >= FRAME_BYTES ? new PcmSource(pcm, loop) : null;
+        }
+        try {
+            AudioInputStream stream = AudioCache.openStream(resource);
+            return stream != null ? new StreamSource(resource, stream, loop) : null;
+        } catch (Exception e) {
+            System.err.println("Errore apertura audio " + resource + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void ensureThread() {
+        if (thread == null) {
+            thread = new Thread(this, "AudioEngine");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MAX_PRIORITY);
+            thread.start();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                if (isIdle()) {
+                    // Svuota la linea fuori dal lock: chi avvia un brano non resta bloccato
+                    if (line != null && line.isRunning()) {
+                        line.drain();
+                        if (isIdle()) {
+                            line.stop();
+                        }
+                    }
+                    synchronized (this) {
+                        while (voices.isEmpty()) {
+                            wait();
+                        }
+                    }
+                }
+                if (!openLine()) {
+                    return;
+                }
+                int bytes = mix(output);
+                line.write(output, 0, bytes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized boolean isIdle() {
+        return voices.isEmpty();
+    }
+
+    private boolean openLine() {
+        if (line != null) {
+            if (!line.isRunning()) {
+                line.start();
+            }
+            return true;
+        }
+        try {
+            line = AudioSystem.getSourceDataLine(FORMAT);
+            line.open(FORMAT, CHUNK_FRAMES * FRAME_BYTES * LINE_BUFFER_CHUNKS);
+            line.start();
+            return true;
+        } catch (Exception e) {
+            System.err.println("Uscita audio non disponibile: " + e.getMessage());
+            synchronized (this) {
+                lineUnavailable = true;
+                for (Voice voice : voices) {
+                    voice.source.close();
+                }
+                voices.clear();
+                thread = null;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Mescola un blocco di tutti i brani attivi e rimuove quelli finiti.
+     *
+     * @param out destinazione, PCM nel formato FORMAT
+     * @return byte scritti in out
+     */
+    int mix(byte[] out) {
+        int count;
+        synchronized (this) {
+            count = voices.size();
+            if (active.length < count) {
+                active = new Voice[count * 2];
+            }
+            voices.toArray(active);
+        }
+
+        Arrays.fill(mix, 0f);
+        for (int v = 0; v < count; v++) {
+            Voice voice = active[v];
+            int frames = voice.source.read(readBuffer, CHUNK_FRAMES);
+            for (int f = 0, i = 0; f < frames; f++) {
+                float gain = voice.nextGain();
+                for (int c = 0; c < 2; c++, i++) {
+                    short sample = (short) ((readBuffer[i * 2] & 0xff) | (readBuffer[i * 2 + 1] << 8));
+                    mix[i] += sample * gain;
+                }
+            }
+            if (frames < CHUNK_FRAMES || (voice.stopping && voice.gain <= 0f)) {
+                voice.finished = true;
+            }
+            active[v] = null;
+            if (voice.finished) {
+                synchronized (this) {
+                    voices.remove(voice);
+                }
+                voice.source.close();
+            }
+        }
+
+        for (int i = 0; i < mix.length; i++) {
+            int sample = Math.round(mix[i]);
+            sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, sample));
+            out[i * 2] = (byte) sample;
+            out[i * 2 + 1] = (byte) (sample >> 8);
+        }
+        return CHUNK_FRAMES * FRAME_BYTES;
+    }
+
+    private static float dbToGain(float db) {
+        return db == Float.NEGATIVE_INFINITY ? 0f : (float) Math.pow(10.0, db / 20.0);
+    }
+
+    /**
+     * Brano in riproduzione con il suo guadagno
+     */
+    private static final class Voice {
+        private final String resource;
+        private final AudioSource source;
+        // Scritti sotto il lock dell'engine, letti dal thread di mixaggio
+        private volatile float targetGain;
+        private volatile float step;
+        private volatile boolean stopping;
+        private volatile float gain;
+        private boolean finished;
+
+        Voice(String resource, AudioSource source) {
+            this.resource = resource;
+            this.source = source;
+        }
+
+        void fadeTo(float target, int fadeMillis) {
+            int frames = Math.max(1, (int) (FORMAT.getFrameRate() * fadeMillis / 1000));
+            targetGain = target;
+            step = Math.abs(target - gain) / frames;
+        }
+
+        void fadeOut(int fadeMillis) {
+            stopping = true;
+            fadeTo(0f, fadeMillis);
+        }
+
+        float nextGain() {
+            float target = targetGain;
+            if (gain < target) {
+                gain = Math.min(target, gain + step);
+            } else if (gain > target) {
+                gain = Math.max(target, gain - step);
+            }
+            return gain;
+        }
+    }
+
+    /**
+     * Sorgente di frame nel formato FORMAT
+     */
+    private interface AudioSource {
+
+        /**
+         * @return frame letti; meno di frames solo a fine brano
+         */
+        int read(byte[] buffer, int frames);
+
+        void close();
+    }
+
+    /**
+     * Brano già decodificato in memoria
+     */
+    private static final class PcmSource implements AudioSource {
+        private final byte[] pcm;
+        private final boolean loop;
+        private int position;
+
+        PcmSource(byte[] pcm, boolean loop) {
+            this.pcm = pcm;
+            this.loop = loop;
+        }
+
+        @Override
+        public int read(byte[] buffer, int frames) {
+            int wanted = frames * FRAME_BYTES;
+            int length = pcm.length - pcm.length % FRAME_BYTES;
+            int copied = 0;
+            while (copied < wanted) {
+                if (position >= length) {
+                    if (!loop) {
+                        break;
+                    }
+                    position = 0; // Ricomincia senza pause
+                }
+                int n = Math.min(wanted - copied, length - position);
+                System.arraycopy(pcm, position, buffer, copied, n);
+                position += n;
+                copied += n;
+            }
+            return copied / FRAME_BYTES;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Brano letto e convertito a blocchi dalla risorsa
+     */
+    private static final class StreamSource implements AudioSource {
+        private final String resource;
+        private final boolean loop;
+        private AudioInputStream stream;
+
+        StreamSource(String resource, AudioInputStream stream, boolean loop) {
+            this.resource = resource;
+            this.stream = stream;
+            this.loop = loop;
+        }
+
+        @Override
+        public int read(byte[] buffer, int frames) {
+            int wanted = frames * FRAME_BYTES;
+            int read = 0;
+            boolean restarted = false;
+            try {
+                while (read < wanted) {
+                    int n = stream.read(buffer, read, wanted - read);
+                    if (n > 0) {
+                        read += n;
+                        restarted = false;
+                    } else if (n < 0) {
+                        // Fine del brano: in loop si riapre senza pause (una volta per blocco vuoto)
+                        if (!loop || restarted || !reopen()) {
+                            break;
+                        }
+                        restarted = true;
+                    }
+                }
+            } catch (Exception e) {
+                System.err.println("Errore lettura audio: " + e.getMessage());
+            }
+            return read / FRAME_BYTES;
+        }
+
+        private boolean reopen() throws Exception {
+            close();
+            AudioInputStream next = AudioCache.openStream(resource);
+            if (next == null) {
+                return false;
+            }
+            stream = next;
+            return true;
+        }
+
+        @Override
+        public void close() {
+            try {
+                stream.close();
+            } catch (Exception e) {
+                // Ignora errori in chiusura
+            }
+        }
+    }
+}
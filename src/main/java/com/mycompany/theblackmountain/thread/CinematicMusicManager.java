@@ -1,17 +1,23 @@
 package com.mycompany.theblackmountain.thread;
 
-import java.io.InputStream;
-import java.io.BufferedInputStream;
-import javax.sound.sampled.*;
+import com.mycompany.theblackmountain.log.GameLog;
 
 /**
  * Manager per la musica cinematica (intro e outro)
  *
+ * I brani vengono letti a blocchi da AudioEngine ed entrano in dissolvenza
+ * incrociata con la musica in corso.
+ *
  * @author vince
  */
 public class CinematicMusicManager {
 
-    private Clip currentClip;
+    // Volume leggermente ridotto
+    private static final float CINEMATIC_GAIN_DB = -5.0f;
+    private static final int CROSSFADE_MS = 2000;
+    private static final int STOP_FADE_MS = 800;
+
+    private String currentTrack;
 
     /**
      * Avvia la musica dell'intro
@@ -47,31 +53,10 @@ public class CinematicMusicManager {
     private void playMusic(String fileName) {
         stopCurrentMusic(); // Ferma la musica precedente
 
-        try {
-            InputStream audioStream = getClass().getResourceAsStream("/audio/" + fileName);
-            if (audioStream == null) {
-                System.err.println("File audio non trovato: " + fileName);
-                return;
-            }
-
-            AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(
-                    new BufferedInputStream(audioStream)
-            );
-
-            currentClip = AudioSystem.getClip();
-            currentClip.open(audioInputStream);
-
-            // Imposta volume se supportato
-            if (currentClip.isControlSupported(FloatControl.Type.MASTER_GAIN)) {
-                FloatControl volumeControl = (FloatControl) currentClip.getControl(FloatControl.Type.MASTER_GAIN);
-                volumeControl.setValue(volumeControl.getMaximum() - 5.0f); // Volume leggermente ridotto
-            }
-
-            currentClip.start();
-            System.out.println("Musica cinematica avviata: " + fileName);
-
-        } catch (Exception e) {
-            System.err.println("Errore riproduzione musica " + fileName + ": " + e.getMessage());
+        String track = "/audio/" + fileName;
+        if (AudioEngine.getInstance().crossfadeTo(track, false, CINEMATIC_GAIN_DB, CROSSFADE_MS)) {
+            currentTrack = track;
+            GameLog.info("Musica cinematica avviata: " + fileName);
         }
     }
 
@@ -79,10 +64,9 @@ public class CinematicMusicManager {
      * Ferma la musica corrente
      */
     private void stopCurrentMusic() {
-        if (currentClip != null) {
-            currentClip.stop();
-            currentClip.close();
-            currentClip = null;
+        if (currentTrack != null) {
+            AudioEngine.getInstance().fadeOut(currentTrack, STOP_FADE_MS);
+            currentTrack = null;
         }
     }
 }
@@ -1,23 +1,34 @@
 package com.mycompany.theblackmountain.thread;
 
-import java.io.InputStream;
-import java.io.BufferedInputStream;
-import javax.sound.sampled.*;
-
 /**
- * Singleton per gestire la musica di background
+ * Singleton per gestire la musica di background.
+ *
+ * La musica viene suonata in loop da AudioEngine, dal PCM di AudioCache se è
+ * già stata decodificata con preloadMusic(), altrimenti letta a blocchi dal
+ * file: startMusic() non decodifica mai nel thread chiamante. Attivare o
+ * disattivare l'audio cambia solo il volume con una breve dissolvenza.
+ *
  * @author vince
  */
 public class MusicManager {
     private static MusicManager instance;
     
-    private Clip audioClip;
+    private static final String BACKGROUND_MUSIC = "/audio/background_music.wav";
+    
+    // Volume normale (-10 dB dal massimo)
+    private static final float MUSIC_GAIN_DB = -10.0f;
+    
+    // Durata delle dissolvenze all'avvio/arresto e quando si attiva/disattiva l'audio
+    private static final int FADE_MS = 1500;
+    private static final int TOGGLE_FADE_MS = 300;
+    
     private boolean musicEnabled = true;
-    private FloatControl volumeControl;
+    // true tra startMusic() e stopMusic()
+    private boolean musicRequested;
     
     private MusicManager() {}
     
-    public static MusicManager getInstance() {
+    public static synchronized MusicManager getInstance() {
         if (instance == null) {
             instance = new MusicManager();
         }
@@ -25,81 +36,53 @@ public class MusicManager {
     }
     
     /**
-     * Avvia la musica di background
+     * Decodifica in memoria la musica di background, così il loop non deve
+     * rileggere il file. Da chiamare in un thread in background.
+     */
+    public void preloadMusic() {
+        AudioCache.getInstance().get(BACKGROUND_MUSIC);
+    }
+    
+    /**
+     * Avvia la musica di background, in dissolvenza incrociata con quella in
+     * corso
      */
-    public void startMusic() {
-        if (audioClip != null && audioClip.isRunning()) {
+    public synchronized void startMusic() {
+        musicRequested = true;
+        AudioEngine engine = AudioEngine.getInstance();
+        if (engine.isPlaying(BACKGROUND_MUSIC)) {
             return; // Già in esecuzione
         }
-        
-        try {
-            stopMusic(); // Ferma eventuali clip precedenti
-            
-            InputStream audioStream = getClass().getResourceAsStream("/audio/background_music.wav");
-            if (audioStream == null) {
-                System.err.println("File audio non trovato: background_music.wav");
-                return;
-            }
-            
-            AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(
-                new BufferedInputStream(audioStream)
-            );
-            
-            audioClip = AudioSystem.getClip();
-            audioClip.open(audioInputStream);
-            
-            // Ottieni controllo volume
-            if (audioClip.isControlSupported(FloatControl.Type.MASTER_GAIN)) {
-                volumeControl = (FloatControl) audioClip.getControl(FloatControl.Type.MASTER_GAIN);
-            }
-            
-            // Imposta volume iniziale
-            updateVolume();
-            
-            // Avvia in loop
-            audioClip.loop(Clip.LOOP_CONTINUOUSLY);
-            
-        } catch (Exception e) {
-            System.err.println("Errore avvio musica: " + e.getMessage());
-        }
+        engine.crossfadeTo(BACKGROUND_MUSIC, true, currentGainDb(), FADE_MS);
     }
     
     /**
      * Ferma la musica
      */
-    public void stopMusic() {
-        if (audioClip != null) {
-            audioClip.stop();
-            audioClip.close();
-            audioClip = null;
-            volumeControl = null;
-        }
+    public synchronized void stopMusic() {
+        musicRequested = false;
+        AudioEngine.getInstance().fadeOut(BACKGROUND_MUSIC, FADE_MS);
     }
     
     /**
      * Abilita/disabilita la musica
      */
-    public void setMusicEnabled(boolean enabled) {
+    public synchronized void setMusicEnabled(boolean enabled) {
         this.musicEnabled = enabled;
-        updateVolume();
+        AudioEngine engine = AudioEngine.getInstance();
+        if (enabled && musicRequested && !engine.isPlaying(BACKGROUND_MUSIC)) {
+            // La musica è stata sfumata da un brano cinematico: riprende
+            engine.crossfadeTo(BACKGROUND_MUSIC, true, currentGainDb(), FADE_MS);
+        } else {
+            engine.setGain(BACKGROUND_MUSIC, currentGainDb(), TOGGLE_FADE_MS);
+        }
     }
     
-    /**
-     * Aggiorna il volume in base alle impostazioni
-     */
-    private void updateVolume() {
-        if (volumeControl != null) {
-            if (musicEnabled) {
-                // Volume normale (-10 dB dal massimo)
-                volumeControl.setValue(volumeControl.getMaximum() - 10.0f);
-            } else {
-                // Silenzioso
-                volumeControl.setValue(volumeControl.getMinimum());
-            }
-        }
+    private float currentGainDb() {
+        return musicEnabled ? MUSIC_GAIN_DB : Float.NEGATIVE_INFINITY;
     }
     
     public boolean isMusicEnabled() {
         return musicEnabled;
     }
-}
\ No newline at end of file
+}
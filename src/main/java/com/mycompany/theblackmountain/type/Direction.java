@@ -0,0 +1,108 @@
+package com.mycompany.theblackmountain.type;
+
+/**
+ * Direzioni di movimento tra le stanze.
+ *
+ * L'ordine è quello usato nei salvataggi e nella chiave delle porte di
+ * DoorSystem: non va cambiato.
+ *
+ * @author vince
+ */
+public enum Direction {
+
+    /**
+     * Nord
+     */
+    NORTH("north", "nord"),
+    /**
+     * Sud
+     */
+    SOUTH("south", "sud"),
+    /**
+     * Est
+     */
+    EAST("east", "est"),
+    /**
+     * Ovest
+     */
+    WEST("west", "ovest");
+
+    private static final Direction[] VALUES = values();
+
+    private final String key;
+    private final String displayName;
+
+    Direction(String key, String displayName) {
+        this.key = key;
+        this.displayName = displayName;
+    }
+
+    /**
+     * @return nome usato nei salvataggi ("north", "south", ...)
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return nome italiano da mostrare al giocatore
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * @return stanza raggiunta da room in questa direzione, o null
+     */
+    public Room getExit(Room room) {
+        return switch (this) {
+            case NORTH ->
+                room.getNorth();
+            case SOUTH ->
+                room.getSouth();
+            case EAST ->
+                room.getEast();
+            case WEST ->
+                room.getWest();
+        };
+    }
+
+    /**
+     * @return direzione del comando di movimento, o null se il comando non è
+     * un movimento
+     */
+    public static Direction fromCommand(CommandType type) {
+        return switch (type) {
+            case NORD ->
+                NORTH;
+            case SOUTH ->
+                SOUTH;
+            case EAST ->
+                EAST;
+            case WEST ->
+                WEST;
+            default ->
+                null;
+        };
+    }
+
+    /**
+     * @param key nome usato nei salvataggi
+     * @return direzione corrispondente o null
+     */
+    public static Direction fromKey(String key) {
+        for (Direction direction : VALUES) {
+            if (direction.key.equals(key)) {
+                return direction;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return direzione con l'ordinale indicato
+     */
+    public static Direction fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
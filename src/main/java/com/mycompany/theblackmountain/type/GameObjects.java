@@ -14,6 +14,9 @@ import java.util.Set;
  */
 public class GameObjects {
 
+    // Cresce a ogni cambio di nome o alias di un qualsiasi oggetto
+    private static volatile int namesVersion;
+
     private final int id;
 
     private String name;
@@ -90,6 +93,7 @@ public class GameObjects {
      */
     public void setName(String name) {
         this.name = name;
+        namesVersion++;
     }
 
     /**
@@ -202,6 +206,7 @@ public class GameObjects {
      */
     public void setAlias(Set<String> alias) {
         this.alias = alias;
+        namesVersion++;
     }
     
     /**
@@ -210,6 +215,15 @@ public class GameObjects {
      */
     public void setAlias(String[] alias) {
         this.alias = new HashSet<>(Arrays.asList(alias));
+        namesVersion++;
+    }
+
+    /**
+     * @return versione dei nomi e degli alias degli oggetti, cambia a ogni
+     * setName() o setAlias()
+     */
+    public static int getNamesVersion() {
+        return namesVersion;
     }
 
     /**
@@ -0,0 +1,32 @@
+package com.mycompany.theblackmountain.type;
+
+import java.util.ArrayList;
+
+/**
+ * Lista di oggetti (di una stanza o dell'inventario) che conta le proprie
+ * modifiche.
+ *
+ * Il contatore cresce a ogni aggiunta, rimozione, riordino o sostituzione di
+ * un elemento: chi tiene dati calcolati sulla lista (come l'indice del
+ * parser) confronta il contatore invece di riscandire gli elementi.
+ *
+ * @author vince
+ */
+public class ObjectList extends ArrayList<GameObjects> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @return numero di modifiche subite dalla lista
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    @Override
+    public GameObjects set(int index, GameObjects element) {
+        // ArrayList non conta le sostituzioni
+        modCount++;
+        return super.set(index, element);
+    }
+}
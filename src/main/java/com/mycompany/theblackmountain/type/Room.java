@@ -2,6 +2,7 @@ package com.mycompany.theblackmountain.type;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 public class Room {
     private final int id;
@@ -9,6 +10,8 @@ public class Room {
     private String name;
     private String description;
     private String look;
+    private String originalDescription;
+    private String originalLook;
     private boolean visible = true;
 
     private Room south = null;
@@ -16,7 +19,7 @@ public class Room {
     private Room east = null;
     private Room west = null;
 
-    private final List<GameObjects> objects = new ArrayList<>();
+    private final List<GameObjects> objects = new ObjectList();
     private final List<GameCharacter> enemies = new ArrayList<>();
 
     public Room(int id) {
@@ -64,6 +67,29 @@ public class Room {
         this.look = look;
     }
 
+    /**
+     * Memorizza il testo attuale come testo originale della stanza, da
+     * chiamare dopo il caricamento dal database.
+     */
+    public void markTextAsOriginal() {
+        this.originalDescription = description;
+        this.originalLook = look;
+    }
+
+    /**
+     * @return true se la descrizione è diversa da quella originale
+     */
+    public boolean isDescriptionModified() {
+        return !Objects.equals(description, originalDescription);
+    }
+
+    /**
+     * @return true se il testo "osserva" è diverso da quello originale
+     */
+    public boolean isLookModified() {
+        return !Objects.equals(look, originalLook);
+    }
+
     public boolean isVisible() {
         return visible;
     }
@@ -4,6 +4,8 @@
  */
 package com.mycompany.theblackmountain.type;
 
+import java.util.random.RandomGenerator;
+
 /**
  * Classe che rappresenta un'arma nel gioco
  *
@@ -68,13 +70,14 @@ public class Weapon extends GameObjects {
      * Calcola il danno totale dell'arma
      *
      * @param baseDamage danno base del personaggio
+     * @param random generatore della partita
      * @return danno totale
      */
-    public int calculateDamage(int baseDamage) {
+    public int calculateDamage(int baseDamage, RandomGenerator random) {
         int totalDamage = baseDamage + attackBonus;
 
         // Controllo critico
-        if (Math.random() * 100 < criticalChance) {
+        if (random.nextDouble() * 100 < criticalChance) {
             totalDamage *= criticalMultiplier;
             return totalDamage; // Il danno critico include già il veleno se presente
         }
@@ -102,10 +105,11 @@ public class Weapon extends GameObjects {
     /**
      * Verifica se l'attacco è critico
      *
+     * @param random generatore della partita
      * @return true se l'attacco è critico
      */
-    public boolean isCriticalHit() {
-        return Math.random() * 100 < criticalChance;
+    public boolean isCriticalHit(RandomGenerator random) {
+        return random.nextDouble() * 100 < criticalChance;
     }
 
     /**